@@ -0,0 +1,247 @@
+package com.facsculator.bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexArray;
+import com.facsculator.ComplexFormatter;
+import com.facsculator.ComplexNumber;
+import com.facsculator.ExpressionJit;
+import com.facsculator.ExpressionKernel;
+import com.facsculator.TokenBuffer;
+import com.facsculator.Tokenizer;
+
+/**
+ * Orçamentos de alocação dos caminhos críticos: cada verificação declara
+ * quantos bytes uma operação pode alocar, e o processo termina com código 1
+ * se alguma passar do orçamento. O Maven roda esta classe na fase 'verify'
+ * (exec-maven-plugin), então um 'substring' esquecido no Tokenizer ou um
+ * ComplexNumber temporário em 'divide' quebram o build.
+ *
+ * A medição usa ThreadMXBean.getCurrentThreadAllocatedBytes (exato, sem
+ * amostragem) em volta de {@link #OPERATIONS} chamadas, depois de
+ * {@link #WARMUP_OPERATIONS} chamadas de aquecimento para o JIT; vale a
+ * menor de {@link #ROUNDS} rodadas. Os resultados são guardados em um campo,
+ * e os orçamentos contam o objeto devolvido (ex: 32 bytes por ComplexNumber,
+ * com compressed oops).
+ *
+ * O Maven roda a JVM com -XX:-DoEscapeAnalysis: com ela ligada, o C2 elimina
+ * temporários de métodos pequenos inlinados (como os de um 'divide' que
+ * chamasse conjugate() e multiply()), e a regressão só apareceria em
+ * chamadores grandes demais para o inlining. Sem ela, a medição conta o que
+ * o código aloca, de forma determinística.
+ *
+ * Uso:
+ * <pre>
+ *   java -XX:-DoEscapeAnalysis -cp benchmarks.jar com.facsculator.bench.AllocationBudgets [regex]
+ * </pre>
+ * O regex opcional escolhe as verificações pelo nome (ex: "Tokenizer").
+ */
+public final class AllocationBudgets {
+
+    private static final int WARMUP_OPERATIONS = 50_000;
+    private static final int OPERATIONS = 10_000;
+    private static final int ROUNDS = 5;
+
+    /** O tamanho de um ComplexNumber (cabeçalho de 12 bytes + 2 doubles, alinhado a 8). */
+    private static final int COMPLEX_NUMBER = 32;
+
+    private static final String EXPRESSION = "(6+2i) * y - 25 / (1+i**2) + root[3](x**2.5) * conj(z)";
+    private static final int LENGTH = 1024;
+
+    /** Guarda o resultado de cada operação (impede a eliminação por análise de escape). */
+    private static Object sink;
+
+    /** Uma operação medida; o valor devolvido vai para 'sink'. */
+    @FunctionalInterface
+    interface Operation {
+        Object run() throws Exception;
+    }
+
+    /**
+     * Uma verificação.
+     *
+     * @param name O nome exibido (e filtrado pelo regex).
+     * @param budget Bytes permitidos por operação.
+     * @param operation A operação.
+     */
+    record Check(String name, long budget, Operation operation) {
+    }
+
+    private AllocationBudgets() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Pattern filter = Pattern.compile(args.length > 0 ? args[0] : ".*");
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Medição de alocação por thread não suportada nesta JVM; verificação ignorada.");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        boolean exceeded = false;
+        System.out.printf("%-50s %12s %12s%n", "Verificação", "B/op", "Orçamento");
+        for (Check check : checks()) {
+            if (!filter.matcher(check.name()).find()) {
+                continue;
+            }
+            double bytes = measure(threads, check.operation());
+            boolean over = bytes > check.budget();
+            exceeded |= over;
+            System.out.printf("%-50s %12.1f %12d%s%n", check.name(), bytes, check.budget(),
+                    over ? "   <-- ACIMA DO ORÇAMENTO" : "");
+        }
+        if (exceeded) {
+            System.out.println("Alguma operação alocou mais que o seu orçamento.");
+            System.exit(1);
+        }
+    }
+
+    /** @return Os bytes alocados por operação (a menor de ROUNDS rodadas). */
+    private static double measure(com.sun.management.ThreadMXBean threads, Operation operation) throws Exception {
+        for (int i = 0; i < WARMUP_OPERATIONS; i++) {
+            sink = operation.run();
+        }
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < OPERATIONS; i++) {
+                sink = operation.run();
+            }
+            best = Math.min(best, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+        return (double) best / OPERATIONS;
+    }
+
+    // --- Verificações ---
+
+    private static List<Check> checks() throws Exception {
+        List<Check> checks = new ArrayList<>();
+        tokenizer(checks);
+        scalar(checks);
+        bulk(checks);
+        evaluation(checks);
+        formatting(checks);
+        return checks;
+    }
+
+    private static void tokenizer(List<Check> checks) throws Exception {
+        Tokenizer tokenizer = new Tokenizer();
+        TokenBuffer buffer = new TokenBuffer();
+        int tokens = new Tokenizer(EXPRESSION).tokenize().size();
+
+        // Modo sem cópia: só intervalos em arrays reutilizados
+        checks.add(new Check("Tokenizer.tokenize(TokenBuffer)", 0, () -> {
+            tokenizer.reset(EXPRESSION).tokenize(buffer);
+            return buffer;
+        }));
+        // Lista de Tokens: até 96 bytes por token (o Token de 40 bytes, o texto de
+        // números e variáveis e o crescimento do ArrayList)
+        checks.add(new Check("Tokenizer.tokenize() (" + tokens + " tokens)", tokens * 96L, () ->
+                tokenizer.reset(EXPRESSION).tokenize()));
+    }
+
+    private static void scalar(List<Check> checks) {
+        ComplexNumber a = new ComplexNumber(3.25, -4.5);
+        ComplexNumber b = new ComplexNumber(-1.75, 2.125);
+
+        // Uma operação aritmética aloca só o resultado
+        checks.add(new Check("ComplexNumber.sum", COMPLEX_NUMBER, () -> a.sum(b)));
+        checks.add(new Check("ComplexNumber.subtract", COMPLEX_NUMBER, () -> a.subtract(b)));
+        checks.add(new Check("ComplexNumber.multiply", COMPLEX_NUMBER, () -> a.multiply(b)));
+        checks.add(new Check("ComplexNumber.divide", COMPLEX_NUMBER, () -> a.divide(b)));
+        checks.add(new Check("ComplexNumber.conjugate", COMPLEX_NUMBER, () -> a.conjugate()));
+        checks.add(new Check("ComplexNumber.power(2.5)", COMPLEX_NUMBER, () -> a.power(2.5)));
+        checks.add(new Check("ComplexNumber.nthRoot(3)", COMPLEX_NUMBER, () -> a.nthRoot(3)));
+        // Funções elementares: o resultado e o par double[2] de ComplexFunctions.apply
+        checks.add(new Check("ComplexNumber.exp", 2 * COMPLEX_NUMBER, () -> a.exp()));
+        checks.add(new Check("ComplexNumber.sin", 2 * COMPLEX_NUMBER, () -> a.sin()));
+    }
+
+    private static void bulk(List<Check> checks) {
+        Random random = new Random(42);
+        ComplexArray x = new ComplexArray(LENGTH);
+        ComplexArray y = new ComplexArray(LENGTH);
+        for (int i = 0; i < LENGTH; i++) {
+            x.set(i, random.nextDouble() * 4 - 2, random.nextDouble() * 4 - 2);
+            y.set(i, random.nextDouble() + 1, random.nextDouble() + 1);
+        }
+        ComplexArray first = new ComplexArray(LENGTH);
+        ComplexArray second = new ComplexArray(LENGTH);
+        double[] magnitudes = new double[LENGTH];
+
+        // Operações em lote: nada por elemento nem por chamada
+        checks.add(new Check("ComplexArray.add (" + LENGTH + ")", 0, () -> {
+            x.add(y, first);
+            return first;
+        }));
+        checks.add(new Check("ComplexArray.multiply (" + LENGTH + ")", 0, () -> {
+            x.multiply(y, first);
+            return first;
+        }));
+        checks.add(new Check("ComplexArray.divide (" + LENGTH + ")", 0, () -> {
+            x.divide(y, first);
+            return first;
+        }));
+        checks.add(new Check("ComplexArray.magnitude (" + LENGTH + ")", 0, () -> {
+            x.magnitude(magnitudes);
+            return magnitudes;
+        }));
+        checks.add(new Check("ComplexArray.exp (" + LENGTH + ")", 0, () -> {
+            x.exp(first);
+            return first;
+        }));
+        checks.add(new Check("ComplexArray.sinCos (" + LENGTH + ")", 0, () -> {
+            x.sinCos(first, second);
+            return second;
+        }));
+    }
+
+    private static void evaluation(List<Check> checks) throws Exception {
+        CompiledExpression compiled = CompiledExpression.compile("(6+2i) * y - 25 / (3+i) + root[3](y**2.5) * exp(y)");
+        ExpressionKernel kernel = ExpressionJit.compile(compiled);
+        double[] varReal = {0.7};
+        double[] varImaginary = {-0.3};
+        double[] regReal = new double[compiled.size()];
+        double[] regImaginary = new double[compiled.size()];
+        double[] out = new double[2];
+
+        // Avaliação sobre registradores primitivos: nenhum objeto
+        checks.add(new Check("CompiledExpression.evaluate (registradores)", 0, () -> {
+            compiled.evaluate(varReal, varImaginary, regReal, regImaginary);
+            return regReal;
+        }));
+        checks.add(new Check("ExpressionJit kernel.evaluate", 0, () -> {
+            kernel.evaluate(varReal, varImaginary, out);
+            return out;
+        }));
+    }
+
+    private static void formatting(List<Check> checks) {
+        ComplexNumber value = new ComplexNumber(3.25, -4.5);
+        StringBuilder line = new StringBuilder(64);
+        ComplexArray values = new ComplexArray(256);
+        for (int i = 0; i < values.length(); i++) {
+            values.set(i, i * 0.125 - 16, 1.5 - i);
+        }
+        StringBuilder text = new StringBuilder(values.length() * 32);
+
+        // Escrita em um StringBuilder reutilizado: nenhuma String intermediária
+        checks.add(new Check("ComplexFormatter.appendTo", 0, () -> {
+            line.setLength(0);
+            return ComplexFormatter.appendTo(value, line);
+        }));
+        checks.add(new Check("ComplexFormatter.appendAll (256)", 0, () -> {
+            text.setLength(0);
+            return ComplexFormatter.appendAll(values, ", ", text);
+        }));
+        // toString(): o StringBuilder(24) de trabalho (64 bytes) e a String devolvida (56 bytes)
+        checks.add(new Check("ComplexNumber.toString", 128, value::toString));
+    }
+}
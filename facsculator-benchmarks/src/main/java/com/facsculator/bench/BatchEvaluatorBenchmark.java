@@ -0,0 +1,113 @@
+package com.facsculator.bench;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.BatchEvaluator;
+import com.facsculator.CompiledExpression;
+import com.facsculator.ExpressionJit;
+import com.facsculator.ExpressionKernel;
+
+/**
+ * Mede a avaliação de uma fórmula sobre uma coluna de 2^20 valores de 'y':
+ * o BatchEvaluator com 1 a 8 threads versus um laço em uma única thread
+ * sobre o kernel gerado.
+ *
+ * A fórmula de App.TesteFase2 divide por 1+i**2 = 0 e falha em todos os
+ * elementos; a outra falha só onde y = -1.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchEvaluatorBenchmark {
+
+    static final int LENGTH = 1 << 20;
+
+    @Param({"(6+2i) * y - 25 / (1+i**2)", "(6+2i) * y - 25 / (1+y)"})
+    public String formula;
+
+    CompiledExpression compiled;
+    double[][] varReal;
+    double[][] varImaginary;
+    double[] outReal;
+    double[] outImaginary;
+
+    /** O pool de threads do lote, com 'threads' threads. */
+    @State(Scope.Benchmark)
+    public static class Pool {
+        @Param({"1", "2", "4", "8"})
+        public int threads;
+
+        ForkJoinPool pool;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            pool = new ForkJoinPool(threads);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            pool.shutdown();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        compiled = CompiledExpression.compile(formula);
+        Random random = new Random(42);
+        varReal = new double[1][LENGTH];
+        varImaginary = new double[1][LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            varReal[0][i] = random.nextInt(64) == 0 ? -1 : random.nextGaussian();
+            varImaginary[0][i] = varReal[0][i] == -1 ? 0 : random.nextGaussian();
+        }
+        outReal = new double[LENGTH];
+        outImaginary = new double[LENGTH];
+    }
+
+    @Benchmark
+    public BitSet batch(Pool pool) {
+        return new BatchEvaluator(compiled, pool.pool).evaluate(varReal, varImaginary, outReal, outImaginary);
+    }
+
+    /** Referência: uma thread, capturando a exceção de cada elemento inválido. */
+    @Benchmark
+    public int sequentialWithExceptions() {
+        ExpressionKernel kernel = ExpressionJit.compile(compiled);
+        double[] valueReal = new double[1];
+        double[] valueImaginary = new double[1];
+        double[] result = new double[2];
+        int errors = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            valueReal[0] = varReal[0][i];
+            valueImaginary[0] = varImaginary[0][i];
+            try {
+                kernel.evaluate(valueReal, valueImaginary, result);
+                outReal[i] = result[0];
+                outImaginary[i] = result[1];
+            } catch (ArithmeticException e) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,181 @@
+package com.facsculator.bench;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Ponto de entrada do 'benchmarks.jar'.
+ * Executa o JMH sempre com o perfilador 'gc' (taxa de alocação) e,
+ * opcionalmente, salva o resultado como baseline JSON ou compara a execução
+ * atual com um baseline salvo anteriormente.
+ *
+ * Uso:
+ * <pre>
+ *   java -jar benchmarks.jar [--save=base.json] [--compare=base.json]
+ *                            [--threshold=5] [opções do JMH...]
+ * </pre>
+ * As demais opções (ex: um regex de benchmarks, "-f 2", "-wi 3") são
+ * repassadas ao JMH sem alteração.
+ */
+public final class BenchmarkRunner {
+
+    /** Sufixo da métrica secundária de bytes alocados por operação. */
+    private static final String ALLOC_NORM = "gc.alloc.rate.norm";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String saveTo = null;
+        String compareWith = null;
+        double thresholdPercent = 5.0;
+        List<String> jmhArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--save=")) {
+                saveTo = arg.substring("--save=".length());
+            } else if (arg.startsWith("--compare=")) {
+                compareWith = arg.substring("--compare=".length());
+            } else if (arg.startsWith("--threshold=")) {
+                thresholdPercent = Double.parseDouble(arg.substring("--threshold=".length()));
+            } else {
+                jmhArgs.add(arg);
+            }
+        }
+
+        CommandLineOptions cmd = new CommandLineOptions(jmhArgs.toArray(new String[0]));
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+        if (saveTo != null) {
+            options.resultFormat(ResultFormatType.JSON).result(saveTo);
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        if (compareWith != null) {
+            boolean regressed = compare(loadBaseline(Path.of(compareWith)), results, thresholdPercent);
+            if (regressed) {
+                System.exit(1);
+            }
+        }
+    }
+
+    // --- Comparação com o Baseline ---
+
+    /** Uma medição: pontuação principal e bytes alocados por operação. */
+    private record Measurement(double score, String unit, double allocNorm) {
+    }
+
+    /**
+     * Lê um arquivo JSON gerado pelo JMH (formato "-rf json").
+     *
+     * @return As medições indexadas pela chave "benchmark:modo:params".
+     */
+    private static Map<String, Measurement> loadBaseline(Path file) throws IOException {
+        Map<String, Measurement> baseline = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+
+                Map<String, String> params = new TreeMap<>();
+                if (run.has("params")) {
+                    for (Map.Entry<String, JsonElement> p : run.getAsJsonObject("params").entrySet()) {
+                        params.put(p.getKey(), p.getValue().getAsString());
+                    }
+                }
+                String key = key(run.get("benchmark").getAsString(), run.get("mode").getAsString(), params);
+
+                JsonObject primary = run.getAsJsonObject("primaryMetric");
+                double alloc = Double.NaN;
+                if (run.has("secondaryMetrics")) {
+                    for (Map.Entry<String, JsonElement> m : run.getAsJsonObject("secondaryMetrics").entrySet()) {
+                        if (m.getKey().endsWith(ALLOC_NORM)) {
+                            alloc = m.getValue().getAsJsonObject().get("score").getAsDouble();
+                        }
+                    }
+                }
+                baseline.put(key, new Measurement(
+                        primary.get("score").getAsDouble(), primary.get("scoreUnit").getAsString(), alloc));
+            }
+        }
+        return baseline;
+    }
+
+    /**
+     * Imprime a variação de cada benchmark em relação ao baseline.
+     *
+     * @return true se algum benchmark piorou mais que 'thresholdPercent'.
+     */
+    private static boolean compare(Map<String, Measurement> baseline, Collection<RunResult> results,
+                                   double thresholdPercent) {
+        boolean regressed = false;
+        System.out.println();
+        System.out.println("--- Comparação com o baseline ---");
+        System.out.printf("%-70s %14s %14s %9s %12s %12s%n",
+                "Benchmark", "Baseline", "Atual", "Δ%", "B/op base", "B/op atual");
+
+        for (RunResult run : results) {
+            BenchmarkParams params = run.getParams();
+            Map<String, String> paramValues = new TreeMap<>();
+            for (String name : params.getParamsKeys()) {
+                paramValues.put(name, params.getParam(name));
+            }
+            String key = key(params.getBenchmark(), params.getMode().shortLabel(), paramValues);
+
+            Result<?> primary = run.getPrimaryResult();
+            double alloc = Double.NaN;
+            // getSecondaryResults() devolve Map<String, Result> (tipo cru): lido pela chave
+            for (String name : run.getSecondaryResults().keySet()) {
+                if (name.endsWith(ALLOC_NORM)) {
+                    Result<?> secondary = run.getSecondaryResults().get(name);
+                    alloc = secondary.getScore();
+                }
+            }
+
+            Measurement before = baseline.get(key);
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s %12s %12.1f%n",
+                        key, "-", primary.getScore(), "novo", "-", alloc);
+                continue;
+            }
+
+            // Em vazão (thrpt) maior é melhor; nos demais modos, menor é melhor
+            double delta = (primary.getScore() - before.score()) / before.score() * 100.0;
+            boolean higherIsBetter = params.getMode().shortLabel().equals("thrpt");
+            boolean worse = higherIsBetter ? delta < -thresholdPercent : delta > thresholdPercent;
+            regressed |= worse;
+
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12.1f %12.1f%s%n",
+                    key, before.score(), primary.getScore(), delta, before.allocNorm(), alloc,
+                    worse ? "  <-- REGRESSÃO" : "");
+        }
+        return regressed;
+    }
+
+    private static String key(String benchmark, String mode, Map<String, String> params) {
+        return benchmark + ":" + mode + (params.isEmpty() ? "" : ":" + params);
+    }
+}
@@ -0,0 +1,109 @@
+package com.facsculator.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexArray;
+import com.facsculator.ComplexColumnFile;
+import com.facsculator.ComplexFormatter;
+import com.facsculator.ComplexNumber;
+
+/**
+ * Compara a entrada e saída de 'size' valores complexos em texto (uma linha
+ * por valor, formatada por ComplexFormatter e lida por
+ * CompiledExpression.compile) com o ComplexColumnFile mapeado, nos dois
+ * layouts. Os arquivos ficam em um diretório temporário; como já estão no
+ * cache de páginas do sistema, mede-se o custo de CPU do formato.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnFileBenchmark {
+
+    @Param({"65536"})
+    public int size;
+
+    @Param({"SPLIT", "INTERLEAVED"})
+    public ComplexColumnFile.Layout layout;
+
+    private Path directory;
+    private Path file;
+    private ComplexArray values;
+    private ComplexArray buffer;
+    private String[] lines;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        values = new ComplexArray(size);
+        for (int i = 0; i < size; i++) {
+            values.real()[i] = random.nextGaussian();
+            values.imaginary()[i] = random.nextGaussian();
+        }
+        buffer = new ComplexArray(size);
+        lines = ComplexFormatter.formatAll(values);
+        directory = Files.createTempDirectory("facsculator-bench");
+        file = directory.resolve("values.fcc");
+        ComplexColumnFile.write(file, values, layout);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(directory.resolve("values.txt"));
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int writeText() throws IOException {
+        StringBuilder text = ComplexFormatter.appendAll(values, "\n", new StringBuilder());
+        Files.writeString(directory.resolve("values.txt"), text);
+        return text.length();
+    }
+
+    @Benchmark
+    public ComplexNumber readText() throws Exception {
+        ComplexNumber last = null;
+        for (String line : lines) {
+            last = CompiledExpression.compile(line).evaluate();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public long writeMapped() throws IOException {
+        try (ComplexColumnFile out = ComplexColumnFile.create(file, size, layout, false)) {
+            out.write(0, values.real(), values.imaginary(), 0, size);
+            return out.length();
+        }
+    }
+
+    @Benchmark
+    public ComplexArray readMapped() throws IOException {
+        try (ComplexColumnFile in = ComplexColumnFile.open(file)) {
+            in.read(0, buffer.real(), buffer.imaginary(), 0, size);
+            return buffer;
+        }
+    }
+}
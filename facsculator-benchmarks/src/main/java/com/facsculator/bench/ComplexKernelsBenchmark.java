@@ -0,0 +1,77 @@
+package com.facsculator.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexKernels;
+
+/**
+ * Compara o laço escalar com a implementação SIMD (Vector API) dos
+ * kernels em lote. O fork é iniciado com o módulo incubado, então
+ * "active" corresponde à versão vetorial quando o hardware a suporta.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class ComplexKernelsBenchmark {
+
+    @Param({"scalar", "active"})
+    public String impl;
+
+    @Param({"1024", "65536", "1048576"})
+    public int size;
+
+    private ComplexKernels kernels;
+    private double[] ar, ai, br, bi, dr, di;
+
+    @Setup
+    public void setup() {
+        kernels = impl.equals("scalar") ? ComplexKernels.scalar() : ComplexKernels.active();
+        Random random = new Random(42);
+        ar = random.doubles(size, -100, 100).toArray();
+        ai = random.doubles(size, -100, 100).toArray();
+        br = random.doubles(size, 1, 100).toArray();
+        bi = random.doubles(size, 1, 100).toArray();
+        dr = new double[size];
+        di = new double[size];
+    }
+
+    @Benchmark
+    public double[] sum() {
+        kernels.sum(ar, ai, br, bi, dr, di, size);
+        return dr;
+    }
+
+    @Benchmark
+    public double[] multiply() {
+        kernels.multiply(ar, ai, br, bi, dr, di, size);
+        return dr;
+    }
+
+    @Benchmark
+    public double[] divide() {
+        kernels.divide(ar, ai, br, bi, dr, di, size);
+        return dr;
+    }
+
+    @Benchmark
+    public double[] magnitude() {
+        kernels.magnitude(ar, ai, dr, size);
+        return dr;
+    }
+}
@@ -0,0 +1,142 @@
+package com.facsculator.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexLU;
+import com.facsculator.ComplexMatrix;
+import com.facsculator.ComplexNumber;
+
+/**
+ * Mede o produto de ComplexMatrix de 256 x 256 a 2048 x 2048 (em uma thread
+ * e no ForkJoinPool.commonPool()), a fatoração LU, solve e a inversa. Um
+ * produto de ordem n faz 8n³ operações de ponto flutuante: GFLOP/s =
+ * 8n³ / tempo.
+ *
+ * A referência é o triplo laço com ComplexNumber[][] (sum e multiply).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ComplexMatrixBenchmark {
+
+    /** Duas matrizes aleatórias de ordem 'size'. */
+    @State(Scope.Benchmark)
+    public static class Product {
+        @Param({"256", "1024", "2048"})
+        public int size;
+
+        ComplexMatrix a;
+        ComplexMatrix b;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            a = random(size, size, random);
+            b = random(size, size, random);
+        }
+    }
+
+    /** Uma matriz de ordem 'systemSize', sua LU e 16 lados direitos. */
+    @State(Scope.Benchmark)
+    public static class LinearSystem {
+        @Param({"256", "1024"})
+        public int systemSize;
+
+        ComplexMatrix a;
+        ComplexMatrix b;
+        ComplexLU lu;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            a = random(systemSize, systemSize, random);
+            b = random(systemSize, 16, random);
+            lu = a.lu();
+        }
+    }
+
+    /** As mesmas matrizes como ComplexNumber[][], só para tamanhos pequenos. */
+    @State(Scope.Benchmark)
+    public static class Naive {
+        @Param({"256"})
+        public int naiveSize;
+
+        ComplexNumber[][] a;
+        ComplexNumber[][] b;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            a = random(naiveSize, naiveSize, random).toComplexNumbers();
+            b = random(naiveSize, naiveSize, random).toComplexNumbers();
+        }
+    }
+
+    static ComplexMatrix random(int rows, int columns, Random random) {
+        ComplexMatrix m = new ComplexMatrix(rows, columns);
+        for (int i = 0; i < rows * columns; i++) {
+            m.real()[i] = random.nextGaussian();
+            m.imaginary()[i] = random.nextGaussian();
+        }
+        return m;
+    }
+
+    @Benchmark
+    public ComplexMatrix multiplySequential(Product p) {
+        return p.a.multiply(p.b, null);
+    }
+
+    @Benchmark
+    public ComplexMatrix multiplyParallel(Product p) {
+        return p.a.multiply(p.b, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public ComplexLU lu(LinearSystem s) {
+        return s.a.lu();
+    }
+
+    @Benchmark
+    public ComplexMatrix solve(LinearSystem s) {
+        return s.lu.solve(s.b);
+    }
+
+    @Benchmark
+    public ComplexMatrix inverse(LinearSystem s) {
+        return s.lu.inverse();
+    }
+
+    /** Referência: c[i][j] = Σ a[i][k].multiply(b[k][j]), como era feito à mão. */
+    @Benchmark
+    public ComplexNumber[][] naiveMultiply(Naive naive) {
+        int n = naive.naiveSize;
+        ComplexNumber[][] c = new ComplexNumber[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                ComplexNumber sum = new ComplexNumber(0, 0);
+                for (int k = 0; k < n; k++) {
+                    sum = sum.sum(naive.a[i][k].multiply(naive.b[k][j]));
+                }
+                c[i][j] = sum;
+            }
+        }
+        return c;
+    }
+}
@@ -0,0 +1,115 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexFormatter;
+import com.facsculator.ComplexNumber;
+
+/**
+ * Benchmarks das operações escalares do record ComplexNumber.
+ * Cada método mede uma única operação sobre operandos fixos, para que
+ * vazão, latência média e taxa de alocação (perfilador 'gc') sejam
+ * comparáveis entre versões.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComplexNumberBenchmark {
+
+    // Operandos não-finais para impedir que o JIT dobre as constantes
+    private ComplexNumber a;
+    private ComplexNumber b;
+    private double exponent;
+    private double fractionalExponent;
+    private int rootIndex;
+    private StringBuilder text;
+    private double[] rootsReal;
+    private double[] rootsImaginary;
+
+    @Setup
+    public void setup() {
+        a = new ComplexNumber(3, 4);      // 3 + 4i
+        b = new ComplexNumber(1.5, -2);   // 1.5 - 2i
+        exponent = 3;
+        fractionalExponent = 2.5;
+        rootIndex = 3;
+        text = new StringBuilder(32);
+        rootsReal = new double[16];
+        rootsImaginary = new double[16];
+    }
+
+    @Benchmark
+    public ComplexNumber sum() {
+        return a.sum(b);
+    }
+
+    @Benchmark
+    public ComplexNumber multiply() {
+        return a.multiply(b);
+    }
+
+    @Benchmark
+    public ComplexNumber divide() {
+        return a.divide(b);
+    }
+
+    @Benchmark
+    public ComplexNumber power() {
+        return a.power(exponent);
+    }
+
+    @Benchmark
+    public ComplexNumber powerFractional() {
+        return a.power(fractionalExponent);
+    }
+
+    @Benchmark
+    public ComplexNumber nthRoot() {
+        return a.nthRoot(rootIndex);
+    }
+
+    /** As 16 raízes 16-ésimas de 'a' (tabela de raízes da unidade em cache). */
+    @Benchmark
+    public double[] nthRoots() {
+        a.nthRoots(16, rootsReal, rootsImaginary);
+        return rootsReal;
+    }
+
+    /** As mesmas 16 raízes, uma chamada de power/cos/sin para cada uma. */
+    @Benchmark
+    public double[] nthRootsNaive() {
+        double r = Math.pow(a.magnitude(), 1.0 / 16);
+        double theta = a.phase();
+        for (int k = 0; k < 16; k++) {
+            double angle = (theta + 2 * Math.PI * k) / 16;
+            rootsReal[k] = r * Math.cos(angle);
+            rootsImaginary[k] = r * Math.sin(angle);
+        }
+        return rootsReal;
+    }
+
+    @Benchmark
+    public String format() {
+        return b.toString();
+    }
+
+    @Benchmark
+    public StringBuilder formatAppend() {
+        text.setLength(0);
+        return ComplexFormatter.appendTo(b, text);
+    }
+}
@@ -0,0 +1,124 @@
+package com.facsculator.bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexArray;
+import com.facsculator.ComplexNumber;
+
+/**
+ * Compara as funções elementares em lote de ComplexArray com o laço sobre
+ * ComplexNumber (um objeto e um par temporário por chamada), e sinCos /
+ * sinhCosh com as duas funções calculadas separadamente.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ElementaryFunctionsBenchmark {
+
+    @Param({"1024", "65536"})
+    public int size;
+
+    private ComplexArray values;
+    private ComplexNumber[] objects;
+    private ComplexArray first;
+    private ComplexArray second;
+    private ComplexNumber[] firstObjects;
+    private ComplexNumber[] secondObjects;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new ComplexArray(size);
+        objects = new ComplexNumber[size];
+        for (int i = 0; i < size; i++) {
+            values.set(i, random.nextDouble() * 6 - 3, random.nextDouble() * 6 - 3);
+            objects[i] = values.get(i);
+        }
+        first = new ComplexArray(size);
+        second = new ComplexArray(size);
+        firstObjects = new ComplexNumber[size];
+        secondObjects = new ComplexNumber[size];
+    }
+
+    @Benchmark
+    public ComplexArray expBulk() {
+        values.exp(first);
+        return first;
+    }
+
+    @Benchmark
+    public ComplexNumber[] expScalar() {
+        for (int i = 0; i < size; i++) {
+            firstObjects[i] = objects[i].exp();
+        }
+        return firstObjects;
+    }
+
+    @Benchmark
+    public ComplexArray logBulk() {
+        values.log(first);
+        return first;
+    }
+
+    @Benchmark
+    public ComplexNumber[] logScalar() {
+        for (int i = 0; i < size; i++) {
+            firstObjects[i] = objects[i].log();
+        }
+        return firstObjects;
+    }
+
+    /** sin e cos com um expm1, um sin e um cos reais por elemento. */
+    @Benchmark
+    public ComplexArray sinCosBulk() {
+        values.sinCos(first, second);
+        return second;
+    }
+
+    @Benchmark
+    public ComplexArray sinCosSeparate() {
+        values.sin(first);
+        values.cos(second);
+        return second;
+    }
+
+    @Benchmark
+    public ComplexNumber[] sinCosScalar() {
+        for (int i = 0; i < size; i++) {
+            firstObjects[i] = objects[i].sin();
+            secondObjects[i] = objects[i].cos();
+        }
+        return secondObjects;
+    }
+
+    @Benchmark
+    public ComplexArray sinhCoshBulk() {
+        values.sinhCosh(first, second);
+        return second;
+    }
+
+    @Benchmark
+    public ComplexNumber[] sinhCoshScalar() {
+        for (int i = 0; i < size; i++) {
+            firstObjects[i] = objects[i].sinh();
+            secondObjects[i] = objects[i].cosh();
+        }
+        return secondObjects;
+    }
+}
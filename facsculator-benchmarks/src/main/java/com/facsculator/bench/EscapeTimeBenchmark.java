@@ -0,0 +1,99 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexNumber;
+import com.facsculator.EscapeTimeRenderer;
+
+/**
+ * Mede o EscapeTimeRenderer no conjunto de Mandelbrot inteiro (800 x 600
+ * pixels, até 'maxIterations' iterações): o caminho rápido de z**2 + c em uma
+ * thread e no ForkJoinPool.commonPool(), e a mesma fórmula compilada.
+ *
+ * A referência é o laço z = z.multiply(z).sum(c) com ComplexNumber, que aloca
+ * dois objetos por iteração.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscapeTimeBenchmark {
+
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 600;
+
+    @State(Scope.Benchmark)
+    public static class Image {
+        @Param({"256", "4096"})
+        public int maxIterations;
+
+        EscapeTimeRenderer.Viewport viewport;
+        EscapeTimeRenderer quadratic;
+        EscapeTimeRenderer formula;
+        int[] iterations;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            viewport = new EscapeTimeRenderer.Viewport(-2.2, 0.8, -1.125, 1.125, WIDTH, HEIGHT);
+            quadratic = EscapeTimeRenderer.mandelbrot(maxIterations);
+            formula = EscapeTimeRenderer.mandelbrot(CompiledExpression.compile("z**2 + c"), maxIterations,
+                                                    EscapeTimeRenderer.DEFAULT_ESCAPE_RADIUS);
+            iterations = new int[viewport.pixels()];
+        }
+    }
+
+    @Benchmark
+    public int[] quadraticSequential(Image image) {
+        image.quadratic.render(image.viewport, image.iterations, null);
+        return image.iterations;
+    }
+
+    @Benchmark
+    public int[] quadraticParallel(Image image) {
+        image.quadratic.render(image.viewport, image.iterations, ForkJoinPool.commonPool());
+        return image.iterations;
+    }
+
+    @Benchmark
+    public int[] formulaParallel(Image image) {
+        image.formula.render(image.viewport, image.iterations, ForkJoinPool.commonPool());
+        return image.iterations;
+    }
+
+    /** Referência: z = z.multiply(z).sum(c), em uma thread. */
+    @Benchmark
+    public int[] naive(Image image) {
+        EscapeTimeRenderer.Viewport v = image.viewport;
+        double dx = (v.maxReal() - v.minReal()) / WIDTH;
+        double dy = (v.maxImaginary() - v.minImaginary()) / HEIGHT;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                ComplexNumber c = new ComplexNumber(v.minReal() + (x + 0.5) * dx, v.maxImaginary() - (y + 0.5) * dy);
+                ComplexNumber z = new ComplexNumber(0, 0);
+                int n = 0;
+                while (n < image.maxIterations && z.real() * z.real() + z.imaginary() * z.imaginary() <= 4) {
+                    z = z.multiply(z).sum(c);
+                    n++;
+                }
+                image.iterations[y * WIDTH + x] = n;
+            }
+        }
+        return image.iterations;
+    }
+}
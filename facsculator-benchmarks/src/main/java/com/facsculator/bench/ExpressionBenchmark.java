@@ -0,0 +1,93 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexNumber;
+import com.facsculator.ExpressionJit;
+import com.facsculator.ExpressionKernel;
+
+/**
+ * Mede a avaliação de uma expressão de ~50 nós: compilada uma única vez
+ * (interpretada ou com bytecode gerado) versus tokenizada, analisada e
+ * compilada a cada avaliação.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExpressionBenchmark {
+
+    /** 58 instruções depois de compilada. */
+    static final String FORMULA =
+            "((6+2i) * y - 25 / (1+i) + conj(y) * (2-i)) * (y - 3i) / (y + 4) "
+            + "- root[2](y * y + 1) + (y - 1) * (y + 1) / (2+3i) + y ** 2 - conj(y - 2i) * 0.5 + (1.5-i) / y";
+
+    private CompiledExpression compiled;
+    private ComplexNumber y;
+    private ExpressionKernel interpreted;
+    private ExpressionKernel generated;
+    private double[] varReal, varImaginary, regReal, regImaginary, out;
+
+    @Setup
+    public void setup() throws Exception {
+        compiled = CompiledExpression.compile(FORMULA);
+        y = new ComplexNumber(0.75, -1.25);
+        varReal = new double[] {y.real()};
+        varImaginary = new double[] {y.imaginary()};
+        regReal = new double[compiled.size()];
+        regImaginary = new double[compiled.size()];
+        out = new double[2];
+        interpreted = compiled.interpreted();
+        generated = ExpressionJit.compile(compiled);
+        if (!ExpressionJit.isGenerated(generated)) {
+            throw new IllegalStateException("A expressão deveria caber no limite do JIT");
+        }
+    }
+
+    /** Caminho sem alocação: registradores reutilizados. */
+    @Benchmark
+    public double compiledPrimitive() {
+        compiled.evaluate(varReal, varImaginary, regReal, regImaginary);
+        return regReal[compiled.resultRegister()];
+    }
+
+    /** Kernel interpretado (registradores em ThreadLocal). */
+    @Benchmark
+    public double interpretedKernel() {
+        interpreted.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    /** Kernel com bytecode gerado (classe oculta). */
+    @Benchmark
+    public double generatedKernel() {
+        generated.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    /** Caminho de conveniência, com ComplexNumber na entrada e na saída. */
+    @Benchmark
+    public ComplexNumber compiledBoxed() {
+        return compiled.evaluate(y);
+    }
+
+    /** Referência: re-tokeniza e re-analisa o texto a cada avaliação. */
+    @Benchmark
+    public ComplexNumber reparseEveryTime() throws Exception {
+        return CompiledExpression.compile(FORMULA).evaluate(y);
+    }
+}
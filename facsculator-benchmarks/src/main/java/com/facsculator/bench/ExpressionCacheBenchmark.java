@@ -0,0 +1,75 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ExpressionCache;
+
+/**
+ * Mede um acerto no ExpressionCache (com e sem espaços a normalizar, e com
+ * 4 threads lendo as mesmas fórmulas) versus compilar o texto a cada pedido.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionCacheBenchmark {
+
+    private ExpressionCache<CompiledExpression> cache;
+    private String[] formulas;
+    private String[] spacedFormulas;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        cache = ExpressionCache.compiled(1024);
+        formulas = new String[256];
+        spacedFormulas = new String[formulas.length];
+        for (int k = 0; k < formulas.length; k++) {
+            formulas[k] = "(6+2i) * y - 25 / (1+y) + y ** " + k;
+            spacedFormulas[k] = "  (6+2i) *  y - 25 / (1+y)   + y ** " + k + " ";
+            cache.get(formulas[k]);
+        }
+    }
+
+    @Benchmark
+    public CompiledExpression hit(Cursor cursor) throws Exception {
+        return cache.get(formulas[cursor.next++ & 255]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CompiledExpression hitConcurrent(Cursor cursor) throws Exception {
+        return cache.get(formulas[cursor.next++ & 255]);
+    }
+
+    /** O texto precisa ser normalizado (aloca a chave) antes da consulta. */
+    @Benchmark
+    public CompiledExpression hitNormalized(Cursor cursor) throws Exception {
+        return cache.get(spacedFormulas[cursor.next++ & 255]);
+    }
+
+    /** Referência: sem cache, tokeniza, analisa e compila a cada pedido. */
+    @Benchmark
+    public CompiledExpression compileEveryTime(Cursor cursor) throws Exception {
+        return CompiledExpression.compile(formulas[cursor.next++ & 255]);
+    }
+}
@@ -0,0 +1,41 @@
+package com.facsculator.bench;
+
+/**
+ * Expressões de entrada compartilhadas pelos benchmarks.
+ * Todas partem da expressão de teste de App.TesteFase2 e são repetidas
+ * (unidas por " + ") até atingir o tamanho desejado.
+ */
+final class Expressions {
+
+    /** A expressão usada em App.TesteFase2. */
+    static final String BASE = "(6+2i) * y - 25 / (1+i**2)";
+
+    private Expressions() {
+    }
+
+    /**
+     * Retorna a expressão correspondente ao tamanho pedido.
+     *
+     * @param size "SHORT" (a própria expressão base), "MEDIUM" (~10 termos)
+     * ou "LARGE" (~4 KB).
+     */
+    static String of(String size) {
+        switch (size) {
+            case "SHORT":  return BASE;
+            case "MEDIUM": return repeat(10);
+            case "LARGE":  return repeat(4096 / (BASE.length() + 3) + 1);
+            default: throw new IllegalArgumentException("Tamanho desconhecido: " + size);
+        }
+    }
+
+    private static String repeat(int terms) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < terms; t++) {
+            if (t > 0) {
+                sb.append(" + ");
+            }
+            sb.append('(').append(BASE).append(')');
+        }
+        return sb.toString();
+    }
+}
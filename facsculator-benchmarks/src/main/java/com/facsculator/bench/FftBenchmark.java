@@ -0,0 +1,119 @@
+package com.facsculator.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexNumber;
+import com.facsculator.FftPlan;
+
+/**
+ * Mede a FFT direta de FftPlan de 2^8 a 2^24 elementos (além de 1000, radix
+ * misto, e 1009, Bluestein), em uma thread e no ForkJoinPool.commonPool().
+ * Cada operação copia a entrada para o vetor de trabalho antes da
+ * transformada in-place.
+ *
+ * A referência é uma DFT direta, O(n²), escrita com ComplexNumber.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class FftBenchmark {
+
+    /** O plano e os vetores de 'size' elementos. */
+    @State(Scope.Benchmark)
+    public static class Vectors {
+        @Param({"256", "1000", "1009", "4096", "65536", "1048576", "16777216"})
+        public int size;
+
+        FftPlan plan;
+        double[] inputReal;
+        double[] inputImaginary;
+        double[] real;
+        double[] imaginary;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            plan = FftPlan.of(size);
+            Random random = new Random(42);
+            inputReal = new double[size];
+            inputImaginary = new double[size];
+            for (int i = 0; i < size; i++) {
+                inputReal[i] = random.nextGaussian();
+                inputImaginary[i] = random.nextGaussian();
+            }
+            real = new double[size];
+            imaginary = new double[size];
+        }
+
+        void reset() {
+            System.arraycopy(inputReal, 0, real, 0, size);
+            System.arraycopy(inputImaginary, 0, imaginary, 0, size);
+        }
+    }
+
+    @Benchmark
+    public double sequential(Vectors v) {
+        v.reset();
+        v.plan.forward(v.real, v.imaginary);
+        return v.real[1];
+    }
+
+    @Benchmark
+    public double parallel(Vectors v) {
+        v.reset();
+        v.plan.forward(v.real, v.imaginary, ForkJoinPool.commonPool());
+        return v.real[1];
+    }
+
+    /** A DFT direta, só para tamanhos pequenos. */
+    @State(Scope.Benchmark)
+    public static class Naive {
+        @Param({"256", "1024"})
+        public int naiveSize;
+
+        ComplexNumber[] input;
+        ComplexNumber[] roots;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            input = new ComplexNumber[naiveSize];
+            roots = new ComplexNumber[naiveSize];
+            for (int i = 0; i < naiveSize; i++) {
+                input[i] = new ComplexNumber(random.nextGaussian(), random.nextGaussian());
+                double angle = -2 * Math.PI * i / naiveSize;
+                roots[i] = new ComplexNumber(Math.cos(angle), Math.sin(angle));
+            }
+        }
+    }
+
+    @Benchmark
+    public ComplexNumber[] naiveDft(Naive naive) {
+        int n = naive.naiveSize;
+        ComplexNumber[] output = new ComplexNumber[n];
+        for (int k = 0; k < n; k++) {
+            ComplexNumber sum = new ComplexNumber(0, 0);
+            for (int j = 0; j < n; j++) {
+                sum = sum.sum(naive.input[j].multiply(naive.roots[(int) ((long) j * k % n)]));
+            }
+            output[k] = sum;
+        }
+        return output;
+    }
+}
@@ -0,0 +1,91 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexFormatter;
+import com.facsculator.Expr;
+import com.facsculator.Parser;
+import com.facsculator.Tokenizer;
+
+/**
+ * Mede o custo das métricas (Metrics): o mesmo ciclo tokenizar, analisar,
+ * avaliar e formatar, em um fork com -Dfacsculator.metrics=false (o padrão)
+ * e em outro com as métricas ligadas. Com as métricas desligadas, o tempo
+ * deve ser igual ao de antes da instrumentação; 'evaluateOff' e
+ * 'evaluateOn' isolam a etapa mais curta, onde a diferença aparece mais.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    private static final String EXPRESSION = "(6+2i) * y - 25 / (1+i**3)";
+
+    private Tokenizer tokenizer;
+    private CompiledExpression compiled;
+    private double[] varReal;
+    private double[] varImaginary;
+    private double[] regReal;
+    private double[] regImaginary;
+    private StringBuilder text;
+
+    @Setup
+    public void setup() throws Exception {
+        tokenizer = new Tokenizer();
+        compiled = CompiledExpression.compile(EXPRESSION);
+        varReal = new double[] {1};
+        varImaginary = new double[] {-1};
+        regReal = new double[compiled.size()];
+        regImaginary = new double[compiled.size()];
+        text = new StringBuilder();
+    }
+
+    private int pipeline() throws Exception {
+        Expr root = new Parser(tokenizer.reset(EXPRESSION).tokenize()).parse();
+        compiled.evaluate(varReal, varImaginary, regReal, regImaginary);
+        text.setLength(0);
+        int result = compiled.resultRegister();
+        ComplexFormatter.appendTo(regReal[result], regImaginary[result], text);
+        return text.length() + root.hashCode();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dfacsculator.metrics=false")
+    public int pipelineOff() throws Exception {
+        return pipeline();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dfacsculator.metrics=true")
+    public int pipelineOn() throws Exception {
+        return pipeline();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dfacsculator.metrics=false")
+    public double evaluateOff() {
+        compiled.evaluate(varReal, varImaginary, regReal, regImaginary);
+        return regReal[compiled.resultRegister()];
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Dfacsculator.metrics=true")
+    public double evaluateOn() {
+        compiled.evaluate(varReal, varImaginary, regReal, regImaginary);
+        return regReal[compiled.resultRegister()];
+    }
+}
@@ -0,0 +1,125 @@
+package com.facsculator.bench;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.DualExpression;
+import com.facsculator.NewtonSolver;
+
+/**
+ * Mede f e f' de "(z**3 - 1) / (z + 2i) + root[3](z**2.5)" em um ponto: uma
+ * passada da DualExpression contra a derivada central por diferenças finitas
+ * (três avaliações de CompiledExpression), e o NewtonSolver de z**3 - 1 sobre
+ * uma grade de 512 x 512 aproximações iniciais.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NewtonBenchmark {
+
+    private static final String FORMULA = "(z**3 - 1) / (z + 2i) + root[3](z**2.5)";
+    private static final int GRID = 512;
+    private static final double STEP = 1e-6;
+
+    @State(Scope.Thread)
+    public static class Point {
+        CompiledExpression compiled;
+        DualExpression dual;
+        double[] varReal = {0.7};
+        double[] varImaginary = {0.3};
+        double[] regReal;
+        double[] regImaginary;
+        double[] dReal;
+        double[] dImaginary;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            compiled = CompiledExpression.compile(FORMULA);
+            dual = compiled.differentiate("z");
+            int size = Math.max(compiled.size(), dual.size());
+            regReal = new double[size];
+            regImaginary = new double[size];
+            dReal = new double[size];
+            dImaginary = new double[size];
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Grid {
+        NewtonSolver sequential;
+        NewtonSolver parallel;
+        double[] real = new double[GRID * GRID];
+        double[] imaginary = new double[GRID * GRID];
+        int[] iterations = new int[GRID * GRID];
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            DualExpression function = CompiledExpression.compile("z**3 - 1").differentiate("z");
+            sequential = new NewtonSolver(function, Map.of(), NewtonSolver.DEFAULT_MAX_ITERATIONS,
+                                          NewtonSolver.DEFAULT_TOLERANCE, null);
+            parallel = new NewtonSolver(function, Map.of());
+        }
+
+        @Setup(Level.Invocation)
+        public void reset() {
+            for (int i = 0; i < real.length; i++) {
+                real[i] = -2 + 4.0 * (i % GRID) / (GRID - 1);
+                imaginary[i] = -2 + 4.0 * (i / GRID) / (GRID - 1);
+            }
+        }
+    }
+
+    /** f e f' em uma passada. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double dual(Point p) {
+        p.dual.evaluate(p.varReal, p.varImaginary, p.regReal, p.regImaginary, p.dReal, p.dImaginary);
+        int k = p.dual.resultRegister();
+        return p.regReal[k] + p.dReal[k] + p.dImaginary[k];
+    }
+
+    /** Referência: f(z) e (f(z + h) - f(z - h)) / 2h. */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double finiteDifference(Point p) {
+        int k = p.compiled.resultRegister();
+        double z = p.varReal[0];
+        p.compiled.evaluate(p.varReal, p.varImaginary, p.regReal, p.regImaginary);
+        double value = p.regReal[k];
+        p.varReal[0] = z + STEP;
+        p.compiled.evaluate(p.varReal, p.varImaginary, p.regReal, p.regImaginary);
+        double plusReal = p.regReal[k], plusImaginary = p.regImaginary[k];
+        p.varReal[0] = z - STEP;
+        p.compiled.evaluate(p.varReal, p.varImaginary, p.regReal, p.regImaginary);
+        p.varReal[0] = z;
+        return value + (plusReal - p.regReal[k]) / (2 * STEP) + (plusImaginary - p.regImaginary[k]) / (2 * STEP);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BitSet solveSequential(Grid grid) {
+        return grid.sequential.solve(grid.real, grid.imaginary, grid.iterations);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BitSet solveParallel(Grid grid) {
+        return grid.parallel.solve(grid.real, grid.imaginary, grid.iterations);
+    }
+}
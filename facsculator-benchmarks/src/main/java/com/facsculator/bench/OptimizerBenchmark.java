@@ -0,0 +1,77 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ExpressionJit;
+import com.facsculator.ExpressionKernel;
+import com.facsculator.Parser;
+
+/**
+ * Mede uma fórmula com constantes e subexpressões repetidas compilada com e
+ * sem o ExpressionOptimizer (kernels interpretado e gerado).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class OptimizerBenchmark {
+
+    static final String FORMULA =
+            "((1+i**2) * x + (2-i)**3 * y) / (x*y + 1) + conj(conj(x*y + 1)) * (x*y + 1) ** 1 "
+            + "- root[2](x*y + 1) * (2-i)**3 / (1+3i)";
+
+    private ExpressionKernel interpretedRaw, interpretedOptimized;
+    private ExpressionKernel generatedRaw, generatedOptimized;
+    private double[] varReal, varImaginary, out;
+
+    @Setup
+    public void setup() throws Exception {
+        CompiledExpression raw = CompiledExpression.compile(Parser.parse(FORMULA));
+        CompiledExpression optimized = CompiledExpression.compile(FORMULA);
+        interpretedRaw = raw.interpreted();
+        interpretedOptimized = optimized.interpreted();
+        generatedRaw = ExpressionJit.compile(raw);
+        generatedOptimized = ExpressionJit.compile(optimized);
+        varReal = new double[] {0.75, -0.5};
+        varImaginary = new double[] {-1.25, 2};
+        out = new double[2];
+    }
+
+    @Benchmark
+    public double interpretedRaw() {
+        interpretedRaw.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    @Benchmark
+    public double interpretedOptimized() {
+        interpretedOptimized.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    @Benchmark
+    public double generatedRaw() {
+        generatedRaw.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    @Benchmark
+    public double generatedOptimized() {
+        generatedOptimized.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+}
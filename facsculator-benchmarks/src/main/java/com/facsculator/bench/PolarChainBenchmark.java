@@ -0,0 +1,83 @@
+package com.facsculator.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexNumber;
+import com.facsculator.ExpressionJit;
+import com.facsculator.ExpressionKernel;
+import com.facsculator.PolarComplex;
+
+/**
+ * Mede uma cadeia de potências e raízes, root[3](z**2.5) ** 0.5: com
+ * ComplexNumber (cada passo converte para polar e volta), com PolarComplex
+ * (uma conversão na ida e outra na volta) e compilada, em que o
+ * CompiledExpression mantém os intermediários na forma polar.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PolarChainBenchmark {
+
+    static final String FORMULA = "root[3](z ** 2.5) ** 0.5";
+
+    private ComplexNumber z;
+    private double exponent;
+    private double outerExponent;
+    private int rootIndex;
+    private ExpressionKernel interpreted;
+    private ExpressionKernel generated;
+    private double[] varReal, varImaginary, out;
+
+    @Setup
+    public void setup() throws Exception {
+        z = new ComplexNumber(0.75, -1.25);
+        exponent = 2.5;
+        outerExponent = 0.5;
+        rootIndex = 3;
+        varReal = new double[] {z.real()};
+        varImaginary = new double[] {z.imaginary()};
+        out = new double[2];
+        CompiledExpression compiled = CompiledExpression.compile(FORMULA);
+        interpreted = compiled.interpreted();
+        generated = ExpressionJit.compile(compiled);
+    }
+
+    /** 3 × (sqrt, atan2, pow, cos, sin). */
+    @Benchmark
+    public ComplexNumber rectangularChain() {
+        return z.power(exponent).nthRoot(rootIndex).power(outerExponent);
+    }
+
+    /** sqrt, atan2, 3 × pow, cos, sin. */
+    @Benchmark
+    public ComplexNumber polarChain() {
+        return PolarComplex.of(z).power(exponent).nthRoot(rootIndex).power(outerExponent).toComplexNumber();
+    }
+
+    @Benchmark
+    public double interpretedKernel() {
+        interpreted.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+
+    @Benchmark
+    public double generatedKernel() {
+        generated.evaluate(varReal, varImaginary, out);
+        return out[0];
+    }
+}
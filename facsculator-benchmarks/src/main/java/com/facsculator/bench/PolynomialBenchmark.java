@@ -0,0 +1,125 @@
+package com.facsculator.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.ComplexNumber;
+import com.facsculator.ComplexPolynomial;
+import com.facsculator.PolynomialSolver;
+
+/**
+ * Mede a avaliação por Horner contra a soma de ak * z.power(k) com
+ * ComplexNumber, e o PolynomialSolver: um polinômio de grau 'degree' (em uma
+ * thread e no ForkJoinPool.commonPool()) e um lote de 256 polinômios de grau
+ * 30 (um a um, e por solveAll).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolynomialBenchmark {
+
+    /** Um polinômio de coeficientes aleatórios de grau 'degree'. */
+    @State(Scope.Benchmark)
+    public static class Single {
+        @Param({"64", "1000"})
+        public int degree;
+
+        ComplexPolynomial polynomial;
+        ComplexNumber[] coefficients;
+        ComplexNumber point;
+        double[] out;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            polynomial = random(degree, new Random(42));
+            coefficients = polynomial.coefficients().toComplexNumbers();
+            point = new ComplexNumber(0.6, -0.7);
+            out = new double[2];
+        }
+    }
+
+    /** 256 polinômios de grau 30. */
+    @State(Scope.Benchmark)
+    public static class Batch {
+        List<ComplexPolynomial> polynomials;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            Random random = new Random(42);
+            polynomials = new ArrayList<>();
+            for (int i = 0; i < 256; i++) {
+                polynomials.add(random(30, random));
+            }
+        }
+    }
+
+    static ComplexPolynomial random(int degree, Random random) {
+        double[] re = new double[degree + 1];
+        double[] im = new double[degree + 1];
+        for (int k = 0; k <= degree; k++) {
+            re[k] = random.nextGaussian();
+            im[k] = random.nextGaussian();
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    private static final PolynomialSolver SEQUENTIAL = new PolynomialSolver(PolynomialSolver.DEFAULT_MAX_ITERATIONS, null);
+    private static final PolynomialSolver PARALLEL = new PolynomialSolver();
+
+    @Benchmark
+    public double horner(Single single) {
+        single.polynomial.evaluate(single.point.real(), single.point.imaginary(), single.out);
+        return single.out[0];
+    }
+
+    /** Referência: Σ ak * z.power(k), como era feito à mão. */
+    @Benchmark
+    public ComplexNumber powerSum(Single single) {
+        ComplexNumber sum = single.coefficients[0];
+        for (int k = 1; k < single.coefficients.length; k++) {
+            sum = sum.sum(single.coefficients[k].multiply(single.point.power(k)));
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public PolynomialSolver.Result solveSequential(Single single) {
+        return SEQUENTIAL.solve(single.polynomial);
+    }
+
+    @Benchmark
+    public PolynomialSolver.Result solveParallel(Single single) {
+        return PARALLEL.solve(single.polynomial);
+    }
+
+    @Benchmark
+    public int batchOneByOne(Batch batch) {
+        int iterations = 0;
+        for (ComplexPolynomial polynomial : batch.polynomials) {
+            iterations += SEQUENTIAL.solve(polynomial).iterations();
+        }
+        return iterations;
+    }
+
+    @Benchmark
+    public List<PolynomialSolver.Result> batchSolveAll(Batch batch) {
+        return PARALLEL.solveAll(batch.polynomials);
+    }
+}
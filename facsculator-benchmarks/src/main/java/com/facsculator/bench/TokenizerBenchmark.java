@@ -0,0 +1,68 @@
+package com.facsculator.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.Expr;
+import com.facsculator.Parser;
+import com.facsculator.Token;
+import com.facsculator.TokenBuffer;
+import com.facsculator.Tokenizer;
+
+/**
+ * Benchmarks do Tokenizer.tokenize() em expressões curtas, médias e
+ * de vários kilobytes, todas derivadas da expressão usada em App.TesteFase2.
+ * Compara a List&lt;Token&gt; tradicional com o modo de intervalos (TokenBuffer)
+ * usando um Tokenizer reutilizado, e mede a análise sintática completa
+ * (os literais já chegam convertidos no Token, sem uma segunda leitura).
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenizerBenchmark {
+
+    @Param({"SHORT", "MEDIUM", "LARGE"})
+    public String size;
+
+    private String expression;
+    private Tokenizer reusable;
+    private TokenBuffer buffer;
+
+    @Setup
+    public void setup() {
+        expression = Expressions.of(size);
+        reusable = new Tokenizer();
+        buffer = new TokenBuffer();
+    }
+
+    @Benchmark
+    public List<Token> tokenize() throws Exception {
+        return new Tokenizer(expression).tokenize();
+    }
+
+    @Benchmark
+    public TokenBuffer tokenizeSpans() throws Exception {
+        reusable.reset(expression).tokenize(buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public Expr parse() throws Exception {
+        return Parser.parse(expression);
+    }
+}
@@ -0,0 +1,111 @@
+package com.facsculator.bench;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.facsculator.CompiledExpression;
+import com.facsculator.ComplexNumber;
+import com.facsculator.Workspace;
+
+/**
+ * Mede a atualização de um Workspace com 50 entradas, 2000 fórmulas sobre
+ * elas e 500 fórmulas sobre as primeiras, quando uma única entrada muda:
+ * update() incremental contra a reavaliação de todas as fórmulas, em ordem,
+ * a cada mudança (o que os painéis faziam).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkspaceBenchmark {
+
+    private static final int INPUTS = 50;
+    private static final int FORMULAS = 2000;
+    private static final int TOTALS = 500;
+
+    @State(Scope.Thread)
+    public static class Sheet {
+        Workspace workspace;
+        CompiledExpression[] compiled; // As fórmulas, em ordem topológica
+        int[][] inputs;                // A posição em 'values' de cada variável de cada fórmula
+        ComplexNumber[] values;
+        int step;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            workspace = new Workspace();
+            Map<String, String> sources = new LinkedHashMap<>();
+            for (int i = 0; i < FORMULAS; i++) {
+                sources.put("f" + i, "in" + (i % INPUTS) + " * (2+i) + root[3](in" + ((i + 1) % INPUTS)
+                        + "**2.5) / (1 + in" + ((i + 7) % INPUTS) + ")");
+            }
+            for (int i = 0; i < TOTALS; i++) {
+                sources.put("g" + i, "f" + i + " + f" + (i + TOTALS) + " * f" + (i + 2 * TOTALS));
+            }
+
+            Map<String, Integer> positions = new HashMap<>();
+            values = new ComplexNumber[INPUTS + sources.size()];
+            for (int i = 0; i < INPUTS; i++) {
+                values[i] = new ComplexNumber(i, 1);
+                positions.put("in" + i, i);
+                workspace.set("in" + i, values[i]);
+            }
+            compiled = new CompiledExpression[sources.size()];
+            inputs = new int[sources.size()][];
+            int f = 0;
+            for (Map.Entry<String, String> entry : sources.entrySet()) {
+                workspace.define(entry.getKey(), entry.getValue());
+                compiled[f] = CompiledExpression.compile(entry.getValue());
+                inputs[f] = compiled[f].variables().stream().mapToInt(positions::get).toArray();
+                positions.put(entry.getKey(), INPUTS + f);
+                f++;
+            }
+            workspace.update();
+        }
+
+        ComplexNumber nextInput() {
+            return new ComplexNumber(++step % 100, 5);
+        }
+    }
+
+    @Benchmark
+    public Workspace.Update incremental(Sheet sheet) throws Exception {
+        sheet.workspace.set("in3", sheet.nextInput());
+        return sheet.workspace.update();
+    }
+
+    /** Referência: reavalia todas as fórmulas a cada mudança. */
+    @Benchmark
+    public ComplexNumber[] recomputeAll(Sheet sheet) {
+        ComplexNumber[] values = sheet.values;
+        values[3] = sheet.nextInput();
+        for (int f = 0; f < sheet.compiled.length; f++) {
+            int[] inputs = sheet.inputs[f];
+            ComplexNumber[] arguments = new ComplexNumber[inputs.length];
+            for (int v = 0; v < inputs.length; v++) {
+                arguments[v] = values[inputs[v]];
+            }
+            try {
+                values[INPUTS + f] = sheet.compiled[f].evaluate(arguments);
+            } catch (ArithmeticException | IllegalArgumentException e) {
+                values[INPUTS + f] = null;
+            }
+        }
+        return values;
+    }
+}
@@ -1,9 +1,23 @@
 package com.facsculator;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 
 public class App {
     public static void main(String[] args) {
+        // Modo em lote: java -jar facsculator.jar --batch [arquivo | -] [--threads=N]
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(runBatch(args));
+        }
+
        System.out.println("""
          _______    ___       ______     _______.  ______  __    __   __          ___   .___________.  ______   .______      \r
         |   ____|  /   \\     /      |   /       | /      ||  |  |  | |  |        /   \\  |           | /  __  \\  |   _  \\     \r
@@ -15,7 +29,7 @@ public class App {
         System.out.println("=========================================================================================================================");
         System.out.println("Calculadora Científica de Números Complexos");
 
-        TesteFase2();
+        TesteFase3();
     }
 
     public static void TestesFase1() {
@@ -95,8 +109,117 @@ public class App {
         }
         System.out.println("\n--- Testes da Fase 2 Concluídos ---");    
     }
-    
 
-}
-    
+    public static void TesteFase3() {
+        // Testa o Parser e a avaliação compilada (Fase 3)
+        System.out.println("--- Teste do Parser e da Avaliação (Fase 3) ---");
+
+        String expressao = "(6+2i) * y - 25 / (1+i**2)";
+        ComplexNumber y = new ComplexNumber(1, -1);
+
+        try {
+            Expr arvore = Parser.parse(expressao);
+            System.out.println("Expressão: " + expressao);
+            System.out.println("Árvore (LISP): " + arvore); // Esperado: (- (* 6+2i y) (/ 25 (+ 1 (** i 2))))
+
+            CompiledExpression compilada = CompiledExpression.compile(arvore);
+            System.out.println("Variáveis: " + compilada.variables());
+
+            // Precedência e raiz: 3 + 4*2 = 11 ; root[2](3+4i) = 2 + i
+            System.out.println("3 + 4*2 = " + CompiledExpression.compile("3+4*2").evaluate());
+            System.out.println("root[2](3+4i) = " + CompiledExpression.compile("root[2](3+4i)").evaluate());
+
+            // (1+i**2) é (praticamente) zero, então esta avaliação deve falhar
+            System.out.println("Resultado com y = " + y + ": " + compilada.evaluate(y));
+        } catch (ArithmeticException e) {
+            System.out.println("SUCESSO: Erro de avaliação: " + e.getMessage());
+        } catch (Exception e) {
+            System.err.println("Erro ao analisar: " + e.getMessage());
+        }
+
+        // Dígitos não ASCII (3 arábico-índico, 5 de largura total) não são números
+        System.out.println("\n--- Teste de Erro Léxico (dígitos Unicode) ---");
+        for (String invalida : new String[] {"\u0663+1", "\uFF15*2"}) {
+            try {
+                List<Token> tokens = new Tokenizer(invalida).tokenize();
+                System.out.println("FALHA: '" + invalida + "' foi aceita: " + tokens);
+            } catch (Exception e) {
+                System.out.println("SUCESSO: " + e.getMessage());
+            }
+        }
+
+        // Modo em lote: uma linha com 3000 parênteses aninhados não derruba as outras
+        System.out.println("\n--- Teste do Modo em Lote (aninhamento profundo) ---");
+        String aninhada = "(".repeat(3000) + "2+i" + ")".repeat(3000);
+        StringWriter saida = new StringWriter();
+        try {
+            new BatchMode(1).run(new StringReader("1+1\n" + aninhada + "\n1/0\n"), saida);
+            String[] linhas = saida.toString().split("\n");
+            System.out.println("1+1 = " + linhas[0]);
+            System.out.println("(((...(2+i)...))) = " + linhas[1]); // Esperado: 2 + i
+            System.out.println("1/0 = " + linhas[2]);
+        } catch (IOException e) {
+            System.err.println("Erro de E/S: " + e.getMessage());
+        }
+        System.out.println("\n--- Testes da Fase 3 Concluídos ---");
+    }
 
+    /**
+     * Avalia um arquivo (ou a entrada padrão, com "-" ou sem arquivo) com uma
+     * expressão por linha, escrevendo os resultados na saída padrão e o
+     * resumo (linhas por segundo) na saída de erros.
+     *
+     * @return O código de saída: 0, 2 se alguma linha deu erro, 1 se os
+     * argumentos forem inválidos ou se a leitura ou a escrita falhou.
+     */
+    static int runBatch(String[] args) {
+        String input = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int a = 1; a < args.length; a++) {
+            String arg = args[a];
+            if (arg.startsWith("--threads=")) {
+                String value = arg.substring("--threads=".length());
+                try {
+                    threads = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    threads = 0;
+                }
+                if (threads < 1) {
+                    return usageError("--threads deve ser um inteiro positivo, mas foi '" + value + "'.");
+                }
+            } else if (arg.startsWith("--")) {
+                return usageError("opção desconhecida '" + arg + "'.");
+            } else if (input != null) {
+                return usageError("mais de um arquivo de entrada ('" + input + "' e '" + arg + "').");
+            } else {
+                input = arg;
+            }
+        }
+        if (input == null) {
+            input = "-";
+        }
+        BatchMode batch = new BatchMode(threads);
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            BatchMode.Summary summary = input.equals("-")
+                    ? batch.run(new InputStreamReader(System.in, StandardCharsets.UTF_8), out)
+                    : batch.run(Path.of(input), out);
+            System.err.printf("%d linhas (%d com erro) em %.3f s: %.0f linhas/s%n", summary.lines(),
+                    summary.errors(), summary.nanos() / 1e9, summary.linesPerSecond());
+            if (Metrics.isEnabled()) {
+                System.err.print(Metrics.report());
+            }
+            return summary.errors() == 0 ? 0 : 2;
+        } catch (IOException e) {
+            System.err.println("Erro de E/S: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    /** Imprime o erro de argumentos e a forma de uso na saída de erros. */
+    private static int usageError(String message) {
+        System.err.println("Erro: " + message);
+        System.err.println("Uso: java -jar facsculator.jar --batch [arquivo | -] [--threads=N]");
+        return 1;
+    }
+}
@@ -0,0 +1,243 @@
+package com.facsculator;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Avalia uma mesma expressão sobre colunas de valores das variáveis
+ * (ex: milhões de valores de 'y' para "(6+2i) * y - 25 / (1+i**2)"),
+ * lendo e escrevendo arrays primitivos.
+ *
+ * O trabalho é dividido em blocos de {@link #CHUNK_SIZE} elementos, para que
+ * as colunas de entrada e saída de um bloco caibam no cache, e os blocos são
+ * distribuídos entre os núcleos por um ForkJoinPool. Cada elemento é avaliado
+ * pelo kernel de ExpressionJit (ou pelo interpretado, como fallback), então
+ * os resultados são idênticos aos de CompiledExpression.evaluate().
+ *
+ * Erros de um elemento (divisão por zero, expoente não real) não interrompem
+ * o lote: o elemento recebe NaN + NaN*i e é marcado no mapa de erros
+ * devolvido. Os erros são detectados sem criar exceções
+ * (ExpressionKernel.evaluateQuietly), então um lote em que todos os
+ * elementos falham é tão rápido quanto um sem erros. Para obter a mensagem de
+ * um elemento, basta avaliá-lo individualmente.
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class BatchEvaluator {
+
+    /**
+     * Elementos por bloco. Múltiplo de 64, para que cada bloco escreva
+     * palavras próprias do mapa de erros (long[]) sem sincronização.
+     */
+    public static final int CHUNK_SIZE = 4096;
+
+    private final CompiledExpression expression;
+    private final ExpressionKernel kernel;
+    private final ForkJoinPool pool;
+
+    /**
+     * Usa o ForkJoinPool.commonPool() (uma thread por núcleo).
+     *
+     * @param expression A expressão a avaliar.
+     */
+    public BatchEvaluator(CompiledExpression expression) {
+        this(expression, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param expression A expressão a avaliar.
+     * @param pool O pool que executa os blocos (define o número de threads).
+     */
+    public BatchEvaluator(CompiledExpression expression, ForkJoinPool pool) {
+        this.expression = expression;
+        this.kernel = ExpressionJit.compile(expression);
+        this.pool = pool;
+    }
+
+    /** @return A expressão avaliada. */
+    public CompiledExpression expression() {
+        return expression;
+    }
+
+    /**
+     * Avalia a expressão para cada elemento i das colunas.
+     *
+     * @param varReal varReal[v][i] é a parte real da variável v no elemento i
+     *                (variáveis na ordem de CompiledExpression.variables()).
+     * @param varImaginary As partes imaginárias, no mesmo formato.
+     * @param outReal Recebe a parte real de cada resultado.
+     * @param outImaginary Recebe a parte imaginária de cada resultado.
+     * @return O mapa de erros: os índices dos elementos inválidos (que recebem NaN).
+     * @throws IllegalArgumentException se o número de colunas ou seus tamanhos não baterem.
+     */
+    public BitSet evaluate(double[][] varReal, double[][] varImaginary, double[] outReal, double[] outImaginary) {
+        int variables = expression.variables().size();
+        int length = outReal.length;
+        if (varReal.length != variables || varImaginary.length != variables) {
+            throw new IllegalArgumentException("Esperadas " + variables
+                    + " colunas de variáveis, mas recebidas " + varReal.length + ".");
+        }
+        if (outImaginary.length != length) {
+            throw new IllegalArgumentException("Os arrays real e imaginário devem ter o mesmo tamanho.");
+        }
+        for (int v = 0; v < variables; v++) {
+            if (varReal[v].length != length || varImaginary[v].length != length) {
+                throw new IllegalArgumentException("A coluna da variável '" + expression.variables().get(v)
+                        + "' deve ter " + length + " elementos.");
+            }
+        }
+
+        long[] errors = new long[(length + 63) >>> 6];
+        Slice all = new Slice(varReal, varImaginary, outReal, outImaginary, errors, 0, length);
+        if (length <= CHUNK_SIZE) {
+            all.compute(); // Um único bloco: não vale a pena acordar o pool
+        } else {
+            pool.invoke(all);
+        }
+        return BitSet.valueOf(errors);
+    }
+
+    /**
+     * Como {@link #evaluate(double[][], double[][], double[], double[])}, com
+     * uma coluna ComplexArray por variável.
+     *
+     * @param variables A coluna de cada variável (na ordem de CompiledExpression.variables()).
+     * @param out Recebe os resultados.
+     * @return O mapa de erros.
+     */
+    public BitSet evaluate(ComplexArray[] variables, ComplexArray out) {
+        double[][] varReal = new double[variables.length][];
+        double[][] varImaginary = new double[variables.length][];
+        for (int v = 0; v < variables.length; v++) {
+            varReal[v] = variables[v].real();
+            varImaginary[v] = variables[v].imaginary();
+        }
+        return evaluate(varReal, varImaginary, out.real(), out.imaginary());
+    }
+
+    /**
+     * Avalia a expressão sobre colunas em arquivos mapeados
+     * (ComplexColumnFile), sem copiar os arquivos para o heap: cada tarefa lê
+     * um bloco de CHUNK_SIZE elementos para arrays próprios, avalia e escreve
+     * o bloco no arquivo de saída.
+     *
+     * @param variables O arquivo de cada variável (na ordem de CompiledExpression.variables()).
+     * @param out Recebe os resultados e, se tiver mapa de erros, os erros.
+     * @return O número de elementos inválidos (que recebem NaN).
+     * @throws IllegalArgumentException se o número de arquivos ou seus tamanhos não baterem.
+     */
+    public long evaluate(ComplexColumnFile[] variables, ComplexColumnFile out) {
+        int count = expression.variables().size();
+        long length = out.length();
+        if (variables.length != count) {
+            throw new IllegalArgumentException("Esperadas " + count
+                    + " colunas de variáveis, mas recebidas " + variables.length + ".");
+        }
+        for (int v = 0; v < count; v++) {
+            if (variables[v].length() != length) {
+                throw new IllegalArgumentException("A coluna da variável '" + expression.variables().get(v)
+                        + "' deve ter " + length + " elementos.");
+            }
+        }
+
+        long chunks = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (chunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Arquivos grandes demais: " + length + " elementos.");
+        }
+        LongAdder errors = new LongAdder();
+        int grain = Math.max(1, (int) (chunks / (8L * pool.getParallelism())));
+        ParallelLoops.forRange(chunks > 1 ? pool : null, 0, (int) chunks, grain, (from, to) -> {
+            double[][] varReal = new double[count][CHUNK_SIZE];
+            double[][] varImaginary = new double[count][CHUNK_SIZE];
+            double[] outReal = new double[CHUNK_SIZE];
+            double[] outImaginary = new double[CHUNK_SIZE];
+            long[] words = new long[CHUNK_SIZE / 64];
+            for (int chunk = from; chunk < to; chunk++) {
+                long start = (long) chunk * CHUNK_SIZE;
+                int size = (int) Math.min(CHUNK_SIZE, length - start);
+                for (int v = 0; v < count; v++) {
+                    variables[v].read(start, varReal[v], varImaginary[v], 0, size);
+                }
+                Arrays.fill(words, 0);
+                evaluateRange(varReal, varImaginary, outReal, outImaginary, words, 0, size);
+                out.write(start, outReal, outImaginary, 0, size);
+                for (int w = 0; w < (size + 63) >>> 6; w++) {
+                    errors.add(Long.bitCount(words[w]));
+                    if (out.hasErrors()) {
+                        out.setErrorWord(start / 64 + w, words[w]);
+                    }
+                }
+            }
+        });
+        return errors.sum();
+    }
+
+    /**
+     * Avalia os elementos [from, to) das colunas, marcando os inválidos em
+     * 'errors' (bit i).
+     */
+    private void evaluateRange(double[][] varReal, double[][] varImaginary, double[] outReal, double[] outImaginary,
+                               long[] errors, int from, int to) {
+        int variables = varReal.length;
+        double[] valueReal = new double[variables];
+        double[] valueImaginary = new double[variables];
+        double[] result = new double[2];
+        for (int i = from; i < to; i++) {
+            for (int v = 0; v < variables; v++) {
+                valueReal[v] = varReal[v][i];
+                valueImaginary[v] = varImaginary[v][i];
+            }
+            if (kernel.evaluateQuietly(valueReal, valueImaginary, result)) {
+                outReal[i] = result[0];
+                outImaginary[i] = result[1];
+            } else {
+                outReal[i] = Double.NaN;
+                outImaginary[i] = Double.NaN;
+                errors[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * Um intervalo [from, to) dos elementos. Divide-se ao meio (em fronteiras
+     * de bloco) até ter no máximo CHUNK_SIZE elementos.
+     */
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final double[][] varReal;
+        private final double[][] varImaginary;
+        private final double[] outReal;
+        private final double[] outImaginary;
+        private final long[] errors;
+        private final int from;
+        private final int to;
+
+        Slice(double[][] varReal, double[][] varImaginary, double[] outReal, double[] outImaginary,
+              long[] errors, int from, int to) {
+            this.varReal = varReal;
+            this.varImaginary = varImaginary;
+            this.outReal = outReal;
+            this.outImaginary = outImaginary;
+            this.errors = errors;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (chunks > 1) {
+                int middle = from + (chunks / 2) * CHUNK_SIZE;
+                invokeAll(new Slice(varReal, varImaginary, outReal, outImaginary, errors, from, middle),
+                          new Slice(varReal, varImaginary, outReal, outImaginary, errors, middle, to));
+                return;
+            }
+
+            evaluateRange(varReal, varImaginary, outReal, outImaginary, errors, from, to);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.facsculator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo em lote da linha de comando: avalia um arquivo (ou a entrada padrão)
+ * com uma expressão por linha e escreve um resultado por linha, na ordem da
+ * entrada.
+ *
+ * As linhas são agrupadas em blocos de {@link #BLOCK_LINES}, avaliados por um
+ * pool de threads (cada thread reaproveita seu Tokenizer). Os blocos saem na
+ * ordem de entrada por um buffer de reordenação limitado: no máximo
+ * 4 * threads blocos ficam em andamento ao mesmo tempo, então a memória
+ * usada não depende do tamanho da entrada. Arquivos são lidos por
+ * FileChannel.map, em regiões de 64 MB.
+ *
+ * Uma linha inválida não interrompe o lote: no lugar do resultado sai a
+ * mensagem do erro ("Erro Léxico: ...", "Erro Sintático: ..." ou
+ * "Erro de Avaliação: ..."). Um StackOverflowError também é tratado por
+ * linha, para que uma única expressão patológica não derrube o lote inteiro
+ * (o Parser, o ExpressionOptimizer e o CompiledExpression já são iterativos).
+ * Linhas vazias saem vazias.
+ */
+public final class BatchMode {
+
+    /** Linhas por bloco de trabalho. */
+    public static final int BLOCK_LINES = 1024;
+
+    /** Blocos em andamento (lidos mas ainda não escritos) por thread. */
+    private static final int BLOCKS_PER_THREAD = 4;
+
+    /**
+     * O resultado de uma execução.
+     *
+     * @param lines As linhas lidas.
+     * @param errors As linhas que produziram erro.
+     * @param nanos O tempo total.
+     */
+    public record Summary(long lines, long errors, long nanos) {
+
+        /** @return As linhas avaliadas por segundo. */
+        public double linesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+    }
+
+    private final int threads;
+
+    /** Uma thread por núcleo. */
+    public BatchMode() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param threads O número de threads que avaliam os blocos.
+     * @throws IllegalArgumentException se threads &lt; 1.
+     */
+    public BatchMode(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("O número de threads deve ser positivo.");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Avalia as linhas de um arquivo UTF-8, mapeado em memória.
+     *
+     * @param file O arquivo.
+     * @param out Recebe um resultado por linha (não é fechado).
+     * @return O resumo da execução.
+     * @throws IOException se a leitura ou a escrita falhar.
+     */
+    public Summary run(Path file, Writer out) throws IOException {
+        try (MappedLines lines = new MappedLines(FileChannel.open(file, StandardOpenOption.READ))) {
+            return run(lines, out);
+        }
+    }
+
+    /**
+     * Avalia as linhas lidas de 'in' (ex: a entrada padrão).
+     *
+     * @param in A entrada (não é fechada).
+     * @param out Recebe um resultado por linha (não é fechado).
+     * @return O resumo da execução.
+     * @throws IOException se a leitura ou a escrita falhar.
+     */
+    public Summary run(Reader in, Writer out) throws IOException {
+        BufferedReader reader = (in instanceof BufferedReader buffered) ? buffered : new BufferedReader(in, 1 << 16);
+        return run(reader::readLine, out);
+    }
+
+    // --- Execução ---
+
+    /** De onde vêm as linhas; null no fim da entrada. */
+    private interface LineSource {
+        String next() throws IOException;
+    }
+
+    /** Um bloco avaliado: o texto de saída (uma linha por entrada) e quantas deram erro. */
+    private record Block(String text, int lines, int errors) {
+    }
+
+    /** Marca o fim da fila de reordenação. */
+    private static final Future<Block> END = CompletableFuture.completedFuture(null);
+
+    private Summary run(LineSource source, Writer out) throws IOException {
+        long start = System.nanoTime();
+        BlockingQueue<Future<Block>> pending = new ArrayBlockingQueue<>(BLOCKS_PER_THREAD * threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "facsculator-batch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Output output = new Output(pending, out);
+        Thread writer = new Thread(output, "facsculator-batch-output");
+        writer.setDaemon(true);
+        writer.start();
+        try {
+            String[] block = new String[BLOCK_LINES];
+            int size = 0;
+            boolean more = true;
+            while (more && output.failure == null) {
+                String line = source.next();
+                more = line != null;
+                if (more) {
+                    block[size++] = line;
+                }
+                if (size == BLOCK_LINES || (!more && size > 0)) {
+                    String[] lines = Arrays.copyOf(block, size);
+                    enqueue(pending, pool.submit(() -> evaluate(lines)), output);
+                    size = 0;
+                }
+            }
+            enqueue(pending, END, output);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Modo em lote interrompido.", e);
+        } finally {
+            pool.shutdownNow();
+            writer.interrupt(); // Só tem efeito se a leitura falhou antes do fim
+        }
+        if (output.failure != null) {
+            throw output.failure;
+        }
+        out.flush();
+        return new Summary(output.lines, output.errors, System.nanoTime() - start);
+    }
+
+    /** Espera uma vaga no buffer de reordenação (ou desiste, se a escrita falhou). */
+    private static void enqueue(BlockingQueue<Future<Block>> pending, Future<Block> block, Output output)
+            throws InterruptedException {
+        while (!pending.offer(block, 100, TimeUnit.MILLISECONDS)) {
+            if (output.failure != null) {
+                return;
+            }
+        }
+    }
+
+    /** Escreve os blocos na ordem da fila, esperando cada um terminar. */
+    private static final class Output implements Runnable {
+        private final BlockingQueue<Future<Block>> pending;
+        private final Writer out;
+        volatile IOException failure;
+        long lines;
+        long errors;
+
+        Output(BlockingQueue<Future<Block>> pending, Writer out) {
+            this.pending = pending;
+            this.out = out;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Future<Block> next;
+                while ((next = pending.take()) != END) {
+                    Block block = next.get();
+                    out.write(block.text());
+                    lines += block.lines();
+                    errors += block.errors();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } catch (ExecutionException e) {
+                failure = new IOException("Falha ao avaliar um bloco: " + e.getCause(), e.getCause());
+            } catch (InterruptedException e) {
+                failure = new IOException("Modo em lote interrompido.", e);
+            }
+        }
+    }
+
+    /** O Tokenizer de cada thread do pool, reutilizado com reset(). */
+    private static final ThreadLocal<Tokenizer> TOKENIZER = ThreadLocal.withInitial(Tokenizer::new);
+
+    private static Block evaluate(String[] lines) {
+        Tokenizer tokenizer = TOKENIZER.get();
+        StringBuilder text = new StringBuilder(lines.length * 16);
+        int errors = 0;
+        for (String line : lines) {
+            if (!line.isBlank()) {
+                try {
+                    Expr root = ExpressionOptimizer.optimize(new Parser(tokenizer.reset(line).tokenize()).parse())
+                            .expression();
+                    // Sem variáveis, o otimizador costuma reduzir a linha a uma constante
+                    ComplexNumber value = (root instanceof Expr.Literal literal)
+                            ? literal.value()
+                            : CompiledExpression.compile(root).evaluate(Map.of());
+                    ComplexFormatter.appendTo(value, text);
+                } catch (ArithmeticException | IllegalArgumentException e) {
+                    text.append("Erro de Avaliação: ").append(e.getMessage());
+                    errors++;
+                } catch (Exception e) {
+                    text.append(e.getMessage()); // Já começa com "Erro Léxico:" ou "Erro Sintático:"
+                    errors++;
+                } catch (StackOverflowError e) {
+                    // Só a linha falha: sem isto, o erro subiria pelo Future e derrubaria o lote
+                    text.append("Erro de Avaliação: Expressão aninhada demais.");
+                    errors++;
+                }
+            }
+            text.append('\n');
+        }
+        return new Block(text.toString(), lines.length, errors);
+    }
+
+    // --- Arquivos Mapeados ---
+
+    /**
+     * Lê as linhas de um arquivo mapeado em regiões de até 64 MB. Cada nova
+     * região começa no início da linha ainda incompleta; o '\n' nunca faz
+     * parte de um caractere UTF-8 de vários bytes, então as linhas podem ser
+     * separadas antes de decodificadas.
+     */
+    private static final class MappedLines implements LineSource, Closeable {
+        private static final long REGION = 64L * 1024 * 1024;
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer region;
+        private long regionStart;
+        private byte[] bytes = new byte[256];
+
+        MappedLines(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        @Override
+        public String next() throws IOException {
+            while (true) {
+                int start = region.position();
+                int limit = region.limit();
+                if (regionStart + start == size) {
+                    return null;
+                }
+                int end = start;
+                while (end < limit && region.get(end) != '\n') {
+                    end++;
+                }
+                if (end < limit || regionStart + limit == size) {
+                    String line = decode(start, end);
+                    region.position(Math.min(end + 1, limit));
+                    return line;
+                }
+                if (start == 0) {
+                    throw new IOException("Linha com mais de " + (REGION >> 20) + " MB na posição " + regionStart + ".");
+                }
+                map(regionStart + start); // A linha continua na próxima região
+            }
+        }
+
+        private String decode(int start, int end) {
+            int length = end - start;
+            if (length > 0 && region.get(end - 1) == '\r') {
+                length--;
+            }
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            region.get(start, bytes, 0, length);
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void map(long from) throws IOException {
+            regionStart = from;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(REGION, size - from));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.facsculator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FFT de Bluestein (chirp-z) para qualquer n, usada quando n tem um fator
+ * primo grande (ex: n primo).
+ *
+ * Com jk = (j² + k² - (k-j)²) / 2, a DFT vira
+ * X[k] = w[k] * Σ (x[j] * w[j]) * conj(w[k-j]), onde w[k] = e^(-πi*k²/n):
+ * uma convolução, calculada por duas FFTs radix-2 de tamanho M &ge; 2n - 1
+ * (mais a FFT do chirp conj(w), feita uma única vez na criação).
+ */
+final class BluesteinFft implements FftPlan.Transform {
+
+    private final int n;
+    private final int m;
+    private final Radix2Fft convolution;
+
+    /** cos(πk²/n) e sin(πk²/n); o chirp w[k] é cos - i*sin. */
+    private final double[] chirpCos;
+    private final double[] chirpSin;
+
+    /** FFT de conj(w) (estendido circularmente para M), já dividida por M. */
+    private final double[] kernelRe;
+    private final double[] kernelIm;
+
+    BluesteinFft(int n) {
+        this.n = n;
+        this.m = Integer.highestOneBit(2 * n - 1) << 1;
+        this.convolution = new Radix2Fft(m);
+        this.chirpCos = new double[n];
+        this.chirpSin = new double[n];
+        for (int k = 0; k < n; k++) {
+            // k² mod 2n em long: e^(-πi*k²/n) tem período 2n em k², e k² estoura int
+            long residue = (long) k * k % (2L * n);
+            double angle = Math.PI * residue / n;
+            chirpCos[k] = Math.cos(angle);
+            chirpSin[k] = Math.sin(angle);
+        }
+
+        kernelRe = new double[m];
+        kernelIm = new double[m];
+        kernelRe[0] = chirpCos[0];
+        kernelIm[0] = chirpSin[0];
+        for (int k = 1; k < n; k++) {
+            kernelRe[k] = kernelRe[m - k] = chirpCos[k];
+            kernelIm[k] = kernelIm[m - k] = chirpSin[k];
+        }
+        convolution.forward(kernelRe, kernelIm, null);
+        double scale = 1.0 / m;
+        for (int k = 0; k < m; k++) {
+            kernelRe[k] *= scale;
+            kernelIm[k] *= scale;
+        }
+    }
+
+    @Override
+    public long tableBytes() {
+        return 16L * (chirpCos.length + kernelRe.length) + convolution.tableBytes();
+    }
+
+    @Override
+    public void forward(double[] re, double[] im, ForkJoinPool pool) {
+        double[] ar = new double[m];
+        double[] ai = new double[m];
+        for (int k = 0; k < n; k++) {
+            // a[k] = x[k] * (c - i*s)
+            ar[k] = re[k] * chirpCos[k] + im[k] * chirpSin[k];
+            ai[k] = im[k] * chirpCos[k] - re[k] * chirpSin[k];
+        }
+        convolution.forward(ar, ai, pool);
+
+        // Produto pelo kernel, conjugado: a inversa é conj(FFT(conj(.))) (a divisão por M já está no kernel)
+        ParallelLoops.forRange(pool, 0, m, FftPlan.GRAIN, (from, to) -> {
+            for (int k = from; k < to; k++) {
+                double r = ar[k] * kernelRe[k] - ai[k] * kernelIm[k];
+                double i = ar[k] * kernelIm[k] + ai[k] * kernelRe[k];
+                ar[k] = r;
+                ai[k] = -i;
+            }
+        });
+        convolution.forward(ar, ai, pool);
+
+        for (int k = 0; k < n; k++) {
+            // X[k] = conj(a[k]) * (c - i*s)
+            double vr = ar[k];
+            double vi = -ai[k];
+            re[k] = vr * chirpCos[k] + vi * chirpSin[k];
+            im[k] = vi * chirpCos[k] - vr * chirpSin[k];
+        }
+    }
+}
@@ -0,0 +1,593 @@
+package com.facsculator;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uma expressão "compilada": a AST achatada em um programa linear de
+ * instruções sobre registradores primitivos (double), pronta para ser
+ * avaliada muitas vezes sem re-tokenizar nem re-analisar o texto.
+ *
+ * Cada instrução k grava seu resultado no registrador k (partes real e
+ * imaginária em dois arrays) e lê seus operandos de registradores anteriores.
+ * A avaliação é um único laço com um 'switch' sobre o código da instrução,
+ * sem objetos intermediários nem chamadas virtuais por nó.
+ * O resultado final fica no último registrador.
+ *
+ * Cada registrador guarda um número na forma retangular (real, imaginário)
+ * ou polar (magnitude, fase): depois de achatar a AST, o PolarPlanner escolhe
+ * a forma mais barata para cada resultado intermediário, para que cadeias
+ * como root[3](z**2.5) ** 0.5 não voltem para a forma retangular (cos/sin)
+ * só para a próxima operação chamar sqrt/atan2 de novo.
+ *
+ * Os resultados são idênticos aos obtidos encadeando os métodos de
+ * ComplexNumber (sum, multiply, divide, power, nthRoot...), inclusive as
+ * exceções de divisão por zero. Nas partes mantidas em forma polar, são
+ * idênticos aos obtidos encadeando os métodos de PolarComplex (e diferem
+ * dos de ComplexNumber apenas por arredondamento).
+ *
+ * Instâncias são imutáveis e podem ser compartilhadas entre threads; cada
+ * thread deve usar seus próprios arrays de registradores.
+ */
+public final class CompiledExpression {
+
+    // --- Códigos das Instruções ---
+
+    static final int CONST = 0;     // registrador = constante
+    static final int VARIABLE = 1;  // registrador = variável[left]
+    static final int ADD = 2;       // left + right
+    static final int SUBTRACT = 3;  // left - right
+    static final int MULTIPLY = 4;  // left * right
+    static final int DIVIDE = 5;    // left / right
+    static final int POWER = 6;     // left ** right (expoente real)
+    static final int ROOT = 7;      // root[right](left)
+    static final int CONJUGATE = 8; // conj(left): (a, -b), ou (r, -θ) na forma polar
+    static final int NEGATE = 9;    // -left
+
+    // Instruções da forma polar: o registrador guarda (magnitude, fase)
+    static final int TO_POLAR = 10;        // polar(left), com left retangular
+    static final int TO_RECT = 11;         // retangular(left), com left polar
+    static final int POLAR_MULTIPLY = 12;  // left * right, ambos polares
+    static final int POLAR_DIVIDE = 13;    // left / right, ambos polares
+    static final int POLAR_POWER = 14;     // left ** right, left polar e right retangular
+    static final int POLAR_ROOT = 15;      // root[right](left), left polar
+
+    static final int FUNCTION = 16; // f(left), com f = a função de código 'right' em ComplexFunctions
+
+    /** O código de cada instrução. */
+    final int[] ops;
+
+    /** O primeiro operando (registrador ou índice da variável). */
+    final int[] left;
+
+    /** O segundo operando (registrador, o índice 'n' em ROOT ou o código da função em FUNCTION). */
+    final int[] right;
+
+    /** As constantes das instruções CONST (indexadas pela instrução). */
+    final double[] constReal;
+    final double[] constImaginary;
+
+    /** Os nomes das variáveis, na ordem em que aparecem na expressão. */
+    private final List<String> variables;
+
+    /**
+     * As variáveis de que cada registrador depende: o bit min(v, 63) para a
+     * variável na posição v (as posições a partir de 63 dividem o último bit).
+     * Constantes e subárvores constantes têm 0.
+     */
+    final long[] dependencies;
+
+    /** Todas as variáveis, em evaluateChanged(): avalia o programa inteiro. */
+    static final long ALL_VARIABLES = -1L;
+
+    /**
+     * O programa só com instruções retangulares de que este foi planejado
+     * (PolarPlanner), usado por differentiate(); null se este já é o original.
+     */
+    private final CompiledExpression rectangular;
+
+    CompiledExpression(int[] ops, int[] left, int[] right,
+                       double[] constReal, double[] constImaginary, List<String> variables,
+                       CompiledExpression rectangular) {
+        this.ops = ops;
+        this.left = left;
+        this.right = right;
+        this.constReal = constReal;
+        this.constImaginary = constImaginary;
+        this.variables = Collections.unmodifiableList(variables);
+        this.rectangular = rectangular;
+        this.dependencies = new long[ops.length];
+        for (int k = 0; k < ops.length; k++) {
+            switch (ops[k]) {
+                case CONST:
+                    break;
+                case VARIABLE:
+                    dependencies[k] = variableBit(left[k]);
+                    break;
+                case ADD: case SUBTRACT: case MULTIPLY: case DIVIDE: case POWER:
+                case POLAR_MULTIPLY: case POLAR_DIVIDE: case POLAR_POWER:
+                    dependencies[k] = dependencies[left[k]] | dependencies[right[k]];
+                    break;
+                default: // Operações de um operando (em ROOT e FUNCTION, 'right' não é registrador)
+                    dependencies[k] = dependencies[left[k]];
+                    break;
+            }
+        }
+    }
+
+    /** @return O bit da variável na posição 'index' em 'dependencies'. */
+    static long variableBit(int index) {
+        return 1L << Math.min(index, 63);
+    }
+
+    // --- Compilação ---
+
+    /**
+     * Tokeniza, analisa, otimiza (ExpressionOptimizer) e compila uma expressão.
+     *
+     * @param source A expressão (ex: "(6+2i) * y - 25 / (1+i**2)").
+     * @return A expressão compilada.
+     * @throws Exception Em caso de erro léxico ou sintático.
+     */
+    public static CompiledExpression compile(String source) throws Exception {
+        return compile(ExpressionOptimizer.optimize(Parser.parse(source)).expression());
+    }
+
+    /**
+     * Compila uma AST já analisada, como está (sem ExpressionOptimizer).
+     * Nós compartilhados (o mesmo objeto em vários lugares da AST, como os
+     * produzidos pelo ExpressionOptimizer) são calculados uma única vez.
+     *
+     * @param root A raiz da AST.
+     * @return A expressão compilada.
+     */
+    public static CompiledExpression compile(Expr root) {
+        Builder builder = new Builder();
+        builder.emit(root);
+        return PolarPlanner.plan(builder.build());
+    }
+
+    /**
+     * Prepara a avaliação desta expressão junto com sua derivada em relação
+     * a uma variável (diferenciação automática, veja DualExpression).
+     *
+     * @param variable O nome da variável (pode não aparecer na expressão: a derivada é 0).
+     * @return A expressão dual.
+     */
+    public DualExpression differentiate(String variable) {
+        return new DualExpression(rectangular != null ? rectangular : this, variable);
+    }
+
+    // --- Acesso ---
+
+    /** @return Os nomes das variáveis da expressão (ordem das posições em evaluate). */
+    public List<String> variables() {
+        return variables;
+    }
+
+    /** @return O número de instruções (e de registradores necessários). */
+    public int size() {
+        return ops.length;
+    }
+
+    /** @return O índice do registrador que guarda o resultado final. */
+    public int resultRegister() {
+        return ops.length - 1;
+    }
+
+    // --- Avaliação ---
+
+    /**
+     * Avalia a expressão com as variáveis fornecidas por nome.
+     *
+     * @param bindings O valor de cada variável.
+     * @return O resultado.
+     * @throws IllegalArgumentException se alguma variável não tiver valor.
+     */
+    public ComplexNumber evaluate(Map<String, ComplexNumber> bindings) {
+        ComplexNumber[] values = new ComplexNumber[variables.size()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = bindings.get(variables.get(v));
+            if (values[v] == null) {
+                throw new IllegalArgumentException("Variável não definida: " + variables.get(v));
+            }
+        }
+        return evaluate(values);
+    }
+
+    /**
+     * Avalia a expressão com as variáveis fornecidas por posição
+     * (na ordem de {@link #variables()}).
+     *
+     * @param values O valor de cada variável.
+     * @return O resultado.
+     */
+    public ComplexNumber evaluate(ComplexNumber... values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException("Esperados " + variables.size()
+                    + " valores de variáveis, mas recebidos " + values.length + ".");
+        }
+        double[] varReal = new double[values.length];
+        double[] varImaginary = new double[values.length];
+        for (int v = 0; v < values.length; v++) {
+            varReal[v] = values[v].real();
+            varImaginary[v] = values[v].imaginary();
+        }
+        double[] regReal = new double[size()];
+        double[] regImaginary = new double[size()];
+        evaluate(varReal, varImaginary, regReal, regImaginary);
+        return new ComplexNumber(regReal[resultRegister()], regImaginary[resultRegister()]);
+    }
+
+    /**
+     * Avalia a expressão sem nenhuma alocação.
+     * O resultado fica em regReal[resultRegister()] e regImaginary[resultRegister()].
+     *
+     * @param varReal As partes reais das variáveis (na ordem de variables()).
+     * @param varImaginary As partes imaginárias das variáveis.
+     * @param regReal Registradores (parte real), com pelo menos size() posições.
+     * @param regImaginary Registradores (parte imaginária), com pelo menos size() posições.
+     * @throws ArithmeticException em divisão por zero.
+     * @throws IllegalArgumentException se um expoente calculado não for real.
+     */
+    public void evaluate(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary) {
+        long start = Metrics.start();
+        execute(varReal, varImaginary, regReal, regImaginary, false, ALL_VARIABLES);
+        Metrics.stop(Metrics.Stage.EVALUATE, start);
+    }
+
+    /**
+     * Reavalia só os registradores que dependem das variáveis em 'changed'
+     * (bits de {@link #variableBit(int)}); os demais mantêm o valor da
+     * avaliação anterior com os mesmos arrays, como resultados memorizados
+     * das subárvores que não mudaram. A avaliação anterior deve ter sido
+     * completa (sem exceção).
+     *
+     * @param changed As variáveis que mudaram, ou ALL_VARIABLES.
+     * @return O número de instruções executadas.
+     * @throws ArithmeticException em divisão por zero.
+     * @throws IllegalArgumentException se um expoente calculado não for real.
+     */
+    int evaluateChanged(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary,
+                        long changed) {
+        long start = Metrics.start();
+        execute(varReal, varImaginary, regReal, regImaginary, false, changed);
+        Metrics.stop(Metrics.Stage.EVALUATE, start);
+        if (changed == ALL_VARIABLES) {
+            return ops.length;
+        }
+        int executed = 0;
+        for (long dependency : dependencies) {
+            if ((dependency & changed) != 0) {
+                executed++;
+            }
+        }
+        return executed;
+    }
+
+    /**
+     * Como {@link #evaluate(double[], double[], double[], double[])}, mas sem
+     * lançar exceções: uma divisão por zero ou um expoente não real apenas
+     * fazem o método devolver false (o resultado nos registradores, nesse
+     * caso, não tem significado).
+     *
+     * @return true se a avaliação foi válida.
+     */
+    boolean evaluateQuietly(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary) {
+        return execute(varReal, varImaginary, regReal, regImaginary, true, ALL_VARIABLES);
+    }
+
+    private boolean execute(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary,
+                            boolean quiet, long changed) {
+        final int[] ops = this.ops, left = this.left, right = this.right;
+        final double[] re = regReal, im = regImaginary;
+        boolean valid = true;
+
+        for (int k = 0; k < ops.length; k++) {
+            if (changed != ALL_VARIABLES && (dependencies[k] & changed) == 0) {
+                continue; // Memorizado: não depende de nenhuma variável que mudou
+            }
+            int l = left[k];
+            int r = right[k];
+            switch (ops[k]) {
+                case CONST:
+                    re[k] = constReal[k];
+                    im[k] = constImaginary[k];
+                    break;
+                case VARIABLE:
+                    re[k] = varReal[l];
+                    im[k] = varImaginary[l];
+                    break;
+                case ADD:
+                    re[k] = re[l] + re[r];
+                    im[k] = im[l] + im[r];
+                    break;
+                case SUBTRACT:
+                    re[k] = re[l] - re[r];
+                    im[k] = im[l] - im[r];
+                    break;
+                case MULTIPLY: {
+                    double a = re[l], b = im[l], c = re[r], d = im[r];
+                    re[k] = a * c - b * d;
+                    im[k] = a * d + b * c;
+                    break;
+                }
+                case DIVIDE: {
+                    double a = re[l], b = im[l], c = re[r], d = im[r];
+                    double denominator = c * c + d * d;
+                    valid &= divisor(denominator, quiet);
+                    re[k] = (a * c + b * d) / denominator;
+                    im[k] = (b * c - a * d) / denominator;
+                    break;
+                }
+                case POWER:
+                    valid &= realExponent(im[r], quiet);
+                    ComplexMath.power(re[l], im[l], re[r], re, im, k);
+                    break;
+                case ROOT:
+                    ComplexMath.power(re[l], im[l], 1.0 / r, re, im, k);
+                    break;
+                case CONJUGATE:
+                    re[k] = re[l];
+                    im[k] = -im[l];
+                    break;
+                case NEGATE:
+                    re[k] = -re[l];
+                    im[k] = -im[l];
+                    break;
+                case FUNCTION:
+                    ComplexFunctions.apply(r, re[l], im[l], re, im, k);
+                    break;
+                case TO_POLAR: {
+                    double a = re[l], b = im[l];
+                    re[k] = Math.sqrt(a * a + b * b);
+                    im[k] = Math.atan2(b, a);
+                    break;
+                }
+                case TO_RECT:
+                    re[k] = re[l] * Math.cos(im[l]);
+                    im[k] = re[l] * Math.sin(im[l]);
+                    break;
+                case POLAR_MULTIPLY:
+                    re[k] = re[l] * re[r];
+                    im[k] = im[l] + im[r];
+                    break;
+                case POLAR_DIVIDE:
+                    valid &= divisor(re[r] * re[r], quiet);
+                    re[k] = re[l] / re[r];
+                    im[k] = im[l] - im[r];
+                    break;
+                case POLAR_POWER:
+                    valid &= realExponent(im[r], quiet);
+                    re[k] = Math.pow(re[l], re[r]);
+                    im[k] = ComplexMath.principalPhase(im[l]) * re[r];
+                    break;
+                case POLAR_ROOT: {
+                    double exponent = 1.0 / r;
+                    re[k] = Math.pow(re[l], exponent);
+                    im[k] = ComplexMath.principalPhase(im[l]) * exponent;
+                    break;
+                }
+                default:
+                    throw new IllegalStateException("Instrução desconhecida: " + ops[k]);
+            }
+        }
+        return valid;
+    }
+
+    /** ComplexMath.checkDivisor, ou apenas o teste quando 'quiet'. */
+    private static boolean divisor(double denominator, boolean quiet) {
+        if (quiet) {
+            return ComplexMath.isValidDivisor(denominator);
+        }
+        ComplexMath.checkDivisor(denominator);
+        return true;
+    }
+
+    /** ComplexMath.checkRealExponent, ou apenas o teste quando 'quiet'. */
+    private static boolean realExponent(double exponentImaginary, boolean quiet) {
+        if (quiet) {
+            return ComplexMath.isRealExponent(exponentImaginary);
+        }
+        ComplexMath.checkRealExponent(exponentImaginary);
+        return true;
+    }
+
+    /**
+     * Retorna esta expressão como um ExpressionKernel interpretado.
+     * Os registradores ficam em um ThreadLocal, então cada chamada não aloca.
+     * É também o fallback usado por ExpressionJit.
+     *
+     * @return Um kernel que avalia esta expressão com o laço de 'switch'.
+     */
+    public ExpressionKernel interpreted() {
+        return new Interpreted(this);
+    }
+
+    /** O kernel de interpreted(): registradores em um ThreadLocal. */
+    private static final class Interpreted implements ExpressionKernel {
+        private final CompiledExpression expression;
+        private final ThreadLocal<double[][]> registers;
+
+        Interpreted(CompiledExpression expression) {
+            this.expression = expression;
+            this.registers = ThreadLocal.withInitial(() -> new double[2][expression.size()]);
+        }
+
+        @Override
+        public void evaluate(double[] varReal, double[] varImaginary, double[] out) {
+            double[][] regs = registers.get();
+            expression.evaluate(varReal, varImaginary, regs[0], regs[1]);
+            out[0] = regs[0][expression.resultRegister()];
+            out[1] = regs[1][expression.resultRegister()];
+        }
+
+        @Override
+        public boolean evaluateQuietly(double[] varReal, double[] varImaginary, double[] out) {
+            double[][] regs = registers.get();
+            boolean valid = expression.evaluateQuietly(varReal, varImaginary, regs[0], regs[1]);
+            out[0] = regs[0][expression.resultRegister()];
+            out[1] = regs[1][expression.resultRegister()];
+            return valid;
+        }
+    }
+
+    // --- Construção do Programa ---
+
+    /**
+     * Achata a AST em instruções (pós-ordem: operandos antes do operador).
+     */
+    static final class Builder {
+        private int[] ops = new int[16];
+        private int[] left = new int[16];
+        private int[] right = new int[16];
+        private double[] constReal = new double[16];
+        private double[] constImaginary = new double[16];
+        private int size = 0;
+        private final List<String> variables = new ArrayList<>();
+
+        /** Posição de cada variável em 'variables', para não buscar na lista a cada uso. */
+        private final Map<String, Integer> variableIndex = new HashMap<>();
+
+        /**
+         * Emite as instruções de 'root' e retorna o registrador do resultado.
+         *
+         * O percurso usa uma pilha explícita em vez de recursão, para que
+         * árvores muito profundas (ex: somas de milhares de termos geradas
+         * por máquina e lidas pelo StreamingTokenizer) não estourem a pilha
+         * de chamadas. A ordem das instruções é a mesma da recursão: operando
+         * esquerdo, operando direito, operador.
+         *
+         * Um nó que aparece mais de uma vez (o mesmo objeto) é emitido só na
+         * primeira; as demais ocorrências reusam seu registrador.
+         */
+        int emit(Expr root) {
+            ArrayDeque<Object> work = new ArrayDeque<>();
+            IdentityHashMap<Expr, Integer> emitted = new IdentityHashMap<>();
+            int[] results = new int[16];
+            int depth = 0;
+            work.push(root);
+
+            while (!work.isEmpty()) {
+                Object item = work.pop();
+
+                int register;
+                Integer shared = item instanceof Expr ? emitted.get(item) : null;
+                if (shared != null) {
+                    register = shared;
+                } else if (item instanceof Pending pending) {
+                    // Os operandos já foram emitidos: seus registradores estão no topo de 'results'
+                    Expr node = pending.node();
+                    if (node instanceof Expr.Binary binary) {
+                        int r = results[--depth];
+                        int l = results[--depth];
+                        register = add(opcode(binary.operator()), l, r);
+                    } else if (node instanceof Expr.Root rootNode) {
+                        register = add(ROOT, results[--depth], rootNode.index());
+                    } else if (node instanceof Expr.Conjugate) {
+                        register = add(CONJUGATE, results[--depth], 0);
+                    } else if (node instanceof Expr.Function function) {
+                        register = add(FUNCTION, results[--depth], ComplexFunctions.code(function.function()));
+                    } else {
+                        register = add(NEGATE, results[--depth], 0);
+                    }
+                    emitted.put(node, register);
+                } else if (item instanceof Expr.Literal literal) {
+                    register = constant(literal.value().real(), literal.value().imaginary());
+                    emitted.put(literal, register);
+                } else if (item instanceof Expr.Variable variable) {
+                    register = add(VARIABLE, variableIndex(variable.name()), 0);
+                    emitted.put(variable, register);
+                } else {
+                    // Nó interno: volta a ele depois dos operandos (o esquerdo sai primeiro da pilha)
+                    Expr node = (Expr) item;
+                    work.push(new Pending(node));
+                    if (node instanceof Expr.Binary binary) {
+                        work.push(binary.right());
+                        work.push(binary.left());
+                    } else if (node instanceof Expr.Negate negate) {
+                        work.push(negate.operand());
+                    } else if (node instanceof Expr.Conjugate conjugate) {
+                        work.push(conjugate.operand());
+                    } else if (node instanceof Expr.Function function) {
+                        work.push(function.operand());
+                    } else {
+                        work.push(((Expr.Root) node).operand());
+                    }
+                    continue;
+                }
+
+                if (depth == results.length) {
+                    results = Arrays.copyOf(results, depth * 2);
+                }
+                results[depth++] = register;
+            }
+            return results[0];
+        }
+
+        /** Marca, na pilha de emit(), um nó interno cujos operandos já foram emitidos. */
+        private record Pending(Expr node) { }
+
+        /** Emite uma instrução CONST com o par (re, im) e retorna seu registrador. */
+        int constant(double re, double im) {
+            int k = add(CONST, 0, 0);
+            constReal[k] = re;
+            constImaginary[k] = im;
+            return k;
+        }
+
+        int variableIndex(String name) {
+            Integer index = variableIndex.get(name);
+            if (index == null) {
+                index = variables.size();
+                variables.add(name);
+                variableIndex.put(name, index);
+            }
+            return index;
+        }
+
+        int add(int op, int l, int r) {
+            if (size == ops.length) {
+                int capacity = size * 2;
+                ops = Arrays.copyOf(ops, capacity);
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                constReal = Arrays.copyOf(constReal, capacity);
+                constImaginary = Arrays.copyOf(constImaginary, capacity);
+            }
+            ops[size] = op;
+            left[size] = l;
+            right[size] = r;
+            return size++;
+        }
+
+        CompiledExpression build() {
+            return build(null);
+        }
+
+        /** @param rectangular O programa original, se este for o resultado do PolarPlanner. */
+        CompiledExpression build(CompiledExpression rectangular) {
+            return new CompiledExpression(
+                    Arrays.copyOf(ops, size), Arrays.copyOf(left, size), Arrays.copyOf(right, size),
+                    Arrays.copyOf(constReal, size), Arrays.copyOf(constImaginary, size),
+                    new ArrayList<>(variables), rectangular);
+        }
+
+        private static int opcode(TokenType operator) {
+            switch (operator) {
+                case PLUS:     return ADD;
+                case MINUS:    return SUBTRACT;
+                case MULTIPLY: return MULTIPLY;
+                case DIVIDE:   return DIVIDE;
+                case POWER:    return POWER;
+                default: throw new IllegalArgumentException("Operador binário inválido: " + operator);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.facsculator;
+
+import java.util.Objects;
+
+/**
+ * Vetor de números complexos armazenado em dois arrays primitivos
+ * (layout "split"): um para as partes reais e outro para as imaginárias.
+ *
+ * Diferente de um ComplexNumber[], que guarda um objeto de 32 bytes por
+ * elemento, aqui cada elemento ocupa apenas dois doubles contíguos em memória.
+ * As operações em lote (add, multiply, divide...) escrevem em um array de
+ * destino fornecido pelo chamador e não alocam nada por elemento.
+ *
+ * Cada operação em lote produz, elemento a elemento, exatamente os mesmos
+ * bits que o método escalar correspondente de ComplexNumber.
+ * O destino pode ser o próprio 'this' ou o outro operando (operação in-place).
+ *
+ * add, multiply, divide e magnitude usam ComplexKernels.active(), que escolhe
+ * entre o laço escalar e a versão SIMD (Vector API) em tempo de execução.
+ * As funções elementares (exp, log, sin, ...) usam ComplexFunctions; sinCos
+ * e sinhCosh calculam as duas funções com as mesmas chamadas reais.
+ */
+public final class ComplexArray {
+
+    /** As partes reais (a) de cada elemento. */
+    private final double[] real;
+
+    /** As partes imaginárias (b) de cada elemento. */
+    private final double[] imaginary;
+
+    // --- Construtores ---
+
+    /**
+     * Cria um vetor de 'length' elementos, todos iguais a zero (0+0i).
+     *
+     * @param length O número de elementos.
+     */
+    public ComplexArray(int length) {
+        this(new double[length], new double[length]);
+    }
+
+    /**
+     * Envolve (sem copiar) dois arrays já existentes.
+     * Alterações no vetor são visíveis nos arrays e vice-versa.
+     *
+     * @param real As partes reais.
+     * @param imaginary As partes imaginárias (mesmo tamanho de 'real').
+     * @throws IllegalArgumentException se os arrays tiverem tamanhos diferentes.
+     */
+    public ComplexArray(double[] real, double[] imaginary) {
+        if (real.length != imaginary.length) {
+            throw new IllegalArgumentException("Os arrays real e imaginário devem ter o mesmo tamanho.");
+        }
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    // --- Conversões ---
+
+    /**
+     * Converte um array de ComplexNumber para o layout primitivo.
+     *
+     * @param values Os números a copiar.
+     * @return Um novo ComplexArray com os mesmos valores.
+     */
+    public static ComplexArray of(ComplexNumber... values) {
+        ComplexArray result = new ComplexArray(values.length);
+        for (int k = 0; k < values.length; k++) {
+            result.real[k] = values[k].real();
+            result.imaginary[k] = values[k].imaginary();
+        }
+        return result;
+    }
+
+    /**
+     * Converte de volta para um array de ComplexNumber (aloca um objeto por elemento).
+     *
+     * @return Um novo array com os mesmos valores.
+     */
+    public ComplexNumber[] toComplexNumbers() {
+        ComplexNumber[] values = new ComplexNumber[real.length];
+        for (int k = 0; k < values.length; k++) {
+            values[k] = new ComplexNumber(real[k], imaginary[k]);
+        }
+        return values;
+    }
+
+    // --- Acesso ---
+
+    /** @return O número de elementos. */
+    public int length() {
+        return real.length;
+    }
+
+    /** @return O array (não copiado) das partes reais. */
+    public double[] real() {
+        return real;
+    }
+
+    /** @return O array (não copiado) das partes imaginárias. */
+    public double[] imaginary() {
+        return imaginary;
+    }
+
+    /** @return O elemento 'index' como um novo ComplexNumber. */
+    public ComplexNumber get(int index) {
+        return new ComplexNumber(real[index], imaginary[index]);
+    }
+
+    /** Substitui o elemento 'index' por (re + im i). */
+    public void set(int index, double re, double im) {
+        real[index] = re;
+        imaginary[index] = im;
+    }
+
+    /** Substitui o elemento 'index' pelo valor de 'value'. */
+    public void set(int index, ComplexNumber value) {
+        set(index, value.real(), value.imaginary());
+    }
+
+    // --- Operações Aritméticas em Lote ---
+
+    /**
+     * dst[k] = this[k] + other[k]  (equivale a ComplexNumber.sum).
+     */
+    public void add(ComplexArray other, ComplexArray dst) {
+        checkSameLength(other, dst);
+        ComplexKernels.active().sum(real, imaginary, other.real, other.imaginary,
+                dst.real, dst.imaginary, length());
+    }
+
+    /**
+     * dst[k] = this[k] - other[k]  (equivale a ComplexNumber.subtract).
+     */
+    public void subtract(ComplexArray other, ComplexArray dst) {
+        checkSameLength(other, dst);
+        double[] ar = real, ai = imaginary, br = other.real, bi = other.imaginary;
+        double[] dr = dst.real, di = dst.imaginary;
+        for (int k = 0; k < ar.length; k++) {
+            dr[k] = ar[k] - br[k];
+            di[k] = ai[k] - bi[k];
+        }
+    }
+
+    /**
+     * dst[k] = this[k] * other[k]  (equivale a ComplexNumber.multiply).
+     */
+    public void multiply(ComplexArray other, ComplexArray dst) {
+        checkSameLength(other, dst);
+        ComplexKernels.active().multiply(real, imaginary, other.real, other.imaginary,
+                dst.real, dst.imaginary, length());
+    }
+
+    /**
+     * dst[k] = this[k] / other[k]  (equivale a ComplexNumber.divide).
+     *
+     * @throws ArithmeticException no primeiro divisor zero (0+0i) encontrado.
+     * Os elementos anteriores a ele já terão sido escritos em 'dst'.
+     */
+    public void divide(ComplexArray other, ComplexArray dst) {
+        checkSameLength(other, dst);
+        ComplexKernels.active().divide(real, imaginary, other.real, other.imaginary,
+                dst.real, dst.imaginary, length());
+    }
+
+    /**
+     * dst[k] = conjugado de this[k]  (equivale a ComplexNumber.conjugate).
+     */
+    public void conjugate(ComplexArray dst) {
+        checkSameLength(this, dst);
+        double[] ar = real, ai = imaginary, dr = dst.real, di = dst.imaginary;
+        for (int k = 0; k < ar.length; k++) {
+            dr[k] = ar[k];
+            di[k] = -ai[k];
+        }
+    }
+
+    /**
+     * dst[k] = this[k] * factor  (equivale a this[k].multiply(factor)).
+     */
+    public void scale(ComplexNumber factor, ComplexArray dst) {
+        checkSameLength(this, dst);
+        double c = factor.real(), d = factor.imaginary();
+        double[] ar = real, ai = imaginary, dr = dst.real, di = dst.imaginary;
+        for (int k = 0; k < ar.length; k++) {
+            double a = ar[k], b = ai[k];
+            dr[k] = a * c - b * d;
+            di[k] = a * d + b * c;
+        }
+    }
+
+    /**
+     * dst[k] = (a*factor) + (b*factor)i, escala pelas duas partes por um real.
+     * Equivale a new ComplexNumber(a * factor, b * factor).
+     */
+    public void scale(double factor, ComplexArray dst) {
+        checkSameLength(this, dst);
+        double[] ar = real, ai = imaginary, dr = dst.real, di = dst.imaginary;
+        for (int k = 0; k < ar.length; k++) {
+            dr[k] = ar[k] * factor;
+            di[k] = ai[k] * factor;
+        }
+    }
+
+    // --- Funções Polares em Lote ---
+
+    /**
+     * dst[k] = |this[k]|  (equivale a ComplexNumber.magnitude).
+     *
+     * @param dst Array de destino com pelo menos length() posições.
+     */
+    public void magnitude(double[] dst) {
+        checkCapacity(dst);
+        ComplexKernels.active().magnitude(real, imaginary, dst, length());
+    }
+
+    /**
+     * dst[k] = fase de this[k] em radianos  (equivale a ComplexNumber.phase).
+     *
+     * @param dst Array de destino com pelo menos length() posições.
+     */
+    public void phase(double[] dst) {
+        checkCapacity(dst);
+        double[] ar = real, ai = imaginary;
+        for (int k = 0; k < ar.length; k++) {
+            dst[k] = Math.atan2(ai[k], ar[k]);
+        }
+    }
+
+    // --- Funções Elementares em Lote ---
+
+    /** dst[k] = exp(this[k])  (equivale a ComplexNumber.exp). */
+    public void exp(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.exp(real, imaginary, dst.real, dst.imaginary, length());
+    }
+
+    /** dst[k] = log(this[k])  (equivale a ComplexNumber.log). */
+    public void log(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.log(real, imaginary, dst.real, dst.imaginary, length());
+    }
+
+    /** dst[k] = sin(this[k])  (equivale a ComplexNumber.sin). */
+    public void sin(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.sinCos(real, imaginary, dst.real, dst.imaginary, null, null, length());
+    }
+
+    /** dst[k] = cos(this[k])  (equivale a ComplexNumber.cos). */
+    public void cos(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.sinCos(real, imaginary, null, null, dst.real, dst.imaginary, length());
+    }
+
+    /** dst[k] = sinh(this[k])  (equivale a ComplexNumber.sinh). */
+    public void sinh(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.sinhCosh(real, imaginary, dst.real, dst.imaginary, null, null, length());
+    }
+
+    /** dst[k] = cosh(this[k])  (equivale a ComplexNumber.cosh). */
+    public void cosh(ComplexArray dst) {
+        checkSameLength(this, dst);
+        ComplexFunctions.sinhCosh(real, imaginary, null, null, dst.real, dst.imaginary, length());
+    }
+
+    /**
+     * sinDst[k] = sin(this[k]) e cosDst[k] = cos(this[k]), em uma passada:
+     * o expm1, o sin e o cos reais de cada elemento servem às duas funções.
+     *
+     * @throws IllegalArgumentException se os tamanhos não baterem ou se os
+     * dois destinos forem o mesmo vetor.
+     */
+    public void sinCos(ComplexArray sinDst, ComplexArray cosDst) {
+        checkSameLength(sinDst, cosDst);
+        checkDistinct(sinDst, cosDst);
+        ComplexFunctions.sinCos(real, imaginary, sinDst.real, sinDst.imaginary,
+                cosDst.real, cosDst.imaginary, length());
+    }
+
+    /**
+     * sinhDst[k] = sinh(this[k]) e coshDst[k] = cosh(this[k]), em uma passada.
+     *
+     * @throws IllegalArgumentException se os tamanhos não baterem ou se os
+     * dois destinos forem o mesmo vetor.
+     */
+    public void sinhCosh(ComplexArray sinhDst, ComplexArray coshDst) {
+        checkSameLength(sinhDst, coshDst);
+        checkDistinct(sinhDst, coshDst);
+        ComplexFunctions.sinhCosh(real, imaginary, sinhDst.real, sinhDst.imaginary,
+                coshDst.real, coshDst.imaginary, length());
+    }
+
+    // --- Validação ---
+
+    private void checkSameLength(ComplexArray other, ComplexArray dst) {
+        Objects.requireNonNull(other);
+        Objects.requireNonNull(dst);
+        if (other.length() != length() || dst.length() != length()) {
+            throw new IllegalArgumentException("Os vetores complexos devem ter o mesmo tamanho.");
+        }
+    }
+
+    private static void checkDistinct(ComplexArray first, ComplexArray second) {
+        if (first == second) {
+            throw new IllegalArgumentException("Os dois vetores de destino devem ser diferentes.");
+        }
+    }
+
+    private void checkCapacity(double[] dst) {
+        if (dst.length < length()) {
+            throw new IllegalArgumentException("O array de destino é menor que o vetor complexo.");
+        }
+    }
+}
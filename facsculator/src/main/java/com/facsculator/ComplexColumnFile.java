@@ -0,0 +1,421 @@
+package com.facsculator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Coluna de números complexos em um arquivo binário, acessada por
+ * FileChannel.map: os elementos são lidos e escritos direto nas páginas
+ * mapeadas, sem passar por texto (Tokenizer, toString) nem copiar o arquivo
+ * para o heap. Arquivos maiores que 2 GB são mapeados em segmentos de
+ * {@link #SEGMENT_BYTES} bytes.
+ *
+ * Formato (little-endian):
+ * <pre>
+ *   0  4 bytes  "FACC"
+ *   4  int      versão (1)
+ *   8  byte     layout: 0 = SPLIT, 1 = INTERLEAVED
+ *   9  byte     flags: bit 0 = tem mapa de erros
+ *  10  6 bytes  reservado (zero)
+ *  16  long     número de elementos n
+ *  24  8 bytes  reservado (zero)
+ *  32  dados    SPLIT: n partes reais e depois n imaginárias;
+ *               INTERLEAVED: n pares (real, imaginário)
+ *      erros    (opcional) ceil(n / 64) longs, bit i = elemento i inválido
+ * </pre>
+ *
+ * Os doubles são gravados bit a bit (inclusive -0.0, infinitos e NaN), então
+ * set(i, z) seguido de get(i) devolve um ComplexNumber equals a z.
+ *
+ * Os acessos são absolutos (não mudam a posição dos buffers), então várias
+ * threads podem ler o arquivo ao mesmo tempo e escrever em elementos
+ * diferentes; o mapa de erros deve ser escrito por palavras de 64 elementos
+ * (como faz o BatchEvaluator).
+ */
+public final class ComplexColumnFile implements Closeable {
+
+    /** Como as partes real e imaginária são dispostas no arquivo. */
+    public enum Layout {
+        /** Todas as partes reais e depois todas as imaginárias (como ComplexArray). */
+        SPLIT,
+        /** Pares (real, imaginário) por elemento. */
+        INTERLEAVED
+    }
+
+    /** Os 4 primeiros bytes do arquivo: "FACC". */
+    static final int MAGIC = 0x43434146;
+
+    static final int VERSION = 1;
+
+    /** Tamanho do cabeçalho (e posição do primeiro dado). */
+    public static final int HEADER_BYTES = 32;
+
+    /** Bytes por segmento mapeado (múltiplo de 8: um double nunca fica entre dois segmentos). */
+    public static final int SEGMENT_BYTES = 1 << 30;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int FLAG_ERRORS = 1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    /** Visões little-endian dos segmentos. */
+    private final ByteBuffer[] bytes;
+    private final DoubleBuffer[] doubles;
+    private final long length;
+    private final Layout layout;
+    private final boolean hasErrors;
+    private final long errorsPosition;
+
+    private ComplexColumnFile(FileChannel channel, FileChannel.MapMode mode, long fileSize,
+                              long length, Layout layout, boolean hasErrors) throws IOException {
+        this.channel = channel;
+        this.length = length;
+        this.layout = layout;
+        this.hasErrors = hasErrors;
+        this.errorsPosition = HEADER_BYTES + 16 * length;
+        int count = (int) ((fileSize + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT);
+        this.segments = new MappedByteBuffer[count];
+        this.bytes = new ByteBuffer[count];
+        this.doubles = new DoubleBuffer[count];
+        for (int s = 0; s < count; s++) {
+            long start = (long) s << SEGMENT_SHIFT;
+            segments[s] = channel.map(mode, start, Math.min(SEGMENT_BYTES, fileSize - start));
+            bytes[s] = segments[s].duplicate().order(ByteOrder.LITTLE_ENDIAN);
+            doubles[s] = bytes[s].asDoubleBuffer();
+        }
+    }
+
+    /**
+     * Cria (ou substitui) um arquivo com 'length' elementos iguais a zero,
+     * aberto para leitura e escrita.
+     *
+     * @param path O arquivo.
+     * @param length O número de elementos.
+     * @param layout A disposição das partes real e imaginária.
+     * @param withErrors Se o arquivo tem o mapa de erros.
+     * @return O arquivo mapeado.
+     * @throws IOException se o arquivo não puder ser criado.
+     * @throws IllegalArgumentException se length for negativo.
+     */
+    public static ComplexColumnFile create(Path path, long length, Layout layout, boolean withErrors)
+            throws IOException {
+        if (length < 0) {
+            throw new IllegalArgumentException("O número de elementos não pode ser negativo.");
+        }
+        long size = HEADER_BYTES + 16 * length + (withErrors ? 8 * ((length + 63) >>> 6) : 0);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                               StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ComplexColumnFile file = new ComplexColumnFile(channel, FileChannel.MapMode.READ_WRITE, size,
+                                                           length, layout, withErrors);
+            ByteBuffer header = file.bytes[0];
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.put(8, (byte) layout.ordinal());
+            header.put(9, (byte) (withErrors ? FLAG_ERRORS : 0));
+            header.putLong(16, length);
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Abre um arquivo existente só para leitura.
+     *
+     * @param path O arquivo.
+     * @return O arquivo mapeado (set, write e setErrorWord lançam ReadOnlyBufferException).
+     * @throws IOException se o arquivo não puder ser lido ou não estiver no formato.
+     */
+    public static ComplexColumnFile open(Path path) throws IOException {
+        return open(path, false);
+    }
+
+    /**
+     * Abre um arquivo existente.
+     *
+     * @param path O arquivo.
+     * @param writable Se os elementos podem ser alterados.
+     * @return O arquivo mapeado.
+     * @throws IOException se o arquivo não puder ser lido ou não estiver no formato.
+     */
+    public static ComplexColumnFile open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (size >= HEADER_BYTES) {
+                while (header.hasRemaining()) {
+                    channel.read(header, header.position());
+                }
+            }
+            if (size < HEADER_BYTES || header.getInt(0) != MAGIC) {
+                throw new IOException("Arquivo inválido: " + path + " não é uma coluna de números complexos.");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Versão não suportada do arquivo " + path + ": " + header.getInt(4) + ".");
+            }
+            int layoutCode = header.get(8);
+            long length = header.getLong(16);
+            boolean withErrors = (header.get(9) & FLAG_ERRORS) != 0;
+            if (layoutCode < 0 || layoutCode >= Layout.values().length || length < 0 || length > size / 16
+                    || size != HEADER_BYTES + 16 * length + (withErrors ? 8 * ((length + 63) >>> 6) : 0)) {
+                throw new IOException("Arquivo inválido: o cabeçalho de " + path + " não corresponde ao tamanho.");
+            }
+            return new ComplexColumnFile(channel, writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                                         size, length, Layout.values()[layoutCode], withErrors);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Grava um ComplexArray inteiro em um novo arquivo.
+     *
+     * @param path O arquivo (substituído se existir).
+     * @param values Os valores.
+     * @param layout A disposição das partes real e imaginária.
+     * @throws IOException se a escrita falhar.
+     */
+    public static void write(Path path, ComplexArray values, Layout layout) throws IOException {
+        try (ComplexColumnFile file = create(path, values.length(), layout, false)) {
+            file.write(0, values.real(), values.imaginary(), 0, values.length());
+        }
+    }
+
+    // --- Consultas ---
+
+    /** @return O número de elementos. */
+    public long length() {
+        return length;
+    }
+
+    /** @return A disposição das partes real e imaginária. */
+    public Layout layout() {
+        return layout;
+    }
+
+    /** @return true se o arquivo tem o mapa de erros. */
+    public boolean hasErrors() {
+        return hasErrors;
+    }
+
+    // --- Elementos ---
+
+    /** @return A parte real do elemento i. */
+    public double real(long i) {
+        return getDouble(realPosition(Objects.checkIndex(i, length)));
+    }
+
+    /** @return A parte imaginária do elemento i. */
+    public double imaginary(long i) {
+        return getDouble(imaginaryPosition(Objects.checkIndex(i, length)));
+    }
+
+    /** @return O elemento i. */
+    public ComplexNumber get(long i) {
+        return new ComplexNumber(real(i), imaginary(i));
+    }
+
+    /**
+     * @param i O índice do elemento.
+     * @param re A parte real.
+     * @param im A parte imaginária.
+     */
+    public void set(long i, double re, double im) {
+        Objects.checkIndex(i, length);
+        putDouble(realPosition(i), re);
+        putDouble(imaginaryPosition(i), im);
+    }
+
+    /**
+     * @param i O índice do elemento.
+     * @param value O novo valor.
+     */
+    public void set(long i, ComplexNumber value) {
+        set(i, value.real(), value.imaginary());
+    }
+
+    /**
+     * Copia 'count' elementos a partir de 'from' para os arrays.
+     *
+     * @param from O primeiro elemento do arquivo.
+     * @param re Recebe as partes reais.
+     * @param im Recebe as partes imaginárias.
+     * @param offset A posição em re e im do primeiro elemento.
+     * @param count O número de elementos.
+     */
+    public void read(long from, double[] re, double[] im, int offset, int count) {
+        Objects.checkFromIndexSize(from, count, length);
+        if (layout == Layout.SPLIT) {
+            readDoubles(realPosition(from), re, offset, count);
+            readDoubles(imaginaryPosition(from), im, offset, count);
+        } else {
+            for (int k = 0; k < count; k++) {
+                re[offset + k] = getDouble(realPosition(from + k));
+                im[offset + k] = getDouble(imaginaryPosition(from + k));
+            }
+        }
+    }
+
+    /**
+     * Copia 'count' elementos dos arrays para o arquivo, a partir de 'from'.
+     *
+     * @param from O primeiro elemento do arquivo.
+     * @param re As partes reais.
+     * @param im As partes imaginárias.
+     * @param offset A posição em re e im do primeiro elemento.
+     * @param count O número de elementos.
+     */
+    public void write(long from, double[] re, double[] im, int offset, int count) {
+        Objects.checkFromIndexSize(from, count, length);
+        if (layout == Layout.SPLIT) {
+            writeDoubles(realPosition(from), re, offset, count);
+            writeDoubles(imaginaryPosition(from), im, offset, count);
+        } else {
+            for (int k = 0; k < count; k++) {
+                putDouble(realPosition(from + k), re[offset + k]);
+                putDouble(imaginaryPosition(from + k), im[offset + k]);
+            }
+        }
+    }
+
+    /**
+     * Copia o arquivo inteiro para o heap.
+     *
+     * @return Os valores.
+     * @throws IllegalStateException se o arquivo tiver mais elementos que um array.
+     */
+    public ComplexArray toComplexArray() {
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("O arquivo tem " + length + " elementos, mais que um array.");
+        }
+        ComplexArray values = new ComplexArray((int) length);
+        read(0, values.real(), values.imaginary(), 0, (int) length);
+        return values;
+    }
+
+    // --- Mapa de erros ---
+
+    /** @return true se o elemento i está marcado como inválido (false sem mapa de erros). */
+    public boolean isError(long i) {
+        Objects.checkIndex(i, length);
+        return hasErrors && (errorWord(i >>> 6) & (1L << i)) != 0;
+    }
+
+    /**
+     * @param word O índice da palavra (elementos 64*word a 64*word + 63).
+     * @return Os bits de erro desses elementos.
+     */
+    public long errorWord(long word) {
+        checkErrors();
+        return bytes(errorsPosition + 8 * word).getLong(offset(errorsPosition + 8 * word));
+    }
+
+    /**
+     * Substitui os bits de erro dos elementos 64*word a 64*word + 63.
+     *
+     * @param word O índice da palavra.
+     * @param bits Os novos bits.
+     */
+    public void setErrorWord(long word, long bits) {
+        checkErrors();
+        bytes(errorsPosition + 8 * word).putLong(offset(errorsPosition + 8 * word), bits);
+    }
+
+    /** @return O número de elementos marcados como inválidos. */
+    public long errorCount() {
+        if (!hasErrors) {
+            return 0;
+        }
+        long count = 0;
+        for (long w = 0; w < (length + 63) >>> 6; w++) {
+            count += Long.bitCount(errorWord(w));
+        }
+        return count;
+    }
+
+    private void checkErrors() {
+        if (!hasErrors) {
+            throw new IllegalStateException("O arquivo não tem mapa de erros.");
+        }
+    }
+
+    // --- Persistência ---
+
+    /** Grava no disco as páginas alteradas. */
+    public void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /** Fecha o canal; as páginas já escritas são gravadas pelo sistema operacional. */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // --- Posições ---
+
+    private long realPosition(long i) {
+        return (layout == Layout.SPLIT) ? HEADER_BYTES + 8 * i : HEADER_BYTES + 16 * i;
+    }
+
+    private long imaginaryPosition(long i) {
+        return (layout == Layout.SPLIT) ? HEADER_BYTES + 8 * (length + i) : HEADER_BYTES + 16 * i + 8;
+    }
+
+    private ByteBuffer bytes(long position) {
+        return bytes[(int) (position >>> SEGMENT_SHIFT)];
+    }
+
+    private static int offset(long position) {
+        return (int) (position & (SEGMENT_BYTES - 1));
+    }
+
+    private double getDouble(long position) {
+        return bytes(position).getDouble(offset(position));
+    }
+
+    private void putDouble(long position, double value) {
+        bytes(position).putDouble(offset(position), value);
+    }
+
+    /** Cópia em bloco de doubles contíguos (SPLIT), segmento a segmento. */
+    private void readDoubles(long position, double[] dst, int offset, int count) {
+        while (count > 0) {
+            int segment = (int) (position >>> SEGMENT_SHIFT);
+            int at = offset(position) >>> 3;
+            int n = Math.min(count, doubles[segment].capacity() - at);
+            doubles[segment].get(at, dst, offset, n);
+            position += 8L * n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    private void writeDoubles(long position, double[] src, int offset, int count) {
+        while (count > 0) {
+            int segment = (int) (position >>> SEGMENT_SHIFT);
+            int at = offset(position) >>> 3;
+            int n = Math.min(count, doubles[segment].capacity() - at);
+            doubles[segment].put(at, src, offset, n);
+            position += 8L * n;
+            offset += n;
+            count -= n;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.facsculator;
+
+/**
+ * Um número dual complexo f + f'ε (com ε^2 = 0): um valor junto com sua
+ * derivada em relação a uma variável, para a diferenciação automática em
+ * modo direto. Cada operação calcula o valor como o método correspondente de
+ * ComplexNumber (mesmos resultados e exceções) e a derivada pela regra de
+ * derivação da operação, em uma única passada, sem diferenças finitas.
+ *
+ * Para funções holomorfas (tudo exceto conj), a derivada é a derivada
+ * complexa f'(z). O conjugado não é holomorfo: nele, a derivada propagada é a
+ * derivada direcional ao longo do eixo real da variável, ∂f/∂x.
+ *
+ * @param value O valor f.
+ * @param derivative A derivada f'.
+ */
+public record ComplexDual(ComplexNumber value, ComplexNumber derivative) {
+
+    private static final ComplexNumber ZERO = new ComplexNumber(0, 0);
+    private static final ComplexNumber ONE = new ComplexNumber(1, 0);
+
+    /**
+     * @param value O valor.
+     * @return Uma constante (derivada 0).
+     */
+    public static ComplexDual constant(ComplexNumber value) {
+        return new ComplexDual(value, ZERO);
+    }
+
+    /**
+     * @param value O valor da variável.
+     * @return A própria variável de diferenciação (derivada 1).
+     */
+    public static ComplexDual variable(ComplexNumber value) {
+        return new ComplexDual(value, ONE);
+    }
+
+    // --- Operações Aritméticas ---
+
+    /** (f + g)' = f' + g' */
+    public ComplexDual sum(ComplexDual other) {
+        return new ComplexDual(value.sum(other.value), derivative.sum(other.derivative));
+    }
+
+    /** (f - g)' = f' - g' */
+    public ComplexDual subtract(ComplexDual other) {
+        return new ComplexDual(value.subtract(other.value), derivative.subtract(other.derivative));
+    }
+
+    /** (f * g)' = f'g + fg' */
+    public ComplexDual multiply(ComplexDual other) {
+        return new ComplexDual(value.multiply(other.value),
+                derivative.multiply(other.value).sum(value.multiply(other.derivative)));
+    }
+
+    /**
+     * (f / g)' = (f' - (f/g) * g') / g
+     *
+     * @throws ArithmeticException se o divisor for zero (0+0i), como em ComplexNumber.divide.
+     */
+    public ComplexDual divide(ComplexDual other) {
+        ComplexNumber quotient = value.divide(other.value);
+        return new ComplexDual(quotient,
+                derivative.subtract(quotient.multiply(other.derivative)).divide(other.value));
+    }
+
+    /** (-f)' = -f' */
+    public ComplexDual negate() {
+        return new ComplexDual(new ComplexNumber(-value.real(), -value.imaginary()),
+                new ComplexNumber(-derivative.real(), -derivative.imaginary()));
+    }
+
+    /** conj(f)' = conj(f'), a derivada ao longo do eixo real (veja a descrição da classe). */
+    public ComplexDual conjugate() {
+        return new ComplexDual(value.conjugate(), derivative.conjugate());
+    }
+
+    // --- Potência e Raiz ---
+
+    /**
+     * (f^n)' = n * f^(n-1) * f', com o valor calculado por ComplexNumber.power.
+     *
+     * @param exponent O expoente real (n).
+     * @return f^n e sua derivada (NaN em f = 0 quando a derivada é infinita).
+     */
+    public ComplexDual power(double exponent) {
+        return power(exponent, 0, 0);
+    }
+
+    /**
+     * f^w para um expoente que também depende da variável:
+     * (f^w)' = f^w * (w * f'/f + log(f) * w').
+     *
+     * @param exponent O expoente, cujo valor deve ser real.
+     * @return f^w e sua derivada.
+     * @throws IllegalArgumentException se o valor do expoente não for real.
+     */
+    public ComplexDual power(ComplexDual exponent) {
+        ComplexMath.checkRealExponent(exponent.value.imaginary());
+        return power(exponent.value.real(), exponent.derivative.real(), exponent.derivative.imaginary());
+    }
+
+    private ComplexDual power(double exponent, double dwRe, double dwIm) {
+        ComplexNumber result = value.power(exponent);
+        double[] dRe = new double[1];
+        double[] dIm = new double[1];
+        ComplexMath.powerDerivative(value.real(), value.imaginary(), derivative.real(), derivative.imaginary(),
+                exponent, dwRe, dwIm, result.real(), result.imaginary(), dRe, dIm, 0);
+        return new ComplexDual(result, new ComplexNumber(dRe[0], dIm[0]));
+    }
+
+    /**
+     * A raiz principal, como ComplexNumber.nthRoot: (f^(1/n))' = (1/n) * f^(1/n - 1) * f'.
+     *
+     * @param n O índice da raiz.
+     * @return A raiz e sua derivada.
+     * @throws IllegalArgumentException (Regra 5) se n for menor ou igual a zero.
+     */
+    public ComplexDual nthRoot(int n) {
+        ComplexNumber root = value.nthRoot(n); // Também valida n
+        double[] dRe = new double[1];
+        double[] dIm = new double[1];
+        ComplexMath.powerDerivative(value.real(), value.imaginary(), derivative.real(), derivative.imaginary(),
+                1.0 / n, 0, 0, root.real(), root.imaginary(), dRe, dIm, 0);
+        return new ComplexDual(root, new ComplexNumber(dRe[0], dIm[0]));
+    }
+
+    // --- Funções Elementares ---
+
+    /** exp(f)' = exp(f) * f' */
+    public ComplexDual exp() {
+        return function(ComplexFunctions.EXP);
+    }
+
+    /** log(f)' = f' / f (infinita em f = 0). */
+    public ComplexDual log() {
+        return function(ComplexFunctions.LOG);
+    }
+
+    /** sin(f)' = cos(f) * f' */
+    public ComplexDual sin() {
+        return function(ComplexFunctions.SIN);
+    }
+
+    /** cos(f)' = -sin(f) * f' */
+    public ComplexDual cos() {
+        return function(ComplexFunctions.COS);
+    }
+
+    /** sinh(f)' = cosh(f) * f' */
+    public ComplexDual sinh() {
+        return function(ComplexFunctions.SINH);
+    }
+
+    /** cosh(f)' = sinh(f) * f' */
+    public ComplexDual cosh() {
+        return function(ComplexFunctions.COSH);
+    }
+
+    private ComplexDual function(int code) {
+        ComplexNumber result = value.function(code);
+        double[] dRe = new double[1];
+        double[] dIm = new double[1];
+        ComplexFunctions.derivative(code, value.real(), value.imaginary(), derivative.real(), derivative.imaginary(),
+                result.real(), result.imaginary(), dRe, dIm, 0);
+        return new ComplexDual(result, new ComplexNumber(dRe[0], dIm[0]));
+    }
+
+    @Override
+    public String toString() {
+        return value + " + (" + derivative + ")ε";
+    }
+}
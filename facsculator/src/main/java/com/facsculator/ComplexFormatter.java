@@ -0,0 +1,234 @@
+package com.facsculator;
+
+import java.io.IOException;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+
+/**
+ * Formata números complexos exatamente como ComplexNumber.toString()
+ * (ex: "3 - 4i", "5", "7i", "-i", "3 - i"), escrevendo direto em um
+ * StringBuilder ou Appendable.
+ *
+ * O valor é pré-arredondado para 10 casas decimais como em toString()
+ * (Math.round(x * 10^10)). Quando esse inteiro tem menos de 16 dígitos,
+ * os dígitos saem dele mesmo, sem DecimalFormat e sem Strings
+ * intermediárias. Acima disso (|x| &gt;= 10^5, raro), é usado um
+ * DecimalFormat("0.##############") por thread.
+ *
+ * Os símbolos (separador decimal, prefixo de negativo, dígito zero) são os do
+ * Locale padrão no carregamento da classe, os mesmos que o DecimalFormat
+ * usaria. Todos os métodos são thread-safe e não usam locks.
+ */
+public final class ComplexFormatter {
+
+    /** 10^10: a escala do pré-arredondamento de 10 casas decimais. */
+    private static final double SCALE = 1e10;
+
+    /** O número 1 em unidades de 10^-10. */
+    private static final long UNIT = 10_000_000_000L;
+
+    /** Abaixo deste valor (10^15) o inteiro arredondado é formatado diretamente. */
+    private static final long FAST_LIMIT = 1_000_000_000_000_000L;
+
+    /**
+     * "0.##############" remove zeros à direita (1.0 -> "1")
+     * mas preserva decimais significativos (1.000005 -> "1.000005").
+     */
+    private static final DecimalFormat PROTOTYPE = new DecimalFormat("0.##############");
+
+    /** Cópias do PROTOTYPE por thread (DecimalFormat não é thread-safe). */
+    private static final ThreadLocal<DecimalFormat> FALLBACK =
+            ThreadLocal.withInitial(() -> (DecimalFormat) PROTOTYPE.clone());
+
+    private static final char ZERO;
+    private static final char SEPARATOR;
+    private static final String POSITIVE_PREFIX;
+    private static final String POSITIVE_SUFFIX;
+    private static final String NEGATIVE_PREFIX;
+    private static final String NEGATIVE_SUFFIX;
+
+    static {
+        DecimalFormatSymbols symbols = PROTOTYPE.getDecimalFormatSymbols();
+        ZERO = symbols.getZeroDigit();
+        SEPARATOR = symbols.getDecimalSeparator();
+        // O sinal de menos pode ter mais de um caractere em alguns Locales
+        POSITIVE_PREFIX = PROTOTYPE.getPositivePrefix();
+        POSITIVE_SUFFIX = PROTOTYPE.getPositiveSuffix();
+        NEGATIVE_PREFIX = PROTOTYPE.getNegativePrefix();
+        NEGATIVE_SUFFIX = PROTOTYPE.getNegativeSuffix();
+    }
+
+    private ComplexFormatter() { }
+
+    // --- Um Número ---
+
+    /** @return O texto de 'value' (o mesmo de value.toString()). */
+    public static String format(ComplexNumber value) {
+        return format(value.real(), value.imaginary());
+    }
+
+    /** @return O texto de real + imaginary*i (o mesmo de ComplexNumber.toString()). */
+    public static String format(double real, double imaginary) {
+        return appendTo(real, imaginary, new StringBuilder(24)).toString();
+    }
+
+    /**
+     * Acrescenta o texto de 'value' a 'out'.
+     * @return O próprio 'out'.
+     */
+    public static StringBuilder appendTo(ComplexNumber value, StringBuilder out) {
+        return appendTo(value.real(), value.imaginary(), out);
+    }
+
+    /**
+     * Acrescenta o texto de real + imaginary*i a 'out'.
+     * @return O próprio 'out'.
+     */
+    public static StringBuilder appendTo(double real, double imaginary, StringBuilder out) {
+        long start = Metrics.start();
+        try {
+            write(real, imaginary, out);
+        } catch (IOException e) {
+            throw new AssertionError(e); // StringBuilder nunca lança IOException
+        }
+        Metrics.stop(Metrics.Stage.FORMAT, start);
+        return out;
+    }
+
+    /**
+     * Escreve o texto de 'value' em 'out' (ex: um Writer).
+     * @throws IOException Se 'out' falhar.
+     */
+    public static void appendTo(ComplexNumber value, Appendable out) throws IOException {
+        long start = Metrics.start();
+        write(value.real(), value.imaginary(), out);
+        Metrics.stop(Metrics.Stage.FORMAT, start);
+    }
+
+    // --- Em Lote ---
+
+    /**
+     * Acrescenta todos os elementos de 'values' a 'out', separados por 'separator'.
+     * @return O próprio 'out'.
+     */
+    public static StringBuilder appendAll(ComplexArray values, CharSequence separator, StringBuilder out) {
+        try {
+            appendAll(values, separator, (Appendable) out);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return out;
+    }
+
+    /**
+     * Escreve todos os elementos de 'values' em 'out', separados por 'separator',
+     * lendo direto dos arrays primitivos (sem criar um ComplexNumber por elemento).
+     * @throws IOException Se 'out' falhar.
+     */
+    public static void appendAll(ComplexArray values, CharSequence separator, Appendable out) throws IOException {
+        double[] re = values.real();
+        double[] im = values.imaginary();
+        for (int k = 0; k < values.length(); k++) {
+            if (k > 0) {
+                out.append(separator);
+            }
+            write(re[k], im[k], out);
+        }
+    }
+
+    /**
+     * @return O texto de cada elemento de 'values', reaproveitando um único
+     * StringBuilder para todos.
+     */
+    public static String[] formatAll(ComplexArray values) {
+        String[] texts = new String[values.length()];
+        StringBuilder sb = new StringBuilder(24);
+        for (int k = 0; k < texts.length; k++) {
+            sb.setLength(0);
+            texts[k] = appendTo(values.real()[k], values.imaginary()[k], sb).toString();
+        }
+        return texts;
+    }
+
+    // --- Lógica de Formatação (a mesma de ComplexNumber.toString()) ---
+
+    private static void write(double real, double imaginary, Appendable out) throws IOException {
+        // Pré-arredonda para 10 casas decimais para limpar "lixo" E-16
+        long rScaled = Math.round(real * SCALE);
+        long iScaled = Math.round(imaginary * SCALE);
+        double r = rScaled / SCALE;
+        double i = iScaled / SCALE;
+
+        // O texto de |i| é exatamente "1"?
+        boolean iAbsIsOne = (iScaled == UNIT || iScaled == -UNIT) && ZERO == '0';
+
+        // Caso 1: Número é (praticamente) real (ex: 5)
+        if (Math.abs(i) < 1e-9) {
+            writeNumber(r, rScaled, out);
+            return;
+        }
+
+        // Caso 2: Número é (praticamente) imaginário puro (ex: 7i, i, -i)
+        if (Math.abs(r) < 1e-9) {
+            if (iAbsIsOne) {
+                out.append(i < 0 ? "-i" : "i");
+                return;
+            }
+            writeNumber(i, iScaled, out);
+            out.append('i');
+            return;
+        }
+
+        // Casos 3 e 4: "3 - 4i", "3 - i", "3 + 4i", "3 + i"
+        writeNumber(r, rScaled, out);
+        out.append(i < 0 ? " - " : " + ");
+        if (!iAbsIsOne) {
+            writeNumber(Math.abs(i), iScaled < 0 ? -iScaled : iScaled, out);
+        }
+        out.append('i');
+    }
+
+    /**
+     * Escreve 'value' (= scaled / 10^10) como o DecimalFormat escreveria.
+     * Com |scaled| &lt; 10^15, 'value' é o double mais próximo do decimal
+     * scaled * 10^-10 (no máximo 15 dígitos), então esses são exatamente
+     * os dígitos que o DecimalFormat produziria.
+     */
+    private static void writeNumber(double value, long scaled, Appendable out) throws IOException {
+        if (scaled <= -FAST_LIMIT || scaled >= FAST_LIMIT) {
+            out.append(FALLBACK.get().format(value));
+            return;
+        }
+        boolean negative = scaled < 0;
+        if (negative) {
+            scaled = -scaled;
+        }
+        out.append(negative ? NEGATIVE_PREFIX : POSITIVE_PREFIX);
+        writeDigits(scaled / UNIT, 1, out);
+
+        long fraction = scaled % UNIT;
+        if (fraction != 0) {
+            int width = 10;
+            while (fraction % 10 == 0) { // Remove os zeros à direita
+                fraction /= 10;
+                width--;
+            }
+            out.append(SEPARATOR);
+            writeDigits(fraction, width, out);
+        }
+        out.append(negative ? NEGATIVE_SUFFIX : POSITIVE_SUFFIX);
+    }
+
+    /** Escreve 'value' em decimal com pelo menos 'width' dígitos (zeros à esquerda). */
+    private static void writeDigits(long value, int width, Appendable out) throws IOException {
+        long power = 1;
+        int digits = 1;
+        while (digits < width || value / power >= 10) {
+            power *= 10;
+            digits++;
+        }
+        for (; power > 0; power /= 10) {
+            out.append((char) (ZERO + (value / power) % 10));
+        }
+    }
+}
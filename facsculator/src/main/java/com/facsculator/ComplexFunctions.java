@@ -0,0 +1,346 @@
+package com.facsculator;
+
+/**
+ * Funções elementares complexas (exp, log, sin, cos, sinh, cosh) sobre
+ * valores primitivos, compartilhadas por ComplexNumber, pelos avaliadores
+ * (CompiledExpression, ExpressionJit, DualExpression) e pelas versões em lote
+ * de ComplexArray, para que todos produzam exatamente os mesmos bits.
+ *
+ * <ul>
+ *   <li><b>Fórmulas:</b> exp(a+bi) = e^a (cos b + i sin b);
+ *       log(z) = ln|z| + i arg(z); sinh(a+bi) = sinh a cos b + i cosh a sin b;
+ *       cosh(a+bi) = cosh a cos b + i sinh a sin b; sin(z) = -i sinh(iz) e
+ *       cos(z) = cosh(iz).</li>
+ *   <li><b>sinh e cosh juntos:</b> os dois vêm de uma única chamada a
+ *       Math.expm1 (ou Math.exp, para |x| &gt;= 22), pelas fórmulas do fdlibm;
+ *       as versões em lote sinCos e sinhCosh também compartilham os senos e
+ *       cossenos da parte real.</li>
+ *   <li><b>Valores especiais:</b> zeros saem exatos e com sinal (ex:
+ *       exp(x + 0i) = e^x + 0i e sin(-0 + bi) tem parte real -0), um fator
+ *       infinito multiplicado por um zero exato dá zero (e não NaN), e NaN se
+ *       propaga. log(0) = -∞ + 0i, e o corte de log no semieixo real negativo
+ *       respeita o sinal do zero da parte imaginária (fase π ou -π, como
+ *       Math.atan2).</li>
+ *   <li><b>Precisão:</b> perto de |z| = 1, ln|z| é calculado por Math.log1p
+ *       de |z|^2 - 1, sem o cancelamento de Math.log(|z|).</li>
+ *   <li><b>Sem estouro intermediário:</b> acima de ln(Double.MAX_VALUE)
+ *       (|x| &gt; 709.78), e^|x| estoura, mas cosh(710) ≈ 1.117e308 ainda é
+ *       finito. Nessa faixa, e^|x| entra como w * w, com w = e^(|x|/2), como
+ *       no fdlibm, e o fator cos/sin é aplicado antes do segundo w: sinh,
+ *       cosh, sin, cos e exp só dão infinito quando o resultado estoura de
+ *       fato (ex: cosh(710.47), ou exp(710 + bi) com |cos b| grande).</li>
+ * </ul>
+ */
+final class ComplexFunctions {
+
+    // --- Códigos das Funções (o operando 'right' da instrução FUNCTION) ---
+
+    static final int EXP = 0;
+    static final int LOG = 1;
+    static final int SIN = 2;
+    static final int COS = 3;
+    static final int SINH = 4;
+    static final int COSH = 5;
+
+    /** Acima disso, sinh e cosh valem e^|x| / 2 (e^-|x| some no arredondamento). */
+    private static final double LARGE = 22;
+
+    /** ln(Double.MAX_VALUE): acima disso, Math.exp estoura. */
+    private static final double OVERFLOW = 7.09782712893383973096e+02;
+
+    private ComplexFunctions() {
+    }
+
+    /**
+     * @param function O token da função (EXP, LOG, SIN, COS, SINH ou COSH).
+     * @return O código da função.
+     */
+    static int code(TokenType function) {
+        switch (function) {
+            case EXP:  return EXP;
+            case LOG:  return LOG;
+            case SIN:  return SIN;
+            case COS:  return COS;
+            case SINH: return SINH;
+            case COSH: return COSH;
+            default: throw new IllegalArgumentException("Função inválida: " + function);
+        }
+    }
+
+    /** @return O nome (palavra-chave) da função de código 'code'. */
+    static String name(int code) {
+        switch (code) {
+            case EXP:  return "exp";
+            case LOG:  return "log";
+            case SIN:  return "sin";
+            case COS:  return "cos";
+            case SINH: return "sinh";
+            case COSH: return "cosh";
+            default: throw new IllegalArgumentException("Função inválida: " + code);
+        }
+    }
+
+    // --- Valores Escalares ---
+
+    /**
+     * f(a+bi) gravado em re[index] e im[index].
+     *
+     * @param code O código da função.
+     */
+    static void apply(int code, double a, double b, double[] re, double[] im, int index) {
+        apply(code, a, b, re, index, im, index);
+    }
+
+    /**
+     * f(a+bi) gravado em pair[0] (real) e pair[1] (imaginário). Usado por
+     * ComplexNumber e pelo bytecode gerado por ExpressionJit.
+     */
+    static void apply(int code, double a, double b, double[] pair) {
+        apply(code, a, b, pair, 0, pair, 1);
+    }
+
+    private static void apply(int code, double a, double b, double[] re, int reIndex, double[] im, int imIndex) {
+        switch (code) {
+            case EXP:
+                re[reIndex] = expTimes(a, b, Math.cos(b));
+                im[imIndex] = expTimes(a, b, Math.sin(b));
+                break;
+            case LOG:
+                re[reIndex] = logModulus(a, b);
+                im[imIndex] = Math.atan2(b, a);
+                break;
+            case SINH: {
+                // sinh a cos b + i cosh a sin b
+                double ax = Math.abs(a), t = hyperbolicBase(ax);
+                re[reIndex] = scaled(sinh(a, ax, t), ax, t, Math.cos(b));
+                im[imIndex] = scaled(cosh(ax, t), ax, t, Math.sin(b));
+                break;
+            }
+            case COSH: {
+                // cosh a cos b + i sinh a sin b
+                double ax = Math.abs(a), t = hyperbolicBase(ax);
+                re[reIndex] = scaled(cosh(ax, t), ax, t, Math.cos(b));
+                im[imIndex] = scaled(sinh(a, ax, t), ax, t, Math.sin(b));
+                break;
+            }
+            case SIN: {
+                // sin a cosh b + i cos a sinh b
+                double ax = Math.abs(b), t = hyperbolicBase(ax);
+                re[reIndex] = scaled(cosh(ax, t), ax, t, Math.sin(a));
+                im[imIndex] = scaled(sinh(b, ax, t), ax, t, Math.cos(a));
+                break;
+            }
+            case COS: {
+                // cos a cosh b - i sin a sinh b
+                double ax = Math.abs(b), t = hyperbolicBase(ax);
+                re[reIndex] = scaled(cosh(ax, t), ax, t, Math.cos(a));
+                im[imIndex] = scaled(sinh(b, ax, t), ax, t, -Math.sin(a));
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Função inválida: " + code);
+        }
+    }
+
+    /**
+     * A regra da cadeia de DualExpression e ComplexDual: f'(z) * z', gravado
+     * em dRe[index] e dIm[index], com exp' = exp, log' = 1/z, sin' = cos,
+     * cos' = -sin, sinh' = cosh e cosh' = sinh.
+     *
+     * @param code O código da função.
+     * @param a A parte real de z.
+     * @param b A parte imaginária de z.
+     * @param da A parte real de z'.
+     * @param db A parte imaginária de z'.
+     * @param valueRe A parte real de f(z) (reaproveitada em exp).
+     * @param valueIm A parte imaginária de f(z).
+     */
+    static void derivative(int code, double a, double b, double da, double db,
+                           double valueRe, double valueIm, double[] dRe, double[] dIm, int index) {
+        double fr, fi; // f'(z)
+        switch (code) {
+            case EXP:
+                fr = valueRe;
+                fi = valueIm;
+                break;
+            case LOG: {
+                // z' / z (infinito ou NaN em z = 0)
+                double modulus = a * a + b * b;
+                dRe[index] = (da * a + db * b) / modulus;
+                dIm[index] = (db * a - da * b) / modulus;
+                return;
+            }
+            case SIN:
+            case COS:
+            case SINH:
+            case COSH: {
+                int partner = (code == SIN) ? COS : (code == COS) ? SIN : (code == SINH) ? COSH : SINH;
+                apply(partner, a, b, dRe, index, dIm, index);
+                double sign = (code == COS) ? -1 : 1;
+                fr = sign * dRe[index];
+                fi = sign * dIm[index];
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Função inválida: " + code);
+        }
+        dRe[index] = fr * da - fi * db;
+        dIm[index] = fr * db + fi * da;
+    }
+
+    // --- Versões em Lote ---
+
+    /** d[k] = exp(a[k]) para k em [0, length). O destino pode ser a entrada. */
+    static void exp(double[] ar, double[] ai, double[] dr, double[] di, int length) {
+        for (int k = 0; k < length; k++) {
+            double a = ar[k], b = ai[k];
+            dr[k] = expTimes(a, b, Math.cos(b));
+            di[k] = expTimes(a, b, Math.sin(b));
+        }
+    }
+
+    /** d[k] = log(a[k]). */
+    static void log(double[] ar, double[] ai, double[] dr, double[] di, int length) {
+        for (int k = 0; k < length; k++) {
+            double a = ar[k], b = ai[k];
+            dr[k] = logModulus(a, b);
+            di[k] = Math.atan2(b, a);
+        }
+    }
+
+    /**
+     * sin[k] = sin(a[k]) e cos[k] = cos(a[k]), com um expm1, um sin e um cos
+     * reais por elemento para os dois resultados. Qualquer um dos destinos
+     * pode ser null (só a outra função é calculada).
+     */
+    static void sinCos(double[] ar, double[] ai, double[] sr, double[] si, double[] cr, double[] ci, int length) {
+        for (int k = 0; k < length; k++) {
+            double a = ar[k], b = ai[k];
+            double ax = Math.abs(b), t = hyperbolicBase(ax);
+            double sh = sinh(b, ax, t), ch = cosh(ax, t);
+            double sinA = (sr != null || ci != null) ? Math.sin(a) : 0;
+            double cosA = (cr != null || si != null) ? Math.cos(a) : 0;
+            if (sr != null) {
+                sr[k] = scaled(ch, ax, t, sinA);
+                si[k] = scaled(sh, ax, t, cosA);
+            }
+            if (cr != null) {
+                cr[k] = scaled(ch, ax, t, cosA);
+                ci[k] = scaled(sh, ax, t, -sinA);
+            }
+        }
+    }
+
+    /**
+     * sinh[k] = sinh(a[k]) e cosh[k] = cosh(a[k]), com um expm1, um sin e um
+     * cos reais por elemento para os dois resultados. Qualquer um dos
+     * destinos pode ser null.
+     */
+    static void sinhCosh(double[] ar, double[] ai, double[] sr, double[] si, double[] cr, double[] ci, int length) {
+        for (int k = 0; k < length; k++) {
+            double a = ar[k], b = ai[k];
+            double ax = Math.abs(a), t = hyperbolicBase(ax);
+            double sh = sinh(a, ax, t), ch = cosh(ax, t);
+            double sinB = Math.sin(b), cosB = Math.cos(b);
+            if (sr != null) {
+                sr[k] = scaled(sh, ax, t, cosB);
+                si[k] = scaled(ch, ax, t, sinB);
+            }
+            if (cr != null) {
+                cr[k] = scaled(ch, ax, t, cosB);
+                ci[k] = scaled(sh, ax, t, sinB);
+            }
+        }
+    }
+
+    // --- Funções Reais Auxiliares ---
+
+    /**
+     * e^a * t (t = cos b ou sin b). Acima de OVERFLOW, e^a = w * w com
+     * w = e^(a/2), e t entra antes do segundo w.
+     */
+    private static double expTimes(double a, double b, double t) {
+        if (a > OVERFLOW) {
+            double w = Math.exp(0.5 * a);
+            return times(times(w, t), w);
+        }
+        return times(exp(a, b), t);
+    }
+
+    /** e^a, ou 0 quando a = -∞ (mesmo com b infinito ou NaN, como no C99). */
+    private static double exp(double a, double b) {
+        double scale = Math.exp(a);
+        return (scale == 0 && !Double.isFinite(b)) ? 0 : scale;
+    }
+
+    /** ln|a+bi|, por log1p(|z|^2 - 1) / 2 quando |z| está perto de 1. */
+    private static double logModulus(double a, double b) {
+        double x = Math.max(Math.abs(a), Math.abs(b));
+        double y = Math.min(Math.abs(a), Math.abs(b));
+        if (x >= 0.5 && x <= 2) {
+            return 0.5 * Math.log1p((x - 1) * (x + 1) + y * y);
+        }
+        return Math.log(Math.hypot(a, b));
+    }
+
+    /**
+     * A base comum de sinh e cosh: e^|x| - 1 para |x| &lt; 22, e^|x| até
+     * OVERFLOW e, acima, w = e^(|x|/2) (o valor é então (w/2) * w; veja scaled).
+     */
+    private static double hyperbolicBase(double ax) {
+        if (ax < LARGE) {
+            return Math.expm1(ax);
+        }
+        return ax < OVERFLOW ? Math.exp(ax) : Math.exp(0.5 * ax);
+    }
+
+    /**
+     * sinh(x) a partir de ax = |x| e t = hyperbolicBase(ax) (fdlibm). Acima
+     * de OVERFLOW, devolve sinh(x) / w, que scaled multiplica por w.
+     */
+    private static double sinh(double x, double ax, double t) {
+        double value;
+        if (ax < LARGE) {
+            double w = t + 1;
+            value = ax < 1 ? 0.5 * (2 * t - t * t / w) : 0.5 * (t + t / w);
+        } else {
+            value = 0.5 * t;
+        }
+        return Math.copySign(value, x);
+    }
+
+    /**
+     * cosh(x) a partir de ax = |x| e t = hyperbolicBase(ax): 1 + t^2 / 2(t+1).
+     * Acima de OVERFLOW, devolve cosh(x) / w, que scaled multiplica por w.
+     */
+    private static double cosh(double ax, double t) {
+        if (ax < LARGE) {
+            double w = t + 1;
+            return 1 + t * t / (w + w);
+        }
+        return 0.5 * t;
+    }
+
+    /**
+     * h * trig, com h = sinh ou cosh de ax; acima de OVERFLOW, h ainda falta
+     * ser multiplicado por w = t, o que é feito depois do fator trig.
+     */
+    private static double scaled(double h, double ax, double t, double trig) {
+        double value = times(h, trig);
+        return ax < OVERFLOW ? value : times(value, t);
+    }
+
+    /**
+     * h * t, mas um zero exato em um dos fatores dá um zero com o sinal do
+     * produto, mesmo que o outro seja infinito ou NaN.
+     */
+    private static double times(double h, double t) {
+        if (h == 0) {
+            return h * Math.copySign(1.0, t);
+        }
+        if (t == 0) {
+            return t * Math.copySign(1.0, h);
+        }
+        return h * t;
+    }
+}
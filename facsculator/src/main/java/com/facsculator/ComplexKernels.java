@@ -0,0 +1,85 @@
+package com.facsculator;
+
+/**
+ * Núcleos ("kernels") elemento a elemento das operações de ComplexNumber
+ * sobre arrays primitivos no layout split (reais e imaginários separados).
+ *
+ * Existem duas implementações:
+ * <ul>
+ *   <li>{@link #scalar()}: um laço simples, sempre disponível.</li>
+ *   <li>Vetorial (SIMD): usa a Vector API (jdk.incubator.vector) para
+ *       processar vários elementos por instrução (AVX2/AVX-512).</li>
+ * </ul>
+ * A escolha é feita uma única vez, em tempo de execução, por {@link #active()}:
+ * a versão vetorial é usada quando o módulo 'jdk.incubator.vector' foi
+ * carregado (java --add-modules jdk.incubator.vector) e a propriedade
+ * 'facsculator.forceScalar' não está ligada.
+ *
+ * As duas implementações produzem exatamente os mesmos bits que os métodos
+ * escalares de ComplexNumber. Os arrays de destino podem ser os próprios
+ * operandos (operação in-place).
+ */
+public interface ComplexKernels {
+
+    /** Propriedade de sistema que força o uso do laço escalar (ex: -Dfacsculator.forceScalar=true). */
+    String FORCE_SCALAR_PROPERTY = "facsculator.forceScalar";
+
+    /** d[k] = a[k] + b[k]  (ComplexNumber.sum). */
+    void sum(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length);
+
+    /** d[k] = a[k] * b[k]  (ComplexNumber.multiply). */
+    void multiply(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length);
+
+    /**
+     * d[k] = a[k] / b[k]  (ComplexNumber.divide).
+     *
+     * @throws ArithmeticException no primeiro divisor zero (0+0i); os elementos
+     * anteriores a ele já terão sido escritos.
+     */
+    void divide(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length);
+
+    /** d[k] = |a[k]|  (ComplexNumber.magnitude). */
+    void magnitude(double[] ar, double[] ai, double[] dst, int length);
+
+    /** @return Um nome curto da implementação (ex: "scalar", "vector-256"). */
+    String name();
+
+    // --- Seleção da Implementação ---
+
+    /** @return A implementação escalar (laço simples). */
+    static ComplexKernels scalar() {
+        return ScalarComplexKernels.INSTANCE;
+    }
+
+    /** @return A implementação escolhida para esta JVM (vetorial quando possível). */
+    static ComplexKernels active() {
+        return KernelSelection.ACTIVE;
+    }
+}
+
+/** Guarda a implementação de ComplexKernels escolhida para esta JVM. */
+final class KernelSelection {
+
+    static final ComplexKernels ACTIVE = select();
+
+    private KernelSelection() {
+    }
+
+    private static ComplexKernels select() {
+        if (Boolean.getBoolean(ComplexKernels.FORCE_SCALAR_PROPERTY)) {
+            return ComplexKernels.scalar();
+        }
+        // Sem o módulo incubado, carregar a classe vetorial falharia
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return ComplexKernels.scalar();
+        }
+        try {
+            Class<?> type = Class.forName("com.facsculator.VectorComplexKernels");
+            ComplexKernels vector = (ComplexKernels) type.getDeclaredField("INSTANCE").get(null);
+            // Se o hardware só oferece 1 lane, o laço escalar é igual ou melhor
+            return vector.name().equals("vector-64") ? ComplexKernels.scalar() : vector;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return ComplexKernels.scalar();
+        }
+    }
+}
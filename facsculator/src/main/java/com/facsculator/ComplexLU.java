@@ -0,0 +1,300 @@
+package com.facsculator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Fatoração LU com pivotamento parcial de uma ComplexMatrix quadrada:
+ * P*A = L*U, com L triangular inferior de diagonal 1 e U triangular superior.
+ * Criada por ComplexMatrix.lu().
+ *
+ * A fatoração é feita em painéis de {@link #PANEL} colunas: cada painel é
+ * fatorado coluna a coluna (escolhendo como pivô o elemento de maior
+ * |re| + |im|) e o resto da matriz é atualizado de uma vez por um produto
+ * de blocos (ComplexMatrix.multiplyAdd), onde está quase todo o trabalho.
+ * As substituições de solve() também são feitas em blocos.
+ *
+ * Nem o pivô nem 1/U(c,c) passam por re^2 + im^2 (que estoura acima de
+ * 1e154 e vira zero abaixo de 1e-162): a inversa da diagonal usa o método
+ * de Smith, então matrizes com entradas em qualquer escala representável
+ * são fatoradas com a precisão normal.
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class ComplexLU {
+
+    /** Colunas por painel (e linhas por bloco das substituições). */
+    static final int PANEL = 64;
+
+    private final int n;
+    /** L (abaixo da diagonal) e U (da diagonal para cima), por linhas. */
+    private final double[] real;
+    private final double[] imaginary;
+    /** pivots[c] = a linha trocada com a linha c no passo c. */
+    private final int[] pivots;
+    /** 1 / U(i, i). */
+    private final double[] inverseDiagonalReal;
+    private final double[] inverseDiagonalImaginary;
+    private final boolean oddPermutation;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param matrix A matriz quadrada (não é alterada).
+     * @param pool O pool das atualizações em paralelo, ou null.
+     * @throws ArithmeticException se a matriz for singular.
+     */
+    ComplexLU(ComplexMatrix matrix, ForkJoinPool pool) {
+        this.n = matrix.rows();
+        this.real = matrix.real().clone();
+        this.imaginary = matrix.imaginary().clone();
+        this.pivots = new int[n];
+        this.inverseDiagonalReal = new double[n];
+        this.inverseDiagonalImaginary = new double[n];
+        this.pool = pool;
+
+        boolean odd = false;
+        for (int k0 = 0; k0 < n; k0 += PANEL) {
+            int kEnd = Math.min(n, k0 + PANEL);
+            for (int c = k0; c < kEnd; c++) {
+                odd ^= eliminate(c, kEnd);
+            }
+            if (kEnd < n) {
+                solveUpperPanel(k0, kEnd);
+                updateTrailing(k0, kEnd);
+            }
+        }
+        this.oddPermutation = odd;
+    }
+
+    // --- Fatoração ---
+
+    /**
+     * Escolhe o pivô da coluna c, troca as linhas e elimina a coluna c abaixo
+     * da diagonal, atualizando só as colunas do painel (até kEnd).
+     *
+     * @return true se houve troca de linhas.
+     */
+    private boolean eliminate(int c, int kEnd) {
+        int pivot = c;
+        double best = -1;
+        for (int i = c; i < n; i++) {
+            // |re| + |im| ordena como o módulo, a menos de um fator sqrt(2)
+            double modulus = Math.abs(real[i * n + c]) + Math.abs(imaginary[i * n + c]);
+            if (modulus > best) {
+                best = modulus;
+                pivot = i;
+            }
+        }
+        if (!(best > 0)) {
+            throw new ArithmeticException("Matriz singular: não há pivô diferente de zero na coluna " + c + ".");
+        }
+        pivots[c] = pivot;
+        if (pivot != c) {
+            swapRows(real, imaginary, n, c, pivot);
+        }
+
+        // 1 / U(c, c) pelo método de Smith (igual a ComplexNumber.reciprocal)
+        int d = c * n + c;
+        double ur = real[d];
+        double ui = imaginary[d];
+        double inverseReal;
+        double inverseImaginary;
+        if (Math.abs(ur) >= Math.abs(ui)) {
+            double ratio = ui / ur;
+            double den = ur + ui * ratio;
+            inverseReal = 1 / den;
+            inverseImaginary = -ratio / den;
+        } else {
+            double ratio = ur / ui;
+            double den = ur * ratio + ui;
+            inverseReal = ratio / den;
+            inverseImaginary = -1 / den;
+        }
+        inverseDiagonalReal[c] = inverseReal;
+        inverseDiagonalImaginary[c] = inverseImaginary;
+        ParallelLoops.forRange(pool, c + 1, n, ComplexMatrix.PARALLEL_THRESHOLD, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int row = i * n;
+                // l = A(i, c) / U(c, c)
+                double lr = real[row + c] * inverseReal - imaginary[row + c] * inverseImaginary;
+                double li = real[row + c] * inverseImaginary + imaginary[row + c] * inverseReal;
+                real[row + c] = lr;
+                imaginary[row + c] = li;
+                for (int j = c + 1; j < kEnd; j++) {
+                    real[row + j] -= lr * real[c * n + j] - li * imaginary[c * n + j];
+                    imaginary[row + j] -= lr * imaginary[c * n + j] + li * real[c * n + j];
+                }
+            }
+        });
+        return pivot != c;
+    }
+
+    /** U12 = L11^-1 * A12: as linhas do painel, à direita dele. */
+    private void solveUpperPanel(int k0, int kEnd) {
+        ParallelLoops.forRange(pool, kEnd, n, ComplexMatrix.COLUMN_BLOCK, (from, to) -> {
+            for (int r = k0 + 1; r < kEnd; r++) {
+                for (int q = k0; q < r; q++) {
+                    double lr = real[r * n + q];
+                    double li = imaginary[r * n + q];
+                    for (int j = from; j < to; j++) {
+                        real[r * n + j] -= lr * real[q * n + j] - li * imaginary[q * n + j];
+                        imaginary[r * n + j] -= lr * imaginary[q * n + j] + li * real[q * n + j];
+                    }
+                }
+            }
+        });
+    }
+
+    /** A22 -= L21 * U12, com as faixas de linhas divididas entre as threads. */
+    private void updateTrailing(int k0, int kEnd) {
+        int depth = kEnd - k0;
+        int rows = n - kEnd;
+        int blocks = (rows + ComplexMatrix.ROW_BLOCK - 1) / ComplexMatrix.ROW_BLOCK;
+        int grain = (pool == null) ? blocks : Math.max(1, blocks / (4 * pool.getParallelism()));
+        ParallelLoops.forRange(pool, 0, blocks, grain, (from, to) -> {
+            int rowFrom = kEnd + from * ComplexMatrix.ROW_BLOCK;
+            int rowTo = Math.min(n, kEnd + to * ComplexMatrix.ROW_BLOCK);
+            ComplexMatrix.PackedBlock block = new ComplexMatrix.PackedBlock();
+            for (int jb = kEnd; jb < n; jb += ComplexMatrix.COLUMN_BLOCK) {
+                int width = Math.min(n - jb, ComplexMatrix.COLUMN_BLOCK);
+                block.pack(real, imaginary, k0 * n + jb, n, depth, width);
+                ComplexMatrix.multiplyAdd(real, imaginary, k0, n, block, real, imaginary, jb, n,
+                                          rowFrom, rowTo, depth, width, true);
+            }
+        });
+    }
+
+    private static void swapRows(double[] re, double[] im, int width, int a, int b) {
+        for (int j = 0; j < width; j++) {
+            double t = re[a * width + j];
+            re[a * width + j] = re[b * width + j];
+            re[b * width + j] = t;
+            t = im[a * width + j];
+            im[a * width + j] = im[b * width + j];
+            im[b * width + j] = t;
+        }
+    }
+
+    // --- Consultas ---
+
+    /** @return A ordem n da matriz fatorada. */
+    public int size() {
+        return n;
+    }
+
+    /** @return O determinante: (-1)^trocas * U(0,0) * ... * U(n-1,n-1). */
+    public ComplexNumber determinant() {
+        double re = oddPermutation ? -1 : 1;
+        double im = 0;
+        for (int i = 0; i < n; i++) {
+            double ur = real[i * n + i];
+            double ui = imaginary[i * n + i];
+            double t = re * ur - im * ui;
+            im = re * ui + im * ur;
+            re = t;
+        }
+        return new ComplexNumber(re, im);
+    }
+
+    /**
+     * Resolve A * X = b para vários lados direitos.
+     *
+     * @param b Os lados direitos, um por coluna (n linhas).
+     * @return A solução X (mesmas dimensões de b).
+     * @throws IllegalArgumentException se b não tiver n linhas.
+     */
+    public ComplexMatrix solve(ComplexMatrix b) {
+        if (b.rows() != n) {
+            throw new IllegalArgumentException("O lado direito deve ter " + n + " linhas, mas tem " + b.rows() + ".");
+        }
+        ComplexMatrix x = b.copy();
+        int m = x.columns();
+        double[] xr = x.real();
+        double[] xi = x.imaginary();
+        for (int c = 0; c < n; c++) {
+            if (pivots[c] != c) {
+                swapRows(xr, xi, m, c, pivots[c]);
+            }
+        }
+        // As colunas de X são independentes: cada tarefa resolve uma faixa delas
+        ParallelLoops.forRange(pool, 0, m, ComplexMatrix.COLUMN_BLOCK, (from, to) -> {
+            ComplexMatrix.PackedBlock block = new ComplexMatrix.PackedBlock();
+            for (int jb = from; jb < to; jb += ComplexMatrix.COLUMN_BLOCK) {
+                int width = Math.min(to - jb, ComplexMatrix.COLUMN_BLOCK);
+                forward(xr, xi, m, jb, width, block);
+                backward(xr, xi, m, jb, width, block);
+            }
+        });
+        return x;
+    }
+
+    /**
+     * @param b O lado direito (n elementos).
+     * @return A solução x de A * x = b.
+     */
+    public ComplexArray solve(ComplexArray b) {
+        ComplexMatrix x = solve(new ComplexMatrix(b.length(), 1, b.real(), b.imaginary()));
+        return new ComplexArray(x.real(), x.imaginary());
+    }
+
+    /** @return A inversa A^-1 (a solução de A * X = I). */
+    public ComplexMatrix inverse() {
+        return solve(ComplexMatrix.identity(n));
+    }
+
+    // --- Substituições (colunas [jb, jb + width) de X, com m colunas) ---
+
+    /** X = L^-1 * X, em blocos de PANEL linhas. */
+    private void forward(double[] xr, double[] xi, int m, int jb, int width, ComplexMatrix.PackedBlock block) {
+        for (int ib = 0; ib < n; ib += PANEL) {
+            int iEnd = Math.min(n, ib + PANEL);
+            // Contribuição dos blocos já resolvidos: X[ib, iEnd) -= L[ib, iEnd)[0, ib) * X[0, ib)
+            for (int kb = 0; kb < ib; kb += ComplexMatrix.DEPTH_BLOCK) {
+                int depth = Math.min(ib - kb, ComplexMatrix.DEPTH_BLOCK);
+                block.pack(xr, xi, kb * m + jb, m, depth, width);
+                ComplexMatrix.multiplyAdd(real, imaginary, kb, n, block, xr, xi, jb, m,
+                                          ib, iEnd, depth, width, true);
+            }
+            for (int i = ib + 1; i < iEnd; i++) {
+                for (int k = ib; k < i; k++) {
+                    subtractRow(xr, xi, m, jb, width, i, k, real[i * n + k], imaginary[i * n + k]);
+                }
+            }
+        }
+    }
+
+    /** X = U^-1 * X, em blocos de PANEL linhas, de baixo para cima. */
+    private void backward(double[] xr, double[] xi, int m, int jb, int width, ComplexMatrix.PackedBlock block) {
+        int top = ((n - 1) / PANEL) * PANEL;
+        for (int ib = top; ib >= 0; ib -= PANEL) {
+            int iEnd = Math.min(n, ib + PANEL);
+            for (int kb = iEnd; kb < n; kb += ComplexMatrix.DEPTH_BLOCK) {
+                int depth = Math.min(n - kb, ComplexMatrix.DEPTH_BLOCK);
+                block.pack(xr, xi, kb * m + jb, m, depth, width);
+                ComplexMatrix.multiplyAdd(real, imaginary, kb, n, block, xr, xi, jb, m,
+                                          ib, iEnd, depth, width, true);
+            }
+            for (int i = iEnd - 1; i >= ib; i--) {
+                for (int k = i + 1; k < iEnd; k++) {
+                    subtractRow(xr, xi, m, jb, width, i, k, real[i * n + k], imaginary[i * n + k]);
+                }
+                double dr = inverseDiagonalReal[i];
+                double di = inverseDiagonalImaginary[i];
+                for (int j = jb; j < jb + width; j++) {
+                    double re = xr[i * m + j];
+                    double im = xi[i * m + j];
+                    xr[i * m + j] = re * dr - im * di;
+                    xi[i * m + j] = re * di + im * dr;
+                }
+            }
+        }
+    }
+
+    /** X(i, j) -= f * X(k, j) para j em [jb, jb + width). */
+    private static void subtractRow(double[] xr, double[] xi, int m, int jb, int width, int i, int k,
+                                    double fr, double fi) {
+        for (int j = jb; j < jb + width; j++) {
+            xr[i * m + j] -= fr * xr[k * m + j] - fi * xi[k * m + j];
+            xi[i * m + j] -= fr * xi[k * m + j] + fi * xr[k * m + j];
+        }
+    }
+}
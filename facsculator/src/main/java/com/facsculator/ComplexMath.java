@@ -0,0 +1,199 @@
+package com.facsculator;
+
+/**
+ * Versões primitivas (sem alocação) das operações de ComplexNumber que
+ * não cabem em uma única expressão, compartilhadas pelos avaliadores.
+ *
+ * Cada método reproduz exatamente a sequência de operações do método
+ * correspondente de ComplexNumber, para que os resultados sejam idênticos.
+ */
+final class ComplexMath {
+
+    private ComplexMath() {
+    }
+
+    /**
+     * Lança a mesma exceção de ComplexNumber.divide se o denominador
+     * (c^2 + d^2) indicar um divisor zero.
+     */
+    static void checkDivisor(double denominator) {
+        if (!isValidDivisor(denominator)) {
+            Metrics.failure(Metrics.Failure.DIVISION_BY_ZERO);
+            throw new ArithmeticException("Divisão por número complexo zero (0+0i).");
+        }
+    }
+
+    /** @return false exatamente quando checkDivisor(denominator) lançaria a exceção. */
+    static boolean isValidDivisor(double denominator) {
+        return !(Math.abs(denominator) < 1e-9);
+    }
+
+    /**
+     * Garante que o expoente de uma potência seja real, pois
+     * ComplexNumber.power só aceita expoentes do tipo double.
+     *
+     * @param exponentImaginary A parte imaginária do expoente calculado.
+     */
+    static void checkRealExponent(double exponentImaginary) {
+        if (!isRealExponent(exponentImaginary)) {
+            Metrics.failure(Metrics.Failure.INVALID_EXPONENT);
+            throw new IllegalArgumentException("O expoente da potência deve ser um número real.");
+        }
+    }
+
+    /** @return false exatamente quando checkRealExponent(exponentImaginary) lançaria a exceção. */
+    static boolean isRealExponent(double exponentImaginary) {
+        return !(Math.abs(exponentImaginary) >= 1e-9);
+    }
+
+    /**
+     * Traz uma fase para o intervalo [-π, π] de Math.atan2, para que a raiz
+     * ou potência de um número em forma polar use o mesmo ramo principal que
+     * usaria a partir da forma retangular. Fases já nesse intervalo (como as
+     * do próprio atan2) não são alteradas.
+     */
+    static double principalPhase(double phase) {
+        if (phase > Math.PI || phase < -Math.PI) {
+            phase = Math.IEEEremainder(phase, 2 * Math.PI);
+            if (phase == -Math.PI) {
+                phase = Math.PI; // atan2 só devolve -π para a parte imaginária -0.0
+            }
+        }
+        return phase;
+    }
+
+    /**
+     * Maior |n| para o qual z^n é calculado por multiplicações (como em
+     * ComplexNumber.power). Acima disso, a Fórmula de De Moivre é usada.
+     */
+    static final int MAX_INTEGER_EXPONENT = 1024;
+
+    /**
+     * @return true se z^exponent usa o caminho de multiplicações: o expoente é
+     * um inteiro com |n| &lt;= MAX_INTEGER_EXPONENT e não é a potência negativa
+     * de zero (que segue a fórmula polar, como antes).
+     */
+    static boolean isIntegerPower(double a, double b, double exponent) {
+        return exponent == Math.rint(exponent)
+                && Math.abs(exponent) <= MAX_INTEGER_EXPONENT
+                && (exponent >= 0 || a != 0 || b != 0);
+    }
+
+    /**
+     * (a+bi)^exponent (igual a ComplexNumber.power), gravando o resultado
+     * em re[index] e im[index].
+     */
+    static void power(double a, double b, double exponent, double[] re, double[] im, int index) {
+        power(a, b, exponent, re, index, im, index);
+    }
+
+    /**
+     * (a+bi)^exponent gravando o resultado em pair[0] (real) e pair[1]
+     * (imaginário). Usado pelo bytecode gerado por ExpressionJit.
+     */
+    static void power(double a, double b, double exponent, double[] pair) {
+        power(a, b, exponent, pair, 0, pair, 1);
+    }
+
+    private static void power(double a, double b, double exponent,
+                              double[] re, int reIndex, double[] im, int imIndex) {
+        if (isIntegerPower(a, b, exponent)) {
+            integerPower(a, b, (int) exponent, re, reIndex, im, imIndex);
+            return;
+        }
+        // Fórmula de De Moivre
+        double newMagnitude = Math.pow(Math.sqrt(a * a + b * b), exponent);
+        double newPhase = Math.atan2(b, a) * exponent;
+        re[reIndex] = newMagnitude * Math.cos(newPhase);
+        im[imIndex] = newMagnitude * Math.sin(newPhase);
+    }
+
+    /**
+     * A derivada de f^w (regra da cadeia da diferenciação automática), dado o
+     * valor já calculado v = f^w: d(f^w) = v * (w * f'/f + log(f) * w'),
+     * gravada em dRe[index] e dIm[index].
+     *
+     * Em f = 0 vale o limite de w * f^(w-1) * f': 0 para w = 0 e w &gt; 1, f'
+     * para w = 1 e NaN (derivada infinita) para os demais expoentes.
+     *
+     * @param a A parte real de f.
+     * @param b A parte imaginária de f.
+     * @param da A parte real de f'.
+     * @param db A parte imaginária de f'.
+     * @param exponent O expoente real w.
+     * @param dwRe A parte real de w' (0 para expoentes constantes).
+     * @param dwIm A parte imaginária de w'.
+     * @param valueRe A parte real de v = f^w.
+     * @param valueIm A parte imaginária de v.
+     */
+    static void powerDerivative(double a, double b, double da, double db, double exponent, double dwRe, double dwIm,
+                                double valueRe, double valueIm, double[] dRe, double[] dIm, int index) {
+        if (a == 0 && b == 0) {
+            double scale = (exponent == 1) ? 1 : (exponent == 0 || exponent > 1) ? 0 : Double.NaN;
+            dRe[index] = scale * da;
+            dIm[index] = scale * db;
+            return;
+        }
+        // t = w * f'/f
+        double modulus = a * a + b * b;
+        double tRe = exponent * (da * a + db * b) / modulus;
+        double tIm = exponent * (db * a - da * b) / modulus;
+        if (dwRe != 0 || dwIm != 0) {
+            // t += log(f) * w', com log(f) = ln|f| + i*arg(f)
+            double logRe = Math.log(Math.hypot(a, b));
+            double logIm = Math.atan2(b, a);
+            tRe += logRe * dwRe - logIm * dwIm;
+            tIm += logRe * dwIm + logIm * dwRe;
+        }
+        dRe[index] = valueRe * tRe - valueIm * tIm;
+        dIm[index] = valueRe * tIm + valueIm * tRe;
+    }
+
+    /**
+     * (a+bi)^n por exponenciação binária (igual a ComplexNumber.integerPower):
+     * para n &lt; 0, a base é invertida primeiro; z^0 = 1.
+     */
+    private static void integerPower(double a, double b, int n,
+                                     double[] re, int reIndex, double[] im, int imIndex) {
+        double baseRe = a;
+        double baseIm = b;
+        if (n < 0) {
+            // 1/(a+bi) pelo método de Smith (igual a ComplexNumber.reciprocal)
+            if (Math.abs(a) >= Math.abs(b)) {
+                double ratio = b / a;
+                double den = a + b * ratio;
+                baseRe = 1 / den;
+                baseIm = -ratio / den;
+            } else {
+                double ratio = a / b;
+                double den = a * ratio + b;
+                baseRe = ratio / den;
+                baseIm = -1 / den;
+            }
+        }
+
+        double resultRe = 1;
+        double resultIm = 0;
+        boolean first = true;
+        for (int m = Math.abs(n); m != 0; m >>>= 1) {
+            if ((m & 1) != 0) {
+                if (first) {
+                    resultRe = baseRe;
+                    resultIm = baseIm;
+                    first = false;
+                } else {
+                    double t = resultRe * baseRe - resultIm * baseIm;
+                    resultIm = resultRe * baseIm + resultIm * baseRe;
+                    resultRe = t;
+                }
+            }
+            if (m > 1) {
+                double t = baseRe * baseRe - baseIm * baseIm;
+                baseIm = baseRe * baseIm + baseIm * baseRe;
+                baseRe = t;
+            }
+        }
+        re[reIndex] = resultRe;
+        im[imIndex] = resultIm;
+    }
+}
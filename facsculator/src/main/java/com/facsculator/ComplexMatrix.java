@@ -0,0 +1,366 @@
+package com.facsculator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Matriz de números complexos (ex: matrizes de impedância e admitância)
+ * guardada por linhas em dois arrays primitivos: um para as partes reais e
+ * outro para as imaginárias (layout split, como ComplexArray). O elemento
+ * (i, j) está na posição i * columns() + j dos dois arrays.
+ *
+ * O produto ({@link #multiply(ComplexMatrix)}) é dividido em blocos que
+ * cabem no cache e calcula as partes real e imaginária com as 4
+ * multiplicações reais de cada produto complexo ("4M"), em laços sobre
+ * linhas contíguas que a JIT vetoriza. A partir de
+ * {@link #PARALLEL_THRESHOLD} linhas, as faixas de linhas do resultado são
+ * distribuídas entre as threads de um ForkJoinPool.
+ *
+ * A fatoração LU com pivotamento parcial ({@link #lu()}) resolve sistemas
+ * ({@link #solve(ComplexMatrix)}) e calcula a inversa ({@link #inverse()}).
+ */
+public final class ComplexMatrix {
+
+    /** Menor número de linhas para o qual as operações usam o ForkJoinPool. */
+    public static final int PARALLEL_THRESHOLD = 128;
+
+    /** Granularidade, em linhas do resultado, da divisão do produto entre as tarefas. */
+    static final int ROW_BLOCK = 32;
+
+    /** Índices k (colunas de A, linhas de B) por bloco do produto. */
+    static final int DEPTH_BLOCK = 128;
+
+    /** Colunas de B (e do resultado) por bloco do produto: 128 x 512 x 16 bytes = 1 MB de B. */
+    static final int COLUMN_BLOCK = 512;
+
+    private final int rows;
+    private final int columns;
+    private final double[] real;
+    private final double[] imaginary;
+
+    // --- Construtores ---
+
+    /**
+     * Cria uma matriz com todos os elementos iguais a zero.
+     *
+     * @param rows O número de linhas.
+     * @param columns O número de colunas.
+     * @throws IllegalArgumentException se alguma dimensão for negativa ou o tamanho estourar um array.
+     */
+    public ComplexMatrix(int rows, int columns) {
+        this(rows, columns, new double[checkedSize(rows, columns)], new double[rows * columns]);
+    }
+
+    /**
+     * Envolve (sem copiar) dois arrays já existentes, guardados por linhas.
+     *
+     * @param rows O número de linhas.
+     * @param columns O número de colunas.
+     * @param real As partes reais (rows * columns elementos).
+     * @param imaginary As partes imaginárias (rows * columns elementos).
+     * @throws IllegalArgumentException se os arrays não tiverem rows * columns elementos.
+     */
+    public ComplexMatrix(int rows, int columns, double[] real, double[] imaginary) {
+        int size = checkedSize(rows, columns);
+        if (real.length != size || imaginary.length != size) {
+            throw new IllegalArgumentException("Os arrays da matriz " + rows + "x" + columns
+                    + " devem ter " + size + " elementos.");
+        }
+        this.rows = rows;
+        this.columns = columns;
+        this.real = real;
+        this.imaginary = imaginary;
+    }
+
+    /**
+     * @param values As linhas da matriz (todas do mesmo tamanho).
+     * @return Uma matriz com os mesmos valores.
+     * @throws IllegalArgumentException se as linhas tiverem tamanhos diferentes.
+     */
+    public static ComplexMatrix of(ComplexNumber[][] values) {
+        int columns = (values.length == 0) ? 0 : values[0].length;
+        ComplexMatrix matrix = new ComplexMatrix(values.length, columns);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].length != columns) {
+                throw new IllegalArgumentException("Todas as linhas da matriz devem ter " + columns + " elementos.");
+            }
+            for (int j = 0; j < columns; j++) {
+                matrix.set(i, j, values[i][j]);
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * @param n A ordem.
+     * @return A matriz identidade n x n.
+     */
+    public static ComplexMatrix identity(int n) {
+        ComplexMatrix matrix = new ComplexMatrix(n, n);
+        for (int i = 0; i < n; i++) {
+            matrix.real[i * n + i] = 1;
+        }
+        return matrix;
+    }
+
+    private static int checkedSize(int rows, int columns) {
+        if (rows < 0 || columns < 0 || (long) rows * columns > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Dimensões inválidas para a matriz: " + rows + "x" + columns + ".");
+        }
+        return rows * columns;
+    }
+
+    // --- Acesso ---
+
+    /** @return O número de linhas. */
+    public int rows() {
+        return rows;
+    }
+
+    /** @return O número de colunas. */
+    public int columns() {
+        return columns;
+    }
+
+    /** @return As partes reais, por linhas (o próprio array interno). */
+    public double[] real() {
+        return real;
+    }
+
+    /** @return As partes imaginárias, por linhas (o próprio array interno). */
+    public double[] imaginary() {
+        return imaginary;
+    }
+
+    /**
+     * @param i A linha.
+     * @param j A coluna.
+     * @return O elemento (i, j) como ComplexNumber.
+     */
+    public ComplexNumber get(int i, int j) {
+        int index = index(i, j);
+        return new ComplexNumber(real[index], imaginary[index]);
+    }
+
+    /**
+     * @param i A linha.
+     * @param j A coluna.
+     * @param re A parte real.
+     * @param im A parte imaginária.
+     */
+    public void set(int i, int j, double re, double im) {
+        int index = index(i, j);
+        real[index] = re;
+        imaginary[index] = im;
+    }
+
+    /**
+     * @param i A linha.
+     * @param j A coluna.
+     * @param value O novo valor do elemento (i, j).
+     */
+    public void set(int i, int j, ComplexNumber value) {
+        set(i, j, value.real(), value.imaginary());
+    }
+
+    /** @return Uma cópia independente da matriz. */
+    public ComplexMatrix copy() {
+        return new ComplexMatrix(rows, columns, real.clone(), imaginary.clone());
+    }
+
+    /** @return Os elementos como ComplexNumber[linhas][colunas]. */
+    public ComplexNumber[][] toComplexNumbers() {
+        ComplexNumber[][] values = new ComplexNumber[rows][columns];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < columns; j++) {
+                values[i][j] = get(i, j);
+            }
+        }
+        return values;
+    }
+
+    private int index(int i, int j) {
+        if (i < 0 || i >= rows || j < 0 || j >= columns) {
+            throw new IndexOutOfBoundsException("Posição (" + i + ", " + j + ") fora da matriz "
+                    + rows + "x" + columns + ".");
+        }
+        return i * columns + j;
+    }
+
+    // --- Produto ---
+
+    /**
+     * Produto this * other, usando o ForkJoinPool.commonPool() a partir de
+     * PARALLEL_THRESHOLD linhas.
+     *
+     * @param other A matriz da direita (other.rows() == columns()).
+     * @return Uma nova matriz rows() x other.columns().
+     * @throws IllegalArgumentException se as dimensões não forem compatíveis.
+     */
+    public ComplexMatrix multiply(ComplexMatrix other) {
+        return multiply(other, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Produto this * other, com as faixas de linhas do resultado divididas
+     * entre as threads de 'pool' (null para uma única thread).
+     *
+     * @param other A matriz da direita (other.rows() == columns()).
+     * @param pool O pool que executa as faixas.
+     * @return Uma nova matriz rows() x other.columns().
+     * @throws IllegalArgumentException se as dimensões não forem compatíveis.
+     */
+    public ComplexMatrix multiply(ComplexMatrix other, ForkJoinPool pool) {
+        if (other.rows != columns) {
+            throw new IllegalArgumentException("Produto impossível: " + rows + "x" + columns
+                    + " por " + other.rows + "x" + other.columns + ".");
+        }
+        ComplexMatrix product = new ComplexMatrix(rows, other.columns);
+        // Cada tarefa empacota os blocos de B uma vez para todas as suas linhas:
+        // cerca de 4 tarefas por thread, para equilibrar a carga
+        int blocks = (rows + ROW_BLOCK - 1) / ROW_BLOCK;
+        ForkJoinPool used = (rows >= PARALLEL_THRESHOLD) ? pool : null;
+        int grain = (used == null) ? blocks : Math.max(1, blocks / (4 * used.getParallelism()));
+        ParallelLoops.forRange(used, 0, blocks, grain, (from, to) ->
+                multiplyRows(other, product, from * ROW_BLOCK, Math.min(rows, to * ROW_BLOCK)));
+        return product;
+    }
+
+    /** As linhas [rowFrom, rowTo) de this * other. */
+    private void multiplyRows(ComplexMatrix other, ComplexMatrix product, int rowFrom, int rowTo) {
+        PackedBlock block = new PackedBlock();
+        for (int jb = 0; jb < other.columns; jb += COLUMN_BLOCK) {
+            int width = Math.min(other.columns - jb, COLUMN_BLOCK);
+            for (int kb = 0; kb < columns; kb += DEPTH_BLOCK) {
+                int depth = Math.min(columns - kb, DEPTH_BLOCK);
+                block.pack(other.real, other.imaginary, kb * other.columns + jb, other.columns, depth, width);
+                multiplyAdd(real, imaginary, kb, columns, block,
+                            product.real, product.imaginary, jb, other.columns,
+                            rowFrom, rowTo, depth, width, false);
+            }
+        }
+    }
+
+    /**
+     * Os buffers de uma tarefa do produto: o bloco de B empacotado (uma linha
+     * por array) e uma linha de C.
+     *
+     * O laço interno de multiplyAdd acessa todos os arrays pelo mesmo índice
+     * j, a partir de 0, e escreve em um único par de arrays: é o formato que
+     * a JIT (C2) vetoriza. Com deslocamentos diferentes em cada array (ex:
+     * cr[c0 + j] e br[b + j]), ou com duas linhas de C por laço, o mesmo
+     * laço roda escalar, cerca de 3x mais lento.
+     */
+    static final class PackedBlock {
+        final double[][] packedReal = new double[DEPTH_BLOCK][COLUMN_BLOCK];
+        final double[][] packedImaginary = new double[DEPTH_BLOCK][COLUMN_BLOCK];
+        final double[] rowReal = new double[COLUMN_BLOCK];
+        final double[] rowImaginary = new double[COLUMN_BLOCK];
+
+        /**
+         * Copia o bloco depth x width (depth &le; DEPTH_BLOCK, width &le;
+         * COLUMN_BLOCK) que começa em 'offset', com linhas separadas por 'stride'.
+         */
+        void pack(double[] re, double[] im, int offset, int stride, int depth, int width) {
+            for (int k = 0; k < depth; k++) {
+                System.arraycopy(re, offset + k * stride, packedReal[k], 0, width);
+                System.arraycopy(im, offset + k * stride, packedImaginary[k], 0, width);
+            }
+        }
+    }
+
+    /**
+     * C += A * B (ou C -= A * B, com 'subtract') para as linhas [rowFrom, rowTo)
+     * de C, onde B é o bloco depth x width empacotado em 'block',
+     * A(i, k) = a[aOffset + i*aStride + k] e C(i, j) = c[cOffset + i*cStride + j].
+     *
+     * Cada linha de C é acumulada na linha de trabalho do 'block', que fica
+     * no cache L1 enquanto as 'depth' linhas de B passam por ela.
+     */
+    static void multiplyAdd(double[] ar, double[] ai, int aOffset, int aStride, PackedBlock block,
+                            double[] cr, double[] ci, int cOffset, int cStride,
+                            int rowFrom, int rowTo, int depth, int width, boolean subtract) {
+        double sign = subtract ? -1 : 1;
+        double[] sr = block.rowReal;
+        double[] si = block.rowImaginary;
+        for (int i = rowFrom; i < rowTo; i++) {
+            int a = aOffset + i * aStride;
+            int c = cOffset + i * cStride;
+            System.arraycopy(cr, c, sr, 0, width);
+            System.arraycopy(ci, c, si, 0, width);
+            for (int k = 0; k < depth; k++) {
+                update(sign * ar[a + k], sign * ai[a + k],
+                       block.packedReal[k], block.packedImaginary[k], sr, si, width);
+            }
+            System.arraycopy(sr, 0, cr, c, width);
+            System.arraycopy(si, 0, ci, c, width);
+        }
+    }
+
+    /** s += x * y, elemento a elemento (4 multiplicações reais por elemento). */
+    private static void update(double xr, double xi, double[] yr, double[] yi, double[] sr, double[] si, int width) {
+        for (int j = 0; j < width; j++) {
+            sr[j] += xr * yr[j] - xi * yi[j];
+            si[j] += xr * yi[j] + xi * yr[j];
+        }
+    }
+
+    // --- Sistemas Lineares ---
+
+    /**
+     * Fatoração LU com pivotamento parcial, usando o ForkJoinPool.commonPool()
+     * a partir de PARALLEL_THRESHOLD linhas.
+     *
+     * @return A fatoração P*A = L*U desta matriz (que não é alterada).
+     * @throws IllegalArgumentException se a matriz não for quadrada.
+     * @throws ArithmeticException se a matriz for singular.
+     */
+    public ComplexLU lu() {
+        return lu(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool O pool que atualiza as linhas abaixo de cada pivô (null para uma única thread).
+     * @return A fatoração P*A = L*U desta matriz.
+     * @throws IllegalArgumentException se a matriz não for quadrada.
+     * @throws ArithmeticException se a matriz for singular.
+     */
+    public ComplexLU lu(ForkJoinPool pool) {
+        if (rows != columns) {
+            throw new IllegalArgumentException("A fatoração LU exige uma matriz quadrada, mas esta é "
+                    + rows + "x" + columns + ".");
+        }
+        return new ComplexLU(this, rows >= PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    /**
+     * Resolve this * X = b.
+     *
+     * @param b Os lados direitos (uma coluna por sistema).
+     * @return A solução X.
+     * @throws ArithmeticException se a matriz for singular.
+     */
+    public ComplexMatrix solve(ComplexMatrix b) {
+        return lu().solve(b);
+    }
+
+    /**
+     * @return A inversa desta matriz.
+     * @throws ArithmeticException se a matriz for singular.
+     */
+    public ComplexMatrix inverse() {
+        return lu().inverse();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            text.append('[');
+            for (int j = 0; j < columns; j++) {
+                text.append(j == 0 ? "" : ", ").append(get(i, j));
+            }
+            text.append("]\n");
+        }
+        return text.toString();
+    }
+}
@@ -2,7 +2,6 @@
 package com.facsculator;
 
 // imports
-import java.text.DecimalFormat; // Para formatação numérica
 import static java.lang.Math.PI; // Importa o PI estaticamente
 
 /**
@@ -23,13 +22,6 @@ public record ComplexNumber(double real, double imaginary) {
         this(real, 0); // Chama o construtor principal (real, 0)
     }
 
-    /**
-     * Formatador para "limpar" a exibição de doubles.
-     * "0.##############" remove zeros à direita (1.0 -> "1")
-     * mas preserva decimais significativos (1.000005 -> "1.000005").
-     */
-    private static final DecimalFormat df = new DecimalFormat("0.##############");
-
     // --- Exibição ---
 
     /**
@@ -41,49 +33,12 @@ public record ComplexNumber(double real, double imaginary) {
      */
     @Override
     public String toString() {
-        // Pré-arredonda para 10 casas decimais para limpar "lixo" E-16
-        // antes de passar para o formatador.
-        int displayPrecision = 10;
-        double r = Math.round(this.real * Math.pow(10, displayPrecision)) / Math.pow(10, displayPrecision);
-        double i = Math.round(this.imaginary * Math.pow(10, displayPrecision)) / Math.pow(10, displayPrecision);
-
-        // Formata os números arredondados usando nosso formatador "limpo"
-        String rStr = df.format(r);
-        String iAbsStr = df.format(Math.abs(i));
-
-        // --- Lógica de Formatação ---
-
-        // Caso 1: Número é (praticamente) real (ex: 5)
-        if (Math.abs(i) < 1e-9) {
-            return rStr; // Ex: "5", "1.000005", "0"
-        }
-
-        // Caso 2: Número é (praticamente) imaginário puro (ex: 7i)
-        if (Math.abs(r) < 1e-9) {
-            // Se i=1, retorna "i". Se i=-1, retorna "-i"
-            if (iAbsStr.equals("1")) {
-                return (i < 0) ? "-i" : "i";
-            }
-            // Senão, retorna o número formatado
-            return df.format(i) + "i"; // Ex: "7i", "-2.5i", "0.000005i"
-        }
-
-        // Caso 3: Número complexo com parte imaginária negativa (ex: 3 - 4i)
-        if (i < 0) {
-            // Se i=-1, retorna "3 - i"
-            if (iAbsStr.equals("1")) {
-                return rStr + " - i";
-            }
-            return rStr + " - " + iAbsStr + "i"; // Ex: "3 - 4i", "1.5 - 0.000005i"
-        }
-
-        // Caso 4: Padrão (ex: 3 + 4i)
-        // Se i=1, retorna "3 + i"
-        if (iAbsStr.equals("1")) {
-            return rStr + " + i";
-        }
-        return rStr + " + " + iAbsStr + "i"; // Ex: "3 + 4i", "1.5 + 0.000005i"
+        // Pré-arredonda para 10 casas decimais para limpar "lixo" E-16 e
+        // trata os casos especiais ("i", "-i", "3 - i"...). Veja ComplexFormatter,
+        // que também escreve direto em um StringBuilder/Appendable.
+        return ComplexFormatter.format(real, imaginary);
     }
+
     // --- Operações Aritméticas ---
 
     /**
@@ -141,13 +96,82 @@ public record ComplexNumber(double real, double imaginary) {
 
         // Detectar divisão por zero
         if (Math.abs(denominator) < 1e-9) {
+            Metrics.failure(Metrics.Failure.DIVISION_BY_ZERO);
             throw new ArithmeticException("Divisão por número complexo zero (0+0i).");
         }
 
-        // Numerador = (a+bi) * (c-di) -> this * other.conjugate()
-        ComplexNumber numerator = this.multiply(other.conjugate());
+        // Numerador = (a+bi) * (c-di) = (ac+bd) + (bc-ad)i, sem objetos intermediários
+        // (mesmos bits de this.multiply(other.conjugate()))
+        double numeratorReal = this.real * other.real + this.imaginary * other.imaginary;
+        double numeratorImag = this.imaginary * other.real - this.real * other.imaginary;
+
+        return new ComplexNumber(numeratorReal / denominator, numeratorImag / denominator);
+    }
+
+    // --- Funções Elementares ---
+
+    /**
+     * Exponencial: e^(a+bi) = e^a * (cos b + i*sin b).
+     * Veja ComplexFunctions para os valores especiais (zeros, infinitos, NaN).
+     *
+     * @return Um novo ComplexNumber com e^z.
+     */
+    public ComplexNumber exp() {
+        return function(ComplexFunctions.EXP);
+    }
+
+    /**
+     * Logaritmo natural principal: ln|z| + i*arg(z), com a fase em [-π, π]
+     * (o corte no semieixo real negativo segue o sinal da parte imaginária,
+     * como phase()). log(0) = -∞.
+     *
+     * @return Um novo ComplexNumber com log(z).
+     */
+    public ComplexNumber log() {
+        return function(ComplexFunctions.LOG);
+    }
+
+    /**
+     * Seno: sin(a+bi) = sin a * cosh b + i*cos a * sinh b.
+     *
+     * @return Um novo ComplexNumber com sin(z).
+     */
+    public ComplexNumber sin() {
+        return function(ComplexFunctions.SIN);
+    }
+
+    /**
+     * Cosseno: cos(a+bi) = cos a * cosh b - i*sin a * sinh b.
+     *
+     * @return Um novo ComplexNumber com cos(z).
+     */
+    public ComplexNumber cos() {
+        return function(ComplexFunctions.COS);
+    }
+
+    /**
+     * Seno hiperbólico: sinh(a+bi) = sinh a * cos b + i*cosh a * sin b.
+     *
+     * @return Um novo ComplexNumber com sinh(z).
+     */
+    public ComplexNumber sinh() {
+        return function(ComplexFunctions.SINH);
+    }
+
+    /**
+     * Cosseno hiperbólico: cosh(a+bi) = cosh a * cos b + i*sinh a * sin b.
+     *
+     * @return Um novo ComplexNumber com cosh(z).
+     */
+    public ComplexNumber cosh() {
+        return function(ComplexFunctions.COSH);
+    }
 
-        return new ComplexNumber(numerator.real / denominator, numerator.imaginary / denominator);
+    /** Aplica a função de código 'code' (ComplexFunctions), a mesma dos avaliadores. */
+    ComplexNumber function(int code) {
+        double[] pair = new double[2];
+        ComplexFunctions.apply(code, this.real, this.imaginary, pair);
+        return new ComplexNumber(pair[0], pair[1]);
     }
 
     // --- Funções Polares (Auxiliares para Potência/Raiz) ---
@@ -185,12 +209,21 @@ public record ComplexNumber(double real, double imaginary) {
      * Utiliza a Fórmula de De Moivre, que requer a conversão para
      * coordenadas polares (Magnitude 'r', Fase 'θ').
      * Fórmula: z^n = r^n * (cos(nθ) + i*sin(nθ))
+     *
+     * Expoentes inteiros (|n| &lt;= 1024) usam exponenciação binária, só com
+     * multiplicações: é mais rápido e exato sempre que possível
+     * (ex: (3+4i)^2 é exatamente -7 + 24i). Veja integerPower().
      * 
      * @param exponent O expoente (n) ao qual elevar o número.
      * 
      * @return Um novo ComplexNumber com o resultado de z^n.
      */
     public ComplexNumber power(double exponent) {
+        // --- Atalho: expoente inteiro (exceto 0 elevado a um negativo) ---
+        if (ComplexMath.isIntegerPower(this.real, this.imaginary, exponent)) {
+            return integerPower((int) exponent);
+        }
+
         // --- Passo 1: Calcular os novos componentes polares (r', θ') ---
 
         // 1a. Calcula a nova magnitude (r'): r^n
@@ -213,6 +246,45 @@ public record ComplexNumber(double real, double imaginary) {
         return new ComplexNumber(newReal, newImag);
     }
 
+    /**
+     * Calcula z^n por exponenciação binária ("square-and-multiply"):
+     * percorre os bits de |n|, multiplicando o resultado pela base quando o
+     * bit é 1 e elevando a base ao quadrado a cada passo. São no máximo
+     * 2*log2(|n|) multiplicações, em vez de pow/atan2/cos/sin.
+     * Para n negativo, a base é invertida primeiro (z^-n = (1/z)^n).
+     *
+     * @param n O expoente inteiro.
+     * @return z^n (1 para n = 0).
+     */
+    private ComplexNumber integerPower(int n) {
+        ComplexNumber base = (n < 0) ? reciprocal() : this;
+        ComplexNumber result = null;
+        for (int m = Math.abs(n); m != 0; m >>>= 1) {
+            if ((m & 1) != 0) {
+                result = (result == null) ? base : result.multiply(base);
+            }
+            if (m > 1) {
+                base = base.multiply(base);
+            }
+        }
+        return (result == null) ? new ComplexNumber(1, 0) : result;
+    }
+
+    /**
+     * Calcula 1/z pelo método de Smith, que divide pela maior das partes
+     * primeiro para não estourar (overflow/underflow) ao calcular a^2 + b^2.
+     */
+    private ComplexNumber reciprocal() {
+        if (Math.abs(this.real) >= Math.abs(this.imaginary)) {
+            double ratio = this.imaginary / this.real;
+            double den = this.real + this.imaginary * ratio;
+            return new ComplexNumber(1 / den, -ratio / den);
+        }
+        double ratio = this.real / this.imaginary;
+        double den = this.real * ratio + this.imaginary;
+        return new ComplexNumber(ratio / den, -1 / den);
+    }
+
     /**
      * Calcula a n-ésima raiz principal de um número complexo.
      * Matematicamente, isso é equivalente a calcular z^(1/n).
@@ -227,6 +299,7 @@ public record ComplexNumber(double real, double imaginary) {
         // Índices de raiz devem ser inteiros positivos.
         if (n <= 0) {
             // Rejeita a expressão/operação inválida.
+            Metrics.failure(Metrics.Failure.INVALID_ROOT);
             throw new IllegalArgumentException("O índice da raiz (n) deve ser um inteiro positivo maior que zero.");
         }
 
@@ -236,4 +309,49 @@ public record ComplexNumber(double real, double imaginary) {
         // Reutiliza a lógica de potência já implementada.
         return power(exponent);
     }
+
+    /**
+     * Calcula todas as n raízes n-ésimas: w_k = w_0 * ω^k (k = 0..n-1), onde
+     * w_0 = nthRoot(n) é a raiz principal e ω = e^(2πi/n).
+     * As potências de ω vêm de uma tabela em cache (RootsOfUnity), então só
+     * a raiz principal chama pow/cos/sin; as demais são uma multiplicação cada.
+     *
+     * @param n O índice da raiz.
+     * @return Um ComplexArray com as n raízes (a principal na posição 0).
+     * @throws IllegalArgumentException (Regra 5) se n for menor ou igual a zero.
+     */
+    public ComplexArray nthRoots(int n) {
+        ComplexArray roots = new ComplexArray(Math.max(n, 0));
+        nthRoots(n, roots.real(), roots.imaginary());
+        return roots;
+    }
+
+    /**
+     * Versão de nthRoots(n) que grava as raízes em arrays primitivos
+     * (posições 0..n-1), sem alocar.
+     *
+     * @param n O índice da raiz.
+     * @param re Recebe as partes reais (tamanho &gt;= n).
+     * @param im Recebe as partes imaginárias (tamanho &gt;= n).
+     * @throws IllegalArgumentException (Regra 5) se n for menor ou igual a zero,
+     * ou se os arrays forem menores que n.
+     */
+    public void nthRoots(int n, double[] re, double[] im) {
+        ComplexNumber principal = nthRoot(n); // Também valida n
+        if (re.length < n || im.length < n) {
+            throw new IllegalArgumentException("Os arrays de destino devem ter espaço para as " + n + " raízes.");
+        }
+        double a = principal.real;
+        double b = principal.imaginary;
+        RootsOfUnity.Table unity = RootsOfUnity.of(n);
+        double[] cos = unity.cos();
+        double[] sin = unity.sin();
+        re[0] = a;
+        im[0] = b;
+        for (int k = 1; k < n; k++) {
+            // w_0 * (cos + i*sin), como em multiply()
+            re[k] = a * cos[k] - b * sin[k];
+            im[k] = a * sin[k] + b * cos[k];
+        }
+    }
 }
\ No newline at end of file
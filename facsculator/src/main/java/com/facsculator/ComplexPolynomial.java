@@ -0,0 +1,205 @@
+package com.facsculator;
+
+import java.util.Arrays;
+
+/**
+ * Polinômio de coeficientes complexos p(z) = a0 + a1*z + ... + an*z^n,
+ * guardado em dois arrays primitivos (partes reais e imaginárias dos
+ * coeficientes, do grau 0 ao grau n).
+ *
+ * A avaliação usa o método de Horner: p(z) = a0 + z*(a1 + z*(a2 + ...)),
+ * com n multiplicações complexas e nenhuma chamada de power. Os coeficientes
+ * de grau mais alto iguais a zero são descartados, então an != 0 (exceto no
+ * polinômio nulo).
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class ComplexPolynomial {
+
+    private final double[] real;
+    private final double[] imaginary;
+
+    /**
+     * Copia os coeficientes (do grau 0 ao grau n).
+     *
+     * @param real As partes reais dos coeficientes.
+     * @param imaginary As partes imaginárias (mesmo tamanho de 'real').
+     * @throws IllegalArgumentException se os arrays tiverem tamanhos diferentes ou forem vazios.
+     */
+    public ComplexPolynomial(double[] real, double[] imaginary) {
+        if (real.length != imaginary.length) {
+            throw new IllegalArgumentException("Os arrays real e imaginário devem ter o mesmo tamanho.");
+        }
+        if (real.length == 0) {
+            throw new IllegalArgumentException("O polinômio deve ter ao menos um coeficiente.");
+        }
+        int length = real.length;
+        while (length > 1 && real[length - 1] == 0 && imaginary[length - 1] == 0) {
+            length--;
+        }
+        this.real = Arrays.copyOf(real, length);
+        this.imaginary = Arrays.copyOf(imaginary, length);
+    }
+
+    /**
+     * @param coefficients Os coeficientes a0, a1, ..., an (do grau 0 ao grau n).
+     * @return O polinômio a0 + a1*z + ... + an*z^n.
+     */
+    public static ComplexPolynomial of(ComplexNumber... coefficients) {
+        ComplexArray array = ComplexArray.of(coefficients);
+        return new ComplexPolynomial(array.real(), array.imaginary());
+    }
+
+    /**
+     * @param roots As raízes r1, ..., rn (com repetição).
+     * @return O polinômio mônico (z - r1)(z - r2)...(z - rn).
+     */
+    public static ComplexPolynomial fromRoots(ComplexArray roots) {
+        int n = roots.length();
+        double[] re = new double[n + 1];
+        double[] im = new double[n + 1];
+        re[0] = 1;
+        for (int k = 0; k < n; k++) {
+            double rr = roots.real()[k];
+            double ri = roots.imaginary()[k];
+            // Multiplica o produto atual (grau k) por (z - r): a[j] = a[j-1] - r*a[j]
+            for (int j = k + 1; j > 0; j--) {
+                double pr = re[j - 1] - (rr * re[j] - ri * im[j]);
+                double pi = im[j - 1] - (rr * im[j] + ri * re[j]);
+                re[j] = pr;
+                im[j] = pi;
+            }
+            double r0 = -(rr * re[0] - ri * im[0]);
+            double i0 = -(rr * im[0] + ri * re[0]);
+            re[0] = r0;
+            im[0] = i0;
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    /** @return O grau n (0 para polinômios constantes, inclusive o nulo). */
+    public int degree() {
+        return real.length - 1;
+    }
+
+    /** @return true se todos os coeficientes são zero. */
+    public boolean isZero() {
+        return real.length == 1 && real[0] == 0 && imaginary[0] == 0;
+    }
+
+    /**
+     * @param k O grau do coeficiente (0 &le; k &le; degree()).
+     * @return O coeficiente ak.
+     */
+    public ComplexNumber coefficient(int k) {
+        return new ComplexNumber(real[k], imaginary[k]);
+    }
+
+    /** @return Uma cópia dos coeficientes (do grau 0 ao grau n). */
+    public ComplexArray coefficients() {
+        return new ComplexArray(real.clone(), imaginary.clone());
+    }
+
+    /** @return A derivada p'(z) = a1 + 2*a2*z + ... + n*an*z^(n-1). */
+    public ComplexPolynomial derivative() {
+        if (real.length == 1) {
+            return new ComplexPolynomial(new double[1], new double[1]);
+        }
+        double[] re = new double[real.length - 1];
+        double[] im = new double[re.length];
+        for (int k = 1; k < real.length; k++) {
+            re[k - 1] = k * real[k];
+            im[k - 1] = k * imaginary[k];
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    // --- Avaliação (Horner) ---
+
+    /**
+     * @param z O ponto.
+     * @return p(z).
+     */
+    public ComplexNumber evaluate(ComplexNumber z) {
+        double[] out = new double[2];
+        evaluate(z.real(), z.imaginary(), out);
+        return new ComplexNumber(out[0], out[1]);
+    }
+
+    /**
+     * Avalia p(z) sem alocar nada.
+     *
+     * @param zr A parte real de z.
+     * @param zi A parte imaginária de z.
+     * @param out Recebe p(z): out[0] = real, out[1] = imaginário.
+     */
+    public void evaluate(double zr, double zi, double[] out) {
+        int n = real.length - 1;
+        double pr = real[n];
+        double pi = imaginary[n];
+        for (int k = n - 1; k >= 0; k--) {
+            double t = pr * zr - pi * zi + real[k];
+            pi = pr * zi + pi * zr + imaginary[k];
+            pr = t;
+        }
+        out[0] = pr;
+        out[1] = pi;
+    }
+
+    /**
+     * Avalia p em cada ponto de 'points', sem alocação por elemento.
+     *
+     * @param points Os pontos z.
+     * @param out Recebe p(z) de cada ponto (pode ser o próprio 'points').
+     * @throws IllegalArgumentException se 'out' for menor que 'points'.
+     */
+    public void evaluate(ComplexArray points, ComplexArray out) {
+        if (out.length() < points.length()) {
+            throw new IllegalArgumentException("O vetor de destino é menor que o de pontos.");
+        }
+        double[] zr = points.real();
+        double[] zi = points.imaginary();
+        double[] outReal = out.real();
+        double[] outImaginary = out.imaginary();
+        int n = real.length - 1;
+        for (int j = 0; j < points.length(); j++) {
+            double pr = real[n];
+            double pi = imaginary[n];
+            for (int k = n - 1; k >= 0; k--) {
+                double t = pr * zr[j] - pi * zi[j] + real[k];
+                pi = pr * zi[j] + pi * zr[j] + imaginary[k];
+                pr = t;
+            }
+            outReal[j] = pr;
+            outImaginary[j] = pi;
+        }
+    }
+
+    /** As partes reais dos coeficientes (sem cópia; não devem ser alteradas). */
+    double[] real() {
+        return real;
+    }
+
+    /** As partes imaginárias dos coeficientes (sem cópia; não devem ser alteradas). */
+    double[] imaginary() {
+        return imaginary;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int k = real.length - 1; k >= 0; k--) {
+            if (k < real.length - 1 && real[k] == 0 && imaginary[k] == 0) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append(" + ");
+            }
+            text.append('(').append(coefficient(k)).append(')');
+            if (k > 0) {
+                text.append(k == 1 ? "z" : "z^" + k);
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,254 @@
+package com.facsculator;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Uma CompiledExpression avaliada em números duais (ComplexDual): cada
+ * avaliação produz o valor e a derivada em relação a uma variável escolhida,
+ * na mesma passada pelo programa, sem diferenças finitas.
+ *
+ * Cada registrador k ganha um segundo par de registradores com sua derivada,
+ * calculada pela regra da instrução (veja ComplexDual). O programa avaliado
+ * é o retangular, anterior ao PolarPlanner, então o valor é idêntico ao
+ * obtido encadeando os métodos de ComplexNumber (e pode diferir do de
+ * CompiledExpression.evaluate() por arredondamento, nas partes que ela
+ * mantém em forma polar).
+ *
+ * Obtida por {@link CompiledExpression#differentiate(String)}. Instâncias são
+ * imutáveis e podem ser compartilhadas entre threads; cada thread deve usar
+ * seus próprios arrays de registradores.
+ */
+public final class DualExpression {
+
+    private final CompiledExpression program;
+    private final String variable;
+
+    /** A posição da variável em variables(), ou -1 se ela não aparece na expressão. */
+    private final int variableIndex;
+
+    DualExpression(CompiledExpression program, String variable) {
+        this.program = program;
+        this.variable = variable;
+        this.variableIndex = program.variables().indexOf(variable);
+    }
+
+    // --- Acesso ---
+
+    /** @return A variável em relação à qual a derivada é calculada. */
+    public String variable() {
+        return variable;
+    }
+
+    /** @return A posição da variável em variables(), ou -1 se ela não aparece na expressão. */
+    public int variableIndex() {
+        return variableIndex;
+    }
+
+    /** @return Os nomes das variáveis da expressão (ordem das posições em evaluate). */
+    public List<String> variables() {
+        return program.variables();
+    }
+
+    /** @return O número de registradores necessários (em cada um dos quatro arrays). */
+    public int size() {
+        return program.size();
+    }
+
+    /** @return O índice do registrador que guarda o resultado final. */
+    public int resultRegister() {
+        return program.resultRegister();
+    }
+
+    // --- Avaliação ---
+
+    /**
+     * Avalia a expressão e sua derivada com as variáveis fornecidas por nome.
+     *
+     * @param bindings O valor de cada variável.
+     * @return O valor e a derivada.
+     * @throws IllegalArgumentException se alguma variável não tiver valor.
+     */
+    public ComplexDual evaluate(Map<String, ComplexNumber> bindings) {
+        List<String> names = variables();
+        ComplexNumber[] values = new ComplexNumber[names.size()];
+        for (int v = 0; v < values.length; v++) {
+            values[v] = bindings.get(names.get(v));
+            if (values[v] == null) {
+                throw new IllegalArgumentException("Variável não definida: " + names.get(v));
+            }
+        }
+        return evaluate(values);
+    }
+
+    /**
+     * Avalia a expressão e sua derivada com as variáveis fornecidas por
+     * posição (na ordem de {@link #variables()}).
+     *
+     * @param values O valor de cada variável.
+     * @return O valor e a derivada.
+     */
+    public ComplexDual evaluate(ComplexNumber... values) {
+        if (values.length != variables().size()) {
+            throw new IllegalArgumentException("Esperados " + variables().size()
+                    + " valores de variáveis, mas recebidos " + values.length + ".");
+        }
+        double[] varReal = new double[values.length];
+        double[] varImaginary = new double[values.length];
+        for (int v = 0; v < values.length; v++) {
+            varReal[v] = values[v].real();
+            varImaginary[v] = values[v].imaginary();
+        }
+        int size = size();
+        double[] regReal = new double[size];
+        double[] regImaginary = new double[size];
+        double[] dReal = new double[size];
+        double[] dImaginary = new double[size];
+        evaluate(varReal, varImaginary, regReal, regImaginary, dReal, dImaginary);
+        int k = resultRegister();
+        return new ComplexDual(new ComplexNumber(regReal[k], regImaginary[k]), new ComplexNumber(dReal[k], dImaginary[k]));
+    }
+
+    /**
+     * Avalia a expressão e sua derivada sem nenhuma alocação. O valor fica em
+     * regReal/regImaginary[resultRegister()] e a derivada em
+     * dReal/dImaginary[resultRegister()].
+     *
+     * @param varReal As partes reais das variáveis (na ordem de variables()).
+     * @param varImaginary As partes imaginárias das variáveis.
+     * @param regReal Registradores do valor (parte real), com pelo menos size() posições.
+     * @param regImaginary Registradores do valor (parte imaginária).
+     * @param dReal Registradores da derivada (parte real), com pelo menos size() posições.
+     * @param dImaginary Registradores da derivada (parte imaginária).
+     * @throws ArithmeticException em divisão por zero.
+     * @throws IllegalArgumentException se um expoente calculado não for real.
+     */
+    public void evaluate(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary,
+                         double[] dReal, double[] dImaginary) {
+        long start = Metrics.start();
+        execute(varReal, varImaginary, regReal, regImaginary, dReal, dImaginary, false);
+        Metrics.stop(Metrics.Stage.EVALUATE, start);
+    }
+
+    /**
+     * Como {@link #evaluate(double[], double[], double[], double[], double[], double[])},
+     * mas sem lançar exceções (como CompiledExpression.evaluateQuietly).
+     *
+     * @return true se a avaliação foi válida.
+     */
+    boolean evaluateQuietly(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary,
+                            double[] dReal, double[] dImaginary) {
+        return execute(varReal, varImaginary, regReal, regImaginary, dReal, dImaginary, true);
+    }
+
+    private boolean execute(double[] varReal, double[] varImaginary, double[] regReal, double[] regImaginary,
+                            double[] dReal, double[] dImaginary, boolean quiet) {
+        final int[] ops = program.ops, left = program.left, right = program.right;
+        final double[] re = regReal, im = regImaginary, dre = dReal, dim = dImaginary;
+        boolean valid = true;
+
+        for (int k = 0; k < ops.length; k++) {
+            int l = left[k];
+            int r = right[k];
+            switch (ops[k]) {
+                case CompiledExpression.CONST:
+                    re[k] = program.constReal[k];
+                    im[k] = program.constImaginary[k];
+                    dre[k] = 0;
+                    dim[k] = 0;
+                    break;
+                case CompiledExpression.VARIABLE:
+                    re[k] = varReal[l];
+                    im[k] = varImaginary[l];
+                    dre[k] = (l == variableIndex) ? 1 : 0;
+                    dim[k] = 0;
+                    break;
+                case CompiledExpression.ADD:
+                    re[k] = re[l] + re[r];
+                    im[k] = im[l] + im[r];
+                    dre[k] = dre[l] + dre[r];
+                    dim[k] = dim[l] + dim[r];
+                    break;
+                case CompiledExpression.SUBTRACT:
+                    re[k] = re[l] - re[r];
+                    im[k] = im[l] - im[r];
+                    dre[k] = dre[l] - dre[r];
+                    dim[k] = dim[l] - dim[r];
+                    break;
+                case CompiledExpression.MULTIPLY: {
+                    double a = re[l], b = im[l], c = re[r], d = im[r];
+                    double da = dre[l], db = dim[l], dc = dre[r], dd = dim[r];
+                    re[k] = a * c - b * d;
+                    im[k] = a * d + b * c;
+                    // f'g + fg'
+                    dre[k] = (da * c - db * d) + (a * dc - b * dd);
+                    dim[k] = (da * d + db * c) + (a * dd + b * dc);
+                    break;
+                }
+                case CompiledExpression.DIVIDE: {
+                    double a = re[l], b = im[l], c = re[r], d = im[r];
+                    double denominator = c * c + d * d;
+                    valid &= divisor(denominator, quiet);
+                    double qa = (a * c + b * d) / denominator;
+                    double qb = (b * c - a * d) / denominator;
+                    re[k] = qa;
+                    im[k] = qb;
+                    // (f' - q*g') / g
+                    double na = dre[l] - (qa * dre[r] - qb * dim[r]);
+                    double nb = dim[l] - (qa * dim[r] + qb * dre[r]);
+                    dre[k] = (na * c + nb * d) / denominator;
+                    dim[k] = (nb * c - na * d) / denominator;
+                    break;
+                }
+                case CompiledExpression.POWER:
+                    valid &= realExponent(im[r], quiet);
+                    ComplexMath.power(re[l], im[l], re[r], re, im, k);
+                    ComplexMath.powerDerivative(re[l], im[l], dre[l], dim[l], re[r], dre[r], dim[r],
+                            re[k], im[k], dre, dim, k);
+                    break;
+                case CompiledExpression.ROOT:
+                    ComplexMath.power(re[l], im[l], 1.0 / r, re, im, k);
+                    ComplexMath.powerDerivative(re[l], im[l], dre[l], dim[l], 1.0 / r, 0, 0,
+                            re[k], im[k], dre, dim, k);
+                    break;
+                case CompiledExpression.CONJUGATE:
+                    re[k] = re[l];
+                    im[k] = -im[l];
+                    dre[k] = dre[l];
+                    dim[k] = -dim[l];
+                    break;
+                case CompiledExpression.NEGATE:
+                    re[k] = -re[l];
+                    im[k] = -im[l];
+                    dre[k] = -dre[l];
+                    dim[k] = -dim[l];
+                    break;
+                case CompiledExpression.FUNCTION:
+                    ComplexFunctions.apply(r, re[l], im[l], re, im, k);
+                    ComplexFunctions.derivative(r, re[l], im[l], dre[l], dim[l], re[k], im[k], dre, dim, k);
+                    break;
+                default:
+                    throw new IllegalStateException("Instrução desconhecida: " + ops[k]);
+            }
+        }
+        return valid;
+    }
+
+    /** ComplexMath.checkDivisor, ou apenas o teste quando 'quiet'. */
+    private static boolean divisor(double denominator, boolean quiet) {
+        if (quiet) {
+            return ComplexMath.isValidDivisor(denominator);
+        }
+        ComplexMath.checkDivisor(denominator);
+        return true;
+    }
+
+    /** ComplexMath.checkRealExponent, ou apenas o teste quando 'quiet'. */
+    private static boolean realExponent(double exponentImaginary, boolean quiet) {
+        if (quiet) {
+            return ComplexMath.isRealExponent(exponentImaginary);
+        }
+        ComplexMath.checkRealExponent(exponentImaginary);
+        return true;
+    }
+}
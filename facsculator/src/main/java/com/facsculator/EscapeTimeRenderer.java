@@ -0,0 +1,385 @@
+package com.facsculator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Calcula imagens de fractais por tempo de escape (conjuntos de Mandelbrot e
+ * de Julia): para cada pixel, itera z = f(z, c) e conta as iterações até
+ * |z| passar do raio de escape (ou até o limite de iterações, para os pontos
+ * considerados dentro do conjunto).
+ *
+ * A fórmula pode ser qualquer CompiledExpression sobre as variáveis z e c
+ * (avaliada pelo kernel de ExpressionJit) ou o caminho rápido embutido para
+ * z**2 + c, que itera direto sobre doubles e, no Mandelbrot, descarta de
+ * início os pontos da cardioide principal e do disco de período 2. Nos dois
+ * casos, um teste de periodicidade (Brent) encerra as órbitas que voltam,
+ * a menos de um milésimo de pixel, a um ponto já visitado.
+ *
+ * A imagem é dividida em blocos de {@link #TILE} x {@link #TILE} pixels,
+ * distribuídos entre as threads de um ForkJoinPool (os blocos do interior do
+ * conjunto custam muito mais que os outros; o roubo de tarefas equilibra a
+ * carga). Nada é alocado por pixel: o resultado é um int[] de iterações,
+ * que pode ser gravado como RGB bruto por {@link #writeRgb}.
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class EscapeTimeRenderer {
+
+    /** Lado, em pixels, dos blocos distribuídos entre as threads. */
+    public static final int TILE = 64;
+
+    /** Raio de escape do caminho rápido (|z| > 2 garante a divergência de z**2 + c). */
+    public static final double DEFAULT_ESCAPE_RADIUS = 2;
+
+    /** Tolerância do teste de periodicidade, em pixels. */
+    private static final double PERIODICITY_TOLERANCE = 1e-3;
+
+    /** Primeira janela do teste de periodicidade (dobra a cada ponto salvo). */
+    private static final int FIRST_PERIOD_CHECK = 8;
+
+    /**
+     * A região do plano complexo e a resolução da imagem. O pixel (x, y) tem
+     * o centro em minReal + (x + 0.5) * (maxReal - minReal) / width e
+     * maxImaginary - (y + 0.5) * (maxImaginary - minImaginary) / height (a
+     * linha 0 é a de cima).
+     */
+    public record Viewport(double minReal, double maxReal, double minImaginary, double maxImaginary,
+                           int width, int height) {
+
+        /**
+         * @throws IllegalArgumentException se a região for vazia ou a imagem não tiver pixels.
+         */
+        public Viewport {
+            if (width < 1 || height < 1 || (long) width * height > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Resolução inválida: " + width + "x" + height + ".");
+            }
+            if (!(minReal < maxReal) || !(minImaginary < maxImaginary)) {
+                throw new IllegalArgumentException("A região deve ter min < max nos dois eixos.");
+            }
+        }
+
+        /**
+         * @param centerReal A parte real do centro.
+         * @param centerImaginary A parte imaginária do centro.
+         * @param realWidth A largura da região no eixo real (a altura segue a proporção da imagem).
+         * @param width A largura da imagem, em pixels.
+         * @param height A altura da imagem, em pixels.
+         * @return A região centrada no ponto dado.
+         */
+        public static Viewport centered(double centerReal, double centerImaginary, double realWidth,
+                                        int width, int height) {
+            double imaginaryHeight = realWidth * height / width;
+            return new Viewport(centerReal - realWidth / 2, centerReal + realWidth / 2,
+                                centerImaginary - imaginaryHeight / 2, centerImaginary + imaginaryHeight / 2,
+                                width, height);
+        }
+
+        /** @return O número de pixels (width * height). */
+        public int pixels() {
+            return width * height;
+        }
+    }
+
+    /** Se o pixel define c (Mandelbrot) ou o valor inicial de z (Julia). */
+    private final boolean mandelbrot;
+    private final double juliaReal;
+    private final double juliaImaginary;
+    /** null no caminho rápido (z**2 + c). */
+    private final ExpressionKernel kernel;
+    /** As posições de z e c nas variáveis da fórmula (-1 se não aparecem). */
+    private final int zIndex;
+    private final int cIndex;
+    private final int variables;
+    private final int maxIterations;
+    private final double escapeRadius;
+
+    private EscapeTimeRenderer(boolean mandelbrot, ComplexNumber julia, CompiledExpression formula,
+                               int maxIterations, double escapeRadius) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("O limite de iterações deve ser positivo.");
+        }
+        if (!(escapeRadius > 0)) {
+            throw new IllegalArgumentException("O raio de escape deve ser positivo.");
+        }
+        this.mandelbrot = mandelbrot;
+        this.juliaReal = (julia == null) ? 0 : julia.real();
+        this.juliaImaginary = (julia == null) ? 0 : julia.imaginary();
+        this.maxIterations = maxIterations;
+        this.escapeRadius = escapeRadius;
+        if (formula == null) {
+            this.kernel = null;
+            this.zIndex = -1;
+            this.cIndex = -1;
+            this.variables = 0;
+        } else {
+            List<String> names = formula.variables();
+            for (String name : names) {
+                if (!name.equals("z") && !name.equals("c")) {
+                    throw new IllegalArgumentException("A fórmula só pode usar as variáveis z e c, mas usa '" + name + "'.");
+                }
+            }
+            this.kernel = ExpressionJit.compile(formula);
+            this.zIndex = names.indexOf("z");
+            this.cIndex = names.indexOf("c");
+            this.variables = names.size();
+        }
+    }
+
+    // --- Fábricas ---
+
+    /**
+     * Conjunto de Mandelbrot pelo caminho rápido: z0 = 0, z = z**2 + c, com
+     * c = o pixel.
+     *
+     * @param maxIterations O limite de iterações (valor dos pontos de dentro).
+     * @return O renderizador.
+     * @throws IllegalArgumentException se maxIterations &lt; 1.
+     */
+    public static EscapeTimeRenderer mandelbrot(int maxIterations) {
+        return new EscapeTimeRenderer(true, null, null, maxIterations, DEFAULT_ESCAPE_RADIUS);
+    }
+
+    /**
+     * Conjunto de Julia pelo caminho rápido: z0 = o pixel, z = z**2 + c.
+     *
+     * @param c A constante c.
+     * @param maxIterations O limite de iterações.
+     * @return O renderizador.
+     */
+    public static EscapeTimeRenderer julia(ComplexNumber c, int maxIterations) {
+        return new EscapeTimeRenderer(false, c, null, maxIterations, DEFAULT_ESCAPE_RADIUS);
+    }
+
+    /**
+     * Mandelbrot generalizado: z0 = 0, z = formula(z, c), com c = o pixel.
+     *
+     * @param formula Uma expressão sobre z e c (ex: "z**3 + c").
+     * @param maxIterations O limite de iterações.
+     * @param escapeRadius O raio a partir do qual a órbita é considerada divergente.
+     * @return O renderizador.
+     * @throws IllegalArgumentException se a fórmula usar outras variáveis.
+     */
+    public static EscapeTimeRenderer mandelbrot(CompiledExpression formula, int maxIterations, double escapeRadius) {
+        return new EscapeTimeRenderer(true, null, formula, maxIterations, escapeRadius);
+    }
+
+    /**
+     * Julia generalizado: z0 = o pixel, z = formula(z, c).
+     *
+     * @param formula Uma expressão sobre z e c (ex: "conj(z)**2 + c").
+     * @param c A constante c.
+     * @param maxIterations O limite de iterações.
+     * @param escapeRadius O raio a partir do qual a órbita é considerada divergente.
+     * @return O renderizador.
+     * @throws IllegalArgumentException se a fórmula usar outras variáveis.
+     */
+    public static EscapeTimeRenderer julia(CompiledExpression formula, ComplexNumber c,
+                                           int maxIterations, double escapeRadius) {
+        return new EscapeTimeRenderer(false, c, formula, maxIterations, escapeRadius);
+    }
+
+    /** @return O limite de iterações (o valor dos pixels de dentro do conjunto). */
+    public int maxIterations() {
+        return maxIterations;
+    }
+
+    // --- Renderização ---
+
+    /**
+     * Calcula a imagem no ForkJoinPool.commonPool().
+     *
+     * @param viewport A região e a resolução.
+     * @return As iterações de cada pixel, por linhas (maxIterations() para os de dentro).
+     */
+    public int[] render(Viewport viewport) {
+        int[] iterations = new int[viewport.pixels()];
+        render(viewport, iterations, ForkJoinPool.commonPool());
+        return iterations;
+    }
+
+    /**
+     * Calcula a imagem sem alocar o resultado.
+     *
+     * @param viewport A região e a resolução.
+     * @param iterations Recebe as iterações de cada pixel, por linhas.
+     * @param pool O pool que executa os blocos (null para uma única thread).
+     * @throws IllegalArgumentException se 'iterations' tiver menos que viewport.pixels() posições.
+     */
+    public void render(Viewport viewport, int[] iterations, ForkJoinPool pool) {
+        if (iterations.length < viewport.pixels()) {
+            throw new IllegalArgumentException("O buffer deve ter " + viewport.pixels() + " posições.");
+        }
+        int tilesX = (viewport.width() + TILE - 1) / TILE;
+        int tilesY = (viewport.height() + TILE - 1) / TILE;
+        ParallelLoops.forRange(pool, 0, tilesX * tilesY, 1, (from, to) -> {
+            Scratch scratch = (kernel == null) ? null : new Scratch(variables);
+            for (int tile = from; tile < to; tile++) {
+                int x0 = (tile % tilesX) * TILE;
+                int y0 = (tile / tilesX) * TILE;
+                renderTile(viewport, iterations, x0, Math.min(viewport.width(), x0 + TILE),
+                           y0, Math.min(viewport.height(), y0 + TILE), scratch);
+            }
+        });
+    }
+
+    /** Os arrays reaproveitados por todos os pixels de uma tarefa da fórmula. */
+    private static final class Scratch {
+        final double[] varReal;
+        final double[] varImaginary;
+        final double[] out = new double[2];
+
+        Scratch(int variables) {
+            varReal = new double[variables];
+            varImaginary = new double[variables];
+        }
+    }
+
+    private void renderTile(Viewport v, int[] iterations, int x0, int x1, int y0, int y1, Scratch scratch) {
+        double dx = (v.maxReal() - v.minReal()) / v.width();
+        double dy = (v.maxImaginary() - v.minImaginary()) / v.height();
+        double tolerance = PERIODICITY_TOLERANCE * Math.min(dx, dy);
+        double tolerance2 = tolerance * tolerance;
+        for (int y = y0; y < y1; y++) {
+            double pi = v.maxImaginary() - (y + 0.5) * dy;
+            for (int x = x0; x < x1; x++) {
+                double pr = v.minReal() + (x + 0.5) * dx;
+                int count;
+                if (mandelbrot) {
+                    count = (kernel == null)
+                            ? mandelbrotQuadratic(pr, pi, tolerance2)
+                            : iterateFormula(0, 0, pr, pi, tolerance2, scratch);
+                } else {
+                    count = (kernel == null)
+                            ? iterateQuadratic(pr, pi, juliaReal, juliaImaginary, tolerance2)
+                            : iterateFormula(pr, pi, juliaReal, juliaImaginary, tolerance2, scratch);
+                }
+                iterations[y * v.width() + x] = count;
+            }
+        }
+    }
+
+    /** z**2 + c a partir de z = 0, descartando antes a cardioide e o disco de período 2. */
+    private int mandelbrotQuadratic(double cr, double ci, double tolerance2) {
+        double xr = cr - 0.25;
+        double ci2 = ci * ci;
+        double q = xr * xr + ci2;
+        if (q * (q + xr) <= 0.25 * ci2 || (cr + 1) * (cr + 1) + ci2 <= 0.0625) {
+            return maxIterations;
+        }
+        return iterateQuadratic(0, 0, cr, ci, tolerance2);
+    }
+
+    /** Itera z = z**2 + c sobre doubles. */
+    private int iterateQuadratic(double zr, double zi, double cr, double ci, double tolerance2) {
+        double savedReal = zr;
+        double savedImaginary = zi;
+        int nextSave = FIRST_PERIOD_CHECK;
+        double r2 = escapeRadius * escapeRadius;
+        double zr2 = zr * zr;
+        double zi2 = zi * zi;
+        for (int n = 0; n < maxIterations; n++) {
+            if (!(zr2 + zi2 <= r2)) {
+                return n; // Também para NaN e infinito
+            }
+            zi = 2 * zr * zi + ci;
+            zr = zr2 - zi2 + cr;
+            zr2 = zr * zr;
+            zi2 = zi * zi;
+
+            double er = zr - savedReal;
+            double ei = zi - savedImaginary;
+            if (er * er + ei * ei <= tolerance2) {
+                return maxIterations; // Órbita periódica: não escapa
+            }
+            if (n == nextSave) {
+                savedReal = zr;
+                savedImaginary = zi;
+                nextSave <<= 1;
+            }
+        }
+        return maxIterations;
+    }
+
+    /** Itera z = formula(z, c) pelo kernel; uma avaliação inválida (ex: divisão por zero) conta como escape. */
+    private int iterateFormula(double zr, double zi, double cr, double ci, double tolerance2, Scratch s) {
+        if (cIndex >= 0) {
+            s.varReal[cIndex] = cr;
+            s.varImaginary[cIndex] = ci;
+        }
+        double savedReal = zr;
+        double savedImaginary = zi;
+        int nextSave = FIRST_PERIOD_CHECK;
+        double r2 = escapeRadius * escapeRadius;
+        for (int n = 0; n < maxIterations; n++) {
+            if (!(zr * zr + zi * zi <= r2)) {
+                return n;
+            }
+            if (zIndex >= 0) {
+                s.varReal[zIndex] = zr;
+                s.varImaginary[zIndex] = zi;
+            }
+            if (!kernel.evaluateQuietly(s.varReal, s.varImaginary, s.out)) {
+                return n;
+            }
+            zr = s.out[0];
+            zi = s.out[1];
+
+            double er = zr - savedReal;
+            double ei = zi - savedImaginary;
+            if (er * er + ei * ei <= tolerance2) {
+                return maxIterations;
+            }
+            if (n == nextSave) {
+                savedReal = zr;
+                savedImaginary = zi;
+                nextSave <<= 1;
+            }
+        }
+        return maxIterations;
+    }
+
+    // --- Saída ---
+
+    /**
+     * Grava as iterações como RGB bruto (3 bytes por pixel, por linhas, sem
+     * cabeçalho). Os pixels de dentro do conjunto ficam pretos; os demais
+     * recebem uma paleta contínua de t = iterações / maxIterations().
+     *
+     * @param iterations As iterações, como devolvidas por render.
+     * @param pixels O número de pixels a gravar (viewport.pixels()).
+     * @param out O destino (não é fechado).
+     * @throws IOException se a escrita falhar.
+     */
+    public void writeRgb(int[] iterations, int pixels, OutputStream out) throws IOException {
+        byte[] palette = palette();
+        byte[] buffer = new byte[3 * 4096];
+        int used = 0;
+        for (int p = 0; p < pixels; p++) {
+            int color = 3 * Math.min(Math.max(iterations[p], 0), maxIterations);
+            buffer[used++] = palette[color];
+            buffer[used++] = palette[color + 1];
+            buffer[used++] = palette[color + 2];
+            if (used == buffer.length) {
+                out.write(buffer, 0, used);
+                used = 0;
+            }
+        }
+        out.write(buffer, 0, used);
+    }
+
+    /** A cor (r, g, b) de cada contagem de 0 a maxIterations (preto). */
+    private byte[] palette() {
+        byte[] palette = new byte[3 * (maxIterations + 1)];
+        for (int n = 0; n < maxIterations; n++) {
+            double t = (double) n / maxIterations;
+            double u = 1 - t;
+            palette[3 * n] = (byte) (int) (255 * 9 * u * t * t * t);
+            palette[3 * n + 1] = (byte) (int) (255 * 15 * u * u * t * t);
+            palette[3 * n + 2] = (byte) (int) (255 * 8.5 * u * u * u * t);
+        }
+        return palette;
+    }
+}
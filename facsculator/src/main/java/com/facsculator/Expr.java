@@ -0,0 +1,89 @@
+package com.facsculator;
+
+/**
+ * Nó da Árvore Sintática Abstrata (AST) produzida pelo Parser.
+ *
+ * Cada tipo de nó é um 'record' imutável. O toString() de cada nó
+ * exibe a árvore em notação LISP (prefixada), ex:
+ * "(6+2i) * y - 25" vira "(- (* 6+2i y) 25)".
+ */
+public sealed interface Expr
+        permits Expr.Literal, Expr.Variable, Expr.Negate, Expr.Binary, Expr.Conjugate, Expr.Root, Expr.Function {
+
+    /** Um número complexo constante (token COMPLEX_NUMBER). */
+    record Literal(ComplexNumber value) implements Expr {
+        @Override
+        public String toString() {
+            // Sem espaços, para não confundir com a separação da notação LISP
+            return value.toString().replace(" ", "");
+        }
+    }
+
+    /** Uma variável (token VARIABLE), resolvida na avaliação. */
+    record Variable(String name) implements Expr {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /** Menos unário: -operand. */
+    record Negate(Expr operand) implements Expr {
+        @Override
+        public String toString() {
+            return "(- " + operand + ")";
+        }
+    }
+
+    /**
+     * Operação binária.
+     *
+     * @param operator PLUS, MINUS, MULTIPLY, DIVIDE ou POWER.
+     */
+    record Binary(TokenType operator, Expr left, Expr right) implements Expr {
+        @Override
+        public String toString() {
+            return "(" + symbol(operator) + " " + left + " " + right + ")";
+        }
+    }
+
+    /** conj(operand). */
+    record Conjugate(Expr operand) implements Expr {
+        @Override
+        public String toString() {
+            return "(conj " + operand + ")";
+        }
+    }
+
+    /** root[index](operand), a raiz principal de índice inteiro positivo. */
+    record Root(int index, Expr operand) implements Expr {
+        @Override
+        public String toString() {
+            return "(root " + index + " " + operand + ")";
+        }
+    }
+
+    /**
+     * Função elementar: exp, log, sin, cos, sinh ou cosh (operand).
+     *
+     * @param function EXP, LOG, SIN, COS, SINH ou COSH.
+     */
+    record Function(TokenType function, Expr operand) implements Expr {
+        @Override
+        public String toString() {
+            return "(" + ComplexFunctions.name(ComplexFunctions.code(function)) + " " + operand + ")";
+        }
+    }
+
+    /** @return O símbolo textual de um operador binário. */
+    static String symbol(TokenType operator) {
+        switch (operator) {
+            case PLUS:     return "+";
+            case MINUS:    return "-";
+            case MULTIPLY: return "*";
+            case DIVIDE:   return "/";
+            case POWER:    return "**";
+            default: throw new IllegalArgumentException("Operador binário inválido: " + operator);
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.facsculator;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache concorrente e limitado de expressões já processadas (ex: compiladas
+ * ou tokenizadas), indexado pelo texto da expressão.
+ *
+ * Serve para serviços que recebem as mesmas poucas milhares de fórmulas
+ * repetidamente: um acerto devolve o valor pronto, sem passar de novo pelo
+ * Tokenizer, pelo Parser e pela compilação.
+ *
+ * <ul>
+ *   <li><b>Leitura:</b> um acerto é só uma consulta ao ConcurrentHashMap e,
+ *       no máximo, duas escritas no próprio item (recência e frequência);
+ *       itens muito usados param de ser escritos, então não há disputa
+ *       entre threads que leem as mesmas fórmulas.</li>
+ *   <li><b>Despejo:</b> quando o cache está cheio, a vítima é o item menos
+ *       recente entre {@value #SAMPLES} sorteados (LRU amostrado, como no
+ *       Redis).</li>
+ *   <li><b>Admissão (TinyLFU):</b> um item novo só entra no lugar da vítima
+ *       se tiver sido pedido mais vezes que ela. As falhas são contadas em um
+ *       "count-min sketch" que também lembra chaves fora do cache, então uma
+ *       varredura de fórmulas vistas uma única vez não expulsa as populares.
+ *       A cada 10 × maximumSize falhas as contagens são divididas por 2, para
+ *       que o cache acompanhe mudanças de popularidade.</li>
+ * </ul>
+ *
+ * Falhas de carregamento (ex: erros de sintaxe) não são guardadas: a exceção
+ * do Loader é repassada a quem chamou get(). Duas threads que pedem a mesma
+ * chave ausente ao mesmo tempo podem carregá-la em paralelo; só o primeiro
+ * valor é guardado e devolvido às duas.
+ *
+ * @param <V> O tipo do valor guardado (deve ser imutável, pois é compartilhado).
+ */
+public final class ExpressionCache<V> {
+
+    /** Quantos itens são sorteados para escolher uma vítima. */
+    public static final int SAMPLES = 8;
+
+    /** Carrega o valor de uma expressão ausente do cache. */
+    @FunctionalInterface
+    public interface Loader<V> {
+        V load(String expression) throws Exception;
+    }
+
+    /**
+     * Um retrato dos contadores do cache.
+     *
+     * @param hits Pedidos atendidos pelo cache.
+     * @param misses Pedidos que precisaram carregar o valor.
+     * @param evictions Itens removidos para dar lugar a outros.
+     * @param rejections Itens carregados que não foram admitidos (pouco frequentes).
+     * @param loadFailures Carregamentos que lançaram exceção.
+     * @param totalLoadTimeNanos Tempo total gasto carregando valores.
+     * @param size Itens no cache.
+     */
+    public record Stats(long hits, long misses, long evictions, long rejections,
+                        long loadFailures, long totalLoadTimeNanos, int size) {
+
+        /** @return A fração dos pedidos atendida pelo cache (1 se não houve pedidos). */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1.0 : (double) hits / requests;
+        }
+
+        /** @return O tempo médio de um carregamento, em nanossegundos. */
+        public double averageLoadNanos() {
+            return misses == 0 ? 0.0 : (double) totalLoadTimeNanos / misses;
+        }
+    }
+
+    /** Um item do cache. */
+    private static final class Node<V> {
+        final String key;
+        final V value;
+
+        /** Posição em 'nodes' (protegida pelo lock). */
+        int slot;
+
+        /** O 'clock' do último acesso (escrito só quando muda). */
+        volatile long lastUsed;
+
+        /** Acertos desde a última divisão por 2, saturando em MAX_FREQUENCY. */
+        volatile int frequency;
+
+        Node(String key, V value, long lastUsed) {
+            this.key = key;
+            this.value = value;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    private static final int MAX_FREQUENCY = 15;
+
+    private final int maximumSize;
+    private final boolean normalizeWhitespace;
+    private final Loader<V> loader;
+    private final ConcurrentHashMap<String, Node<V>> map;
+
+    // --- Estado da política (protegido por 'this') ---
+
+    /** Os itens, em posições contínuas [0, count), para o sorteio. */
+    private final Node<V>[] nodes;
+    private int count = 0;
+    private final FrequencySketch sketch;
+
+    /**
+     * Avança a cada falha. Como só há despejo em falhas, a recência só
+     * precisa ser medida entre falhas: um item lido várias vezes entre duas
+     * falhas é escrito uma única vez.
+     */
+    private volatile long clock = 0;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadTime = new LongAdder();
+
+    /**
+     * @param maximumSize O número máximo de expressões guardadas.
+     * @param normalizeWhitespace Se true, textos que só diferem em espaços
+     *        (ex: "3+4i * y" e " 3+4i  *  y ") usam o mesmo item.
+     * @param loader Calcula o valor de uma expressão ausente. Recebe o texto
+     *        original (as posições de erros léxicos se referem a ele).
+     */
+    public ExpressionCache(int maximumSize, boolean normalizeWhitespace, Loader<V> loader) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("O tamanho máximo do cache deve ser maior que zero.");
+        }
+        this.maximumSize = maximumSize;
+        this.normalizeWhitespace = normalizeWhitespace;
+        this.loader = loader;
+        this.map = new ConcurrentHashMap<>(Math.min(maximumSize, 1 << 16));
+        @SuppressWarnings("unchecked")
+        Node<V>[] slots = (Node<V>[]) new Node<?>[maximumSize];
+        this.nodes = slots;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Um cache de expressões compiladas (CompiledExpression.compile), com
+     * espaços normalizados.
+     */
+    public static ExpressionCache<CompiledExpression> compiled(int maximumSize) {
+        return new ExpressionCache<>(maximumSize, true, CompiledExpression::compile);
+    }
+
+    /**
+     * Um cache de listas de tokens (Tokenizer.tokenize, em listas imutáveis),
+     * com espaços normalizados.
+     */
+    public static ExpressionCache<List<Token>> tokens(int maximumSize) {
+        return new ExpressionCache<>(maximumSize, true, text -> List.copyOf(new Tokenizer(text).tokenize()));
+    }
+
+    // --- Consulta ---
+
+    /**
+     * Devolve o valor da expressão, carregando-o se não estiver no cache.
+     *
+     * @param expression O texto da expressão.
+     * @return O valor (compartilhado com outras chamadas).
+     * @throws Exception O erro do Loader (não é guardado no cache).
+     */
+    public V get(String expression) throws Exception {
+        String key = key(expression);
+        Node<V> node = map.get(key);
+        if (node != null) {
+            hits.increment();
+            touch(node);
+            return node.value;
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.load(expression);
+        } catch (Exception e) {
+            loadFailures.increment();
+            recordMiss(key);
+            throw e;
+        } finally {
+            loadTime.add(System.nanoTime() - start);
+        }
+        return admit(key, value);
+    }
+
+    /**
+     * @return O valor guardado para a expressão, ou null (sem carregar nem
+     *         alterar os contadores).
+     */
+    public V getIfPresent(String expression) {
+        Node<V> node = map.get(key(expression));
+        return node == null ? null : node.value;
+    }
+
+    /** @return O número de expressões guardadas. */
+    public int size() {
+        return map.size();
+    }
+
+    /** @return O tamanho máximo configurado. */
+    public int maximumSize() {
+        return maximumSize;
+    }
+
+    /** @return Os contadores atuais. */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(),
+                loadFailures.sum(), loadTime.sum(), map.size());
+    }
+
+    /** Remove todas as expressões (os contadores e o histórico de frequência são mantidos). */
+    public synchronized void clear() {
+        for (int k = 0; k < count; k++) {
+            nodes[k] = null;
+        }
+        count = 0;
+        map.clear();
+    }
+
+    private void touch(Node<V> node) {
+        long now = clock;
+        if (node.lastUsed != now) {
+            node.lastUsed = now;
+        }
+        int frequency = node.frequency;
+        if (frequency < MAX_FREQUENCY) {
+            node.frequency = frequency + 1; // Incrementos concorrentes podem se perder; é só uma estimativa
+        }
+    }
+
+    // --- Política (Admissão e Despejo) ---
+
+    private synchronized void recordMiss(String key) {
+        clock++;
+        if (sketch.increment(key)) {
+            age();
+        }
+    }
+
+    private synchronized V admit(String key, V value) {
+        clock++;
+        if (sketch.increment(key)) {
+            age();
+        }
+
+        Node<V> existing = map.get(key);
+        if (existing != null) {
+            return existing.value; // Outra thread carregou a mesma expressão antes
+        }
+
+        if (count == maximumSize) {
+            Node<V> victim = sampleVictim();
+            int candidateFrequency = sketch.frequency(key);
+            int victimFrequency = sketch.frequency(victim.key) + victim.frequency;
+            if (candidateFrequency <= victimFrequency) {
+                rejections.increment();
+                return value; // Não admitido: devolvido sem ser guardado
+            }
+            remove(victim);
+            evictions.increment();
+        }
+
+        Node<V> node = new Node<>(key, value, clock);
+        node.slot = count;
+        nodes[count++] = node;
+        map.put(key, node);
+        return value;
+    }
+
+    /** @return O item menos recente entre SAMPLES sorteados (o menos frequente, em empates). */
+    private Node<V> sampleVictim() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Node<V> victim = null;
+        for (int s = 0; s < SAMPLES; s++) {
+            Node<V> node = nodes[random.nextInt(count)];
+            if (victim == null || node.lastUsed < victim.lastUsed
+                    || (node.lastUsed == victim.lastUsed && node.frequency < victim.frequency)) {
+                victim = node;
+            }
+        }
+        return victim;
+    }
+
+    private void remove(Node<V> node) {
+        int last = --count;
+        Node<V> moved = nodes[last];
+        nodes[node.slot] = moved; // O último item ocupa o lugar do removido
+        moved.slot = node.slot;
+        nodes[last] = null;
+        map.remove(node.key);
+    }
+
+    /** Divide por 2 as frequências dos itens (o sketch já se dividiu). */
+    private void age() {
+        for (int k = 0; k < count; k++) {
+            nodes[k].frequency >>= 1;
+        }
+    }
+
+    // --- Normalização ---
+
+    /**
+     * Com normalizeWhitespace, troca cada sequência de espaços por um único
+     * ' ' e remove os das pontas. O Tokenizer ignora espaços, então os dois
+     * textos produzem os mesmos tokens. Sem nada a trocar, devolve o próprio
+     * texto (sem alocar).
+     */
+    private String key(String expression) {
+        if (!normalizeWhitespace || isNormalized(expression)) {
+            return expression;
+        }
+        StringBuilder sb = new StringBuilder(expression.length());
+        boolean pendingSpace = false;
+        for (int k = 0; k < expression.length(); k++) {
+            char c = expression.charAt(k);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isNormalized(String expression) {
+        boolean previousSpace = true; // Um espaço no início também precisa ser removido
+        for (int k = 0; k < expression.length(); k++) {
+            char c = expression.charAt(k);
+            boolean space = Character.isWhitespace(c);
+            if (space && (previousSpace || c != ' ')) {
+                return false;
+            }
+            previousSpace = space;
+        }
+        return !previousSpace || expression.isEmpty();
+    }
+
+    /**
+     * Count-min sketch com 4 linhas de contadores de 4 bits (saturam em 15),
+     * como no TinyLFU. Estima quantas vezes uma chave foi pedida, inclusive
+     * chaves que não estão (ou nunca estiveram) no cache.
+     * Usado apenas dentro do lock do cache.
+     */
+    private static final class FrequencySketch {
+        private static final int DEPTH = 4;
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+        private final byte[] counters;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 24)) * 2 - 1);
+            this.counters = new byte[DEPTH * width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(10L * maximumSize, Integer.MAX_VALUE);
+        }
+
+        /** @return true se as contagens foram divididas por 2 (envelhecimento). */
+        boolean increment(String key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int row = 0; row < DEPTH; row++) {
+                int index = row * (mask + 1) + index(hash, row);
+                if (counters[index] < MAX_FREQUENCY) {
+                    counters[index]++;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int k = 0; k < counters.length; k++) {
+                    counters[k] >>= 1;
+                }
+                additions /= 2;
+                return true;
+            }
+            return false;
+        }
+
+        int frequency(String key) {
+            int hash = spread(key.hashCode());
+            int min = MAX_FREQUENCY;
+            for (int row = 0; row < DEPTH; row++) {
+                min = Math.min(min, counters[row * (mask + 1) + index(hash, row)]);
+            }
+            return min;
+        }
+
+        private int index(int hash, int row) {
+            int h = (hash ^ SEEDS[row]) * SEEDS[(row + 1) % DEPTH];
+            return (h ^ (h >>> 16)) & mask;
+        }
+
+        private static int spread(int hash) {
+            hash *= 0x9E3779B9;
+            return hash ^ (hash >>> 15);
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package com.facsculator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Backend "JIT" de CompiledExpression: gera o bytecode de uma classe oculta
+ * (MethodHandles.Lookup.defineHiddenClass) que implementa ExpressionKernel.
+ *
+ * Cada registrador do programa vira um par de variáveis locais 'double' e cada
+ * instrução vira código linear (sem desvios) com dadd/dsub/dmul/ddiv. Não há
+ * laço, 'switch', arrays de registradores nem objetos intermediários: o JIT
+ * da JVM recebe um método pequeno e linear, fácil de otimizar.
+ * As únicas chamadas são para java.lang.Math (sqrt, pow, atan2, cos, sin) e
+ * para ComplexMath (verificações e potências de expoente não constante) e
+ * ComplexFunctions (exp, log, sin, ...), na mesma ordem do avaliador
+ * interpretado, então os resultados são idênticos.
+ * Potências com expoente inteiro constante e não negativo (ex: z**2) viram
+ * a sequência de multiplicações da exponenciação binária, sem chamadas.
+ * A classe gerada também implementa evaluateQuietly: o mesmo código, com os
+ * testes de divisor e expoente acumulados em um 'int' em vez de exceções.
+ *
+ * Se o bytecode passar de {@link #MAX_CODE_SIZE} bytes (o limite a partir do
+ * qual a HotSpot deixa de compilar um método), se a geração falhar, ou se a
+ * propriedade 'facsculator.disableJit' estiver ligada, {@link #compile}
+ * devolve o kernel interpretado (CompiledExpression.interpreted()).
+ */
+public final class ExpressionJit {
+
+    /** Propriedade de sistema que desliga a geração de bytecode. */
+    public static final String DISABLE_PROPERTY = "facsculator.disableJit";
+
+    /**
+     * Tamanho máximo do método gerado, em bytes. Acima de 8000 bytes a
+     * HotSpot não compila o método (-XX:-DontCompileHugeMethods), e ele
+     * ficaria mais lento que o avaliador interpretado.
+     */
+    public static final int MAX_CODE_SIZE = 8000;
+
+    /** Nome binário (sem o sufixo que a JVM adiciona) das classes geradas. */
+    private static final String CLASS_NAME = "com/facsculator/JitExpression";
+
+    private ExpressionJit() {
+    }
+
+    /**
+     * Gera uma classe oculta para a expressão, ou devolve o kernel interpretado
+     * se isso não for possível.
+     *
+     * @param expression A expressão compilada.
+     * @return O kernel gerado (ou o interpretado, como fallback).
+     */
+    public static ExpressionKernel compile(CompiledExpression expression) {
+        if (Boolean.getBoolean(DISABLE_PROPERTY)) {
+            return expression.interpreted();
+        }
+        byte[] bytes = generate(expression);
+        if (bytes == null) {
+            return expression.interpreted(); // Grande demais para um único método
+        }
+        try {
+            MethodHandles.Lookup hidden = MethodHandles.lookup().defineHiddenClass(bytes, true);
+            return (ExpressionKernel) hidden.lookupClass().getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return expression.interpreted();
+        }
+    }
+
+    /**
+     * @return true se o kernel foi gerado por este backend (e não é o fallback).
+     */
+    public static boolean isGenerated(ExpressionKernel kernel) {
+        return kernel.getClass().getName().startsWith(CLASS_NAME.replace('/', '.'));
+    }
+
+    // --- Geração do Bytecode ---
+
+    /**
+     * Gera o arquivo .class completo.
+     *
+     * @return Os bytes da classe, ou null se o método passar do limite de tamanho.
+     */
+    static byte[] generate(CompiledExpression expression) {
+        ConstantPool pool = new ConstantPool();
+        byte[] code = new MethodBody(expression, pool, false).emit();
+        byte[] quietCode = code == null ? null : new MethodBody(expression, pool, true).emit();
+        if (quietCode == null) {
+            return null;
+        }
+        int maxLocals = MethodBody.firstTemp(expression.size()) + 5;
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + code.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            // Índices que precisam existir antes de escrever o pool
+            int thisClass = pool.classRef(CLASS_NAME);
+            int superClass = pool.classRef("java/lang/Object");
+            int kernelInterface = pool.classRef("com/facsculator/ExpressionKernel");
+            int objectInit = pool.methodRef("java/lang/Object", "<init>", "()V");
+            int initName = pool.utf8("<init>");
+            int initDesc = pool.utf8("()V");
+            int evaluateName = pool.utf8("evaluate");
+            int evaluateDesc = pool.utf8("([D[D[D)V");
+            int quietName = pool.utf8("evaluateQuietly");
+            int quietDesc = pool.utf8("([D[D[D)Z");
+            int codeName = pool.utf8("Code");
+
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);  // minor_version
+            out.writeShort(61); // major_version (Java 17)
+            pool.writeTo(out);
+
+            out.writeShort(0x0001 | 0x0010 | 0x0020); // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(kernelInterface);
+            out.writeShort(0); // campos
+            out.writeShort(3); // métodos
+
+            // public <init>() { super(); }
+            byte[] initCode = {
+                0x2a,                                                  // aload_0
+                (byte) 0xb7, (byte) (objectInit >> 8), (byte) objectInit, // invokespecial Object.<init>
+                (byte) 0xb1                                            // return
+            };
+            writeMethod(out, initName, initDesc, codeName, 1, 1, initCode);
+
+            // public void evaluate(double[] varReal, double[] varImaginary, double[] out)
+            writeMethod(out, evaluateName, evaluateDesc, codeName, MethodBody.MAX_STACK, maxLocals, code);
+
+            // public boolean evaluateQuietly(double[] varReal, double[] varImaginary, double[] out)
+            writeMethod(out, quietName, quietDesc, codeName, MethodBody.MAX_STACK, maxLocals, quietCode);
+
+            out.writeShort(0); // atributos da classe
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // ByteArrayOutputStream não lança IOException
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int name, int descriptor, int codeName,
+                                    int maxStack, int maxLocals, byte[] code) throws IOException {
+        out.writeShort(0x0001); // ACC_PUBLIC
+        out.writeShort(name);
+        out.writeShort(descriptor);
+        out.writeShort(1);      // um atributo: Code
+        out.writeShort(codeName);
+        out.writeInt(12 + code.length);
+        out.writeShort(maxStack);
+        out.writeShort(maxLocals);
+        out.writeInt(code.length);
+        out.write(code);
+        out.writeShort(0);      // tabela de exceções
+        out.writeShort(0);      // atributos do Code (sem desvios, não precisa de StackMapTable)
+    }
+
+    /**
+     * Traduz as instruções do programa para o corpo do método 'evaluate'
+     * (ou 'evaluateQuietly').
+     *
+     * Variáveis locais: 0 = this, 1 = varReal, 2 = varImaginary, 3 = out;
+     * o registrador k ocupa 4+4k (real) e 6+4k (imaginário); depois deles
+     * vêm dois temporários 'double' usados por divisão e potência e, em
+     * 'evaluateQuietly', um 'int' que acumula (com iand, sem desvios) o
+     * resultado dos testes de ComplexMath.isValidDivisor/isRealExponent.
+     */
+    private static final class MethodBody {
+
+        static final int MAX_STACK = 8;
+
+        private final CompiledExpression expression;
+        private final ConstantPool pool;
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final int tempA;
+        private final int tempB;
+        private final int valid;
+        private final boolean quiet;
+
+        MethodBody(CompiledExpression expression, ConstantPool pool, boolean quiet) {
+            this.expression = expression;
+            this.pool = pool;
+            this.tempA = firstTemp(expression.size());
+            this.tempB = tempA + 2;
+            this.valid = tempB + 2;
+            this.quiet = quiet;
+        }
+
+        static int firstTemp(int registers) {
+            return 4 + 4 * registers;
+        }
+
+        private static int re(int register) {
+            return 4 + 4 * register;
+        }
+
+        private static int im(int register) {
+            return 6 + 4 * register;
+        }
+
+        /** @return O bytecode, ou null se passar dos limites de tamanho. */
+        byte[] emit() {
+            if (valid + 1 > 0xFFFF) {
+                return null; // Mais variáveis locais do que a JVM permite
+            }
+            if (quiet) {
+                op(0x04); localAccess(valid, 0x3b, 0x36); // iconst_1; istore
+            }
+            int[] ops = expression.ops, left = expression.left, right = expression.right;
+            for (int k = 0; k < ops.length; k++) {
+                int l = left[k];
+                int r = right[k];
+                switch (ops[k]) {
+                    case CompiledExpression.CONST:
+                        pushDouble(expression.constReal[k]);
+                        dstore(re(k));
+                        pushDouble(expression.constImaginary[k]);
+                        dstore(im(k));
+                        break;
+                    case CompiledExpression.VARIABLE:
+                        if (l > Short.MAX_VALUE) {
+                            return null;
+                        }
+                        op(0x2b); pushInt(l); op(0x31); dstore(re(k)); // aload_1; idx; daload
+                        op(0x2c); pushInt(l); op(0x31); dstore(im(k)); // aload_2; idx; daload
+                        break;
+                    case CompiledExpression.ADD:
+                        dload(re(l)); dload(re(r)); op(0x63); dstore(re(k)); // dadd
+                        dload(im(l)); dload(im(r)); op(0x63); dstore(im(k));
+                        break;
+                    case CompiledExpression.SUBTRACT:
+                        dload(re(l)); dload(re(r)); op(0x67); dstore(re(k)); // dsub
+                        dload(im(l)); dload(im(r)); op(0x67); dstore(im(k));
+                        break;
+                    case CompiledExpression.MULTIPLY:
+                        // re = a*c - b*d ; im = a*d + b*c
+                        dload(re(l)); dload(re(r)); op(0x6b); dload(im(l)); dload(im(r)); op(0x6b);
+                        op(0x67); dstore(re(k));
+                        dload(re(l)); dload(im(r)); op(0x6b); dload(im(l)); dload(re(r)); op(0x6b);
+                        op(0x63); dstore(im(k));
+                        break;
+                    case CompiledExpression.DIVIDE:
+                        // denominador = c*c + d*d ; ComplexMath.checkDivisor(denominador)
+                        dload(re(r)); dload(re(r)); op(0x6b); dload(im(r)); dload(im(r)); op(0x6b);
+                        op(0x63); dstore(tempA);
+                        dload(tempA);
+                        checkDivisor();
+                        // re = (a*c + b*d) / den ; im = (b*c - a*d) / den
+                        dload(re(l)); dload(re(r)); op(0x6b); dload(im(l)); dload(im(r)); op(0x6b);
+                        op(0x63); dload(tempA); op(0x6f); dstore(re(k));
+                        dload(im(l)); dload(re(r)); op(0x6b); dload(re(l)); dload(im(r)); op(0x6b);
+                        op(0x67); dload(tempA); op(0x6f); dstore(im(k));
+                        break;
+                    case CompiledExpression.POWER:
+                        dload(im(r));
+                        checkRealExponent();
+                        if (ops[r] != CompiledExpression.CONST) {
+                            // O caminho (inteiro ou polar) só é conhecido na execução
+                            dload(re(l)); dload(im(l)); dload(re(r)); op(0x2d); // aload_3 (out como rascunho)
+                            invokeStatic("com/facsculator/ComplexMath", "power", "(DDD[D)V");
+                            op(0x2d); op(0x03); op(0x31); dstore(re(k)); // out[0]
+                            op(0x2d); op(0x04); op(0x31); dstore(im(k)); // out[1]
+                        } else {
+                            constantPower(k, l, expression.constReal[r]);
+                        }
+                        break;
+                    case CompiledExpression.ROOT:
+                        constantPower(k, l, 1.0 / r);
+                        break;
+                    case CompiledExpression.CONJUGATE:
+                        dload(re(l)); dstore(re(k));
+                        dload(im(l)); op(0x77); dstore(im(k)); // dneg
+                        break;
+                    case CompiledExpression.NEGATE:
+                        dload(re(l)); op(0x77); dstore(re(k));
+                        dload(im(l)); op(0x77); dstore(im(k));
+                        break;
+                    case CompiledExpression.FUNCTION:
+                        // ComplexFunctions.apply(código, a, b, out)
+                        pushInt(r); dload(re(l)); dload(im(l)); op(0x2d);
+                        invokeStatic("com/facsculator/ComplexFunctions", "apply", "(IDD[D)V");
+                        op(0x2d); op(0x03); op(0x31); dstore(re(k)); // out[0]
+                        op(0x2d); op(0x04); op(0x31); dstore(im(k)); // out[1]
+                        break;
+                    case CompiledExpression.TO_POLAR:
+                        // r = sqrt(a*a + b*b) ; θ = atan2(b, a)
+                        dload(re(l)); dload(re(l)); op(0x6b); dload(im(l)); dload(im(l)); op(0x6b); op(0x63);
+                        invokeStatic("java/lang/Math", "sqrt", "(D)D"); dstore(re(k));
+                        dload(im(l)); dload(re(l));
+                        invokeStatic("java/lang/Math", "atan2", "(DD)D"); dstore(im(k));
+                        break;
+                    case CompiledExpression.TO_RECT:
+                        // re = r*cos(θ) ; im = r*sin(θ)
+                        dload(re(l)); dload(im(l)); invokeStatic("java/lang/Math", "cos", "(D)D"); op(0x6b); dstore(re(k));
+                        dload(re(l)); dload(im(l)); invokeStatic("java/lang/Math", "sin", "(D)D"); op(0x6b); dstore(im(k));
+                        break;
+                    case CompiledExpression.POLAR_MULTIPLY:
+                        dload(re(l)); dload(re(r)); op(0x6b); dstore(re(k));
+                        dload(im(l)); dload(im(r)); op(0x63); dstore(im(k));
+                        break;
+                    case CompiledExpression.POLAR_DIVIDE:
+                        dload(re(r)); dload(re(r)); op(0x6b);
+                        checkDivisor();
+                        dload(re(l)); dload(re(r)); op(0x6f); dstore(re(k));
+                        dload(im(l)); dload(im(r)); op(0x67); dstore(im(k));
+                        break;
+                    case CompiledExpression.POLAR_POWER:
+                        dload(im(r));
+                        checkRealExponent();
+                        polarPower(k, l, () -> dload(re(r)));
+                        break;
+                    case CompiledExpression.POLAR_ROOT: {
+                        double exponent = 1.0 / r;
+                        polarPower(k, l, () -> pushDouble(exponent));
+                        break;
+                    }
+                    default:
+                        return null; // Instrução sem tradução: usa o interpretado
+                }
+                if (code.size() > MAX_CODE_SIZE) {
+                    return null;
+                }
+            }
+
+            // out[0] = re(resultado) ; out[1] = im(resultado) ; return
+            int result = expression.resultRegister();
+            op(0x2d); op(0x03); dload(re(result)); op(0x52); // aload_3; iconst_0; dastore
+            op(0x2d); op(0x04); dload(im(result)); op(0x52); // aload_3; iconst_1; dastore
+            if (quiet) {
+                localAccess(valid, 0x1a, 0x15); op(0xac); // iload; ireturn
+            } else {
+                op(0xb1);
+            }
+            return code.size() > MAX_CODE_SIZE ? null : code.toByteArray();
+        }
+
+        /**
+         * z^e com 'e' conhecido na geração: o mesmo caminho que
+         * ComplexMath.power escolheria. Um expoente inteiro negativo depende
+         * da base (0 elevado a um negativo segue a fórmula polar), então vira
+         * uma chamada a ComplexMath.power.
+         */
+        private void constantPower(int k, int l, double exponent) {
+            boolean integer = exponent == Math.rint(exponent)
+                    && Math.abs(exponent) <= ComplexMath.MAX_INTEGER_EXPONENT;
+            if (!integer) {
+                power(k, l, () -> pushDouble(exponent));
+            } else if (exponent >= 0) {
+                integerPower(k, l, (int) exponent);
+            } else {
+                dload(re(l)); dload(im(l)); pushDouble(exponent); op(0x2d);
+                invokeStatic("com/facsculator/ComplexMath", "power", "(DDD[D)V");
+                op(0x2d); op(0x03); op(0x31); dstore(re(k));
+                op(0x2d); op(0x04); op(0x31); dstore(im(k));
+            }
+        }
+
+        /**
+         * Mesma sequência de ComplexMath.integerPower para n &gt;= 0, desenrolada:
+         * a base fica em (tempA, tempB) e o resultado no registrador k.
+         */
+        private void integerPower(int k, int l, int n) {
+            if (n == 0) {
+                op(0x0f); dstore(re(k)); // z^0 = 1
+                op(0x0e); dstore(im(k));
+                return;
+            }
+            dload(re(l)); dstore(tempA);
+            dload(im(l)); dstore(tempB);
+            boolean first = true;
+            for (int m = n; m != 0; m >>>= 1) {
+                if ((m & 1) != 0) {
+                    if (first) {
+                        dload(tempA); dstore(re(k));
+                        dload(tempB); dstore(im(k));
+                        first = false;
+                    } else {
+                        // (re, im) = (re*a - im*b, re*b + im*a)
+                        dload(re(k)); dload(tempA); op(0x6b); dload(im(k)); dload(tempB); op(0x6b); op(0x67);
+                        dload(re(k)); dload(tempB); op(0x6b); dload(im(k)); dload(tempA); op(0x6b); op(0x63);
+                        dstore(im(k));
+                        dstore(re(k));
+                    }
+                }
+                if (m > 1) {
+                    // (a, b) = (a*a - b*b, a*b + b*a)
+                    dload(tempA); dload(tempA); op(0x6b); dload(tempB); dload(tempB); op(0x6b); op(0x67);
+                    dload(tempA); dload(tempB); op(0x6b); dload(tempB); dload(tempA); op(0x6b); op(0x63);
+                    dstore(tempB);
+                    dstore(tempA);
+                }
+            }
+        }
+
+        /**
+         * Mesma sequência da fórmula polar de ComplexMath.power:
+         * r' = pow(sqrt(a*a + b*b), e) ; θ' = atan2(b, a) * e ;
+         * re = r' * cos(θ') ; im = r' * sin(θ').
+         */
+        private void power(int k, int l, Runnable pushExponent) {
+            dload(re(l)); dload(re(l)); op(0x6b); dload(im(l)); dload(im(l)); op(0x6b); op(0x63);
+            invokeStatic("java/lang/Math", "sqrt", "(D)D");
+            pushExponent.run();
+            invokeStatic("java/lang/Math", "pow", "(DD)D");
+            dstore(tempA);
+
+            dload(im(l)); dload(re(l));
+            invokeStatic("java/lang/Math", "atan2", "(DD)D");
+            pushExponent.run();
+            op(0x6b);
+            dstore(tempB);
+
+            dload(tempA); dload(tempB); invokeStatic("java/lang/Math", "cos", "(D)D"); op(0x6b); dstore(re(k));
+            dload(tempA); dload(tempB); invokeStatic("java/lang/Math", "sin", "(D)D"); op(0x6b); dstore(im(k));
+        }
+
+        /** Testa o denominador no topo da pilha (ComplexMath.checkDivisor). */
+        private void checkDivisor() {
+            if (quiet) {
+                invokeStatic("com/facsculator/ComplexMath", "isValidDivisor", "(D)Z");
+                accumulateValid();
+            } else {
+                invokeStatic("com/facsculator/ComplexMath", "checkDivisor", "(D)V");
+            }
+        }
+
+        /** Testa a parte imaginária do expoente no topo da pilha (ComplexMath.checkRealExponent). */
+        private void checkRealExponent() {
+            if (quiet) {
+                invokeStatic("com/facsculator/ComplexMath", "isRealExponent", "(D)Z");
+                accumulateValid();
+            } else {
+                invokeStatic("com/facsculator/ComplexMath", "checkRealExponent", "(D)V");
+            }
+        }
+
+        /** valid &= (resultado do teste no topo da pilha). */
+        private void accumulateValid() {
+            localAccess(valid, 0x1a, 0x15); op(0x7e); localAccess(valid, 0x3b, 0x36); // iload; iand; istore
+        }
+
+        /**
+         * Potência de um registrador polar (igual a PolarComplex.power):
+         * r' = pow(r, e) ; θ' = principalPhase(θ) * e.
+         */
+        private void polarPower(int k, int l, Runnable pushExponent) {
+            dload(re(l)); pushExponent.run();
+            invokeStatic("java/lang/Math", "pow", "(DD)D"); dstore(re(k));
+            dload(im(l));
+            invokeStatic("com/facsculator/ComplexMath", "principalPhase", "(D)D");
+            pushExponent.run(); op(0x6b); dstore(im(k));
+        }
+
+        // --- Emissão de Opcodes ---
+
+        private void op(int opcode) {
+            code.write(opcode);
+        }
+
+        private void u2(int value) {
+            code.write(value >> 8);
+            code.write(value);
+        }
+
+        private void dload(int slot) {
+            localAccess(slot, 0x26, 0x18); // dload_<n> / dload
+        }
+
+        private void dstore(int slot) {
+            localAccess(slot, 0x47, 0x39); // dstore_<n> / dstore
+        }
+
+        private void localAccess(int slot, int shortForm, int longForm) {
+            if (slot <= 3) {
+                op(shortForm + slot);
+            } else if (slot <= 0xFF) {
+                op(longForm);
+                op(slot);
+            } else {
+                op(0xc4); // wide
+                op(longForm);
+                u2(slot);
+            }
+        }
+
+        private void pushInt(int value) {
+            if (value <= 5) {
+                op(0x03 + value);   // iconst_<n>
+            } else if (value <= Byte.MAX_VALUE) {
+                op(0x10);           // bipush
+                op(value);
+            } else {
+                op(0x11);           // sipush
+                u2(value);
+            }
+        }
+
+        private void pushDouble(double value) {
+            if (Double.doubleToRawLongBits(value) == 0L) {
+                op(0x0e);           // dconst_0 (somente +0.0, preserva o sinal de -0.0)
+            } else if (value == 1.0) {
+                op(0x0f);           // dconst_1
+            } else {
+                op(0x14);           // ldc2_w
+                u2(pool.doubleConstant(value));
+            }
+        }
+
+        private void invokeStatic(String owner, String name, String descriptor) {
+            op(0xb8);
+            u2(pool.methodRef(owner, name, descriptor));
+        }
+    }
+
+    /**
+     * Pool de constantes mínimo: apenas os tipos de entrada usados pela classe gerada.
+     */
+    private static final class ConstantPool {
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(entries);
+        private final Map<Object, Integer> indices = new HashMap<>();
+        private int next = 1;
+
+        int utf8(String value) {
+            return intern("U" + value, 1, () -> {
+                out.writeByte(1);
+                out.writeUTF(value); // grava o tamanho (u2) e os bytes em UTF-8 modificado
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return intern("C" + internalName, 1, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int methodRef(String owner, String name, String descriptor) {
+            int ownerIndex = classRef(owner);
+            int nameIndex = utf8(name);
+            int descriptorIndex = utf8(descriptor);
+            int nameAndType = intern("N" + name + ":" + descriptor, 1, () -> {
+                out.writeByte(12);
+                out.writeShort(nameIndex);
+                out.writeShort(descriptorIndex);
+            });
+            return intern("M" + owner + "." + name + descriptor, 1, () -> {
+                out.writeByte(10);
+                out.writeShort(ownerIndex);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        int doubleConstant(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            // Doubles ocupam duas posições no pool
+            return intern(bits, 2, () -> {
+                out.writeByte(6);
+                out.writeLong(bits);
+            });
+        }
+
+        /** Um trecho de escrita no pool que pode lançar IOException. */
+        private interface Writer {
+            void write() throws IOException;
+        }
+
+        private int intern(Object key, int slots, Writer writer) {
+            Integer existing = indices.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            int index = next;
+            next += slots;
+            indices.put(key, index);
+            return index;
+        }
+
+        void writeTo(DataOutputStream target) throws IOException {
+            target.writeShort(next);
+            target.write(entries.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.facsculator;
+
+/**
+ * Uma função compilada pronta para ser chamada em laços críticos.
+ * Obtida por {@link CompiledExpression#interpreted()} (avaliador com 'switch')
+ * ou por {@link ExpressionJit#compile(CompiledExpression)} (bytecode gerado).
+ *
+ * As implementações são imutáveis e seguras para uso por várias threads.
+ */
+public interface ExpressionKernel {
+
+    /**
+     * Avalia a expressão.
+     *
+     * @param varReal As partes reais das variáveis (na ordem de CompiledExpression.variables()).
+     * @param varImaginary As partes imaginárias das variáveis.
+     * @param out Recebe o resultado: out[0] = parte real, out[1] = parte imaginária.
+     * @throws ArithmeticException em divisão por zero.
+     * @throws IllegalArgumentException se um expoente calculado não for real.
+     */
+    void evaluate(double[] varReal, double[] varImaginary, double[] out);
+
+    /**
+     * Avalia a expressão sem lançar exceções, para avaliações em lote em que
+     * um elemento inválido não deve interromper os demais (BatchEvaluator).
+     *
+     * Os kernels de CompiledExpression.interpreted() e de ExpressionJit fazem
+     * apenas os testes, sem criar exceções; esta implementação padrão captura
+     * as exceções de evaluate().
+     *
+     * @param varReal As partes reais das variáveis (na ordem de CompiledExpression.variables()).
+     * @param varImaginary As partes imaginárias das variáveis.
+     * @param out Recebe o resultado (sem significado se o retorno for false).
+     * @return false em divisão por zero ou se um expoente calculado não for real.
+     */
+    default boolean evaluateQuietly(double[] varReal, double[] varImaginary, double[] out) {
+        try {
+            evaluate(varReal, varImaginary, out);
+            return true;
+        } catch (ArithmeticException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,336 @@
+package com.facsculator;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Otimiza uma AST antes da compilação, em um único percurso pós-ordem:
+ *
+ * <ul>
+ *   <li><b>Dobra de constantes:</b> uma operação cujos operandos são todos
+ *       literais vira um literal, calculado com os métodos de ComplexNumber
+ *       (ex: 1+i**2 vira 0). Uma divisão por um divisor zero não é dobrada:
+ *       o erro continua acontecendo na avaliação, como em ComplexNumber.divide.
+ *       O mesmo vale para uma potência de expoente não real. Funções
+ *       elementares de literais (ex: exp(0), log(-1)) também são dobradas.</li>
+ *   <li><b>Identidades:</b> x*1, 1*x, x/1, x+0, 0+x, x-0, x**1, root[1](x),
+ *       conj(conj(x)) e -(-x) viram x.</li>
+ *   <li><b>Subexpressões comuns:</b> subárvores idênticas viram um único nó
+ *       compartilhado (a AST vira um DAG), e CompiledExpression.Builder
+ *       emite cada nó compartilhado uma única vez, em um registrador que
+ *       todas as ocorrências leem. Em (1+i**2) * x + (1+i**2) * y, a
+ *       constante é calculada uma vez, na otimização.</li>
+ * </ul>
+ *
+ * Os resultados da avaliação são os mesmos da árvore original, exceto pelo
+ * sinal de zeros e por infinitos/NaN em operandos das identidades (ex: x*1
+ * com x infinito dá x, e não NaN + NaN*i).
+ *
+ * O percurso usa uma pilha explícita (como CompiledExpression.Builder),
+ * então árvores muito profundas não estouram a pilha de chamadas.
+ */
+public final class ExpressionOptimizer {
+
+    /**
+     * O resultado da otimização.
+     *
+     * @param expression A AST otimizada (nós idênticos são o mesmo objeto).
+     * @param originalNodes Nós da árvore original.
+     * @param optimizedNodes Nós distintos da AST otimizada.
+     * @param folded Operações substituídas por constantes.
+     * @param simplified Identidades aplicadas.
+     * @param merged Subárvores substituídas por uma idêntica já existente.
+     */
+    public record Result(Expr expression, int originalNodes, int optimizedNodes,
+                         int folded, int simplified, int merged) {
+
+        /** @return Quantos nós a otimização removeu. */
+        public int removedNodes() {
+            return originalNodes - optimizedNodes;
+        }
+    }
+
+    private static final ComplexNumber ZERO = new ComplexNumber(0, 0);
+    private static final ComplexNumber ONE = new ComplexNumber(1, 0);
+
+    /** Nós já criados, para o compartilhamento (hash-consing). */
+    private final Map<Key, Expr> nodes = new HashMap<>();
+    private int originalNodes = 0;
+    private int folded = 0;
+    private int simplified = 0;
+    private int merged = 0;
+
+    private ExpressionOptimizer() {
+    }
+
+    /**
+     * @param root A AST produzida pelo Parser.
+     * @return A AST otimizada e as contagens do que foi feito.
+     */
+    public static Result optimize(Expr root) {
+        ExpressionOptimizer optimizer = new ExpressionOptimizer();
+        Expr optimized = optimizer.run(root);
+        return new Result(optimized, optimizer.originalNodes, countNodes(optimized),
+                optimizer.folded, optimizer.simplified, optimizer.merged);
+    }
+
+    /** Marca, na pilha de run(), um nó interno cujos operandos já foram otimizados. */
+    private record Pending(Expr node) { }
+
+    private Expr run(Expr root) {
+        ArrayDeque<Object> work = new ArrayDeque<>();
+        ArrayDeque<Expr> results = new ArrayDeque<>();
+        work.push(root);
+
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+            if (item instanceof Pending pending) {
+                Expr node = pending.node();
+                if (node instanceof Expr.Binary binary) {
+                    Expr right = results.pop();
+                    Expr left = results.pop();
+                    results.push(binary(binary.operator(), left, right));
+                } else if (node instanceof Expr.Negate) {
+                    results.push(negate(results.pop()));
+                } else if (node instanceof Expr.Conjugate) {
+                    results.push(conjugate(results.pop()));
+                } else if (node instanceof Expr.Function function) {
+                    results.push(function(function.function(), results.pop()));
+                } else {
+                    results.push(root(((Expr.Root) node).index(), results.pop()));
+                }
+                continue;
+            }
+
+            Expr node = (Expr) item;
+            originalNodes++;
+            if (node instanceof Expr.Literal || node instanceof Expr.Variable) {
+                results.push(share(node));
+                continue;
+            }
+            work.push(new Pending(node));
+            if (node instanceof Expr.Binary binary) {
+                work.push(binary.right());
+                work.push(binary.left()); // O esquerdo sai primeiro da pilha
+            } else if (node instanceof Expr.Negate negate) {
+                work.push(negate.operand());
+            } else if (node instanceof Expr.Conjugate conjugate) {
+                work.push(conjugate.operand());
+            } else if (node instanceof Expr.Function function) {
+                work.push(function.operand());
+            } else {
+                work.push(((Expr.Root) node).operand());
+            }
+        }
+        return results.pop();
+    }
+
+    // --- Regras ---
+
+    private Expr binary(TokenType operator, Expr left, Expr right) {
+        if (left instanceof Expr.Literal a && right instanceof Expr.Literal b) {
+            ComplexNumber value = fold(operator, a.value(), b.value());
+            if (value != null) {
+                return literal(value);
+            }
+        }
+        switch (operator) {
+            case PLUS:
+                if (is(right, ZERO)) {
+                    return simplified(left);
+                }
+                if (is(left, ZERO)) {
+                    return simplified(right);
+                }
+                break;
+            case MINUS:
+                if (is(right, ZERO)) {
+                    return simplified(left);
+                }
+                break;
+            case MULTIPLY:
+                if (is(right, ONE)) {
+                    return simplified(left);
+                }
+                if (is(left, ONE)) {
+                    return simplified(right);
+                }
+                break;
+            case DIVIDE:
+            case POWER:
+                if (is(right, ONE)) {
+                    return simplified(left);
+                }
+                break;
+            default:
+                break;
+        }
+        return share(new Expr.Binary(operator, left, right));
+    }
+
+    /**
+     * @return O valor de 'a op b' por ComplexNumber, ou null se a operação
+     *         deve ficar para a avaliação (divisor zero, expoente não real).
+     */
+    private static ComplexNumber fold(TokenType operator, ComplexNumber a, ComplexNumber b) {
+        switch (operator) {
+            case PLUS:
+                return a.sum(b);
+            case MINUS:
+                return a.subtract(b);
+            case MULTIPLY:
+                return a.multiply(b);
+            case DIVIDE:
+                double denominator = b.real() * b.real() + b.imaginary() * b.imaginary();
+                return ComplexMath.isValidDivisor(denominator) ? a.divide(b) : null;
+            case POWER:
+                return ComplexMath.isRealExponent(b.imaginary()) ? a.power(b.real()) : null;
+            default:
+                return null;
+        }
+    }
+
+    private Expr negate(Expr operand) {
+        if (operand instanceof Expr.Literal literal) {
+            // Os mesmos sinais da instrução NEGATE: (-a, -b)
+            return literal(new ComplexNumber(-literal.value().real(), -literal.value().imaginary()));
+        }
+        if (operand instanceof Expr.Negate inner) {
+            return simplified(inner.operand());
+        }
+        return share(new Expr.Negate(operand));
+    }
+
+    private Expr conjugate(Expr operand) {
+        if (operand instanceof Expr.Literal literal) {
+            return literal(literal.value().conjugate());
+        }
+        if (operand instanceof Expr.Conjugate inner) {
+            return simplified(inner.operand());
+        }
+        return share(new Expr.Conjugate(operand));
+    }
+
+    private Expr root(int index, Expr operand) {
+        if (index == 1) {
+            return simplified(operand);
+        }
+        if (operand instanceof Expr.Literal literal) {
+            return literal(literal.value().nthRoot(index));
+        }
+        return share(new Expr.Root(index, operand));
+    }
+
+    private Expr function(TokenType function, Expr operand) {
+        if (operand instanceof Expr.Literal literal) {
+            // Os mesmos bits da instrução FUNCTION (ComplexFunctions)
+            return literal(literal.value().function(ComplexFunctions.code(function)));
+        }
+        return share(new Expr.Function(function, operand));
+    }
+
+    private Expr literal(ComplexNumber value) {
+        folded++;
+        return share(new Expr.Literal(value));
+    }
+
+    private Expr simplified(Expr node) {
+        simplified++;
+        return node;
+    }
+
+    /** @return true se 'node' é o literal 'value' (0 e -0 são iguais). */
+    private static boolean is(Expr node, ComplexNumber value) {
+        return node instanceof Expr.Literal literal
+                && literal.value().real() == value.real()
+                && literal.value().imaginary() == value.imaginary();
+    }
+
+    // --- Compartilhamento (Hash-Consing) ---
+
+    /**
+     * @return O nó idêntico já criado, se houver, ou o próprio 'node'.
+     * Como os operandos já foram compartilhados, dois nós são idênticos
+     * exatamente quando têm o mesmo tipo, o mesmo dado e os mesmos operandos
+     * (comparados por referência, sem percorrer as subárvores).
+     */
+    private Expr share(Expr node) {
+        Key key = Key.of(node);
+        Expr existing = nodes.putIfAbsent(key, node);
+        if (existing != null) {
+            merged++;
+            return existing;
+        }
+        return node;
+    }
+
+    /**
+     * A chave de um nó: tipo, dado (valor, nome, operador ou índice) e
+     * operandos por referência. O equals/hashCode dos records de Expr
+     * percorreria a subárvore inteira a cada comparação.
+     */
+    private record Key(Class<?> type, Object data, Expr left, Expr right) {
+
+        static Key of(Expr node) {
+            if (node instanceof Expr.Literal literal) {
+                return new Key(Expr.Literal.class, literal.value(), null, null);
+            } else if (node instanceof Expr.Variable variable) {
+                return new Key(Expr.Variable.class, variable.name(), null, null);
+            } else if (node instanceof Expr.Binary binary) {
+                return new Key(Expr.Binary.class, binary.operator(), binary.left(), binary.right());
+            } else if (node instanceof Expr.Negate negate) {
+                return new Key(Expr.Negate.class, null, negate.operand(), null);
+            } else if (node instanceof Expr.Conjugate conjugate) {
+                return new Key(Expr.Conjugate.class, null, conjugate.operand(), null);
+            } else if (node instanceof Expr.Function function) {
+                return new Key(Expr.Function.class, function.function(), function.operand(), null);
+            } else {
+                Expr.Root root = (Expr.Root) node;
+                return new Key(Expr.Root.class, root.index(), root.operand(), null);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            // ComplexNumber.equals compara os bits (Double.compare), então 0 e -0 não se misturam
+            return other instanceof Key k && type == k.type && Objects.equals(data, k.data)
+                    && left == k.left && right == k.right;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = type.hashCode() * 31 + Objects.hashCode(data);
+            hash = hash * 31 + System.identityHashCode(left);
+            return hash * 31 + System.identityHashCode(right);
+        }
+    }
+
+    /** @return Quantos nós distintos (por referência) a AST tem. */
+    private static int countNodes(Expr root) {
+        IdentityHashMap<Expr, Boolean> seen = new IdentityHashMap<>();
+        ArrayDeque<Expr> work = new ArrayDeque<>();
+        work.push(root);
+        while (!work.isEmpty()) {
+            Expr node = work.pop();
+            if (seen.put(node, Boolean.TRUE) != null) {
+                continue;
+            }
+            if (node instanceof Expr.Binary binary) {
+                work.push(binary.left());
+                work.push(binary.right());
+            } else if (node instanceof Expr.Negate negate) {
+                work.push(negate.operand());
+            } else if (node instanceof Expr.Conjugate conjugate) {
+                work.push(conjugate.operand());
+            } else if (node instanceof Expr.Root rootNode) {
+                work.push(rootNode.operand());
+            } else if (node instanceof Expr.Function function) {
+                work.push(function.operand());
+            }
+        }
+        return seen.size();
+    }
+}
@@ -0,0 +1,228 @@
+package com.facsculator;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Plano reutilizável de Transformada Rápida de Fourier (FFT) para vetores de
+ * tamanho n, no layout split (reais e imaginários separados).
+ *
+ * A transformada direta calcula X[k] = Σ x[j] * e^(-2πi*jk/n), e a inversa
+ * x[j] = (1/n) * Σ X[k] * e^(+2πi*jk/n). O algoritmo é escolhido pelo tamanho:
+ * <ul>
+ *   <li>{@link Algorithm#RADIX_2}: n potência de 2. Permutação bit-reversa
+ *       in-place e estágios de borboletas (decimação no tempo).</li>
+ *   <li>{@link Algorithm#MIXED_RADIX}: n sem fatores primos maiores que 13
+ *       (ex: 1000 = 2^3 * 5^3). Estágios de Stockham com borboletas de
+ *       radix 2, 3, 4 e 5 e uma genérica para 7, 11 e 13.</li>
+ *   <li>{@link Algorithm#BLUESTEIN}: qualquer outro n (ex: primos). A DFT
+ *       vira uma convolução, calculada por FFTs radix-2 de tamanho M &ge; 2n-1.</li>
+ * </ul>
+ * As tabelas de fatores de giro (twiddles) são calculadas na criação do plano,
+ * que pode ser reutilizado em quantas transformadas se queira. {@link #of(int)}
+ * guarda os planos em cache para n &le; {@link #MAX_CACHED}, em ordem de uso
+ * (LRU) e limitado pelo tamanho: quando a soma das tabelas dos planos passa de
+ * {@link #MAX_CACHE_BYTES}, os planos usados há mais tempo são removidos (e
+ * um plano maior que o limite sozinho nunca entra). Quem transforma sempre o
+ * mesmo tamanho pode guardar o próprio plano, sem depender do cache.
+ *
+ * As versões com ForkJoinPool dividem cada estágio entre as threads do pool
+ * e produzem os mesmos bits que as sequenciais. Abaixo de
+ * {@link #PARALLEL_THRESHOLD} elementos o pool é ignorado.
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class FftPlan {
+
+    /** O algoritmo usado por um plano. */
+    public enum Algorithm { RADIX_2, MIXED_RADIX, BLUESTEIN }
+
+    /** Maior n cujo plano é guardado em cache por {@link #of(int)}. */
+    public static final int MAX_CACHED = 1 << 20;
+
+    /** Limite da soma das tabelas dos planos em cache (64 MB). */
+    public static final long MAX_CACHE_BYTES = 64L << 20;
+
+    /** Menor n para o qual as versões com ForkJoinPool usam o pool. */
+    public static final int PARALLEL_THRESHOLD = 1 << 14;
+
+    /** Elementos mínimos por tarefa do pool. */
+    static final int GRAIN = 1 << 13;
+
+    /** Os planos em cache, do usado há mais tempo ao mais recente (protegido por 'synchronized (CACHE)'). */
+    private static final LinkedHashMap<Integer, FftPlan> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** A soma de tableBytes() dos planos em CACHE. */
+    private static long cachedBytes = 0;
+
+    /** Uma transformada direta in-place; 'pool' é null na versão sequencial. */
+    interface Transform {
+        void forward(double[] re, double[] im, ForkJoinPool pool);
+
+        /** @return Os bytes das tabelas do plano (o peso dele no cache). */
+        long tableBytes();
+    }
+
+    private final int size;
+    private final Algorithm algorithm;
+    private final Transform transform;
+
+    private FftPlan(int size) {
+        this.size = size;
+        if (Integer.bitCount(size) == 1) {
+            algorithm = Algorithm.RADIX_2;
+            transform = new Radix2Fft(size);
+        } else if (MixedRadixFft.factor(size) != null) {
+            algorithm = Algorithm.MIXED_RADIX;
+            transform = new MixedRadixFft(size);
+        } else {
+            algorithm = Algorithm.BLUESTEIN;
+            transform = new BluesteinFft(size);
+        }
+    }
+
+    /**
+     * @param n O tamanho dos vetores transformados.
+     * @return O plano para n (do cache, se n &le; MAX_CACHED).
+     * @throws IllegalArgumentException se n &lt; 1.
+     */
+    public static FftPlan of(int n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("O tamanho da FFT deve ser positivo, mas foi " + n + ".");
+        }
+        if (n > MAX_CACHED) {
+            return new FftPlan(n);
+        }
+        synchronized (CACHE) {
+            FftPlan cached = CACHE.get(n);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // Criado fora do lock: as tabelas de um n grande levam milissegundos
+        FftPlan plan = new FftPlan(n);
+        long bytes = plan.transform.tableBytes();
+        if (bytes > MAX_CACHE_BYTES) {
+            return plan;
+        }
+        synchronized (CACHE) {
+            FftPlan existing = CACHE.putIfAbsent(n, plan);
+            if (existing != null) {
+                return existing; // Outra thread criou o mesmo plano antes
+            }
+            cachedBytes += bytes;
+            // Remove os usados há mais tempo (o novo, o mais recente, cabe sozinho)
+            Iterator<FftPlan> eldest = CACHE.values().iterator();
+            while (cachedBytes > MAX_CACHE_BYTES) {
+                cachedBytes -= eldest.next().transform.tableBytes();
+                eldest.remove();
+            }
+        }
+        return plan;
+    }
+
+    /** @return O tamanho n dos vetores. */
+    public int size() {
+        return size;
+    }
+
+    /** @return O algoritmo escolhido para n. */
+    public Algorithm algorithm() {
+        return algorithm;
+    }
+
+    // --- Transformadas ---
+
+    /**
+     * Transformada direta in-place.
+     *
+     * @param re As partes reais (n elementos), substituídas pelas de X.
+     * @param im As partes imaginárias (n elementos), substituídas pelas de X.
+     * @throws IllegalArgumentException se os arrays não tiverem n elementos.
+     */
+    public void forward(double[] re, double[] im) {
+        checkLength(re, im);
+        transform.forward(re, im, null);
+    }
+
+    /**
+     * Transformada direta in-place, dividida entre as threads de 'pool'.
+     *
+     * @param re As partes reais (n elementos).
+     * @param im As partes imaginárias (n elementos).
+     * @param pool O pool que executa os estágios (ex: ForkJoinPool.commonPool()).
+     */
+    public void forward(double[] re, double[] im, ForkJoinPool pool) {
+        checkLength(re, im);
+        transform.forward(re, im, size >= PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    /**
+     * Transformada inversa in-place (inclui a divisão por n).
+     *
+     * @param re As partes reais (n elementos).
+     * @param im As partes imaginárias (n elementos).
+     */
+    public void inverse(double[] re, double[] im) {
+        checkLength(re, im);
+        conjugateInverse(re, im, null);
+    }
+
+    /**
+     * Transformada inversa in-place, dividida entre as threads de 'pool'.
+     *
+     * @param re As partes reais (n elementos).
+     * @param im As partes imaginárias (n elementos).
+     * @param pool O pool que executa os estágios.
+     */
+    public void inverse(double[] re, double[] im, ForkJoinPool pool) {
+        checkLength(re, im);
+        conjugateInverse(re, im, size >= PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    /** @param values O vetor transformado in-place. */
+    public void forward(ComplexArray values) {
+        forward(values.real(), values.imaginary());
+    }
+
+    /**
+     * @param values O vetor transformado in-place.
+     * @param pool O pool que executa os estágios.
+     */
+    public void forward(ComplexArray values, ForkJoinPool pool) {
+        forward(values.real(), values.imaginary(), pool);
+    }
+
+    /** @param values O vetor transformado in-place pela inversa. */
+    public void inverse(ComplexArray values) {
+        inverse(values.real(), values.imaginary());
+    }
+
+    /**
+     * @param values O vetor transformado in-place pela inversa.
+     * @param pool O pool que executa os estágios.
+     */
+    public void inverse(ComplexArray values, ForkJoinPool pool) {
+        inverse(values.real(), values.imaginary(), pool);
+    }
+
+    /** A inversa pela direta: conj(FFT(conj(X))) / n. */
+    private void conjugateInverse(double[] re, double[] im, ForkJoinPool pool) {
+        for (int k = 0; k < size; k++) {
+            im[k] = -im[k];
+        }
+        transform.forward(re, im, pool);
+        double scale = 1.0 / size;
+        for (int k = 0; k < size; k++) {
+            re[k] *= scale;
+            im[k] *= -scale;
+        }
+    }
+
+    private void checkLength(double[] re, double[] im) {
+        if (re.length != size || im.length != size) {
+            throw new IllegalArgumentException("Os arrays da FFT devem ter " + size + " elementos.");
+        }
+    }
+}
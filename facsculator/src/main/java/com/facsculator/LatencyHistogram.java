@@ -0,0 +1,110 @@
+package com.facsculator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latências em faixas log-lineares (como o HdrHistogram): cada
+ * potência de 2 é dividida em {@link #SUB_BUCKETS} faixas iguais, então
+ * qualquer valor é guardado com erro relativo de no máximo 1/32 (cerca de
+ * 3%), de 0 a Long.MAX_VALUE nanossegundos, em 1888 contadores fixos.
+ *
+ * record() não aloca nem usa locks (um incremento atômico por valor) e pode
+ * ser chamado por várias threads ao mesmo tempo.
+ */
+public final class LatencyHistogram {
+
+    /** Faixas por potência de 2. */
+    public static final int SUB_BUCKETS = 32;
+
+    private static final int SUB_BITS = 5;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param nanos A latência (valores negativos contam como 0).
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        total.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /** @return O número de valores registrados. */
+    public long count() {
+        return total.sum();
+    }
+
+    /** @return O maior valor registrado (exato). */
+    public long max() {
+        return max.get();
+    }
+
+    /** @return A média exata dos valores (0 sem valores). */
+    public double mean() {
+        long count = total.sum();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile O percentil, de 0 a 100 (ex: 99.9).
+     * @return O maior valor da faixa que contém o percentil (no máximo max()).
+     */
+    public long valueAtPercentile(double percentile) {
+        long count = total.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max());
+            }
+        }
+        return max();
+    }
+
+    /** Zera o histograma (não é atômico em relação a record() concorrentes). */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    /** @return A faixa de 'value' (&ge; 0): exata abaixo de 32, depois 32 faixas por potência de 2. */
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    /** @return O maior valor guardado na faixa 'index'. */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d média=%.0f p50=%d p90=%d p99=%d p99.9=%d máx=%d ns", count(), mean(),
+                valueAtPercentile(50), valueAtPercentile(90), valueAtPercentile(99), valueAtPercentile(99.9), max());
+    }
+}
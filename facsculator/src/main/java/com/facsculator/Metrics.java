@@ -0,0 +1,163 @@
+package com.facsculator;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas opcionais dos caminhos críticos: um histograma de latência por
+ * etapa (tokenização, análise, avaliação e formatação), a contagem de tokens
+ * por TokenType e a contagem de falhas (erros léxicos, divisões por zero,
+ * raízes e expoentes inválidos). Cada etapa medida também emite um
+ * StageEvent do JDK Flight Recorder.
+ *
+ * As métricas só são coletadas com a propriedade de sistema
+ * -Dfacsculator.metrics=true, lida uma única vez. Desligadas, ENABLED é uma
+ * constante false e a JIT remove as chamadas de start/stop/token/failure:
+ * o custo é zero (veja MetricsBenchmark).
+ *
+ * A etapa PARSE inclui a tokenização quando o Parser lê de um
+ * StreamingTokenizer. EVALUATE mede CompiledExpression.evaluate (e o
+ * kernel interpretado), mas não os kernels gerados por ExpressionJit.
+ */
+public final class Metrics {
+
+    /** Propriedade de sistema que liga as métricas (ex: -Dfacsculator.metrics=true). */
+    public static final String ENABLE_PROPERTY = "facsculator.metrics";
+
+    /** Lida uma vez: final, para que a JIT elimine os testes quando desligada. */
+    static final boolean ENABLED = Boolean.getBoolean(ENABLE_PROPERTY);
+
+    /** As etapas medidas. */
+    public enum Stage {
+        /** Tokenizer.tokenize(), nos dois modos. */
+        TOKENIZE,
+        /** Parser.parse(). */
+        PARSE,
+        /** CompiledExpression.evaluate(). */
+        EVALUATE,
+        /** ComplexNumber.toString() e ComplexFormatter (um número). */
+        FORMAT
+    }
+
+    /** As falhas contadas. */
+    public enum Failure {
+        /** Erro léxico do Tokenizer. */
+        LEXICAL,
+        /** ArithmeticException de divisão por zero. */
+        DIVISION_BY_ZERO,
+        /** IllegalArgumentException de nthRoot com n &le; 0. */
+        INVALID_ROOT,
+        /** IllegalArgumentException de potência com expoente não real. */
+        INVALID_EXPONENT
+    }
+
+    private static final LatencyHistogram[] STAGES = new LatencyHistogram[Stage.values().length];
+    private static final LongAdder[] TOKENS = new LongAdder[TokenType.values().length];
+    private static final LongAdder[] FAILURES = new LongAdder[Failure.values().length];
+
+    static {
+        for (int s = 0; s < STAGES.length; s++) {
+            STAGES[s] = new LatencyHistogram();
+        }
+        for (int t = 0; t < TOKENS.length; t++) {
+            TOKENS[t] = new LongAdder();
+        }
+        for (int f = 0; f < FAILURES.length; f++) {
+            FAILURES[f] = new LongAdder();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    // --- Pontos de Medição (caminhos críticos) ---
+
+    /** @return O instante de início de uma etapa (0 com as métricas desligadas). */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /** Registra a duração de uma etapa iniciada em 'start'. */
+    static void stop(Stage stage, long start) {
+        if (ENABLED) {
+            long nanos = System.nanoTime() - start;
+            STAGES[stage.ordinal()].record(nanos);
+            StageEvent event = new StageEvent();
+            if (event.isEnabled()) {
+                event.stage = stage.name();
+                event.nanos = nanos;
+                event.commit();
+            }
+        }
+    }
+
+    /** Conta um token lido. */
+    static void token(TokenType type) {
+        if (ENABLED) {
+            TOKENS[type.ordinal()].increment();
+        }
+    }
+
+    /** Conta uma falha (chamado logo antes de lançar a exceção). */
+    static void failure(Failure failure) {
+        if (ENABLED) {
+            FAILURES[failure.ordinal()].increment();
+        }
+    }
+
+    // --- Consulta ---
+
+    /** @return true se as métricas estão sendo coletadas. */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /** @return O histograma de latência (em nanossegundos) da etapa. */
+    public static LatencyHistogram histogram(Stage stage) {
+        return STAGES[stage.ordinal()];
+    }
+
+    /** @return Quantos tokens do tipo foram lidos (sem contar END_OF_FILE). */
+    public static long tokens(TokenType type) {
+        return TOKENS[type.ordinal()].sum();
+    }
+
+    /** @return Quantas falhas do tipo ocorreram. */
+    public static long failures(Failure failure) {
+        return FAILURES[failure.ordinal()].sum();
+    }
+
+    /** Zera todas as métricas. */
+    public static void reset() {
+        for (LatencyHistogram histogram : STAGES) {
+            histogram.reset();
+        }
+        for (LongAdder counter : TOKENS) {
+            counter.reset();
+        }
+        for (LongAdder counter : FAILURES) {
+            counter.reset();
+        }
+    }
+
+    /** @return Um resumo legível de todas as métricas, uma por linha. */
+    public static String report() {
+        StringBuilder text = new StringBuilder();
+        if (!ENABLED) {
+            return text.append("Métricas desligadas (use -D").append(ENABLE_PROPERTY).append("=true).\n").toString();
+        }
+        for (Stage stage : Stage.values()) {
+            text.append(stage).append(": ").append(histogram(stage)).append('\n');
+        }
+        text.append("Tokens:");
+        for (TokenType type : TokenType.values()) {
+            if (tokens(type) > 0) {
+                text.append(' ').append(type).append('=').append(tokens(type));
+            }
+        }
+        text.append("\nFalhas:");
+        for (Failure failure : Failure.values()) {
+            text.append(' ').append(failure).append('=').append(failures(failure));
+        }
+        return text.append('\n').toString();
+    }
+}
@@ -0,0 +1,259 @@
+package com.facsculator;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FFT de radix misto (Stockham) para n cujos fatores primos são no máximo
+ * {@link #MAX_RADIX} (ex: 1000, 360, 3^10).
+ *
+ * Cada estágio de radix p sobre subvetores de tamanho L (com m = L/p) lê as
+ * p entradas a[r] = x[q + s(j + rm)] e escreve
+ * y[q + s(pj + k)] = DFT_p(a)[k] * e^(-2πi*jk/L), alternando entre o vetor e
+ * um vetor auxiliar. Não há permutação: o resultado sai na ordem natural.
+ *
+ * Os radix 2, 3, 4 e 5 têm borboletas próprias; 7, 11 e 13 usam uma DFT
+ * direta de p pontos. Todos os twiddles vêm de uma única tabela de n raízes
+ * da unidade (RootsOfUnity).
+ */
+final class MixedRadixFft implements FftPlan.Transform {
+
+    /** Maior fator primo aceito. */
+    static final int MAX_RADIX = 13;
+
+    private static final int[] PRIMES = {3, 5, 7, 11, 13};
+
+    private final int n;
+    private final int[] radices;
+
+    /** cos(2πt/n) e sin(2πt/n); o twiddle e^(-2πi*t/n) é cos - i*sin. */
+    private final double[] cos;
+    private final double[] sin;
+
+    MixedRadixFft(int n) {
+        this.n = n;
+        this.radices = factor(n);
+        RootsOfUnity.Table table = RootsOfUnity.of(n);
+        this.cos = table.cos();
+        this.sin = table.sin();
+    }
+
+    /**
+     * @return Os radix dos estágios de n (4 sempre que possível), ou null se
+     *         n tem um fator primo maior que MAX_RADIX.
+     */
+    static int[] factor(int n) {
+        int[] radices = new int[32];
+        int count = 0;
+        while (n % 4 == 0) {
+            radices[count++] = 4;
+            n /= 4;
+        }
+        if (n % 2 == 0) {
+            radices[count++] = 2;
+            n /= 2;
+        }
+        for (int p : PRIMES) {
+            while (n % p == 0) {
+                radices[count++] = p;
+                n /= p;
+            }
+        }
+        return (n == 1) ? Arrays.copyOf(radices, count) : null;
+    }
+
+    @Override
+    public long tableBytes() {
+        return 16L * cos.length;
+    }
+
+    @Override
+    public void forward(double[] re, double[] im, ForkJoinPool pool) {
+        double[] xr = re;
+        double[] xi = im;
+        double[] yr = new double[n];
+        double[] yi = new double[n];
+        int length = n;
+        int stride = 1;
+        for (int p : radices) {
+            int m = length / p;
+            double[] ar = xr, ai = xi, br = yr, bi = yi;
+            int l = length, s = stride;
+            // Divide pelo maior dos dois laços externos (j < m ou q < s)
+            if (m >= s) {
+                ParallelLoops.forRange(pool, 0, m, FftPlan.GRAIN / (p * s),
+                        (from, to) -> stage(ar, ai, br, bi, p, l, s, from, to, 0, s));
+            } else {
+                ParallelLoops.forRange(pool, 0, s, FftPlan.GRAIN / (p * m),
+                        (from, to) -> stage(ar, ai, br, bi, p, l, s, 0, m, from, to));
+            }
+            xr = br;
+            xi = bi;
+            yr = ar;
+            yi = ai;
+            length = m;
+            stride *= p;
+        }
+        if (xr != re) {
+            System.arraycopy(xr, 0, re, 0, n);
+            System.arraycopy(xi, 0, im, 0, n);
+        }
+    }
+
+    /** Um estágio de radix p, para j em [jFrom, jTo) e q em [qFrom, qTo). */
+    private void stage(double[] xr, double[] xi, double[] yr, double[] yi, int p, int length, int s,
+                       int jFrom, int jTo, int qFrom, int qTo) {
+        int m = length / p;
+        int step = n / length;
+        double[] wr = new double[p];
+        double[] wi = new double[p];
+        double[] ar = new double[p];
+        double[] ai = new double[p];
+        for (int j = jFrom; j < jTo; j++) {
+            for (int k = 0; k < p; k++) {
+                int t = j * k * step;
+                wr[k] = cos[t];
+                wi[k] = -sin[t];
+            }
+            int in = s * j;
+            int out = s * p * j;
+            switch (p) {
+                case 2 -> radix2(xr, xi, yr, yi, s * m, s, in, out, qFrom, qTo, wr, wi);
+                case 3 -> radix3(xr, xi, yr, yi, s * m, s, in, out, qFrom, qTo, wr, wi);
+                case 4 -> radix4(xr, xi, yr, yi, s * m, s, in, out, qFrom, qTo, wr, wi);
+                case 5 -> radix5(xr, xi, yr, yi, s * m, s, in, out, qFrom, qTo, wr, wi);
+                default -> generic(xr, xi, yr, yi, p, s * m, s, in, out, qFrom, qTo, wr, wi, ar, ai);
+            }
+        }
+    }
+
+    // --- Borboletas (a entrada r está em in + q + r*gap; a saída k em out + q + k*s) ---
+
+    private static void radix2(double[] xr, double[] xi, double[] yr, double[] yi, int gap, int s,
+                               int in, int out, int qFrom, int qTo, double[] wr, double[] wi) {
+        for (int q = qFrom; q < qTo; q++) {
+            int a = in + q;
+            int y = out + q;
+            double dr = xr[a] - xr[a + gap];
+            double di = xi[a] - xi[a + gap];
+            yr[y] = xr[a] + xr[a + gap];
+            yi[y] = xi[a] + xi[a + gap];
+            yr[y + s] = dr * wr[1] - di * wi[1];
+            yi[y + s] = dr * wi[1] + di * wr[1];
+        }
+    }
+
+    private static final double SIN_60 = Math.sqrt(3) / 2;
+
+    private static void radix3(double[] xr, double[] xi, double[] yr, double[] yi, int gap, int s,
+                               int in, int out, int qFrom, int qTo, double[] wr, double[] wi) {
+        for (int q = qFrom; q < qTo; q++) {
+            int a = in + q;
+            int y = out + q;
+            double sr = xr[a + gap] + xr[a + 2 * gap];
+            double si = xi[a + gap] + xi[a + 2 * gap];
+            double dr = SIN_60 * (xr[a + gap] - xr[a + 2 * gap]);
+            double di = SIN_60 * (xi[a + gap] - xi[a + 2 * gap]);
+            double tr = xr[a] - 0.5 * sr;
+            double ti = xi[a] - 0.5 * si;
+            yr[y] = xr[a] + sr;
+            yi[y] = xi[a] + si;
+            // y1 = t - i*d, y2 = t + i*d
+            store(yr, yi, y + s, tr + di, ti - dr, wr[1], wi[1]);
+            store(yr, yi, y + 2 * s, tr - di, ti + dr, wr[2], wi[2]);
+        }
+    }
+
+    private static void radix4(double[] xr, double[] xi, double[] yr, double[] yi, int gap, int s,
+                               int in, int out, int qFrom, int qTo, double[] wr, double[] wi) {
+        for (int q = qFrom; q < qTo; q++) {
+            int a = in + q;
+            int y = out + q;
+            double t0r = xr[a] + xr[a + 2 * gap];
+            double t0i = xi[a] + xi[a + 2 * gap];
+            double t1r = xr[a] - xr[a + 2 * gap];
+            double t1i = xi[a] - xi[a + 2 * gap];
+            double t2r = xr[a + gap] + xr[a + 3 * gap];
+            double t2i = xi[a + gap] + xi[a + 3 * gap];
+            // t3 = -i * (a1 - a3)
+            double t3r = xi[a + gap] - xi[a + 3 * gap];
+            double t3i = xr[a + 3 * gap] - xr[a + gap];
+            yr[y] = t0r + t2r;
+            yi[y] = t0i + t2i;
+            store(yr, yi, y + s, t1r + t3r, t1i + t3i, wr[1], wi[1]);
+            store(yr, yi, y + 2 * s, t0r - t2r, t0i - t2i, wr[2], wi[2]);
+            store(yr, yi, y + 3 * s, t1r - t3r, t1i - t3i, wr[3], wi[3]);
+        }
+    }
+
+    private static final double COS_72 = Math.cos(2 * Math.PI / 5);
+    private static final double COS_144 = Math.cos(4 * Math.PI / 5);
+    private static final double SIN_72 = Math.sin(2 * Math.PI / 5);
+    private static final double SIN_144 = Math.sin(4 * Math.PI / 5);
+
+    private static void radix5(double[] xr, double[] xi, double[] yr, double[] yi, int gap, int s,
+                               int in, int out, int qFrom, int qTo, double[] wr, double[] wi) {
+        for (int q = qFrom; q < qTo; q++) {
+            int a = in + q;
+            int y = out + q;
+            double b1r = xr[a + gap] + xr[a + 4 * gap];
+            double b1i = xi[a + gap] + xi[a + 4 * gap];
+            double b2r = xr[a + 2 * gap] + xr[a + 3 * gap];
+            double b2i = xi[a + 2 * gap] + xi[a + 3 * gap];
+            double d1r = xr[a + gap] - xr[a + 4 * gap];
+            double d1i = xi[a + gap] - xi[a + 4 * gap];
+            double d2r = xr[a + 2 * gap] - xr[a + 3 * gap];
+            double d2i = xi[a + 2 * gap] - xi[a + 3 * gap];
+            double t1r = xr[a] + COS_72 * b1r + COS_144 * b2r;
+            double t1i = xi[a] + COS_72 * b1i + COS_144 * b2i;
+            double t2r = xr[a] + COS_144 * b1r + COS_72 * b2r;
+            double t2i = xi[a] + COS_144 * b1i + COS_72 * b2i;
+            double ur = SIN_72 * d1r + SIN_144 * d2r;
+            double ui = SIN_72 * d1i + SIN_144 * d2i;
+            double vr = SIN_144 * d1r - SIN_72 * d2r;
+            double vi = SIN_144 * d1i - SIN_72 * d2i;
+            yr[y] = xr[a] + b1r + b2r;
+            yi[y] = xi[a] + b1i + b2i;
+            // y1 = t1 - i*u, y4 = t1 + i*u, y2 = t2 - i*v, y3 = t2 + i*v
+            store(yr, yi, y + s, t1r + ui, t1i - ur, wr[1], wi[1]);
+            store(yr, yi, y + 2 * s, t2r + vi, t2i - vr, wr[2], wi[2]);
+            store(yr, yi, y + 3 * s, t2r - vi, t2i + vr, wr[3], wi[3]);
+            store(yr, yi, y + 4 * s, t1r - ui, t1i + ur, wr[4], wi[4]);
+        }
+    }
+
+    /** DFT direta de p pontos (p primo: 7, 11 ou 13). */
+    private void generic(double[] xr, double[] xi, double[] yr, double[] yi, int p, int gap, int s,
+                         int in, int out, int qFrom, int qTo, double[] wr, double[] wi,
+                         double[] ar, double[] ai) {
+        int base = n / p;
+        for (int q = qFrom; q < qTo; q++) {
+            for (int r = 0; r < p; r++) {
+                ar[r] = xr[in + q + r * gap];
+                ai[r] = xi[in + q + r * gap];
+            }
+            for (int k = 0; k < p; k++) {
+                double sumR = ar[0];
+                double sumI = ai[0];
+                int t = 0;
+                for (int r = 1; r < p; r++) {
+                    t += k;
+                    if (t >= p) {
+                        t -= p;
+                    }
+                    double c = cos[t * base];
+                    double sn = sin[t * base];
+                    sumR += ar[r] * c + ai[r] * sn;
+                    sumI += ai[r] * c - ar[r] * sn;
+                }
+                store(yr, yi, out + q + k * s, sumR, sumI, wr[k], wi[k]);
+            }
+        }
+    }
+
+    /** y[index] = (vr + i*vi) * (wr + i*wi). */
+    private static void store(double[] yr, double[] yi, int index, double vr, double vi, double wr, double wi) {
+        yr[index] = vr * wr - vi * wi;
+        yi[index] = vr * wi + vi * wr;
+    }
+}
@@ -0,0 +1,206 @@
+package com.facsculator;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Método de Newton, z ← z - f(z)/f'(z), sobre colunas de aproximações
+ * iniciais em arrays primitivos (ex: uma grade de pontos do plano, para
+ * encontrar as raízes de uma fórmula ou desenhar suas bacias de atração).
+ *
+ * f e f' vêm de uma única passada de DualExpression por iteração
+ * (diferenciação automática), em vez das duas ou três avaliações extras e da
+ * perda de precisão de uma derivada por diferenças finitas. As demais
+ * variáveis da fórmula são parâmetros fixos, dados no construtor.
+ *
+ * <ul>
+ *   <li><b>Convergência:</b> um ponto para quando a correção |f/f'| fica
+ *       abaixo de tolerance * max(1, |z|), ou quando f(z) = 0.</li>
+ *   <li><b>Falhas:</b> um ponto que não converge no limite de iterações, cuja
+ *       derivada se anula (ou não é finita) ou cuja avaliação dá erro
+ *       (divisão por zero, expoente não real) fica com a última aproximação
+ *       e é marcado no mapa de erros devolvido, sem criar exceções.</li>
+ *   <li><b>Paralelismo:</b> os pontos são divididos em blocos de
+ *       {@link BatchEvaluator#CHUNK_SIZE} entre as threads do pool; cada ponto
+ *       é independente, então o resultado é o mesmo com qualquer número de
+ *       threads.</li>
+ * </ul>
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class NewtonSolver {
+
+    /** Limite padrão de iterações por ponto. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** Tolerância relativa padrão da correção. */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+
+    private final DualExpression function;
+    private final double[] parameterReal;
+    private final double[] parameterImaginary;
+    private final int maxIterations;
+    private final double tolerance;
+    private final ForkJoinPool pool;
+
+    /**
+     * Usa DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE e o ForkJoinPool.commonPool().
+     *
+     * @param function f, diferenciada na variável das iterações.
+     * @param parameters O valor fixo das demais variáveis da fórmula.
+     */
+    public NewtonSolver(DualExpression function, Map<String, ComplexNumber> parameters) {
+        this(function, parameters, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param function f, diferenciada na variável das iterações.
+     * @param parameters O valor fixo das demais variáveis da fórmula.
+     * @param maxIterations O limite de iterações por ponto.
+     * @param tolerance A tolerância relativa da correção (ex: 1e-12).
+     * @param pool O pool que executa os blocos.
+     * @throws IllegalArgumentException se a variável não aparecer na fórmula,
+     * se faltar o valor de algum parâmetro, se maxIterations &lt; 1 ou se a
+     * tolerância não for positiva.
+     */
+    public NewtonSolver(DualExpression function, Map<String, ComplexNumber> parameters,
+                        int maxIterations, double tolerance, ForkJoinPool pool) {
+        if (function.variableIndex() < 0) {
+            throw new IllegalArgumentException("A variável '" + function.variable() + "' não aparece na fórmula.");
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("O limite de iterações deve ser positivo, mas foi " + maxIterations + ".");
+        }
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("A tolerância deve ser positiva, mas foi " + tolerance + ".");
+        }
+        List<String> names = function.variables();
+        this.parameterReal = new double[names.size()];
+        this.parameterImaginary = new double[names.size()];
+        for (int v = 0; v < names.size(); v++) {
+            if (v == function.variableIndex()) {
+                continue;
+            }
+            ComplexNumber value = parameters.get(names.get(v));
+            if (value == null) {
+                throw new IllegalArgumentException("Variável não definida: " + names.get(v));
+            }
+            parameterReal[v] = value.real();
+            parameterImaginary[v] = value.imaginary();
+        }
+        this.function = function;
+        this.maxIterations = maxIterations;
+        this.tolerance = tolerance;
+        this.pool = pool;
+    }
+
+    /** @return A função f (com a variável das iterações). */
+    public DualExpression function() {
+        return function;
+    }
+
+    /**
+     * Itera cada ponto a partir da aproximação inicial em real[i], imaginary[i],
+     * gravando a raiz encontrada no lugar.
+     *
+     * @param real As partes reais das aproximações iniciais (recebem as raízes).
+     * @param imaginary As partes imaginárias.
+     * @param iterations Recebe quantas iterações cada ponto fez (ou null).
+     * @return O mapa de erros: os pontos que não convergiram.
+     * @throws IllegalArgumentException se os tamanhos dos arrays não baterem.
+     */
+    public BitSet solve(double[] real, double[] imaginary, int[] iterations) {
+        int length = real.length;
+        if (imaginary.length != length || (iterations != null && iterations.length != length)) {
+            throw new IllegalArgumentException("Os arrays real, imaginário e de iterações devem ter o mesmo tamanho.");
+        }
+        long[] errors = new long[(length + 63) >>> 6];
+        int chunk = BatchEvaluator.CHUNK_SIZE;
+        int chunks = (length + chunk - 1) / chunk;
+        ParallelLoops.forRange(chunks > 1 ? pool : null, 0, chunks, 1, (from, to) -> {
+            Registers registers = new Registers();
+            for (int c = from; c < to; c++) {
+                int end = (int) Math.min((long) (c + 1) * chunk, length);
+                for (int i = c * chunk; i < end; i++) {
+                    int count = iterate(real, imaginary, i, registers);
+                    if (count < 0) {
+                        errors[i >>> 6] |= 1L << i; // Blocos múltiplos de 64: palavras próprias
+                        count = -count - 1;
+                    }
+                    if (iterations != null) {
+                        iterations[i] = count;
+                    }
+                }
+            }
+        });
+        return BitSet.valueOf(errors);
+    }
+
+    /**
+     * Como {@link #solve(double[], double[], int[])}, sobre um ComplexArray.
+     *
+     * @param points As aproximações iniciais (recebem as raízes).
+     * @return O mapa de erros.
+     */
+    public BitSet solve(ComplexArray points) {
+        return solve(points.real(), points.imaginary(), null);
+    }
+
+    /** Os registradores de uma thread: valores das variáveis, de f e de f'. */
+    private final class Registers {
+        final double[] varReal = parameterReal.clone();
+        final double[] varImaginary = parameterImaginary.clone();
+        final double[] re = new double[function.size()];
+        final double[] im = new double[function.size()];
+        final double[] dre = new double[function.size()];
+        final double[] dim = new double[function.size()];
+    }
+
+    /**
+     * Itera o ponto i até convergir.
+     *
+     * @return O número de iterações, ou -(iterações + 1) se o ponto falhou.
+     */
+    private int iterate(double[] real, double[] imaginary, int i, Registers registers) {
+        int variable = function.variableIndex();
+        int result = function.resultRegister();
+        double zr = real[i];
+        double zi = imaginary[i];
+        int iteration = 0;
+        boolean converged = false;
+        while (iteration < maxIterations) {
+            registers.varReal[variable] = zr;
+            registers.varImaginary[variable] = zi;
+            if (!function.evaluateQuietly(registers.varReal, registers.varImaginary,
+                    registers.re, registers.im, registers.dre, registers.dim)) {
+                break;
+            }
+            double fr = registers.re[result], fi = registers.im[result];
+            if (fr == 0 && fi == 0) {
+                converged = true;
+                break;
+            }
+            double dr = registers.dre[result], di = registers.dim[result];
+            double denominator = dr * dr + di * di;
+            if (!(denominator > 0) || Double.isInfinite(denominator)) {
+                break; // f' nula ou não finita: a correção não existe
+            }
+            // Correção f/f'
+            double sr = (fr * dr + fi * di) / denominator;
+            double si = (fi * dr - fr * di) / denominator;
+            zr -= sr;
+            zi -= si;
+            iteration++;
+            double scale = Math.max(1, zr * zr + zi * zi);
+            if (sr * sr + si * si <= tolerance * tolerance * scale) {
+                converged = true;
+                break;
+            }
+        }
+        real[i] = zr;
+        imaginary[i] = zi;
+        return converged ? iteration : -iteration - 1;
+    }
+}
@@ -0,0 +1,60 @@
+package com.facsculator;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Laços divididos entre as threads de um ForkJoinPool, usados pelos estágios
+ * da FFT, pelas iterações do PolynomialSolver, pelos blocos de ComplexMatrix,
+ * pelos blocos de pixels do EscapeTimeRenderer e pelos pontos do NewtonSolver.
+ */
+final class ParallelLoops {
+
+    /** Um trecho [from, to) do trabalho de um laço. */
+    interface Range {
+        void run(int from, int to);
+    }
+
+    private ParallelLoops() {
+    }
+
+    /**
+     * Executa 'body' sobre [from, to), dividido em trechos de pelo menos
+     * 'grain' índices entre as threads de 'pool' (ou na thread atual, se
+     * 'pool' é null ou o intervalo é pequeno).
+     */
+    static void forRange(ForkJoinPool pool, int from, int to, int grain, Range body) {
+        if (pool == null || to - from <= grain) {
+            body.run(from, to);
+        } else {
+            pool.invoke(new RangeTask(body, from, to, Math.max(1, grain)));
+        }
+    }
+
+    /** Divide um intervalo ao meio até ter no máximo 'grain' índices. */
+    private static final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Range body;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        RangeTask(Range body, int from, int to, int grain) {
+            this.body = body;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(body, from, middle, grain), new RangeTask(body, middle, to, grain));
+        }
+    }
+}
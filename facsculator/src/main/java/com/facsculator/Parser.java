@@ -0,0 +1,359 @@
+package com.facsculator;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Realiza a Análise Sintática (Parsing).
+ * Converte a lista de Tokens produzida pelo Tokenizer em uma
+ * Árvore Sintática Abstrata (AST) de nós {@link Expr}.
+ *
+ * Reconhece a gramática abaixo, com um nível por precedência (do menor para
+ * o maior):
+ * <pre>
+ *   expression := term (('+' | '-') term)*
+ *   term       := unary (('*' | '/') unary)*
+ *   unary      := ('+' | '-') unary | power
+ *   power      := primary ('**' unary)?          (associativo à direita)
+ *   primary    := COMPLEX_NUMBER | VARIABLE
+ *               | '(' expression ')'
+ *               | 'conj' '(' expression ')'
+ *               | 'root' '[' inteiro ']' '(' expression ')'
+ *               | ('exp' | 'log' | 'sin' | 'cos' | 'sinh' | 'cosh') '(' expression ')'
+ * </pre>
+ *
+ * Em vez de um método recursivo por nível, os níveis ainda abertos ficam em
+ * uma pilha explícita (como no ExpressionOptimizer e no
+ * CompiledExpression.Builder): a profundidade de aninhamento ("((((1))))",
+ * "- - - x", "2**2**2", a forma de Horner "1+x*(2+x*(3+...))") só é limitada
+ * pela memória, e não pela pilha de chamadas da thread.
+ *
+ * Os tokens são puxados de uma {@link TokenSource} um de cada vez (com um
+ * token de antecipação), então o Parser pode consumir um StreamingTokenizer
+ * enquanto a entrada ainda está sendo lida.
+ */
+public class Parser {
+
+    /** De onde os tokens são lidos. */
+    private final TokenSource tokens;
+
+    /** O token atual (ainda não consumido); null até a primeira leitura. */
+    private Token lookahead;
+
+    /** O índice do token atual, usado nas mensagens de erro. */
+    private int current = 0;
+
+    /**
+     * Construtor do Parser.
+     * @param tokens A lista produzida por Tokenizer.tokenize().
+     */
+    public Parser(List<Token> tokens) {
+        this(fromList(tokens));
+    }
+
+    /**
+     * Construtor do Parser sobre uma fonte incremental de tokens.
+     * @param tokens A fonte (ex: um StreamingTokenizer).
+     */
+    public Parser(TokenSource tokens) {
+        this.tokens = tokens;
+    }
+
+    /**
+     * Atalho que tokeniza e analisa uma expressão em um só passo.
+     *
+     * @param source A expressão (ex: "(6+2i) * y - 25 / (1+i**2)").
+     * @return A raiz da AST.
+     * @throws Exception Em caso de erro léxico ou sintático.
+     */
+    public static Expr parse(String source) throws Exception {
+        return new Parser(new Tokenizer(source).tokenize()).parse();
+    }
+
+    /**
+     * Analisa todos os tokens e retorna a raiz da AST.
+     *
+     * @return A raiz da AST.
+     * @throws Exception Se a sequência de tokens não formar uma expressão válida.
+     */
+    public Expr parse() throws Exception {
+        long start = Metrics.start();
+        lookahead = tokens.next();
+        Expr root = expression();
+        if (peek().type() != TokenType.END_OF_FILE) {
+            throw error("fim da expressão");
+        }
+        Metrics.stop(Metrics.Stage.PARSE, start);
+        return root;
+    }
+
+    // --- Níveis de Precedência ---
+
+    /** O que fica pendente na pilha enquanto um operando é lido. */
+    private enum Kind {
+        /** '-' unário: nega o operando. */
+        NEGATE,
+        /** 'left **': o operando é o expoente. */
+        POWER,
+        /** 'left * ' ou 'left / ' (nível term). */
+        PRODUCT,
+        /** 'left + ' ou 'left - ' (nível expression). */
+        SUM,
+        /** '(' sem função: o operando é a expressão entre parênteses. */
+        GROUP,
+        /** 'conj('. */
+        CONJUGATE,
+        /** 'root[index]('. */
+        ROOT,
+        /** 'exp(', 'log(', 'sin(', 'cos(', 'sinh(' ou 'cosh('. */
+        FUNCTION
+    }
+
+    /**
+     * Um nível pendente.
+     *
+     * @param kind O tipo do nível.
+     * @param operator O operador (PRODUCT e SUM) ou a função (FUNCTION).
+     * @param left O operando esquerdo (POWER, PRODUCT e SUM).
+     * @param index O índice da raiz (ROOT).
+     */
+    private record Frame(Kind kind, TokenType operator, Expr left, int index) {
+    }
+
+    /**
+     * Analisa uma expressão completa. Cada volta lê um operando (com seus
+     * prefixos e aberturas) e depois fecha os níveis que terminaram, na ordem
+     * da gramática: potência, unário, term, expression e parênteses.
+     * A pilha de cada '(' contém no máximo um SUM e um PRODUCT (eles são
+     * reduzidos antes de um novo operador do mesmo nível ser empilhado), então
+     * a associatividade à esquerda de '+', '-', '*' e '/' é preservada.
+     */
+    private Expr expression() throws Exception {
+        ArrayDeque<Frame> stack = new ArrayDeque<>();
+        while (true) {
+            Expr value = operand(stack);
+            while (true) {
+                // 'value' é um primary completo
+                if (peek().type() == TokenType.POWER) {
+                    advance();
+                    // O expoente é um 'unary' (e não um 'power'): permite "2**-x" e
+                    // mantém a associatividade à direita
+                    stack.push(new Frame(Kind.POWER, TokenType.POWER, value, 0));
+                    break;
+                }
+                // Fim de um 'unary': aplica os sinais e as potências pendentes
+                while (!stack.isEmpty()
+                        && (stack.peek().kind() == Kind.NEGATE || stack.peek().kind() == Kind.POWER)) {
+                    Frame frame = stack.pop();
+                    value = frame.kind() == Kind.NEGATE
+                            ? new Expr.Negate(value)
+                            : new Expr.Binary(TokenType.POWER, frame.left(), value);
+                }
+                if (!stack.isEmpty() && stack.peek().kind() == Kind.PRODUCT) {
+                    Frame frame = stack.pop();
+                    value = new Expr.Binary(frame.operator(), frame.left(), value);
+                }
+                if (peek().type() == TokenType.MULTIPLY || peek().type() == TokenType.DIVIDE) {
+                    stack.push(new Frame(Kind.PRODUCT, advance().type(), value, 0));
+                    break;
+                }
+                // Fim de um 'term'
+                if (!stack.isEmpty() && stack.peek().kind() == Kind.SUM) {
+                    Frame frame = stack.pop();
+                    value = new Expr.Binary(frame.operator(), frame.left(), value);
+                }
+                if (peek().type() == TokenType.PLUS || peek().type() == TokenType.MINUS) {
+                    stack.push(new Frame(Kind.SUM, advance().type(), value, 0));
+                    break;
+                }
+                // Fim de uma 'expression': a de fora, ou a de um '(' pendente
+                if (stack.isEmpty()) {
+                    return value;
+                }
+                Frame frame = stack.pop();
+                expect(TokenType.RIGHT_PAREN, "')'");
+                switch (frame.kind()) {
+                    case CONJUGATE:
+                        value = new Expr.Conjugate(value);
+                        break;
+                    case ROOT:
+                        value = new Expr.Root(frame.index(), value);
+                        break;
+                    case FUNCTION:
+                        value = new Expr.Function(frame.operator(), value);
+                        break;
+                    default: // GROUP
+                        break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Lê os sinais unários e as aberturas ('(', 'conj(', 'root[n](', 'exp(', ...)
+     * até um número ou uma variável, empilhando os níveis que abrem.
+     *
+     * @return O número ou a variável.
+     */
+    private Expr operand(ArrayDeque<Frame> stack) throws Exception {
+        while (true) {
+            Token token = peek();
+            switch (token.type()) {
+                // Sinais que o Tokenizer não juntou a um número (ex: "-x", "-(1+i)")
+                case MINUS:
+                    advance();
+                    stack.push(new Frame(Kind.NEGATE, null, null, 0));
+                    break;
+
+                case PLUS:
+                    advance();
+                    break;
+
+                case COMPLEX_NUMBER:
+                    advance();
+                    return new Expr.Literal(token.value());
+
+                case VARIABLE:
+                    advance();
+                    return new Expr.Variable(token.text());
+
+                case LEFT_PAREN:
+                    advance();
+                    stack.push(new Frame(Kind.GROUP, null, null, 0));
+                    break;
+
+                case CONJUGATE:
+                    advance();
+                    expect(TokenType.LEFT_PAREN, "'(' após 'conj'");
+                    stack.push(new Frame(Kind.CONJUGATE, null, null, 0));
+                    break;
+
+                case ROOT: {
+                    advance();
+                    expect(TokenType.LEFT_BRACKET, "'[' após 'root'");
+                    int index = rootIndex();
+                    expect(TokenType.RIGHT_BRACKET, "']'");
+                    expect(TokenType.LEFT_PAREN, "'(' após 'root[n]'");
+                    stack.push(new Frame(Kind.ROOT, null, null, index));
+                    break;
+                }
+
+                case EXP:
+                case LOG:
+                case SIN:
+                case COS:
+                case SINH:
+                case COSH:
+                    advance();
+                    expect(TokenType.LEFT_PAREN, "'(' após '" + token.text() + "'");
+                    stack.push(new Frame(Kind.FUNCTION, token.type(), null, 0));
+                    break;
+
+                default:
+                    throw error("um número, uma variável, '(' ou uma função");
+            }
+        }
+    }
+
+    /**
+     * Lê o índice 'n' de root[n]. Deve ser um literal inteiro positivo,
+     * pois ComplexNumber.nthRoot(int) só aceita esses valores (Regra 5).
+     */
+    private int rootIndex() throws Exception {
+        Token token = peek();
+        if (token.type() == TokenType.COMPLEX_NUMBER) {
+            double n = token.real();
+            if (token.imaginary() == 0 && n == Math.rint(n) && n > 0 && n <= Integer.MAX_VALUE) {
+                advance();
+                return (int) n;
+            }
+        }
+        throw new Exception("Erro Sintático: O índice da raiz (n) deve ser um inteiro positivo maior que zero"
+                + " (encontrado '" + token.text() + "' no token " + current + ").");
+    }
+
+    // --- Conversão de Literais ---
+
+    /**
+     * Converte o texto de um token COMPLEX_NUMBER no número correspondente.
+     * O Tokenizer já entrega o valor convertido no próprio Token; este método
+     * só é usado para tokens criados a partir do texto (new Token(type, text)).
+     * Aceita as formas produzidas pelo Tokenizer: "5", "-5.5", ".5", "4i",
+     * "i", "-i", "3+4i", "5.5-2i".
+     *
+     * @param text O texto do token.
+     * @return O ComplexNumber representado pelo texto.
+     */
+    static ComplexNumber parseLiteral(String text) {
+        // Procura o sinal que separa a parte real da imaginária (ignora o sinal inicial)
+        int split = -1;
+        for (int k = 1; k < text.length(); k++) {
+            char c = text.charAt(k);
+            if (c == '+' || c == '-') {
+                split = k;
+                break;
+            }
+        }
+
+        boolean imaginary = text.endsWith("i");
+        if (split >= 0) {
+            // Forma "a+bi" / "a-bi"
+            double real = Double.parseDouble(text.substring(0, split));
+            return new ComplexNumber(real, parseImaginary(text.substring(split, text.length() - 1)));
+        }
+        if (imaginary) {
+            // Forma "bi", "i", "-i"
+            return new ComplexNumber(0, parseImaginary(text.substring(0, text.length() - 1)));
+        }
+        return new ComplexNumber(Double.parseDouble(text));
+    }
+
+    /** Converte o coeficiente do imaginário ("", "+" e "-" valem 1, 1 e -1). */
+    private static double parseImaginary(String coefficient) {
+        switch (coefficient) {
+            case "":
+            case "+": return 1;
+            case "-": return -1;
+            default:  return Double.parseDouble(coefficient);
+        }
+    }
+
+    // --- Métodos Auxiliares de Leitura (Helpers) ---
+
+    /** "Espia" o token atual sem consumí-lo. */
+    private Token peek() {
+        return lookahead;
+    }
+
+    /** Consome o token atual e avança para o próximo (nunca passa do EOF). */
+    private Token advance() throws Exception {
+        Token token = peek();
+        if (token.type() != TokenType.END_OF_FILE) {
+            lookahead = tokens.next();
+            current++;
+        }
+        return token;
+    }
+
+    /** Adapta uma lista (terminada por END_OF_FILE) para TokenSource. */
+    private static TokenSource fromList(List<Token> list) {
+        Iterator<Token> iterator = list.iterator();
+        Token eof = new Token(TokenType.END_OF_FILE, "<EOF>");
+        return () -> iterator.hasNext() ? iterator.next() : eof;
+    }
+
+    /** Consome um token do tipo esperado ou lança um erro sintático. */
+    private void expect(TokenType type, String description) throws Exception {
+        if (peek().type() != type) {
+            throw error(description);
+        }
+        advance();
+    }
+
+    /** Cria a exceção padrão de erro sintático para o token atual. */
+    private Exception error(String expected) {
+        return new Exception("Erro Sintático: Esperado " + expected + ", mas encontrado '"
+                + peek().text() + "' no token " + current);
+    }
+}
@@ -0,0 +1,150 @@
+package com.facsculator;
+
+/**
+ * Um número complexo na forma polar: z = r * (cos(θ) + i*sin(θ)).
+ *
+ * Em cadeias como root[3](z**2.5) ** 0.5, cada ComplexNumber.power()
+ * recalcula magnitude() (sqrt) e phase() (atan2) e depois volta para a forma
+ * retangular com cos/sin, só para a próxima operação chamar atan2 de novo.
+ * Na forma polar, multiplicação, divisão, potência e raiz não precisam de
+ * nenhuma conversão: r e θ são combinados diretamente, e cos/sin só são
+ * chamados uma vez, em {@link #toComplexNumber()}.
+ *
+ * As fórmulas são as mesmas que CompiledExpression usa ao manter um
+ * resultado intermediário em forma polar, então os resultados coincidem.
+ * A fase não é normalizada a cada operação: power() e nthRoot() a trazem
+ * para [-π, π] antes de multiplicá-la, para usar o mesmo ramo principal que
+ * ComplexNumber.power().
+ *
+ * A conversão é sem perdas no sentido de ida e volta: um PolarComplex criado
+ * por {@link #of(ComplexNumber)} guarda o número original e o devolve em
+ * toComplexNumber(). Resultados de operações são convertidos por r*cos(θ),
+ * r*sin(θ).
+ *
+ * Instâncias são imutáveis.
+ */
+public final class PolarComplex {
+
+    private final double magnitude;
+    private final double phase;
+
+    /** O número retangular de origem (se criado por of()), para a volta sem perdas. */
+    private final ComplexNumber rectangular;
+
+    /**
+     * @param magnitude O raio r (|z|).
+     * @param phase O ângulo θ, em radianos (qualquer valor; não é normalizado).
+     */
+    public PolarComplex(double magnitude, double phase) {
+        this(magnitude, phase, null);
+    }
+
+    private PolarComplex(double magnitude, double phase, ComplexNumber rectangular) {
+        this.magnitude = magnitude;
+        this.phase = phase;
+        this.rectangular = rectangular;
+    }
+
+    /**
+     * Converte para a forma polar (r = magnitude(), θ = phase()).
+     *
+     * @param z O número na forma retangular.
+     * @return O mesmo número na forma polar.
+     */
+    public static PolarComplex of(ComplexNumber z) {
+        return new PolarComplex(z.magnitude(), z.phase(), z);
+    }
+
+    /** @return O raio r = |z|. */
+    public double magnitude() {
+        return magnitude;
+    }
+
+    /** @return O ângulo θ, em radianos (não normalizado). */
+    public double phase() {
+        return phase;
+    }
+
+    /**
+     * Converte de volta para a forma retangular: (r*cos(θ), r*sin(θ)).
+     * Se este número veio de of(z), devolve o próprio z.
+     *
+     * @return O número na forma retangular.
+     */
+    public ComplexNumber toComplexNumber() {
+        if (rectangular != null) {
+            return rectangular;
+        }
+        return new ComplexNumber(magnitude * Math.cos(phase), magnitude * Math.sin(phase));
+    }
+
+    // --- Operações (sem sair da forma polar) ---
+
+    /** Multiplicação: (r1*r2, θ1+θ2). */
+    public PolarComplex multiply(PolarComplex other) {
+        return new PolarComplex(magnitude * other.magnitude, phase + other.phase);
+    }
+
+    /**
+     * Divisão: (r1/r2, θ1-θ2).
+     *
+     * @throws ArithmeticException se o divisor for zero (mesmo critério de ComplexNumber.divide).
+     */
+    public PolarComplex divide(PolarComplex other) {
+        ComplexMath.checkDivisor(other.magnitude * other.magnitude);
+        return new PolarComplex(magnitude / other.magnitude, phase - other.phase);
+    }
+
+    /** Conjugado: (r, -θ). */
+    public PolarComplex conjugate() {
+        return new PolarComplex(magnitude, -phase);
+    }
+
+    /**
+     * Potência pela Fórmula de De Moivre: (r^n, n*θ), com θ no ramo principal.
+     * Ao contrário de ComplexNumber.power, não há atalho para expoentes
+     * inteiros: aqui a fórmula já não usa sqrt, atan2, cos nem sin.
+     *
+     * @param exponent O expoente (n).
+     * @return z^n na forma polar.
+     */
+    public PolarComplex power(double exponent) {
+        return new PolarComplex(Math.pow(magnitude, exponent),
+                ComplexMath.principalPhase(phase) * exponent);
+    }
+
+    /**
+     * A n-ésima raiz principal: z^(1/n).
+     *
+     * @param n O índice da raiz.
+     * @return A raiz principal na forma polar.
+     * @throws IllegalArgumentException (Regra 5) se n for menor ou igual a zero.
+     */
+    public PolarComplex nthRoot(int n) {
+        if (n <= 0) {
+            Metrics.failure(Metrics.Failure.INVALID_ROOT);
+            throw new IllegalArgumentException("O índice da raiz (n) deve ser um inteiro positivo maior que zero.");
+        }
+        return power(1.0 / n);
+    }
+
+    // --- Igualdade e Exibição ---
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PolarComplex p
+                && Double.compare(magnitude, p.magnitude) == 0
+                && Double.compare(phase, p.phase) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Double.hashCode(magnitude) + Double.hashCode(phase);
+    }
+
+    /** @return O número na forma retangular, formatado como ComplexNumber.toString(). */
+    @Override
+    public String toString() {
+        return toComplexNumber().toString();
+    }
+}
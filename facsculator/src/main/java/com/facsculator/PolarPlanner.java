@@ -0,0 +1,224 @@
+package com.facsculator;
+
+/**
+ * Escolhe, para cada registrador de um CompiledExpression, se o resultado é
+ * produzido na forma retangular (real, imaginário) ou polar (magnitude, fase),
+ * e insere as conversões (TO_POLAR / TO_RECT) onde as formas mudam.
+ *
+ * O critério é o número de chamadas transcendentais (sqrt, atan2, pow, cos,
+ * sin) por avaliação:
+ * <ul>
+ *   <li>converter entre as formas custa 2 (sqrt + atan2, ou cos + sin);</li>
+ *   <li>potência real e raiz custam 1 (pow) sobre um operando polar;</li>
+ *   <li>multiplicação, divisão e conjugado custam 0 nas duas formas;</li>
+ *   <li>soma, subtração e negação só existem na forma retangular, assim como
+ *       a potência de expoente inteiro constante (só multiplicações, exata)
+ *       e a de expoente calculado (o caminho só é conhecido na execução);</li>
+ *   <li>as funções elementares (exp, log, sin, ...) também só existem na
+ *       forma retangular, com o custo fixo das suas chamadas;</li>
+ *   <li>constantes são convertidas na compilação, sem custo.</li>
+ * </ul>
+ *
+ * Um passo de programação dinâmica (dos operandos para o resultado) calcula
+ * o menor custo de ter cada registrador em cada forma; um passo no sentido
+ * contrário (do resultado, que deve ser retangular, para os operandos) decide
+ * a forma de cada instrução. Em caso de empate, a forma retangular vence:
+ * uma potência isolada como x**2.5 continua sendo sqrt, atan2, pow, cos e
+ * sin, na mesma ordem de antes, e dá exatamente o mesmo resultado.
+ */
+final class PolarPlanner {
+
+    private static final int RECT = 1;
+    private static final int POLAR = 2;
+
+    private static final int CONVERSION = 2;
+    private static final int POW = 1;
+    private static final int DYNAMIC_POWER = 5; // pior caso de ComplexMath.power
+    private static final int FUNCTION = 3;      // ex: expm1, cos e sin
+    private static final int NONE = Integer.MAX_VALUE / 4;
+
+    private PolarPlanner() {
+    }
+
+    /**
+     * @param program Um programa só com instruções retangulares (saído do Builder).
+     * @return O programa equivalente, com os intermediários na forma mais barata.
+     */
+    static CompiledExpression plan(CompiledExpression program) {
+        int[] ops = program.ops, left = program.left, right = program.right;
+        int size = ops.length;
+
+        // --- 1. Custos (dos operandos para o resultado) ---
+        int[] nativeRect = new int[size];
+        int[] nativePolar = new int[size];
+        int[] costRect = new int[size];
+        int[] costPolar = new int[size];
+        for (int k = 0; k < size; k++) {
+            int l = left[k], r = right[k];
+            int rect = NONE, polar = NONE;
+            switch (ops[k]) {
+                case CompiledExpression.CONST:
+                    rect = 0;
+                    polar = 0;
+                    break;
+                case CompiledExpression.VARIABLE:
+                    rect = 0;
+                    break;
+                case CompiledExpression.ADD:
+                case CompiledExpression.SUBTRACT:
+                    rect = costRect[l] + costRect[r];
+                    break;
+                case CompiledExpression.NEGATE:
+                    rect = costRect[l];
+                    break;
+                case CompiledExpression.CONJUGATE:
+                    rect = costRect[l];
+                    polar = costPolar[l];
+                    break;
+                case CompiledExpression.MULTIPLY:
+                case CompiledExpression.DIVIDE:
+                    rect = costRect[l] + costRect[r];
+                    polar = costPolar[l] + costPolar[r];
+                    break;
+                case CompiledExpression.POWER:
+                    if (!isConstant(program, r)) {
+                        rect = costRect[l] + costRect[r] + DYNAMIC_POWER;
+                    } else if (isIntegerExponent(program.constReal[r])) {
+                        // Só multiplicações: exato, e sem o corte de ramo da fase (ex: (-1)**-5)
+                        rect = costRect[l] + costRect[r];
+                    } else {
+                        polar = costPolar[l] + costRect[r] + POW;
+                    }
+                    break;
+                case CompiledExpression.ROOT:
+                    if (r == 1) {
+                        rect = costRect[l]; // z^1: caminho inteiro de ComplexMath.power
+                    } else {
+                        polar = costPolar[l] + POW;
+                    }
+                    break;
+                case CompiledExpression.FUNCTION:
+                    rect = costRect[l] + FUNCTION;
+                    break;
+                default:
+                    return program; // Instrução desconhecida: mantém o programa como está
+            }
+            nativeRect[k] = rect;
+            nativePolar[k] = polar;
+            costRect[k] = Math.min(rect, polar + CONVERSION);
+            costPolar[k] = Math.min(polar, rect + CONVERSION);
+        }
+
+        // --- 2. Formas necessárias e escolhidas (do resultado para os operandos) ---
+        int[] needed = new int[size];
+        int[] chosen = new int[size];
+        needed[size - 1] = RECT;
+        for (int k = size - 1; k >= 0; k--) {
+            if (needed[k] == 0) {
+                continue; // Resultado não usado
+            }
+            int rectTotal = nativeRect[k] + ((needed[k] & POLAR) != 0 ? CONVERSION : 0);
+            int polarTotal = nativePolar[k] + ((needed[k] & RECT) != 0 ? CONVERSION : 0);
+            chosen[k] = (rectTotal <= polarTotal) ? RECT : POLAR;
+
+            int l = left[k], r = right[k];
+            switch (ops[k]) {
+                case CompiledExpression.CONST:
+                case CompiledExpression.VARIABLE:
+                    break;
+                case CompiledExpression.ADD:
+                case CompiledExpression.SUBTRACT:
+                case CompiledExpression.MULTIPLY:
+                case CompiledExpression.DIVIDE:
+                    needed[l] |= chosen[k];
+                    needed[r] |= chosen[k];
+                    break;
+                case CompiledExpression.POWER:
+                    needed[l] |= chosen[k];
+                    needed[r] |= RECT; // o expoente é sempre lido na forma retangular
+                    break;
+                default: // NEGATE, CONJUGATE, ROOT, FUNCTION
+                    needed[l] |= chosen[k];
+                    break;
+            }
+        }
+
+        // --- 3. Emissão do novo programa ---
+        CompiledExpression.Builder builder = new CompiledExpression.Builder();
+        for (String name : program.variables()) {
+            builder.variableIndex(name); // Mesmas posições de variáveis
+        }
+        int[] inRect = new int[size];
+        int[] inPolar = new int[size];
+        for (int k = 0; k < size; k++) {
+            if (needed[k] == 0) {
+                continue;
+            }
+            int l = left[k], r = right[k];
+            int op = ops[k];
+
+            if (op == CompiledExpression.CONST) {
+                // Constantes: cada forma necessária vira uma constante (conversão na compilação)
+                double a = program.constReal[k], b = program.constImaginary[k];
+                if ((needed[k] & RECT) != 0) {
+                    inRect[k] = builder.constant(a, b);
+                }
+                if ((needed[k] & POLAR) != 0) {
+                    inPolar[k] = builder.constant(Math.sqrt(a * a + b * b), Math.atan2(b, a));
+                }
+                continue;
+            }
+
+            int register;
+            if (chosen[k] == RECT) {
+                if (op == CompiledExpression.VARIABLE) {
+                    register = builder.add(op, l, 0);
+                } else if (op == CompiledExpression.ROOT || op == CompiledExpression.FUNCTION) {
+                    register = builder.add(op, inRect[l], r);
+                } else {
+                    register = builder.add(op, inRect[l], isUnary(op) ? 0 : inRect[r]);
+                }
+                inRect[k] = register;
+                if ((needed[k] & POLAR) != 0) {
+                    inPolar[k] = builder.add(CompiledExpression.TO_POLAR, register, 0);
+                }
+            } else {
+                switch (op) {
+                    case CompiledExpression.MULTIPLY:
+                        register = builder.add(CompiledExpression.POLAR_MULTIPLY, inPolar[l], inPolar[r]);
+                        break;
+                    case CompiledExpression.DIVIDE:
+                        register = builder.add(CompiledExpression.POLAR_DIVIDE, inPolar[l], inPolar[r]);
+                        break;
+                    case CompiledExpression.POWER:
+                        register = builder.add(CompiledExpression.POLAR_POWER, inPolar[l], inRect[r]);
+                        break;
+                    case CompiledExpression.ROOT:
+                        register = builder.add(CompiledExpression.POLAR_ROOT, inPolar[l], r);
+                        break;
+                    default: // CONJUGATE
+                        register = builder.add(CompiledExpression.CONJUGATE, inPolar[l], 0);
+                        break;
+                }
+                inPolar[k] = register;
+                if ((needed[k] & RECT) != 0) {
+                    inRect[k] = builder.add(CompiledExpression.TO_RECT, register, 0);
+                }
+            }
+        }
+        return builder.build(program);
+    }
+
+    private static boolean isConstant(CompiledExpression program, int register) {
+        return program.ops[register] == CompiledExpression.CONST;
+    }
+
+    /** O mesmo critério de ComplexMath.isIntegerPower para o expoente. */
+    private static boolean isIntegerExponent(double exponent) {
+        return exponent == Math.rint(exponent) && Math.abs(exponent) <= ComplexMath.MAX_INTEGER_EXPONENT;
+    }
+
+    private static boolean isUnary(int op) {
+        return op == CompiledExpression.NEGATE || op == CompiledExpression.CONJUGATE;
+    }
+}
@@ -0,0 +1,367 @@
+package com.facsculator;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Encontra todas as raízes de um ComplexPolynomial pelo método de
+ * Aberth-Ehrlich: as n aproximações são atualizadas juntas, a cada iteração,
+ * por z[k] -= 1 / (p'(z[k])/p(z[k]) - Σ_{j≠k} 1/(z[k] - z[j])).
+ *
+ * <ul>
+ *   <li><b>Aproximações iniciais:</b> círculos com os raios dados pelo
+ *       polígono de Newton de log|ak| (como no MPSolve), o que acompanha
+ *       polinômios cujas raízes têm módulos muito diferentes.</li>
+ *   <li><b>Avaliação:</b> p e p' por Horner, na variável 1/z quando |z| &gt; 1
+ *       (evita o overflow de z^n em graus altos).</li>
+ *   <li><b>Convergência:</b> uma raiz para de ser atualizada quando seu
+ *       resíduo (o erro regressivo |p(z)| / Σ|ak|*|z|^k) chega ao nível do
+ *       arredondamento de Horner, 4*n*ε, ou quando a correção fica abaixo de
+ *       2*ε*|z|.</li>
+ *   <li><b>Paralelismo:</b> cada iteração lê só as aproximações da
+ *       anterior, então as raízes são atualizadas em paralelo (a partir de
+ *       {@link #PARALLEL_THRESHOLD}) com os mesmos bits da versão sequencial.
+ *       {@link #solveAll(List)} resolve vários polinômios, um por thread.</li>
+ * </ul>
+ *
+ * Raízes em zero (coeficientes a0, a1... nulos) são separadas antes e
+ * devolvidas exatas. As iterações trabalham só sobre arrays primitivos
+ * alocados uma vez por chamada.
+ *
+ * Instâncias são imutáveis e podem ser usadas por várias threads.
+ */
+public final class PolynomialSolver {
+
+    /** Limite padrão de iterações. */
+    public static final int DEFAULT_MAX_ITERATIONS = 500;
+
+    /** Menor grau para o qual as raízes de uma iteração são atualizadas em paralelo. */
+    public static final int PARALLEL_THRESHOLD = 256;
+
+    /** Arredondamento unitário do double (2^-53). */
+    private static final double EPSILON = Math.ulp(1.0) / 2;
+
+    /** Giro dos círculos iniciais, para não começar em pontos simétricos. */
+    private static final double ROTATION = 0.7;
+
+    /**
+     * O resultado de uma chamada de solve().
+     *
+     * @param roots As n raízes (com repetição), na ordem das aproximações iniciais.
+     * @param iterations Quantas iterações foram feitas.
+     * @param converged true se todas as raízes convergiram antes do limite de iterações.
+     * @param residuals O erro regressivo |p(z)| / Σ|ak|*|z|^k de cada raiz.
+     */
+    public record Result(ComplexArray roots, int iterations, boolean converged, double[] residuals) {
+
+        /** @return O maior dos resíduos (0 para polinômios de grau 0). */
+        public double maxResidual() {
+            double max = 0;
+            for (double residual : residuals) {
+                max = Math.max(max, residual);
+            }
+            return max;
+        }
+    }
+
+    private final int maxIterations;
+    private final ForkJoinPool pool;
+
+    /** Usa DEFAULT_MAX_ITERATIONS e o ForkJoinPool.commonPool(). */
+    public PolynomialSolver() {
+        this(DEFAULT_MAX_ITERATIONS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param maxIterations O limite de iterações de cada solve().
+     * @param pool O pool das atualizações em paralelo e de solveAll().
+     * @throws IllegalArgumentException se maxIterations &lt; 1.
+     */
+    public PolynomialSolver(int maxIterations, ForkJoinPool pool) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("O limite de iterações deve ser positivo, mas foi " + maxIterations + ".");
+        }
+        this.maxIterations = maxIterations;
+        this.pool = pool;
+    }
+
+    /**
+     * @param polynomial O polinômio.
+     * @return As raízes, as iterações e os resíduos.
+     * @throws IllegalArgumentException se o polinômio for nulo (infinitas raízes).
+     */
+    public Result solve(ComplexPolynomial polynomial) {
+        return solve(polynomial, polynomial.degree() >= PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    /**
+     * Resolve vários polinômios, distribuídos entre as threads do pool
+     * (cada um é resolvido por uma única thread).
+     *
+     * @param polynomials Os polinômios.
+     * @return Os resultados, na mesma ordem.
+     */
+    public List<Result> solveAll(List<ComplexPolynomial> polynomials) {
+        Result[] results = new Result[polynomials.size()];
+        ParallelLoops.forRange(pool, 0, results.length, 1, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                results[i] = solve(polynomials.get(i), null);
+            }
+        });
+        return List.of(results);
+    }
+
+    private Result solve(ComplexPolynomial polynomial, ForkJoinPool pool) {
+        if (polynomial.isZero()) {
+            throw new IllegalArgumentException("O polinômio nulo tem infinitas raízes.");
+        }
+        double[] re = polynomial.real();
+        double[] im = polynomial.imaginary();
+        int n = polynomial.degree();
+        int zeros = 0;
+        while (re[zeros] == 0 && im[zeros] == 0) {
+            zeros++;
+        }
+
+        ComplexArray roots = new ComplexArray(n);
+        double[] residuals = new double[n];
+        if (zeros == n) {
+            return new Result(roots, 0, true, residuals);
+        }
+        Aberth aberth = new Aberth(re, im, zeros, pool);
+        int iterations = aberth.run(maxIterations);
+        System.arraycopy(aberth.zr, 0, roots.real(), zeros, aberth.degree);
+        System.arraycopy(aberth.zi, 0, roots.imaginary(), zeros, aberth.degree);
+        System.arraycopy(aberth.residual, 0, residuals, zeros, aberth.degree);
+        return new Result(roots, iterations, aberth.remaining == 0, residuals);
+    }
+
+    /** O estado de uma resolução: os coeficientes de p(z)/z^zeros e as aproximações. */
+    private static final class Aberth {
+        final int degree;
+        final double[] cr;
+        final double[] ci;
+        /** |ck|, para o resíduo. */
+        final double[] abs;
+        final ForkJoinPool pool;
+        final double threshold;
+
+        double[] zr;
+        double[] zi;
+        double[] nextR;
+        double[] nextI;
+        final boolean[] done;
+        final double[] residual;
+        int remaining;
+
+        Aberth(double[] re, double[] im, int zeros, ForkJoinPool pool) {
+            this.degree = re.length - 1 - zeros;
+            this.cr = new double[degree + 1];
+            this.ci = new double[degree + 1];
+            this.abs = new double[degree + 1];
+            for (int k = 0; k <= degree; k++) {
+                cr[k] = re[k + zeros];
+                ci[k] = im[k + zeros];
+                abs[k] = Math.hypot(cr[k], ci[k]);
+            }
+            this.pool = pool;
+            this.threshold = 4 * (degree + 1) * EPSILON;
+            this.zr = new double[degree];
+            this.zi = new double[degree];
+            this.nextR = new double[degree];
+            this.nextI = new double[degree];
+            this.done = new boolean[degree];
+            this.residual = new double[degree];
+            this.remaining = degree;
+            initialGuesses();
+        }
+
+        /** @return As iterações feitas. No fim, zr/zi são as raízes e 'residual' seus resíduos. */
+        int run(int maxIterations) {
+            int grain = Math.max(1, PARALLEL_THRESHOLD / 4);
+            int iterations = 0;
+            while (remaining > 0 && iterations < maxIterations) {
+                iterations++;
+                ParallelLoops.forRange(pool, 0, degree, grain, this::update);
+                double[] t = zr;
+                zr = nextR;
+                nextR = t;
+                t = zi;
+                zi = nextI;
+                nextI = t;
+                remaining = 0;
+                for (boolean converged : done) {
+                    remaining += converged ? 0 : 1;
+                }
+            }
+            ParallelLoops.forRange(pool, 0, degree, grain, this::residuals);
+            return iterations;
+        }
+
+        /** Uma iteração de Aberth para as raízes [from, to), lendo zr/zi e escrevendo nextR/nextI. */
+        void update(int from, int to) {
+            double[] logDerivative = new double[2];
+            for (int k = from; k < to; k++) {
+                double x = zr[k];
+                double y = zi[k];
+                nextR[k] = x;
+                nextI[k] = y;
+                if (done[k]) {
+                    continue;
+                }
+                double error = evaluate(x, y, logDerivative);
+                if (error <= threshold) {
+                    done[k] = true;
+                    continue;
+                }
+
+                // S = Σ_{j≠k} 1/(z[k] - z[j])
+                double sr = 0;
+                double si = 0;
+                for (int j = 0; j < degree; j++) {
+                    double dx = x - zr[j];
+                    double dy = y - zi[j];
+                    double q = dx * dx + dy * dy;
+                    if (q != 0) { // j == k, ou duas aproximações coincidentes
+                        double inverse = 1 / q;
+                        sr += dx * inverse;
+                        si -= dy * inverse;
+                    }
+                }
+                double dr = logDerivative[0] - sr;
+                double di = logDerivative[1] - si;
+                double q = dr * dr + di * di;
+                if (q == 0 || Double.isNaN(q)) {
+                    continue;
+                }
+                // correção = 1 / (p'/p - S)
+                double wr = dr / q;
+                double wi = -di / q;
+                nextR[k] = x - wr;
+                nextI[k] = y - wi;
+                if (Math.hypot(wr, wi) <= 2 * EPSILON * Math.hypot(x, y)) {
+                    done[k] = true;
+                }
+            }
+        }
+
+        /** residual[k] = erro regressivo de zr/zi em [from, to). */
+        void residuals(int from, int to) {
+            double[] logDerivative = new double[2];
+            for (int k = from; k < to; k++) {
+                residual[k] = evaluate(zr[k], zi[k], logDerivative);
+            }
+        }
+
+        /**
+         * Avalia p e p' em z = x + iy por Horner.
+         *
+         * @param logDerivative Recebe p'(z)/p(z) (0 se p(z) = 0).
+         * @return O erro regressivo |p(z)| / Σ|ck|*|z|^k.
+         */
+        double evaluate(double x, double y, double[] logDerivative) {
+            double modulus = Math.hypot(x, y);
+            if (modulus <= 1) {
+                double pr = cr[degree];
+                double pi = ci[degree];
+                double dr = 0;
+                double di = 0;
+                double bound = abs[degree];
+                for (int j = degree - 1; j >= 0; j--) {
+                    double t = dr * x - di * y + pr;
+                    di = dr * y + di * x + pi;
+                    dr = t;
+                    t = pr * x - pi * y + cr[j];
+                    pi = pr * y + pi * x + ci[j];
+                    pr = t;
+                    bound = bound * modulus + abs[j];
+                }
+                double q = pr * pr + pi * pi;
+                if (q == 0) {
+                    logDerivative[0] = 0;
+                    logDerivative[1] = 0;
+                    return 0;
+                }
+                // p'/p = d * conj(p) / |p|²
+                logDerivative[0] = (dr * pr + di * pi) / q;
+                logDerivative[1] = (di * pr - dr * pi) / q;
+                return Math.hypot(pr, pi) / bound;
+            }
+
+            // p(z) = z^n * r(w), com w = 1/z e r(w) = cn + c(n-1)*w + ... + c0*w^n
+            double ur = x / modulus / modulus;
+            double ui = -y / modulus / modulus;
+            double inverseModulus = 1 / modulus;
+            double rr = cr[0];
+            double ri = ci[0];
+            double dr = 0;
+            double di = 0;
+            double bound = abs[0];
+            for (int j = 1; j <= degree; j++) {
+                double t = dr * ur - di * ui + rr;
+                di = dr * ui + di * ur + ri;
+                dr = t;
+                t = rr * ur - ri * ui + cr[j];
+                ri = rr * ui + ri * ur + ci[j];
+                rr = t;
+                bound = bound * inverseModulus + abs[j];
+            }
+            double q = rr * rr + ri * ri;
+            if (q == 0) {
+                logDerivative[0] = 0;
+                logDerivative[1] = 0;
+                return 0;
+            }
+            // p'/p = w * (n - w * r'(w)/r(w))
+            double gr = (dr * rr + di * ri) / q;
+            double gi = (di * rr - dr * ri) / q;
+            double hr = degree - (ur * gr - ui * gi);
+            double hi = -(ur * gi + ui * gr);
+            logDerivative[0] = ur * hr - ui * hi;
+            logDerivative[1] = ur * hi + ui * hr;
+            return Math.hypot(rr, ri) / bound;
+        }
+
+        /**
+         * Para cada aresta (i, j) do fecho convexo superior dos pontos
+         * (k, log|ck|), põe j - i aproximações no círculo de raio
+         * (|ci|/|cj|)^(1/(j-i)).
+         */
+        private void initialGuesses() {
+            double[] log = new double[degree + 1];
+            int[] hull = new int[degree + 1];
+            int size = 0;
+            for (int k = 0; k <= degree; k++) {
+                if (abs[k] == 0) {
+                    continue;
+                }
+                log[k] = Math.log(abs[k]);
+                while (size >= 2) {
+                    int a = hull[size - 2];
+                    int b = hull[size - 1];
+                    // Remove b se ele não está acima da reta de a até k
+                    if ((b - a) * (log[k] - log[a]) - (log[b] - log[a]) * (k - a) >= 0) {
+                        size--;
+                    } else {
+                        break;
+                    }
+                }
+                hull[size++] = k;
+            }
+
+            int next = 0;
+            for (int h = 1; h < size; h++) {
+                int i = hull[h - 1];
+                int j = hull[h];
+                int count = j - i;
+                double radius = Math.exp((log[i] - log[j]) / count);
+                for (int m = 0; m < count; m++) {
+                    double angle = 2 * Math.PI * m / count + 2 * Math.PI * i / degree + ROTATION;
+                    zr[next] = radius * Math.cos(angle);
+                    zi[next] = radius * Math.sin(angle);
+                    next++;
+                }
+            }
+        }
+    }
+}
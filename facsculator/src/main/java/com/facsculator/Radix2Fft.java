@@ -0,0 +1,160 @@
+package com.facsculator;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * FFT radix-2 in-place para n potência de 2 (usada por FftPlan e pela
+ * convolução de BluesteinFft).
+ *
+ * Os elementos são permutados em ordem bit-reversa e combinados em log2(n)
+ * estágios de borboletas. Os estágios com grupos de até {@link #BLOCK}
+ * elementos são feitos bloco a bloco (todos os estágios de um bloco antes do
+ * próximo), enquanto o bloco ainda está no cache; os estágios seguintes
+ * percorrem o vetor inteiro. Na versão paralela, os blocos e as borboletas
+ * de cada estágio seguinte são divididos entre as threads do pool.
+ */
+final class Radix2Fft implements FftPlan.Transform {
+
+    /** Elementos de um bloco (2 * 4096 doubles = 64 KB). */
+    static final int BLOCK = 1 << 12;
+
+    private final int n;
+    private final int log;
+    private final int block;
+
+    /** cos(2πk/n) e sin(2πk/n) para k &lt; n/2; o twiddle é cos - i*sin. */
+    private final double[] cos;
+    private final double[] sin;
+
+    Radix2Fft(int n) {
+        this.n = n;
+        this.log = Integer.numberOfTrailingZeros(n);
+        this.block = Math.min(n, BLOCK);
+        this.cos = new double[Math.max(1, n / 2)];
+        this.sin = new double[cos.length];
+        fillTwiddles();
+    }
+
+    /**
+     * Calcula o primeiro oitavo do círculo e obtém o resto por simetria:
+     * 8x menos chamadas de Math.cos/sin, e os valores de ângulos simétricos
+     * (ex: π/2 - θ e θ) saem exatamente iguais.
+     */
+    private void fillTwiddles() {
+        cos[0] = 1;
+        if (n < 8) {
+            if (n == 4) {
+                cos[1] = 0;
+                sin[1] = 1;
+            }
+            return;
+        }
+        int quarter = n / 4;
+        for (int k = 0; k <= n / 8; k++) {
+            double angle = 2 * Math.PI * k / n;
+            double c = (k == 0) ? 1 : Math.cos(angle);
+            double s = (k == 0) ? 0 : Math.sin(angle);
+            cos[k] = c;
+            sin[k] = s;
+            cos[quarter - k] = s;
+            sin[quarter - k] = c;
+            if (k > 0) {
+                cos[quarter + k] = -s;
+                sin[quarter + k] = c;
+                cos[2 * quarter - k] = -c;
+                sin[2 * quarter - k] = s;
+            }
+        }
+    }
+
+    @Override
+    public long tableBytes() {
+        return 16L * cos.length;
+    }
+
+    @Override
+    public void forward(double[] re, double[] im, ForkJoinPool pool) {
+        if (n == 1) {
+            return;
+        }
+        ParallelLoops.forRange(pool, 0, n, FftPlan.GRAIN, (from, to) -> bitReverse(re, im, from, to));
+        ParallelLoops.forRange(pool, 0, n / block, 1, (from, to) -> {
+            for (int b = from; b < to; b++) {
+                blockStages(re, im, b * block);
+            }
+        });
+        for (int length = 2 * block; length <= n; length <<= 1) {
+            int stage = length;
+            ParallelLoops.forRange(pool, 0, n / 2, FftPlan.GRAIN, (from, to) -> stage(re, im, stage, from, to));
+        }
+    }
+
+    /** Troca cada i de [from, to) com seu bit-reverso j, quando i &lt; j (cada par é trocado uma vez). */
+    private void bitReverse(double[] re, double[] im, int from, int to) {
+        int shift = 32 - log;
+        for (int i = from; i < to; i++) {
+            int j = Integer.reverse(i) >>> shift;
+            if (i < j) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+    }
+
+    /** Os estágios de tamanho 2..block sobre o bloco [start, start + block). */
+    private void blockStages(double[] re, double[] im, int start) {
+        int end = start + block;
+        for (int i = start; i < end; i += 2) {
+            double r = re[i + 1];
+            double m = im[i + 1];
+            re[i + 1] = re[i] - r;
+            im[i + 1] = im[i] - m;
+            re[i] += r;
+            im[i] += m;
+        }
+        for (int length = 4; length <= block; length <<= 1) {
+            int half = length >>> 1;
+            int stride = n / length;
+            for (int group = start; group < end; group += length) {
+                for (int k = 0; k < half; k++) {
+                    butterfly(re, im, group + k, half, k * stride);
+                }
+            }
+        }
+    }
+
+    /**
+     * As borboletas [from, to) do estágio de tamanho 'length'. A borboleta b
+     * combina i = 2b - k e i + length/2, com k = b mod (length/2).
+     */
+    private void stage(double[] re, double[] im, int length, int from, int to) {
+        int half = length >>> 1;
+        int stride = n / length;
+        int b = from;
+        while (b < to) {
+            int k = b & (half - 1);
+            int i = 2 * b - k;
+            int end = Math.min(to, b + half - k);
+            for (; b < end; b++, i++, k++) {
+                butterfly(re, im, i, half, k * stride);
+            }
+        }
+    }
+
+    private void butterfly(double[] re, double[] im, int i, int half, int twiddle) {
+        int j = i + half;
+        double c = cos[twiddle];
+        double s = sin[twiddle];
+        // (re[j] + i*im[j]) * (c - i*s)
+        double tr = re[j] * c + im[j] * s;
+        double ti = im[j] * c - re[j] * s;
+        re[j] = re[i] - tr;
+        im[j] = im[i] - ti;
+        re[i] += tr;
+        im[i] += ti;
+    }
+}
@@ -0,0 +1,54 @@
+package com.facsculator;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabelas das raízes n-ésimas da unidade, ω^k = cos(2πk/n) + i*sin(2πk/n)
+ * para k = 0..n-1, compartilhadas (imutáveis) entre threads. Usadas por
+ * ComplexNumber.nthRoots e MixedRadixFft.
+ *
+ * Só as tabelas com n &lt;= {@link #MAX_CACHED} ficam em cache, calculadas
+ * uma única vez e nunca removidas: no pior caso (todos os n), o cache ocupa
+ * 16 * (1 + ... + 1024) bytes, cerca de 8 MB. Tabelas maiores são
+ * recalculadas a cada uso (quem as usa repetidamente, como o FftPlan,
+ * guarda a sua).
+ */
+final class RootsOfUnity {
+
+    /** Maior n guardado em cache. */
+    static final int MAX_CACHED = 1 << 10;
+
+    private static final ConcurrentHashMap<Integer, Table> CACHE = new ConcurrentHashMap<>();
+
+    /** Os cossenos e senos de 2πk/n. Os arrays não devem ser alterados. */
+    record Table(double[] cos, double[] sin) { }
+
+    private RootsOfUnity() {
+    }
+
+    /** @return A tabela para n (n &gt; 0). */
+    static Table of(int n) {
+        if (n > MAX_CACHED) {
+            return compute(n);
+        }
+        return CACHE.computeIfAbsent(n, RootsOfUnity::compute);
+    }
+
+    private static Table compute(int n) {
+        double[] cos = new double[n];
+        double[] sin = new double[n];
+        for (int k = 0; k < n; k++) {
+            if (4L * k % n == 0) {
+                // Múltiplos de 90°: valores exatos (cos(π/2) seria 6e-17, e não 0)
+                int quarter = (int) (4L * k / n);
+                cos[k] = (quarter == 0) ? 1 : (quarter == 2) ? -1 : 0;
+                sin[k] = (quarter == 1) ? 1 : (quarter == 3) ? -1 : 0;
+                continue;
+            }
+            double angle = 2 * Math.PI * k / n;
+            cos[k] = Math.cos(angle);
+            sin[k] = Math.sin(angle);
+        }
+        return new Table(cos, sin);
+    }
+}
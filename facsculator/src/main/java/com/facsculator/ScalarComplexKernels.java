@@ -0,0 +1,81 @@
+package com.facsculator;
+
+/**
+ * Implementação escalar (um elemento por iteração) de ComplexKernels.
+ * Serve como fallback quando a Vector API não está disponível e para
+ * processar as "sobras" (cauda) dos laços vetoriais.
+ */
+final class ScalarComplexKernels implements ComplexKernels {
+
+    static final ScalarComplexKernels INSTANCE = new ScalarComplexKernels();
+
+    private ScalarComplexKernels() {
+    }
+
+    @Override
+    public void sum(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        sum(ar, ai, br, bi, dr, di, 0, length);
+    }
+
+    static void sum(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int k = from; k < to; k++) {
+            dr[k] = ar[k] + br[k];
+            di[k] = ai[k] + bi[k];
+        }
+    }
+
+    @Override
+    public void multiply(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        multiply(ar, ai, br, bi, dr, di, 0, length);
+    }
+
+    static void multiply(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int k = from; k < to; k++) {
+            // Lê tudo antes de escrever, pois o destino pode ser um dos operandos
+            double a = ar[k], b = ai[k], c = br[k], d = bi[k];
+            dr[k] = a * c - b * d;
+            di[k] = a * d + b * c;
+        }
+    }
+
+    @Override
+    public void divide(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        divide(ar, ai, br, bi, dr, di, 0, length);
+    }
+
+    static void divide(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int k = from; k < to; k++) {
+            double a = ar[k], b = ai[k], c = br[k], d = bi[k];
+
+            // Mesmo denominador e mesma detecção de zero de ComplexNumber.divide
+            double denominator = c * c + d * d;
+            if (Math.abs(denominator) < 1e-9) {
+                Metrics.failure(Metrics.Failure.DIVISION_BY_ZERO);
+                throw new ArithmeticException("Divisão por número complexo zero (0+0i).");
+            }
+
+            // (a+bi) * (c-di), escrito sem o objeto intermediário do conjugado.
+            // a*c - b*(-d) e a*(-d) + b*c produzem os mesmos bits que as
+            // formas abaixo (a negação é exata e a soma é comutativa).
+            dr[k] = (a * c + b * d) / denominator;
+            di[k] = (b * c - a * d) / denominator;
+        }
+    }
+
+    @Override
+    public void magnitude(double[] ar, double[] ai, double[] dst, int length) {
+        magnitude(ar, ai, dst, 0, length);
+    }
+
+    static void magnitude(double[] ar, double[] ai, double[] dst, int from, int to) {
+        for (int k = from; k < to; k++) {
+            double a = ar[k], b = ai[k];
+            dst[k] = Math.sqrt(a * a + b * b);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
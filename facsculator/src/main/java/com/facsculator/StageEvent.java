@@ -0,0 +1,31 @@
+package com.facsculator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Evento do JDK Flight Recorder emitido por Metrics a cada etapa medida
+ * (com as métricas ligadas e o evento habilitado na gravação, ex:
+ * -XX:StartFlightRecording:settings=profile).
+ *
+ * A duração vai em um campo próprio, medida pelo mesmo System.nanoTime() do
+ * histograma; o evento é gravado no fim da etapa.
+ */
+@Name("com.facsculator.Stage")
+@Label("Etapa da Calculadora")
+@Category("Facsculator")
+@Description("Tempo de uma etapa: tokenização, análise, avaliação ou formatação.")
+@StackTrace(false)
+final class StageEvent extends jdk.jfr.Event {
+
+    @Label("Etapa")
+    String stage;
+
+    @Label("Duração")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
@@ -0,0 +1,293 @@
+package com.facsculator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Tokenizador incremental ("pull"): lê a entrada aos poucos, de um
+ * {@link Reader}, de um {@link CharBuffer} ou de um arquivo mapeado em
+ * memória, e entrega um token por vez ao Parser via {@link #next()}.
+ *
+ * Serve para expressões geradas por máquina de dezenas de megabytes, em que
+ * ter a String inteira e a List&lt;Token&gt; inteira em memória dobraria o
+ * consumo e atrasaria o primeiro resultado. Aqui, apenas uma janela limitada
+ * de caracteres fica em memória. Como o Parser não é recursivo, isso vale
+ * tanto para a forma expandida ("a0 + a1*x + a2*x**2 + ...") quanto para a
+ * forma de Horner ("a0+x*(a1+x*(a2+...))"), com um nível de parênteses por
+ * grau: uma polinomial de grau 2 milhões (20 MB) é lida, otimizada e
+ * compilada com a pilha padrão das threads.
+ *
+ * A janela é tokenizada em trechos pelo próprio {@link Tokenizer}, então os
+ * tokens, o peek/peekNext e a regra do sinal unário/binário são exatamente
+ * os de tokenize(). Um trecho só termina em um "ponto de corte seguro": logo
+ * antes de um espaço, '(', ')', '[', ']', '/' ou de um '*' que não segue outro
+ * '*'. Nenhum token atravessa esses pontos e nenhuma decisão do scanner muda
+ * ao trocar o caractere seguinte pelo fim do trecho. O tipo do último token
+ * de um trecho é repassado ao seguinte, para a regra do sinal.
+ *
+ * Se a janela enche sem nenhum ponto de corte, ela cresce até
+ * 'maxWindow' caracteres; além disso, é lançado um erro léxico.
+ * Erros léxicos informam a posição absoluta na entrada, como em tokenize(),
+ * mas surgem quando o trecho que os contém é lido (um pouco antes dos tokens
+ * anteriores a eles serem entregues).
+ *
+ * Não é thread-safe.
+ */
+public final class StreamingTokenizer implements TokenSource, Closeable {
+
+    /** Tamanho inicial da janela, em caracteres. */
+    public static final int DEFAULT_WINDOW = 8 * 1024;
+
+    /** Tamanho máximo padrão da janela (o maior trecho sem ponto de corte aceito). */
+    public static final int DEFAULT_MAX_WINDOW = 1024 * 1024;
+
+    private static final Token END_OF_FILE = new Token(TokenType.END_OF_FILE, "<EOF>");
+
+    private final Readable source;
+    private final int maxWindow;
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final TokenBuffer segment = new TokenBuffer();
+
+    /** A janela: os caracteres válidos estão em [0, filled). */
+    private char[] window;
+    private int filled = 0;
+
+    /** Visão (sem cópia) do trecho atual da janela, entregue ao Tokenizer. */
+    private CharBuffer view;
+
+    /** Posição de window[0] na entrada completa. */
+    private long offset = 0;
+
+    /** Quantos caracteres do início da janela o trecho atual ocupa. */
+    private int segmentEnd = 0;
+
+    /** Próximo token do trecho a entregar, e quantos há (sem o EOF do trecho). */
+    private int cursor = 0;
+    private int available = 0;
+
+    private TokenType previousType = null;
+    private boolean endOfInput = false;
+
+    /**
+     * @param reader A entrada (é fechada em {@link #close()}).
+     */
+    public StreamingTokenizer(Reader reader) {
+        this(reader, DEFAULT_WINDOW, DEFAULT_MAX_WINDOW);
+    }
+
+    /**
+     * @param chars A entrada; é consumida (sua posição avança) conforme os tokens são lidos.
+     */
+    public StreamingTokenizer(CharBuffer chars) {
+        this(chars, DEFAULT_WINDOW, DEFAULT_MAX_WINDOW);
+    }
+
+    /**
+     * @param source A entrada (Reader, CharBuffer ou qualquer Readable).
+     * @param initialWindow O tamanho inicial da janela, em caracteres.
+     * @param maxWindow O tamanho máximo da janela, em caracteres.
+     */
+    public StreamingTokenizer(Readable source, int initialWindow, int maxWindow) {
+        if (initialWindow < 2 || maxWindow < initialWindow) {
+            throw new IllegalArgumentException("Janela inválida: inicial " + initialWindow + ", máxima " + maxWindow);
+        }
+        this.source = source;
+        this.maxWindow = maxWindow;
+        this.window = new char[initialWindow];
+        this.view = CharBuffer.wrap(window);
+    }
+
+    /**
+     * Abre um arquivo UTF-8 mapeado em memória (em regiões, para aceitar
+     * arquivos maiores que 2 GB). Feche o tokenizador ao terminar.
+     *
+     * @param file O arquivo com a expressão.
+     * @return O tokenizador sobre o arquivo.
+     * @throws IOException Se o arquivo não puder ser aberto.
+     */
+    public static StreamingTokenizer open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new StreamingTokenizer(new MappedFileReader(channel), DEFAULT_WINDOW, DEFAULT_MAX_WINDOW);
+    }
+
+    @Override
+    public Token next() throws Exception {
+        while (cursor == available) {
+            if (!nextSegment()) {
+                return END_OF_FILE;
+            }
+        }
+        return segment.token(cursor++);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (source instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    // --- A Janela ---
+
+    /**
+     * Descarta o trecho já entregue, lê mais entrada até haver um ponto de
+     * corte e tokeniza o novo trecho.
+     *
+     * @return false se a entrada acabou.
+     */
+    private boolean nextSegment() throws Exception {
+        discardSegment();
+
+        int cut = endOfInput ? filled : lastCut();
+        while (cut <= 0 && !endOfInput) {
+            read();
+            cut = endOfInput ? filled : lastCut();
+        }
+        if (cut == 0) {
+            return false;
+        }
+
+        view.clear();
+        view.limit(cut);
+        tokenizer.reset(view, previousType, offset).tokenize(segment);
+        available = segment.size() - 1; // o EOF do trecho não é entregue
+        cursor = 0;
+        if (available > 0) {
+            previousType = segment.type(available - 1);
+        }
+        segmentEnd = cut;
+        return true;
+    }
+
+    /** Move o que sobrou depois do trecho atual para o início da janela. */
+    private void discardSegment() {
+        if (segmentEnd > 0) {
+            System.arraycopy(window, segmentEnd, window, 0, filled - segmentEnd);
+            filled -= segmentEnd;
+            offset += segmentEnd;
+            segmentEnd = 0;
+        }
+    }
+
+    /** Lê mais caracteres para a janela, crescendo-a se estiver cheia. */
+    private void read() throws Exception {
+        if (filled == window.length) {
+            if (window.length >= maxWindow) {
+                throw new Exception("Erro Léxico: Trecho sem separadores maior que a janela máxima de "
+                        + maxWindow + " caracteres na posição " + offset);
+            }
+            window = Arrays.copyOf(window, (int) Math.min((long) window.length * 2, maxWindow));
+            view = CharBuffer.wrap(window);
+        }
+        int count = source.read(CharBuffer.wrap(window, filled, window.length - filled));
+        if (count < 0) {
+            endOfInput = true;
+        } else {
+            filled += count;
+        }
+    }
+
+    /**
+     * @return O último ponto de corte seguro em (0, filled), ou -1.
+     * O caractere em 'filled' ainda não foi lido, então o fim da janela
+     * nunca é um ponto de corte (exceto no fim da entrada).
+     */
+    private int lastCut() {
+        for (int k = filled - 1; k > 0; k--) {
+            if (isCut(k)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isCut(int k) {
+        char c = window[k];
+        switch (c) {
+            case '(':
+            case ')':
+            case '[':
+            case ']':
+            case '/':
+                return true;
+            case '*':
+                return window[k - 1] != '*'; // não separa o "**"
+            default:
+                return Character.isWhitespace(c);
+        }
+    }
+
+    // --- Arquivos Mapeados ---
+
+    /**
+     * Decodifica (UTF-8) um arquivo mapeado em memória. O arquivo é mapeado
+     * em regiões de até 64 MB; cada nova região começa no primeiro byte
+     * ainda não decodificado, então sequências UTF-8 na fronteira não se perdem.
+     */
+    private static final class MappedFileReader implements Readable, Closeable {
+        private static final long REGION = 64L * 1024 * 1024;
+
+        private final FileChannel channel;
+        private final long size;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private MappedByteBuffer region;
+        private long regionStart;
+        private boolean finished = false;
+
+        MappedFileReader(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+            map(0);
+        }
+
+        @Override
+        public int read(CharBuffer target) throws IOException {
+            if (finished) {
+                return -1;
+            }
+            int start = target.position();
+            while (target.hasRemaining()) {
+                boolean last = regionStart + region.limit() == size;
+                CoderResult result = decoder.decode(region, target, last);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                if (result.isOverflow()) {
+                    break;
+                }
+                if (last) {
+                    decoder.flush(target);
+                    finished = true;
+                    break;
+                }
+                // Fim da região: continua a partir do primeiro byte não decodificado
+                map(regionStart + region.position());
+            }
+            int count = target.position() - start;
+            return count == 0 && finished ? -1 : count;
+        }
+
+        private void map(long from) throws IOException {
+            regionStart = from;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(REGION, size - from));
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -2,18 +2,36 @@ package com.facsculator;
 
 /**
  * Representa uma unidade léxica (um "token") da expressão.
- * Contém o tipo do token e seu valor (o texto original).
+ * Contém o tipo do token, seu valor (o texto original) e, para
+ * COMPLEX_NUMBER, o número já convertido pelo Tokenizer durante a leitura
+ * (partes real e imaginária), para que o Parser não precise reler o texto.
  */
 public record Token(
-    TokenType type, // O tipo (ex: COMPLEX_NUMBER)
-    String text     // O texto original (ex: "3+4i")
+    TokenType type,   // O tipo (ex: COMPLEX_NUMBER)
+    String text,      // O texto original (ex: "3+4i")
+    double real,      // A parte real (ex: 3), ou 0 se não for número
+    double imaginary  // A parte imaginária (ex: 4), ou 0 se não for número
 ) {
-    // Podemos adicionar valores opcionais depois,
-    // como o ComplexNumber já processado, mas por
-    // enquanto o texto é suficiente.
-    
+
+    /**
+     * Cria um token a partir apenas do texto. Para COMPLEX_NUMBER, o valor
+     * é obtido convertendo o texto (como o Parser fazia antes).
+     */
+    public Token(TokenType type, String text) {
+        this(type, text, type == TokenType.COMPLEX_NUMBER ? Parser.parseLiteral(text) : null);
+    }
+
+    private Token(TokenType type, String text, ComplexNumber value) {
+        this(type, text, value == null ? 0 : value.real(), value == null ? 0 : value.imaginary());
+    }
+
+    /** @return O número do token (0 se não for COMPLEX_NUMBER). */
+    public ComplexNumber value() {
+        return new ComplexNumber(real, imaginary);
+    }
+
     @Override
     public String toString() {
         return String.format("Token[%s, '%s']", type, text);
     }
-}
\ No newline at end of file
+}
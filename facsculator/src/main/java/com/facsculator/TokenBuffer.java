@@ -0,0 +1,134 @@
+package com.facsculator;
+
+import java.util.Arrays;
+
+/**
+ * Saída do modo "sem cópia" do Tokenizer: cada token é guardado apenas como
+ * um intervalo (tipo, início, fim) sobre a entrada original, em arrays
+ * primitivos que crescem sob demanda e são reaproveitados entre expressões.
+ *
+ * O texto de um token só é criado (alocado) quando {@link #text(int)} ou
+ * {@link #token(int)} é chamado. O valor de cada COMPLEX_NUMBER, já
+ * convertido pelo Tokenizer, fica em duas colunas double ({@link #real(int)}
+ * e {@link #imaginary(int)}). O último token é sempre END_OF_FILE.
+ *
+ * Um TokenBuffer não é thread-safe: use um por thread.
+ */
+public final class TokenBuffer {
+
+    /** Cache de TokenType.values(), que cria um array novo a cada chamada. */
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private CharSequence source = "";
+    private int[] types;
+    private int[] starts;
+    private int[] ends;
+    private double[] reals;
+    private double[] imaginaries;
+    private int size = 0;
+
+    /** Cria um buffer com capacidade inicial para 64 tokens. */
+    public TokenBuffer() {
+        this(64);
+    }
+
+    /**
+     * @param initialCapacity O número de tokens que cabem sem realocar.
+     */
+    public TokenBuffer(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        types = new int[capacity];
+        starts = new int[capacity];
+        ends = new int[capacity];
+        reals = new double[capacity];
+        imaginaries = new double[capacity];
+    }
+
+    // --- Preenchimento (usado pelo Tokenizer) ---
+
+    void reset(CharSequence newSource) {
+        source = newSource;
+        size = 0;
+    }
+
+    void add(TokenType type, int start, int end, double real, double imaginary) {
+        if (size == types.length) {
+            int capacity = size * 2;
+            types = Arrays.copyOf(types, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            reals = Arrays.copyOf(reals, capacity);
+            imaginaries = Arrays.copyOf(imaginaries, capacity);
+        }
+        types[size] = type.ordinal();
+        starts[size] = start;
+        ends[size] = end;
+        reals[size] = real;
+        imaginaries[size] = imaginary;
+        size++;
+    }
+
+    // --- Acesso ---
+
+    /** @return O número de tokens (incluindo o END_OF_FILE final). */
+    public int size() {
+        return size;
+    }
+
+    /** @return A entrada sobre a qual os intervalos foram gravados. */
+    public CharSequence source() {
+        return source;
+    }
+
+    /** @return O tipo do token 'index'. */
+    public TokenType type(int index) {
+        checkIndex(index);
+        return TYPES[types[index]];
+    }
+
+    /** @return O índice (inclusivo) onde o token 'index' começa na entrada. */
+    public int start(int index) {
+        checkIndex(index);
+        return starts[index];
+    }
+
+    /** @return O índice (exclusivo) onde o token 'index' termina na entrada. */
+    public int end(int index) {
+        checkIndex(index);
+        return ends[index];
+    }
+
+    /** @return A parte real do token 'index' (0 se não for COMPLEX_NUMBER). */
+    public double real(int index) {
+        checkIndex(index);
+        return reals[index];
+    }
+
+    /** @return A parte imaginária do token 'index' (0 se não for COMPLEX_NUMBER). */
+    public double imaginary(int index) {
+        checkIndex(index);
+        return imaginaries[index];
+    }
+
+    /**
+     * Materializa o texto do token 'index' (o mesmo de Token.text()).
+     * Operadores e símbolos devolvem constantes; números e identificadores
+     * alocam uma nova String.
+     */
+    public String text(int index) {
+        TokenType type = type(index);
+        String fixed = Tokenizer.fixedText(type);
+        return fixed != null ? fixed : source.subSequence(starts[index], ends[index]).toString();
+    }
+
+    /** @return O token 'index' como um Token (aloca o objeto e, se preciso, o texto). */
+    public Token token(int index) {
+        return new Token(type(index), text(index), reals[index], imaginaries[index]);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Token " + index + " fora do intervalo [0, " + size + ")");
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.facsculator;
+
+/**
+ * Uma fonte de tokens consumida um a um pelo Parser.
+ * Permite que o Parser trabalhe tanto sobre uma List&lt;Token&gt; já pronta
+ * quanto sobre um StreamingTokenizer, que só lê a entrada conforme os
+ * tokens são pedidos.
+ */
+public interface TokenSource {
+
+    /**
+     * Retorna o próximo token. Depois do fim da entrada, retorna sempre
+     * um token END_OF_FILE.
+     *
+     * @return O próximo token.
+     * @throws Exception Em caso de erro léxico (ou de leitura da entrada).
+     */
+    Token next() throws Exception;
+}
@@ -19,6 +19,12 @@ public enum TokenType {
     // --- Funções (Vamos adicioná-las) ---
     CONJUGATE,      // conj(expressao)
     ROOT,           // root[n](expressao)
+    EXP,            // exp(expressao)
+    LOG,            // log(expressao)
+    SIN,            // sin(expressao)
+    COS,            // cos(expressao)
+    SINH,           // sinh(expressao)
+    COSH,           // cosh(expressao)
 
     // --- Símbolos ---
     LEFT_PAREN,     // (
@@ -10,15 +10,49 @@ import java.util.List;
  *
  * Esta é uma implementação de "Tokenizer Inteligente", que tenta
  * agrupar números complexos inteiros (ex: "5.5-2i") em um único token.
+ *
+ * Há dois modos de saída, que compartilham o mesmo scanner:
+ * <ul>
+ *   <li>{@link #tokenize()}: a List&lt;Token&gt; tradicional, com o texto de cada token.</li>
+ *   <li>{@link #tokenize(TokenBuffer)}: apenas os intervalos (tipo, início, fim) de cada
+ *       token, gravados em arrays primitivos sobre a entrada original. Nenhum texto
+ *       é copiado; combinado com {@link #reset(CharSequence)}, uma única instância
+ *       e um único buffer podem tokenizar milhões de expressões sem alocar.</li>
+ * </ul>
  */
 public class Tokenizer {
 
-    /** A string de expressão completa que está sendo analisada. */
-    private final String input;
+    /** A expressão completa que está sendo analisada. */
+    private CharSequence input;
 
-    /** O ponteiro (índice) da nossa posição de leitura atual na string 'input'. */
+    /** O ponteiro (índice) da nossa posição de leitura atual na 'input'. */
     private int position = 0;
 
+    /** O índice onde começa o token que está sendo lido. */
+    private int tokenStart = 0;
+
+    /** O tipo do último token emitido (null no início), usado pela regra do sinal. */
+    private TokenType previousType = null;
+
+    /** Posição de 'input' dentro da entrada completa (não-zero apenas em trechos do StreamingTokenizer). */
+    private long baseOffset = 0;
+
+    /** O valor do último COMPLEX_NUMBER lido, calculado pelo scanNumber durante a leitura. */
+    private double numberReal = 0;
+    private double numberImaginary = 0;
+
+    /** Se o último scanDecimal() encontrou algum dígito. */
+    private boolean scannedDigits = false;
+
+    /**
+     * Potências de 10 representadas exatamente em double (10^0 a 10^22),
+     * usadas no caminho rápido de scanDecimal().
+     */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
     /**
      * Construtor do Tokenizer.
      * @param input A string de expressão a ser tokenizada.
@@ -27,6 +61,39 @@ public class Tokenizer {
         this.input = input;
     }
 
+    /**
+     * Cria um Tokenizer sem entrada, para ser reutilizado com {@link #reset(CharSequence)}.
+     */
+    public Tokenizer() {
+        this("");
+    }
+
+    /**
+     * Reinicia o Tokenizer sobre uma nova entrada, sem alocar uma nova instância.
+     *
+     * @param newInput A nova expressão (String, StringBuilder, CharBuffer...).
+     * @return Este mesmo Tokenizer, para encadear com tokenize().
+     */
+    public Tokenizer reset(CharSequence newInput) {
+        return reset(newInput, null, 0);
+    }
+
+    /**
+     * Reinicia o Tokenizer sobre um trecho de uma entrada maior (usado pelo
+     * StreamingTokenizer). 'previous' é o tipo do último token do trecho
+     * anterior, para que a regra do sinal unário/binário continue valendo
+     * entre trechos; 'offset' é a posição do trecho na entrada completa,
+     * para que os erros informem a posição absoluta.
+     */
+    Tokenizer reset(CharSequence segment, TokenType previous, long offset) {
+        this.input = segment;
+        this.position = 0;
+        this.tokenStart = 0;
+        this.previousType = previous;
+        this.baseOffset = offset;
+        return this;
+    }
+
     /**
      * Consome a string de entrada, caractere por caractere, e retorna a lista
      * de tokens reconhecidos.
@@ -36,90 +103,164 @@ public class Tokenizer {
      * for encontrada.
      */
     public List<Token> tokenize() throws Exception {
+        long start = Metrics.start();
         List<Token> tokensList = new ArrayList<>();
 
-        while (position < input.length()) {
-            char current = peek(); // Pega o caractere atual
+        TokenType type;
+        while ((type = nextToken()) != TokenType.END_OF_FILE) {
+            String text = text(type, tokenStart, position);
+            tokensList.add(type == TokenType.COMPLEX_NUMBER
+                    ? new Token(type, text, numberReal, numberImaginary)
+                    : new Token(type, text, 0, 0));
+        }
+
+        // Adiciona um token final para marcar o fim da expressão.
+        // Isso facilita a vida do Parser.
+        tokensList.add(new Token(TokenType.END_OF_FILE, "<EOF>"));
+        Metrics.stop(Metrics.Stage.TOKENIZE, start);
+        return tokensList;
+    }
 
-            if (Character.isWhitespace(current)) {
-                // 1. Pular espaços em branco
-                advance(); // Apenas consome e continua
-                continue;
+    /**
+     * Tokeniza a entrada gravando apenas os intervalos de cada token em 'buffer'
+     * (que é limpo antes). O último intervalo é sempre END_OF_FILE, vazio, no
+     * fim da entrada. Depois de o buffer atingir a capacidade necessária,
+     * nenhuma alocação é feita.
+     *
+     * @param buffer O buffer que recebe os tokens.
+     * @throws Exception Se um caractere inválido for encontrado (mesma mensagem de tokenize()).
+     */
+    public void tokenize(TokenBuffer buffer) throws Exception {
+        long start = Metrics.start();
+        buffer.reset(input);
+        TokenType type;
+        do {
+            type = nextToken();
+            if (type == TokenType.COMPLEX_NUMBER) {
+                buffer.add(type, tokenStart, position, numberReal, numberImaginary);
+            } else {
+                buffer.add(type, tokenStart, position, 0, 0);
             }
+        } while (type != TokenType.END_OF_FILE);
+        Metrics.stop(Metrics.Stage.TOKENIZE, start);
+    }
 
-            // 2. Tentar ler um número complexo
-            // (ex: "3+4i", "5.5", ".5", "-i", "+3")
-            // Inicia se for dígito, ponto (seguido de dígito), ou sinal
-            if (Character.isDigit(current) || (current == '.' && Character.isDigit(peekNext()))) {
-                tokensList.add(scanNumber());
-            } 
-            else if (current == '+' || current == '-') {
-                // Verifica se o sinal é unário (início de número) ou binário (operação)
-                boolean isSign = 
-                tokensList.isEmpty() || // Posição inicial
-                tokensList.get(tokensList.size() - 1).type() == TokenType.LEFT_PAREN || // Se o sinal está após um '('
-                isOperator(tokensList.get(tokensList.size() - 1).type()); // Se o sinal está após outro operador.
-                
-                if (isSign && (Character.isDigit(peekNext()) || peekNext() == 'i')) {
-                    // É um sinal no início de um número (ex: -5, +i)
-                    tokensList.add(scanNumber());
-                } else {
-                    // É um operador de soma/subtração
-                    tokensList.add(new Token(current == '+' ? TokenType.PLUS : TokenType.MINUS, String.valueOf(current)));
-                    advance();
-                }
+    // --- O Scanner ---
+
+    /**
+     * Lê o próximo token a partir de 'position'. Ao retornar, o token ocupa
+     * o intervalo [tokenStart, position) da entrada.
+     *
+     * @return O tipo do token lido (END_OF_FILE no fim da entrada).
+     * @throws Exception Se um caractere inválido for encontrado.
+     */
+    private TokenType nextToken() throws Exception {
+        // 1. Pular espaços em branco
+        while (position < input.length() && Character.isWhitespace(peek())) {
+            advance(); // Apenas consome e continua
+        }
+        tokenStart = position;
+        if (position >= input.length()) {
+            return TokenType.END_OF_FILE;
+        }
+        TokenType type = scanToken(peek());
+        Metrics.token(type);
+        previousType = type;
+        return type;
+    }
+
+    private TokenType scanToken(char current) throws Exception {
+        // 2. Tentar ler um número complexo
+        // (ex: "3+4i", "5.5", ".5", "-i", "+3")
+        // Inicia se for dígito, ponto (seguido de dígito), ou sinal
+        if (isDigit(current) || (current == '.' && isDigit(peekNext()))) {
+            return scanNumber();
+        }
+        if (current == '+' || current == '-') {
+            // Verifica se o sinal é unário (início de número) ou binário (operação)
+            boolean isSign =
+            previousType == null || // Posição inicial
+            previousType == TokenType.LEFT_PAREN || // Se o sinal está após um '('
+            isOperator(previousType); // Se o sinal está após outro operador.
+
+            if (isSign && (isDigit(peekNext()) || peekNext() == 'i')) {
+                // É um sinal no início de um número (ex: -5, +i)
+                return scanNumber();
             }
-            // 3. Operadores e Símbolos
-            else if (current == '*') {
-                if (peekNext() == '*') {
+            // É um operador de soma/subtração
+            advance();
+            return current == '+' ? TokenType.PLUS : TokenType.MINUS;
+        }
+
+        // 3. Operadores e Símbolos
+        switch (current) {
+            case '*':
+                advance(); // Consome o primeiro '*'
+                if (peek() == '*') {
                     // É ** (potência)
-                    advance(); // Consome o primeiro '*'
                     advance(); // Consome o segundo '*'
-                    tokensList.add(new Token(TokenType.POWER, "**"));
-                } else {
-                    // É * (multiplicação)
-                    tokensList.add(new Token(TokenType.MULTIPLY, "*"));
-                    advance();
+                    return TokenType.POWER;
                 }
-            } 
-            else if (current == '/') {
-                tokensList.add(new Token(TokenType.DIVIDE, "/"));
+                // É * (multiplicação)
+                return TokenType.MULTIPLY;
+            case '/':
                 advance();
-            } 
-            else if (current == '(') {
-                tokensList.add(new Token(TokenType.LEFT_PAREN, "("));
+                return TokenType.DIVIDE;
+            case '(':
                 advance();
-            } 
-            else if (current == ')') {
-                tokensList.add(new Token(TokenType.RIGHT_PAREN, ")"));
+                return TokenType.LEFT_PAREN;
+            case ')':
                 advance();
-            }
-            else if (current == '[') {
-                tokensList.add(new Token(TokenType.LEFT_BRACKET, "["));
+                return TokenType.RIGHT_PAREN;
+            case '[':
                 advance();
-            }
-            else if (current == ']') {
-                tokensList.add(new Token(TokenType.RIGHT_BRACKET, "]"));
+                return TokenType.LEFT_BRACKET;
+            case ']':
                 advance();
-            }
+                return TokenType.RIGHT_BRACKET;
+            default:
+                break;
+        }
 
-            // 4. Identificadores (Variáveis ou Funções)
-            else if (Character.isLetter(current)) {
-                // Pode ser 'x', 'conj', 'root', ou 'i'
-                tokensList.add(scanIdentifier());
-            }
-            
-            // 5. Erro - Caractere Desconhecido
-            else {
-                // Retorna uma exceção de erro de tokenização
-                throw new Exception("Erro Léxico: Caractere inesperado '" + current + "' na posição " + position);
-            }
+        // 4. Identificadores (Variáveis ou Funções)
+        if (Character.isLetter(current)) {
+            // Pode ser 'x', 'conj', 'root', ou 'i'
+            return scanIdentifier();
         }
 
-        // Adiciona um token final para marcar o fim da expressão.
-        // Isso facilita a vida do Parser.
-        tokensList.add(new Token(TokenType.END_OF_FILE, "<EOF>"));
-        return tokensList;
+        // 5. Erro - Caractere Desconhecido
+        // Retorna uma exceção de erro de tokenização
+        Metrics.failure(Metrics.Failure.LEXICAL);
+        throw new Exception("Erro Léxico: Caractere inesperado '" + current + "' na posição " + (baseOffset + position));
+    }
+
+    /**
+     * Materializa o texto de um token. Operadores e símbolos usam constantes
+     * (sem alocação); números e identificadores copiam o trecho da entrada.
+     */
+    private String text(TokenType type, int start, int end) {
+        String fixed = fixedText(type);
+        return fixed != null ? fixed : input.subSequence(start, end).toString();
+    }
+
+    /**
+     * @return O texto constante de um operador/símbolo, ou null para
+     * tokens cujo texto depende da entrada (números, variáveis, funções).
+     */
+    static String fixedText(TokenType type) {
+        switch (type) {
+            case PLUS:          return "+";
+            case MINUS:         return "-";
+            case MULTIPLY:      return "*";
+            case DIVIDE:        return "/";
+            case POWER:         return "**";
+            case LEFT_PAREN:    return "(";
+            case RIGHT_PAREN:   return ")";
+            case LEFT_BRACKET:  return "[";
+            case RIGHT_BRACKET: return "]";
+            case END_OF_FILE:   return "<EOF>";
+            default:            return null;
+        }
     }
 
     // --- Métodos Auxiliares de Leitura (Helpers) ---
@@ -176,101 +317,184 @@ public class Tokenizer {
                type == TokenType.POWER;
     }
 
+    /**
+     * Verifica, sem criar uma substring, se o trecho [start, position)
+     * da entrada é exatamente a palavra 'keyword'.
+     */
+    private boolean spanEquals(int start, String keyword) {
+        if (position - start != keyword.length()) {
+            return false;
+        }
+        for (int k = 0; k < keyword.length(); k++) {
+            if (input.charAt(start + k) != keyword.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     // --- Métodos Auxiliares de Tokenização (Scanners) ---
 
     /**
      * Lê um identificador (variável ou palavra-chave de função).
      * Começa com uma letra, pode ser seguido por letras ou números.
      */
-    private Token scanIdentifier() {
+    private TokenType scanIdentifier() {
         int start = position; // Marca o início
 
         // Avança enquanto for uma letra ou dígito (padrão de variável)
         while (Character.isLetterOrDigit(peek())) {
             advance();
         }
-        String text = input.substring(start, position);
 
         // Verifica se é uma palavra-chave (função) ou o 'i' especial
-        switch (text) {
-            case "conj": return new Token(TokenType.CONJUGATE, text);
-            case "root": return new Token(TokenType.ROOT, text);
-            case "i":    return new Token(TokenType.COMPLEX_NUMBER, "i"); // 'i' é o número 0+1i
-            default:     return new Token(TokenType.VARIABLE, text); // Senão, é uma variável
-        }
+        if (spanEquals(start, "conj")) return TokenType.CONJUGATE;
+        if (spanEquals(start, "root")) return TokenType.ROOT;
+        if (spanEquals(start, "exp"))  return TokenType.EXP;
+        if (spanEquals(start, "log"))  return TokenType.LOG;
+        if (spanEquals(start, "sin"))  return TokenType.SIN;
+        if (spanEquals(start, "cos"))  return TokenType.COS;
+        if (spanEquals(start, "sinh")) return TokenType.SINH;
+        if (spanEquals(start, "cosh")) return TokenType.COSH;
+        if (spanEquals(start, "i"))    return number(0, 1); // 'i' é o número 0+1i
+        return TokenType.VARIABLE; // Senão, é uma variável
     }
 
     /**
      * Lê um número, que pode ser um real (5, 5.5) ou um complexo (3+4i, -i).
      * Este é o método mais complexo do Tokenizer.
+     * O token lido ocupa o intervalo [tokenStart, position) e seu valor fica
+     * em numberReal/numberImaginary, calculado na mesma passada.
      */
-    private Token scanNumber() {
-        int start = position;
-
+    private TokenType scanNumber() throws Exception {
         // 1. Lidar com o sinal inicial (opcional)
+        boolean negative = false;
         if (peek() == '+' || peek() == '-') {
-            advance();
+            negative = advance() == '-';
         }
 
-        // 2. Ler a parte numérica (antes do 'i' ou sinal)
-        boolean hasDigits = false;
-        while (Character.isDigit(peek())) {
-            advance();
-            hasDigits = true;
+        // 2 e 3. Ler a parte numérica, com a parte decimal (ex: 5, 5.5, .5)
+        double value = scanDecimal();
+        boolean hasDigits = scannedDigits;
+        if (negative) {
+            value = -value;
         }
-        
-        // 3. Lidar com a parte decimal (ex: 5.5)
-        if (peek() == '.') {
-            advance(); // Consome o '.'
-            while (Character.isDigit(peek())) {
-                advance();
-                hasDigits = true;
-            }
-        }
-        
+
         // 4. Lidar com a parte imaginária (ex: +4i, -i, +i)
         if (peek() == '+' || peek() == '-') {
             // Se o que lemos até agora foi SÓ um sinal (ex: "-"),
             // e o próximo é 'i', então é um número (ex: "-i")
             if (!hasDigits && peekNext() == 'i') {
-                advance(); // Consome o sinal
+                double unit = advance() == '-' ? -1 : 1; // Consome o sinal
                 advance(); // Consome o 'i'
-                return new Token(TokenType.COMPLEX_NUMBER, input.substring(start, position));
+                return number(0, unit);
             }
-            
+
             // Se o que vem depois do sinal é um dígito ou '.',
             // então é a parte numérica do imaginário
-            if (Character.isDigit(peekNext()) || peekNext() == '.') {
-                advance(); // Consome o sinal (+ ou -)
+            if (isDigit(peekNext()) || peekNext() == '.') {
+                int signPosition = position; // Marca o sinal, caso precise voltar
+                boolean imaginaryNegative = advance() == '-'; // Consome o sinal (+ ou -)
+
+                // Consome a parte numérica do imaginário (com decimal)
+                double imaginary = scanDecimal();
 
-                // Consome a parte numérica do imaginário
-                while (Character.isDigit(peek())) {
-                    advance();
+                // Sem o 'i' final não era a parte imaginária (ex: "3+4*2").
+                // Volta para o sinal, que será lido como operador binário,
+                // senão "3+4" viraria um único número e quebraria a precedência.
+                if (peek() != 'i') {
+                    position = signPosition;
+                    return number(value, 0);
                 }
-                if (peek() == '.') { // Lida com decimal no imaginário
-                    advance();
-                    while (Character.isDigit(peek())) {
-                        advance();
-                    }
+                if (!scannedDigits) {
+                    // Ex: "3+.i": há um ponto, mas nenhum dígito no coeficiente
+                    Metrics.failure(Metrics.Failure.LEXICAL);
+                    throw new Exception("Erro Léxico: Número malformado '"
+                            + input.subSequence(tokenStart, position + 1) + "' na posição " + (baseOffset + tokenStart));
                 }
+                advance(); // Consome o 'i'
+                return number(value, imaginaryNegative ? -imaginary : imaginary);
             } else {
                  // É um número real seguido por um operador '+' ou '-'
                  // Ex: 5+x. O 5 já foi lido.
-                 return new Token(TokenType.COMPLEX_NUMBER, input.substring(start, position));
+                 return number(value, 0);
             }
         }
 
         // 5. Consome o 'i' final (se houver)
         if (peek() == 'i') {
-            // Se não lemos nenhum dígito (ex: "i", "+i", "-i")
-            if (!hasDigits && (position == start || position == start + 1)) {
-                 // Não faça nada aqui, pois o scanIdentifier cuidará do "i"
-                 // Mas se for "+i" ou "-i", já foi pego acima.
-            }
             advance(); // Consome o 'i'
+            // Sem dígitos (ex: "+i", "-i") o coeficiente é 1 ou -1
+            return number(0, hasDigits ? value : (negative ? -1 : 1));
+        }
+
+        // O token é o trecho [start, position) da entrada
+        return number(value, 0);
+    }
+
+    /**
+     * Dígito ASCII ('0' a '9'). Character.isDigit aceitaria outros dígitos
+     * Unicode (ex: '٣', '５'), que o cálculo 'c - '0'' converteria em valores
+     * errados; eles caem no erro de caractere inesperado.
+     */
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Lê a parte "ddd[.ddd]" de um número (sem sinal) e retorna seu valor.
+     * Os dígitos são acumulados em um long enquanto são lidos: com até 15
+     * dígitos significativos e até 22 casas decimais, o valor é uma única
+     * divisão de dois doubles exatos, e portanto corretamente arredondado.
+     * Fora disso (raro), o trecho é convertido por Double.parseDouble.
+     * Define 'scannedDigits'.
+     */
+    private double scanDecimal() {
+        int start = position;
+        long mantissa = 0;
+        int digits = 0;
+        int significant = 0; // dígitos a partir do primeiro diferente de zero
+        int decimals = 0;
+
+        while (isDigit(peek())) {
+            int digit = advance() - '0';
+            digits++;
+            if (mantissa != 0 || digit != 0) {
+                significant++;
+            }
+            if (significant <= 18) {
+                mantissa = mantissa * 10 + digit;
+            }
+        }
+        if (peek() == '.') {
+            advance(); // Consome o '.'
+            while (isDigit(peek())) {
+                int digit = advance() - '0';
+                digits++;
+                decimals++;
+                if (mantissa != 0 || digit != 0) {
+                    significant++;
+                }
+                if (significant <= 18) {
+                    mantissa = mantissa * 10 + digit;
+                }
+            }
         }
 
-        // Retorna o token com o texto completo do número
-        return new Token(TokenType.COMPLEX_NUMBER, input.substring(start, position));
+        scannedDigits = digits > 0;
+        if (!scannedDigits) {
+            return 0;
+        }
+        if (significant <= 15 && decimals < POWERS_OF_TEN.length) {
+            return mantissa / POWERS_OF_TEN[decimals];
+        }
+        return Double.parseDouble(input.subSequence(start, position).toString());
+    }
+
+    /** Grava o valor do número lido e retorna COMPLEX_NUMBER. */
+    private TokenType number(double real, double imaginary) {
+        numberReal = real;
+        numberImaginary = imaginary;
+        return TokenType.COMPLEX_NUMBER;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package com.facsculator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementação SIMD de ComplexKernels usando a Vector API (jdk.incubator.vector).
+ *
+ * Processa SPECIES_PREFERRED.length() elementos por iteração (4 em AVX2,
+ * 8 em AVX-512). As operações por lane são as mesmas (e na mesma ordem) do
+ * laço escalar, sem FMA, então os resultados são idênticos bit a bit.
+ * A cauda que não completa um vetor é processada pelo laço escalar.
+ *
+ * Esta classe só pode ser carregada com o módulo incubado presente;
+ * por isso ela é obtida via reflexão em KernelSelection (ComplexKernels.java).
+ */
+final class VectorComplexKernels implements ComplexKernels {
+
+    static final VectorComplexKernels INSTANCE = new VectorComplexKernels();
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorComplexKernels() {
+    }
+
+    @Override
+    public void sum(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, ar, k);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, ai, k);
+            DoubleVector c = DoubleVector.fromArray(SPECIES, br, k);
+            DoubleVector d = DoubleVector.fromArray(SPECIES, bi, k);
+            a.add(c).intoArray(dr, k);
+            b.add(d).intoArray(di, k);
+        }
+        ScalarComplexKernels.sum(ar, ai, br, bi, dr, di, k, length);
+    }
+
+    @Override
+    public void multiply(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, ar, k);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, ai, k);
+            DoubleVector c = DoubleVector.fromArray(SPECIES, br, k);
+            DoubleVector d = DoubleVector.fromArray(SPECIES, bi, k);
+            // Calcula as duas partes antes de gravar (o destino pode ser um operando)
+            DoubleVector re = a.mul(c).sub(b.mul(d));
+            DoubleVector im = a.mul(d).add(b.mul(c));
+            re.intoArray(dr, k);
+            im.intoArray(di, k);
+        }
+        ScalarComplexKernels.multiply(ar, ai, br, bi, dr, di, k, length);
+    }
+
+    @Override
+    public void divide(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int length) {
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector c = DoubleVector.fromArray(SPECIES, br, k);
+            DoubleVector d = DoubleVector.fromArray(SPECIES, bi, k);
+            DoubleVector denominator = c.mul(c).add(d.mul(d));
+
+            // Algum divisor zero neste bloco: o laço escalar grava os elementos
+            // anteriores a ele e lança a exceção no elemento exato
+            VectorMask<Double> zero = denominator.abs().compare(VectorOperators.LT, 1e-9);
+            if (zero.anyTrue()) {
+                ScalarComplexKernels.divide(ar, ai, br, bi, dr, di, k, length);
+                return;
+            }
+
+            DoubleVector a = DoubleVector.fromArray(SPECIES, ar, k);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, ai, k);
+            DoubleVector re = a.mul(c).add(b.mul(d)).div(denominator);
+            DoubleVector im = b.mul(c).sub(a.mul(d)).div(denominator);
+            re.intoArray(dr, k);
+            im.intoArray(di, k);
+        }
+        ScalarComplexKernels.divide(ar, ai, br, bi, dr, di, k, length);
+    }
+
+    @Override
+    public void magnitude(double[] ar, double[] ai, double[] dst, int length) {
+        int k = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; k < bound; k += SPECIES.length()) {
+            DoubleVector a = DoubleVector.fromArray(SPECIES, ar, k);
+            DoubleVector b = DoubleVector.fromArray(SPECIES, ai, k);
+            a.mul(a).add(b.mul(b)).lanewise(VectorOperators.SQRT).intoArray(dst, k);
+        }
+        ScalarComplexKernels.magnitude(ar, ai, dst, k, length);
+    }
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+}
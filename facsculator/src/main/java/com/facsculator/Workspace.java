@@ -0,0 +1,423 @@
+package com.facsculator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Um conjunto de expressões com nome que dependem umas das outras pelas
+ * suas variáveis (ex: a = (6+2i)*y, b = a / (1+i**2), c = a * conj(b)),
+ * reavaliado de forma incremental.
+ *
+ * <ul>
+ *   <li><b>Grafo:</b> cada nome é uma entrada (set) ou uma fórmula (define);
+ *       as variáveis de uma fórmula são as arestas do grafo de dependências,
+ *       que deve ser acíclico (define() rejeita ciclos, como a = b + 1 e
+ *       b = a * 2).</li>
+ *   <li><b>Atualização:</b> update() reavalia só as fórmulas afetadas pelas
+ *       entradas e definições alteradas desde a última atualização, em ordem
+ *       topológica (por nível). Uma fórmula cujo resultado não mudou não
+ *       propaga a mudança para as que dependem dela.</li>
+ *   <li><b>Memorização:</b> cada fórmula guarda seus registradores
+ *       (CompiledExpression); ao reavaliar, só as instruções que dependem
+ *       das variáveis que mudaram são executadas
+ *       (CompiledExpression.evaluateChanged).</li>
+ *   <li><b>Paralelismo:</b> as fórmulas afetadas de um mesmo nível não
+ *       dependem umas das outras e são reavaliadas no ForkJoinPool (a partir
+ *       de {@link #PARALLEL_GRAIN} fórmulas por nível).</li>
+ * </ul>
+ *
+ * Um erro de avaliação (divisão por zero, expoente não real) ou uma variável
+ * sem definição fica guardado na fórmula e é repassado às que dependem dela;
+ * value() lança a exceção correspondente.
+ *
+ * Instâncias não são thread-safe: as alterações e update() devem vir de uma
+ * thread por vez.
+ */
+public final class Workspace {
+
+    /** Fórmulas de um nível por tarefa do ForkJoinPool. */
+    public static final int PARALLEL_GRAIN = 32;
+
+    /**
+     * O resultado de uma chamada de update().
+     *
+     * @param formulas O número de fórmulas do workspace.
+     * @param recomputed As fórmulas reavaliadas.
+     * @param instructions As instruções que existem nas fórmulas do workspace.
+     * @param executed As instruções executadas.
+     * @param nanos O tempo da atualização.
+     */
+    public record Update(int formulas, int recomputed, long instructions, long executed, long nanos) {
+
+        /** @return As fórmulas que não precisaram ser reavaliadas. */
+        public int reused() {
+            return formulas - recomputed;
+        }
+
+        /** @return A fração das instruções que não foi executada (0 a 1), em relação a reavaliar tudo. */
+        public double avoided() {
+            return instructions == 0 ? 0 : 1 - (double) executed / instructions;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d de %d fórmulas reavaliadas, %d de %d instruções (%.1f%% evitado) em %.3f ms",
+                    recomputed, formulas, executed, instructions, 100 * avoided(), nanos / 1e6);
+        }
+    }
+
+    /** Um nome do workspace: entrada, fórmula ou apenas referenciado (sem definição). */
+    private static final class Node {
+        final String name;
+        String source;               // null para entradas e nomes sem definição
+        CompiledExpression compiled; // null para entradas e nomes sem definição
+        boolean defined;
+        Node[] inputs = new Node[0];    // o nó de cada variável de 'compiled'
+        final List<Node> dependents = new ArrayList<>();
+        int level;
+
+        double real;
+        double imaginary;
+        RuntimeException error;
+
+        // Estado da próxima atualização
+        boolean queued;
+        boolean full = true;  // reavaliar o programa inteiro (nova definição, ou depois de um erro)
+        long changed;         // as variáveis que mudaram (bits de CompiledExpression.variableBit)
+        double newReal;       // novo valor de uma entrada
+        double newImaginary;
+
+        // Registradores e resultado da última avaliação
+        double[] varReal;
+        double[] varImaginary;
+        double[] regReal;
+        double[] regImaginary;
+        boolean modified;
+        int executed;
+
+        Node(String name) {
+            this.name = name;
+            this.error = new IllegalArgumentException("Variável não definida: " + name);
+        }
+    }
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final List<Node> queue = new ArrayList<>();
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final ForkJoinPool pool;
+    private int formulas;
+    private long instructions;
+
+    /** Usa o ForkJoinPool.commonPool(). */
+    public Workspace() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /** @param pool O pool que reavalia as fórmulas de um mesmo nível (null: sempre sequencial). */
+    public Workspace(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // --- Definições ---
+
+    /**
+     * Define (ou redefine) uma entrada. O novo valor só é propagado no próximo update().
+     *
+     * @param name O nome (um token VARIABLE, ex: "y").
+     * @param value O valor.
+     * @throws Exception se o nome não for uma variável válida.
+     */
+    public void set(String name, ComplexNumber value) throws Exception {
+        Node node = node(checkName(name));
+        if (node.compiled != null) {
+            replaceFormula(node, null, null);
+            computeLevels();
+        }
+        node.defined = true;
+        node.newReal = value.real();
+        node.newImaginary = value.imaginary();
+        enqueue(node);
+    }
+
+    /**
+     * Define (ou redefine) uma fórmula sobre os outros nomes. Nomes ainda não
+     * definidos podem ser usados: até serem definidos, a fórmula fica com o
+     * erro "Variável não definida".
+     *
+     * @param name O nome (um token VARIABLE, ex: "a").
+     * @param expression A expressão (ex: "(6+2i) * y").
+     * @throws Exception Em caso de erro léxico ou sintático, de nome inválido.
+     * @throws IllegalArgumentException se a fórmula criar um ciclo de dependências.
+     */
+    public void define(String name, String expression) throws Exception {
+        Node node = node(checkName(name));
+        CompiledExpression compiled = CompiledExpression.compile(expression);
+        Node[] inputs = new Node[compiled.variables().size()];
+        for (int v = 0; v < inputs.length; v++) {
+            inputs[v] = node(compiled.variables().get(v));
+        }
+        List<String> cycle = findPath(inputs, node, Collections.newSetFromMap(new IdentityHashMap<>()));
+        if (cycle != null) {
+            cycle.add(0, name);
+            throw new IllegalArgumentException("Dependência circular: " + String.join(" -> ", cycle) + ".");
+        }
+        replaceFormula(node, expression, compiled);
+        node.inputs = inputs;
+        for (Node input : inputs) {
+            input.dependents.add(node);
+        }
+        node.defined = true;
+        node.varReal = new double[inputs.length];
+        node.varImaginary = new double[inputs.length];
+        node.regReal = new double[compiled.size()];
+        node.regImaginary = new double[compiled.size()];
+        node.full = true;
+        enqueue(node);
+        computeLevels();
+    }
+
+    /** Troca a fórmula de um nó (null: vira entrada), desfazendo as arestas antigas. */
+    private void replaceFormula(Node node, String source, CompiledExpression compiled) {
+        if (node.compiled != null) {
+            formulas--;
+            instructions -= node.compiled.size();
+        }
+        for (Node input : node.inputs) {
+            input.dependents.remove(node);
+        }
+        node.inputs = new Node[0];
+        node.source = source;
+        node.compiled = compiled;
+        if (compiled != null) {
+            formulas++;
+            instructions += compiled.size();
+        } else {
+            node.varReal = node.varImaginary = node.regReal = node.regImaginary = null;
+            node.level = 0;
+        }
+    }
+
+    /**
+     * @return O caminho de um dos 'inputs' até 'target' pelas entradas das
+     * fórmulas, ou null ('visited' evita repetir os nós já explorados).
+     */
+    private static List<String> findPath(Node[] inputs, Node target, Set<Node> visited) {
+        for (Node input : inputs) {
+            if (input == target) {
+                return new ArrayList<>(List.of(target.name));
+            }
+            if (!visited.add(input)) {
+                continue;
+            }
+            List<String> path = findPath(input.inputs, target, visited);
+            if (path != null) {
+                path.add(0, input.name);
+                return path;
+            }
+        }
+        return null;
+    }
+
+    /** Nível de cada nó: 0 para entradas, 1 + o maior nível das entradas para fórmulas. */
+    private void computeLevels() {
+        for (Node node : nodes.values()) {
+            node.level = -1;
+        }
+        for (Node node : nodes.values()) {
+            level(node);
+        }
+    }
+
+    private static int level(Node node) {
+        if (node.level < 0) {
+            int level = 0;
+            for (Node input : node.inputs) {
+                level = Math.max(level, level(input) + 1);
+            }
+            node.level = level;
+        }
+        return node.level;
+    }
+
+    /** Garante que 'name' seja uma única variável (não um número, função ou 'i'). */
+    private String checkName(String name) throws Exception {
+        List<Token> tokens = tokenizer.reset(name).tokenize();
+        if (tokens.size() != 2 || tokens.get(0).type() != TokenType.VARIABLE) {
+            throw new Exception("Erro Sintático: '" + name + "' não é um nome de variável válido.");
+        }
+        return tokens.get(0).text();
+    }
+
+    private Node node(String name) {
+        return nodes.computeIfAbsent(name, Node::new);
+    }
+
+    private void enqueue(Node node) {
+        if (!node.queued) {
+            node.queued = true;
+            queue.add(node);
+        }
+    }
+
+    // --- Atualização ---
+
+    /**
+     * Propaga as alterações feitas desde a última atualização.
+     *
+     * @return Quantas fórmulas e instruções foram reavaliadas e quanto foi evitado.
+     */
+    public Update update() {
+        long start = System.nanoTime();
+        List<List<Node>> levels = new ArrayList<>();
+        for (Node node : queue) {
+            schedule(levels, node);
+        }
+        queue.clear();
+
+        int recomputed = 0;
+        long executed = 0;
+        for (int l = 0; l < levels.size(); l++) {
+            List<Node> level = levels.get(l);
+            int size = level.size();
+            ParallelLoops.forRange(size >= 2 * PARALLEL_GRAIN ? pool : null, 0, size, PARALLEL_GRAIN, (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    evaluate(level.get(i));
+                }
+            });
+            // Sequencial: marca as variáveis alteradas das fórmulas dos níveis seguintes
+            for (Node node : level) {
+                node.queued = false;
+                if (node.compiled != null) {
+                    recomputed++;
+                    executed += node.executed;
+                }
+                if (node.modified) {
+                    for (Node dependent : node.dependents) {
+                        for (int v = 0; v < dependent.inputs.length; v++) {
+                            if (dependent.inputs[v] == node) {
+                                dependent.changed |= CompiledExpression.variableBit(v);
+                            }
+                        }
+                        if (!dependent.queued) {
+                            dependent.queued = true;
+                            schedule(levels, dependent);
+                        }
+                    }
+                }
+            }
+        }
+        return new Update(formulas, recomputed, instructions, executed, System.nanoTime() - start);
+    }
+
+    private static void schedule(List<List<Node>> levels, Node node) {
+        while (levels.size() <= node.level) {
+            levels.add(new ArrayList<>());
+        }
+        levels.get(node.level).add(node);
+    }
+
+    /** Avalia um nó (entrada ou fórmula) e marca se o resultado mudou. */
+    private static void evaluate(Node node) {
+        double oldReal = node.real;
+        double oldImaginary = node.imaginary;
+        RuntimeException oldError = node.error;
+        node.executed = 0;
+
+        if (node.compiled == null) {
+            if (node.defined) {
+                node.real = node.newReal;
+                node.imaginary = node.newImaginary;
+                node.error = null;
+            }
+        } else {
+            RuntimeException inputError = null;
+            for (int v = 0; v < node.inputs.length && inputError == null; v++) {
+                Node input = node.inputs[v];
+                inputError = input.error;
+                node.varReal[v] = input.real;
+                node.varImaginary[v] = input.imaginary;
+            }
+            if (inputError != null) {
+                node.error = inputError;
+                node.full = true;
+            } else {
+                try {
+                    node.executed = node.compiled.evaluateChanged(node.varReal, node.varImaginary,
+                            node.regReal, node.regImaginary,
+                            node.full ? CompiledExpression.ALL_VARIABLES : node.changed);
+                    int result = node.compiled.resultRegister();
+                    node.real = node.regReal[result];
+                    node.imaginary = node.regImaginary[result];
+                    node.error = null;
+                    node.full = false;
+                } catch (ArithmeticException | IllegalArgumentException e) {
+                    node.error = e;
+                    node.full = true; // Os registradores ficaram pela metade
+                    node.executed = node.compiled.size();
+                }
+            }
+        }
+        node.changed = 0;
+        node.modified = node.error != oldError
+                || (node.error == null && (Double.doubleToLongBits(node.real) != Double.doubleToLongBits(oldReal)
+                        || Double.doubleToLongBits(node.imaginary) != Double.doubleToLongBits(oldImaginary)));
+    }
+
+    // --- Consulta ---
+
+    /**
+     * @param name O nome.
+     * @return O valor na última atualização.
+     * @throws IllegalArgumentException se o nome não existir, não estiver
+     * definido ou sua fórmula tiver um expoente não real.
+     * @throws ArithmeticException se sua fórmula (ou uma de que ela depende) dividir por zero.
+     */
+    public ComplexNumber value(String name) {
+        Node node = nodes.get(name);
+        if (node == null) {
+            throw new IllegalArgumentException("Variável não definida: " + name);
+        }
+        if (node.error instanceof ArithmeticException) {
+            throw new ArithmeticException(node.error.getMessage());
+        }
+        if (node.error != null) {
+            throw new IllegalArgumentException(node.error.getMessage());
+        }
+        return new ComplexNumber(node.real, node.imaginary);
+    }
+
+    /** @return Os nomes do workspace (entradas, fórmulas e nomes referenciados), na ordem de criação. */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(nodes.keySet());
+    }
+
+    /** @return A expressão de uma fórmula, ou null se 'name' não for uma fórmula. */
+    public String expression(String name) {
+        Node node = nodes.get(name);
+        return node == null ? null : node.source;
+    }
+
+    /** @return Os nomes de que 'name' depende diretamente (vazio para entradas). */
+    public List<String> dependencies(String name) {
+        Node node = nodes.get(name);
+        return node == null ? List.of() : node.compiled == null ? List.of() : node.compiled.variables();
+    }
+
+    /** @return Os nomes das fórmulas que dependem diretamente de 'name'. */
+    public List<String> dependents(String name) {
+        Node node = nodes.get(name);
+        List<String> names = new ArrayList<>();
+        if (node != null) {
+            for (Node dependent : node.dependents) {
+                names.add(dependent.name);
+            }
+        }
+        return names;
+    }
+}